@@ -34,6 +34,7 @@ public final class Constants {
         public static final String CONFIG_ATTRIBUTES_TABLE = "config-attributes";
         public static final String PROPERTIES_TABLE = "properties";
         public static final String PROPERTY_ATTRIBUTES_TABLE = "property-attributes";
+        public static final String CHANGE_LOG_TABLE = "change-log";
     }
 
     /**
@@ -43,6 +44,12 @@ public final class Constants {
 
         public static final String FETCH_SIZE = "fetch-size";
         public static final String DB_DIALECT = "db-dialect";
+        public static final String FETCH_CHUNK_SIZE = "fetch-chunk-size";
+        public static final String FETCH_PARALLELISM = "fetch-parallelism";
+        public static final String FETCH_ORDERED = "fetch-ordered";
+        public static final String SLOW_STATEMENT_THRESHOLD = "slow-statement-threshold";
+        public static final String STATEMENT_METRICS = "statement-metrics";
+        public static final String CHANGE_LOG_RETENTION = "change-log-retention";
         public static final String POSTGRE = "postgre";
         public static final String DEFAULT = "default";
 
@@ -66,6 +73,18 @@ public final class Constants {
         public static final String CONFIG_NAMES_VALUE = "config_names";
         public static final String CONFIG = "config-endpoint";
         public static final String CONFIG_VALUE = "config";
+        public static final String CONFIG_QUERY = "config-query-endpoint";
+        public static final String CONFIG_QUERY_VALUE = "config/query";
+        public static final String WATCH = "watch-endpoint";
+        public static final String WATCH_VALUE = "watch";
+        public static final String CACHE_STATS = "cache-stats-endpoint";
+        public static final String CACHE_STATS_VALUE = "cache_stats";
+        public static final String ADMISSION_STATS = "admission-stats-endpoint";
+        public static final String ADMISSION_STATS_VALUE = "admission_stats";
+        public static final String METRICS = "metrics-endpoint";
+        public static final String METRICS_VALUE = "metrics";
+        public static final String SLOW_STATEMENTS = "slow-statements-endpoint";
+        public static final String SLOW_STATEMENTS_VALUE = "slow_statements";
     }
 
     /**
@@ -97,6 +116,8 @@ public final class Constants {
         public static final String PATH_PARAM_NOT_PRESENT = "Path param is not presented.";
         public static final String REQUEST_PARAM_NOT_PRESENT = "Request param is not presented.";
         public static final String JSON_TO_CONFIG_ERROR = "JSON can not be parsed to config.";
+        public static final String JSON_TO_PATCH_ERROR = "JSON can not be parsed to patch.";
+        public static final String JSON_TO_QUERY_ERROR = "JSON can not be parsed to query.";
         public static final String CONFIG_ACCEPTED = "Accepted '%s' config.";
         public static final String CONFIG_ACCEPT_ERROR = "Config accept error.";
         public static final String CREATE_CONFIG_TABLE_ERROR = "'Configs' table can not be created.";
@@ -118,5 +139,51 @@ public final class Constants {
         public static final String PARAM_ENCODING_ERROR = "Param can not be encoded.";
         public static final String PARAM_DECODING_ERROR = "Param can not be decoded.";
         public static final String PARAM_NOT_PRESENTED= "The '%s' param is not presented.";
+        public static final String WRONG_PATCH_OPERATION = "Patch operation is wrong.";
+        public static final String PATCH_PROPERTY_NOT_FOUND = "Property '%s' is not found.";
+        public static final String PATCH_PROPERTY_EXISTS = "Property '%s' already exists.";
+        public static final String PATCH_CONFIG_NOT_FOUND = "Config '%s' is not found.";
+        public static final String PATCH_VERSION_ERROR = "Config '%s' has the '%d' version, expected '%d'.";
+        public static final String PATCH_CONFIG_ERROR = "Config can not be patched.";
+        public static final String WRONG_QUEUE_SIZE_VALUE = "Queue size value must be greater than zero.";
+        public static final String CONFIG_DISPATCH_ERROR = "Config '%s' can not be dispatched.";
+        public static final String WRONG_SEQUENCE_VALUE = "Sequence value must be greater or equal to zero.";
+        public static final String WRONG_WATCH_PARAM = "Watch param is wrong.";
+        public static final String WATCH_RESPONSE_ERROR = "Watch response can not be sent.";
+        public static final String RECEIVED_CHANGE_EVENTS_ERROR = "Change events can not be received.";
+        public static final String SERVICE_UNAVAILABLE = "Service is unavailable, try again later.";
+        public static final String WRONG_POOL_SIZE_VALUE = "Pool size value must be greater than zero.";
+        public static final String WRONG_COMPRESSION_LEVEL = "Compression level must be between -1 and 9.";
+        public static final String WRONG_CACHE_SIZE_VALUE = "Cache size value must be greater or equal to zero.";
+        public static final String WRONG_CACHE_AGE_VALUE = "Cache age value must be greater or equal to zero.";
+        public static final String WRONG_IN_FLIGHT_VALUE = "In-flight value must be greater than zero.";
+        public static final String WRONG_ADMISSION_QUEUE_VALUE = "Queue size value must be greater or equal to zero.";
+        public static final String WRONG_TIMEOUT_VALUE = "Timeout value must be greater or equal to zero.";
+        public static final String WRONG_REQUEST_TIMEOUT = "Request timeout is wrong.";
+        public static final String REQUEST_DEADLINE_EXCEEDED = "Request deadline is exceeded.";
+        public static final String WRONG_METRIC_TYPE = "Metric '%s' has another type.";
+        public static final String WRONG_METRIC_LABELS = "Metric labels must be pairs of names and values.";
+        public static final String SLOW_STATEMENT =
+                "Slow statement of '%s' took %d ms with %d rows, %d binds, %d batch: %s";
+        public static final String WRONG_HTTP_RESPONSE = "Wrong http response: '%s'.";
+        public static final String WRONG_BALANCING_VALUE = "Balancing value must be round-robin or least-outstanding.";
+        public static final String SNAPSHOT_READ_ERROR = "Snapshot '%s' can not be read.";
+        public static final String SNAPSHOT_WRITE_ERROR = "Snapshot '%s' can not be written.";
+        public static final String SNAPSHOT_SERVED = "Snapshot '%s' is served, its age is %d ms.";
+        public static final String MAPPED_FILE_READ_ERROR = "Mapped file '%s' can not be read.";
+        public static final String MAPPED_FILE_WRITE_ERROR = "Mapped file '%s' can not be written.";
+        public static final String MAPPED_FILE_SIZE_ERROR = "Mapped file can not be larger than 2 GB.";
+        public static final String WRONG_MAPPED_FILE = "Mapped file has a wrong format.";
+        public static final String WRONG_INTERVAL_VALUE = "Interval value must be greater or equal to zero.";
+        public static final String READ_ONLY_REPOSITORY = "Repository is read-only.";
+        public static final String CONFIG_VERSION_ERROR = "Config '%s' has another id or version.";
+        public static final String CONFIG_EXISTS_ERROR = "Config '%s' already exists.";
+        public static final String WAL_READ_ERROR = "Write-ahead log '%s' can not be read.";
+        public static final String WAL_WRITE_ERROR = "Write-ahead log '%s' can not be written.";
+        public static final String WRONG_EJECTION_FAILURES_VALUE = "Ejection failures value must be greater than zero.";
+        public static final String SAVE_CHANGE_LOG_ERROR = "Change log entries can not be saved.";
+        public static final String COMPACT_CHANGE_LOG_ERROR = "Change log can not be compacted.";
+        public static final String VIRTUAL_THREADS_NOT_SUPPORTED = "Virtual threads are not supported, " +
+                "the thread pool is used.";
     }
 }
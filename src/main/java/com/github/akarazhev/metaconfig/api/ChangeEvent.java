@@ -0,0 +1,258 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.ExtJsonable;
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_SEQUENCE_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_UPDATED_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_VERSION_VALUE;
+import static com.github.akarazhev.metaconfig.api.Configurable.ConfigBuilder.getLong;
+
+/**
+ * The configuration change event that contains a sequence, an operation, a name, a version and an updated time.
+ */
+public final class ChangeEvent implements ExtJsonable {
+    private final long sequence;
+    private final Operation operation;
+    private final String name;
+    private final int version;
+    private final long updated;
+
+    /**
+     * Operations of the change event.
+     */
+    public enum Operation {
+        // A configuration is created or updated
+        UPDATE,
+        // A configuration is removed
+        REMOVE,
+        // Events are lost and all configurations must be reloaded
+        RESET
+    }
+
+    private ChangeEvent(final Builder builder) {
+        this.sequence = builder.sequence;
+        this.operation = builder.operation;
+        this.name = builder.name;
+        this.version = builder.version;
+        this.updated = builder.updated;
+    }
+
+    /**
+     * Returns a sequence number of the event in a change log.
+     *
+     * @return a sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns an operation of the event.
+     *
+     * @return an operation.
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns a name of the changed configuration, it is empty for the reset operation.
+     *
+     * @return a configuration name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a version of the changed configuration.
+     *
+     * @return a configuration version.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a time of the change.
+     *
+     * @return an updated time in milliseconds.
+     */
+    public long getUpdated() {
+        return updated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void toJson(final Writer writer) throws IOException {
+        final JsonObject json = new JsonObject();
+        json.put("sequence", sequence);
+        json.put("operation", operation.name());
+        json.put("name", name);
+        json.put("version", version);
+        json.put("updated", updated);
+        json.toJson(writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ChangeEvent that = (ChangeEvent) o;
+        return sequence == that.sequence &&
+                version == that.version &&
+                updated == that.updated &&
+                operation == that.operation &&
+                name.equals(that.name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, operation, name, version, updated);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "sequence=" + sequence +
+                ", operation=" + operation +
+                ", name='" + name + '\'' +
+                ", version=" + version +
+                ", updated=" + updated +
+                '}';
+    }
+
+    /**
+     * Wraps and builds the instance of the configuration change event.
+     */
+    public final static class Builder {
+        private final Operation operation;
+        private final String name;
+        private long sequence;
+        private int version;
+        private long updated;
+
+        /**
+         * Constructs a configuration change event with required parameters.
+         *
+         * @param operation an operation.
+         * @param name      a configuration name.
+         */
+        public Builder(final Operation operation, final String name) {
+            this.operation = Validator.of(operation).get();
+            this.name = Validator.of(name).get();
+        }
+
+        /**
+         * Constructs a configuration change event based on the change event.
+         *
+         * @param event a configuration change event.
+         */
+        public Builder(final ChangeEvent event) {
+            final ChangeEvent prototype = Validator.of(event).get();
+            this.sequence = prototype.sequence;
+            this.operation = prototype.operation;
+            this.name = prototype.name;
+            this.version = prototype.version;
+            this.updated = prototype.updated;
+        }
+
+        /**
+         * Constructs a configuration change event based on the json object.
+         *
+         * @param jsonObject a json object with the configuration change event.
+         */
+        public Builder(final JsonObject jsonObject) {
+            final JsonObject prototype = Validator.of(jsonObject).get();
+            this.operation = Operation.valueOf(Validator.of((String) prototype.get("operation")).get());
+            this.name = Validator.of((String) prototype.get("name")).get();
+            sequence(getLong(prototype, "sequence"));
+            version((int) getLong(prototype, "version"));
+            updated(getLong(prototype, "updated"));
+        }
+
+        /**
+         * Constructs a configuration change event with a sequence number.
+         *
+         * @param sequence a sequence number.
+         * @return a builder of the configuration change event.
+         */
+        public Builder sequence(final long sequence) {
+            if (sequence >= 0) {
+                this.sequence = sequence;
+            } else {
+                throw new IllegalArgumentException(WRONG_SEQUENCE_VALUE);
+            }
+
+            return this;
+        }
+
+        /**
+         * Constructs a configuration change event with a version.
+         *
+         * @param version a configuration version.
+         * @return a builder of the configuration change event.
+         */
+        public Builder version(final int version) {
+            if (version >= 0) {
+                this.version = version;
+            } else {
+                throw new IllegalArgumentException(WRONG_VERSION_VALUE);
+            }
+
+            return this;
+        }
+
+        /**
+         * Constructs a configuration change event with an updated time.
+         *
+         * @param updated an updated time in milliseconds.
+         * @return a builder of the configuration change event.
+         */
+        public Builder updated(final long updated) {
+            if (updated >= 0) {
+                this.updated = updated;
+            } else {
+                throw new IllegalArgumentException(WRONG_UPDATED_VALUE);
+            }
+
+            return this;
+        }
+
+        /**
+         * Builds a configuration change event with required parameters.
+         *
+         * @return a builder of the configuration change event.
+         */
+        public ChangeEvent build() {
+            return new ChangeEvent(this);
+        }
+    }
+}
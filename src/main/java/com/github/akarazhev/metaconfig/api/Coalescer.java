@@ -0,0 +1,168 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.Validator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CONFIGS_ERROR;
+
+/**
+ * Coalesces concurrent reads of configuration models. Every name has at most one in-flight fetch,
+ * so concurrent requests for the same names share it and overlapped requests share the names they have in common.
+ * Writes invalidate in-flight fetches, so a read that starts after a write does not share a fetch that has started
+ * before it.
+ */
+final class Coalescer {
+    private final Function<Stream<String>, Stream<Config>> loader;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    // It is changed by every write, fetches of previous generations are not shared
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder fetched = new LongAdder();
+
+    /**
+     * Constructs a coalescer with a loader of configuration models.
+     *
+     * @param loader a function that loads configuration models by names.
+     */
+    Coalescer(final Function<Stream<String>, Stream<Config>> loader) {
+        this.loader = Validator.of(loader).get();
+    }
+
+    /**
+     * Returns configuration models for configuration names, names that are being fetched by other threads are
+     * not fetched again.
+     *
+     * @param stream a stream of names.
+     * @return a stream of configurations models.
+     */
+    Stream<Config> get(final Stream<String> stream) {
+        final Map<String, Flight> owned = new LinkedHashMap<>();
+        final Map<String, Flight> shared = new HashMap<>();
+        final long current = generation.get();
+        stream.distinct().forEach(name -> {
+            requested.increment();
+            final Flight flight = new Flight(current);
+            final Flight existed = flights.compute(name, (key, value) ->
+                    value != null && value.generation == current ? value : flight);
+            if (existed != flight) {
+                coalesced.increment();
+                shared.put(name, existed);
+            } else {
+                owned.put(name, flight);
+            }
+        });
+
+        final List<Config> configs = owned.isEmpty() ? new ArrayList<>() : fetch(owned);
+        if (shared.isEmpty()) {
+            return configs.stream();
+        }
+
+        try {
+            shared.values().forEach(flight -> flight.join().ifPresent(configs::add));
+        } catch (final CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ?
+                    (RuntimeException) e.getCause() : new RuntimeException(RECEIVED_CONFIGS_ERROR, e.getCause());
+        }
+        // Keep the order of the repository
+        configs.sort(Comparator.comparingLong(Config::getId));
+        return configs.stream();
+    }
+
+    /**
+     * Invalidates in-flight fetches, they are completed for their requests, but they are not shared by later ones.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Returns a number of requested names.
+     *
+     * @return a number of names.
+     */
+    long getRequested() {
+        return requested.sum();
+    }
+
+    /**
+     * Returns a number of names which shared an in-flight fetch of another request.
+     *
+     * @return a number of names.
+     */
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns a number of names which have been fetched by the loader.
+     *
+     * @return a number of names.
+     */
+    long getFetched() {
+        return fetched.sum();
+    }
+
+    private List<Config> fetch(final Map<String, Flight> owned) {
+        fetched.add(owned.size());
+        try {
+            final List<Config> configs = loader.apply(owned.keySet().stream()).collect(Collectors.toList());
+            configs.forEach(config -> complete(config.getName(), owned.get(config.getName()), Optional.of(config)));
+            // Complete names which are not found
+            owned.forEach((name, flight) -> complete(name, flight, Optional.empty()));
+            return configs;
+        } catch (final Throwable e) {
+            // An error completes flights too, so requests that share them do not wait forever
+            owned.forEach((name, flight) -> {
+                flights.remove(name, flight);
+                flight.completeExceptionally(e);
+            });
+
+            throw e;
+        }
+    }
+
+    private void complete(final String name, final Flight flight, final Optional<Config> config) {
+        if (flight != null) {
+            // Later requests start a new fetch and see changes that are made after this one
+            flights.remove(name, flight);
+            flight.complete(config);
+        }
+    }
+
+    /**
+     * An in-flight fetch of a configuration model with the generation in which it has started.
+     */
+    private final static class Flight extends CompletableFuture<Optional<Config>> {
+        private final long generation;
+
+        private Flight(final long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,530 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.ExtJsonable;
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonArray;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_PROPERTY_EXISTS;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_PROPERTY_NOT_FOUND;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_PATCH_OPERATION;
+
+/**
+ * The patch model that contains operations to change a configuration model partially.
+ * Every operation addresses a property by paths, an empty path addresses the configuration itself.
+ */
+public final class ConfigPatch implements ExtJsonable {
+    private final Collection<Operation> operations;
+
+    public enum Type {
+        ADD,
+        REPLACE,
+        REMOVE,
+        SET_ATTRIBUTE,
+        REMOVE_ATTRIBUTE
+    }
+
+    private ConfigPatch(final Builder builder) {
+        // The builder may be used again, so the patch keeps a copy of its operations
+        this.operations = Collections.unmodifiableList(new ArrayList<>(builder.operations));
+    }
+
+    /**
+     * Returns operations of the patch.
+     *
+     * @return a stream of operations.
+     */
+    public Stream<Operation> getOperations() {
+        return operations.stream();
+    }
+
+    /**
+     * Returns true if the patch does not contain operations.
+     *
+     * @return true if the patch is empty.
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Applies the patch to a configuration model. The version of the model is not changed.
+     *
+     * @param config a configuration model.
+     * @return a patched configuration model.
+     */
+    public Config apply(final Config config) {
+        final Map<String, String> attributes = new HashMap<>(Validator.of(config).get().getAttributes().get());
+        Collection<Property> properties = new ArrayList<>(config.getProperties().collect(Collectors.toList()));
+        for (final Operation operation : operations) {
+            final String[] paths = operation.paths;
+            if (Type.ADD.equals(operation.type)) {
+                properties = update(properties, paths, 0, container -> add(container, operation.property));
+            } else if (paths.length > 0) {
+                final String name = paths[paths.length - 1];
+                final UnaryOperator<Property> action = property -> apply(operation, property);
+                properties = update(properties, Arrays.copyOf(paths, paths.length - 1), 0,
+                        container -> update(container, name, action));
+            } else if (Type.SET_ATTRIBUTE.equals(operation.type)) {
+                attributes.put(operation.key, operation.value);
+            } else if (Type.REMOVE_ATTRIBUTE.equals(operation.type)) {
+                attributes.remove(operation.key);
+            } else {
+                throw new IllegalArgumentException(WRONG_PATCH_OPERATION);
+            }
+        }
+
+        return new Config.Builder(config).attributes(attributes).properties(properties).build();
+    }
+
+    /**
+     * Returns a patch that transforms the source configuration model into the target one.
+     * Properties are matched by names, a changed property produces the replace operation,
+     * a changed attribute produces the set or remove attribute operation.
+     *
+     * @param source a source configuration model.
+     * @param target a target configuration model.
+     * @return a configuration patch.
+     */
+    public static ConfigPatch diff(final Config source, final Config target) {
+        final Builder builder = new Builder();
+        final String[] paths = new String[0];
+        diff(builder, paths, Validator.of(source).get().getAttributes().get(),
+                Validator.of(target).get().getAttributes().get());
+        diff(builder, paths, source.getProperties(), target.getProperties());
+        return builder.build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void toJson(final Writer writer) throws IOException {
+        final JsonObject json = new JsonObject();
+        json.put("operations", operations);
+        json.toJson(writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ConfigPatch patch = (ConfigPatch) o;
+        return Objects.equals(new ArrayList<>(operations), new ArrayList<>(patch.operations));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(new ArrayList<>(operations));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ConfigPatch{" +
+                "operations=" + operations +
+                '}';
+    }
+
+    private static Property apply(final Operation operation, final Property property) {
+        switch (operation.type) {
+            case REPLACE:
+                return new Property.Builder(operation.property).
+                        properties(property.getProperties().collect(Collectors.toList())).
+                        build();
+            case REMOVE:
+                return null;
+            case SET_ATTRIBUTE:
+                return new Property.Builder(property).attribute(operation.key, operation.value).build();
+            case REMOVE_ATTRIBUTE:
+                final Map<String, String> attributes = new HashMap<>(property.getAttributes().get());
+                attributes.remove(operation.key);
+                return new Property.Builder(property).attributes(attributes).build();
+            default:
+                throw new IllegalArgumentException(WRONG_PATCH_OPERATION);
+        }
+    }
+
+    private static Collection<Property> update(final Collection<Property> properties, final String[] paths,
+                                               final int i, final UnaryOperator<Collection<Property>> action) {
+        if (i < paths.length) {
+            final UnaryOperator<Property> next = property -> new Property.Builder(property).
+                    properties(update(property.getProperties().collect(Collectors.toList()), paths, i + 1, action)).
+                    build();
+            return update(properties, paths[i], next);
+        }
+
+        return action.apply(properties);
+    }
+
+    private static Collection<Property> update(final Collection<Property> properties, final String name,
+                                               final UnaryOperator<Property> action) {
+        final Collection<Property> updated = new ArrayList<>(properties.size());
+        boolean found = false;
+        for (final Property property : properties) {
+            if (!found && name.equals(property.getName())) {
+                found = true;
+                final Property result = action.apply(property);
+                if (result != null) {
+                    updated.add(result);
+                }
+            } else {
+                updated.add(property);
+            }
+        }
+
+        if (!found) {
+            throw new IllegalArgumentException(String.format(PATCH_PROPERTY_NOT_FOUND, name));
+        }
+
+        return updated;
+    }
+
+    private static Collection<Property> add(final Collection<Property> properties, final Property property) {
+        if (properties.stream().anyMatch(p -> p.getName().equals(property.getName()))) {
+            throw new IllegalArgumentException(String.format(PATCH_PROPERTY_EXISTS, property.getName()));
+        }
+
+        final Collection<Property> updated = new ArrayList<>(properties);
+        updated.add(property);
+        return updated;
+    }
+
+    private static void diff(final Builder builder, final String[] paths, final Map<String, String> source,
+                             final Map<String, String> target) {
+        for (final String key : source.keySet()) {
+            if (!target.containsKey(key)) {
+                builder.removeAttribute(paths, key);
+            }
+        }
+
+        for (final Map.Entry<String, String> entry : target.entrySet()) {
+            if (!entry.getValue().equals(source.get(entry.getKey()))) {
+                builder.attribute(paths, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static void diff(final Builder builder, final String[] paths, final Stream<Property> source,
+                             final Stream<Property> target) {
+        final Map<String, Property> sourceProps = getByNames(source);
+        final Map<String, Property> targetProps = getByNames(target);
+        for (final String name : sourceProps.keySet()) {
+            if (!targetProps.containsKey(name)) {
+                builder.remove(getPaths(paths, name));
+            }
+        }
+
+        for (final Property targetProp : targetProps.values()) {
+            final Property sourceProp = sourceProps.get(targetProp.getName());
+            if (sourceProp == null) {
+                builder.add(paths, targetProp);
+            } else {
+                final String[] propPaths = getPaths(paths, targetProp.getName());
+                if (equals(sourceProp, targetProp)) {
+                    diff(builder, propPaths, sourceProp.getAttributes().get(), targetProp.getAttributes().get());
+                } else {
+                    builder.replace(propPaths, new Property.Builder(targetProp).
+                            properties(Collections.emptyList()).
+                            build());
+                }
+
+                diff(builder, propPaths, sourceProp.getProperties(), targetProp.getProperties());
+            }
+        }
+    }
+
+    private static Map<String, Property> getByNames(final Stream<Property> stream) {
+        final Map<String, Property> properties = new LinkedHashMap<>();
+        stream.forEach(property -> properties.putIfAbsent(property.getName(), property));
+        return properties;
+    }
+
+    private static String[] getPaths(final String[] paths, final String name) {
+        final String[] propPaths = Arrays.copyOf(paths, paths.length + 1);
+        propPaths[paths.length] = name;
+        return propPaths;
+    }
+
+    private static boolean equals(final Property source, final Property target) {
+        return Objects.equals(source.getType(), target.getType()) &&
+                Objects.equals(source.getValue(), target.getValue()) &&
+                Objects.equals(source.getCaption(), target.getCaption()) &&
+                Objects.equals(source.getDescription(), target.getDescription());
+    }
+
+    /**
+     * The patch operation that contains a type, paths, a property and an attribute.
+     */
+    public final static class Operation implements ExtJsonable {
+        private final Type type;
+        private final String[] paths;
+        private final Property property;
+        private final String key;
+        private final String value;
+
+        private Operation(final Type type, final String[] paths, final Property property, final String key,
+                          final String value) {
+            this.type = type;
+            this.paths = paths;
+            this.property = property;
+            this.key = key;
+            this.value = value;
+        }
+
+        private Operation(final JsonObject jsonObject) {
+            final JsonObject prototype = Validator.of(jsonObject).get();
+            this.type = Type.valueOf(Validator.of((String) prototype.get("type")).get());
+            final JsonArray jsonPaths = (JsonArray) prototype.get("paths");
+            this.paths = jsonPaths != null ?
+                    jsonPaths.stream().map(Objects::toString).toArray(String[]::new) :
+                    new String[0];
+            final JsonObject jsonProperty = (JsonObject) prototype.get("property");
+            this.property = jsonProperty != null ? new Property.Builder(jsonProperty).build() : null;
+            this.key = (String) prototype.get("key");
+            this.value = (String) prototype.get("value");
+            validate(this);
+        }
+
+        /**
+         * Returns a type of the operation.
+         *
+         * @return an operation type.
+         */
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Returns paths to a property. An empty path refers to the configuration model.
+         *
+         * @return property paths.
+         */
+        public String[] getPaths() {
+            return paths.clone();
+        }
+
+        /**
+         * Returns a property to add or replace (optional).
+         *
+         * @return a property.
+         */
+        public Optional<Property> getProperty() {
+            return Optional.ofNullable(property);
+        }
+
+        /**
+         * Returns a key of the attribute (optional).
+         *
+         * @return an attribute key.
+         */
+        public Optional<String> getKey() {
+            return Optional.ofNullable(key);
+        }
+
+        /**
+         * Returns a value of the attribute (optional).
+         *
+         * @return an attribute value.
+         */
+        public Optional<String> getValue() {
+            return Optional.ofNullable(value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void toJson(final Writer writer) throws IOException {
+            final JsonObject json = new JsonObject();
+            json.put("type", type.name());
+            json.put("paths", new JsonArray(Arrays.asList(paths)));
+            json.put("property", property);
+            json.put("key", key);
+            json.put("value", value);
+            json.toJson(writer);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Operation operation = (Operation) o;
+            return type == operation.type &&
+                    Arrays.equals(paths, operation.paths) &&
+                    Objects.equals(property, operation.property) &&
+                    Objects.equals(key, operation.key) &&
+                    Objects.equals(value, operation.value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, Arrays.hashCode(paths), property, key, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "Operation{" +
+                    "type=" + type +
+                    ", paths=" + Arrays.toString(paths) +
+                    ", property=" + property +
+                    ", key='" + key + '\'' +
+                    ", value='" + value + '\'' +
+                    '}';
+        }
+
+        private static Operation validate(final Operation operation) {
+            return Validator.of(operation).
+                    validate(o -> !Type.ADD.equals(o.type) && !Type.REPLACE.equals(o.type) || o.property != null,
+                            WRONG_PATCH_OPERATION).
+                    validate(o -> !Type.REPLACE.equals(o.type) && !Type.REMOVE.equals(o.type) || o.paths.length > 0,
+                            WRONG_PATCH_OPERATION).
+                    validate(o -> !Type.SET_ATTRIBUTE.equals(o.type) || o.key != null && o.value != null,
+                            WRONG_PATCH_OPERATION).
+                    validate(o -> !Type.REMOVE_ATTRIBUTE.equals(o.type) || o.key != null,
+                            WRONG_PATCH_OPERATION).get();
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the configuration patch model.
+     */
+    public final static class Builder {
+        private final List<Operation> operations = new LinkedList<>();
+
+        /**
+         * The default constructor.
+         */
+        public Builder() {
+            // Empty implementation
+        }
+
+        /**
+         * Constructs a configuration patch model based on the json object.
+         *
+         * @param jsonObject a json object with the configuration patch model.
+         */
+        public Builder(final JsonObject jsonObject) {
+            final JsonArray jsonOperations = (JsonArray) Validator.of(jsonObject).get().get("operations");
+            if (jsonOperations != null) {
+                jsonOperations.forEach(json -> this.operations.add(new Operation((JsonObject) json)));
+            }
+        }
+
+        /**
+         * Constructs a configuration patch model with an operation that adds a property by paths.
+         *
+         * @param paths    paths to a parent property, an empty path refers to the configuration model.
+         * @param property a property to add.
+         * @return a builder of the configuration patch model.
+         */
+        public Builder add(final String[] paths, final Property property) {
+            return operation(Type.ADD, paths, Validator.of(property).get(), null, null);
+        }
+
+        /**
+         * Constructs a configuration patch model with an operation that replaces a property by paths.
+         * Sub-properties of the replaced property are kept.
+         *
+         * @param paths    paths to a property.
+         * @param property a new property.
+         * @return a builder of the configuration patch model.
+         */
+        public Builder replace(final String[] paths, final Property property) {
+            return operation(Type.REPLACE, paths, Validator.of(property).get(), null, null);
+        }
+
+        /**
+         * Constructs a configuration patch model with an operation that removes a property by paths.
+         *
+         * @param paths paths to a property.
+         * @return a builder of the configuration patch model.
+         */
+        public Builder remove(final String[] paths) {
+            return operation(Type.REMOVE, paths, null, null, null);
+        }
+
+        /**
+         * Constructs a configuration patch model with an operation that sets an attribute.
+         *
+         * @param paths paths to a property, an empty path refers to the configuration model.
+         * @param key   a key of the attribute.
+         * @param value a value of the attribute.
+         * @return a builder of the configuration patch model.
+         */
+        public Builder attribute(final String[] paths, final String key, final String value) {
+            return operation(Type.SET_ATTRIBUTE, paths, null, Validator.of(key).get(), Validator.of(value).get());
+        }
+
+        /**
+         * Constructs a configuration patch model with an operation that removes an attribute.
+         *
+         * @param paths paths to a property, an empty path refers to the configuration model.
+         * @param key   a key of the attribute.
+         * @return a builder of the configuration patch model.
+         */
+        public Builder removeAttribute(final String[] paths, final String key) {
+            return operation(Type.REMOVE_ATTRIBUTE, paths, null, Validator.of(key).get(), null);
+        }
+
+        /**
+         * Builds a configuration patch model with operations.
+         *
+         * @return a configuration patch model.
+         */
+        public ConfigPatch build() {
+            return new ConfigPatch(this);
+        }
+
+        private Builder operation(final Type type, final String[] paths, final Property property, final String key,
+                                  final String value) {
+            this.operations.add(Operation.validate(new Operation(type, Validator.of(paths).get().clone(), property,
+                    key, value)));
+            return this;
+        }
+    }
+}
@@ -10,6 +10,11 @@
  * limitations under the License. */
 package com.github.akarazhev.metaconfig.api;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -24,6 +29,59 @@ interface ConfigRepository {
      */
     Stream<Config> findByNames(final Stream<String> stream);
 
+    /**
+     * Returns configuration models for configuration names asynchronously. By default they are read on the executor.
+     *
+     * @param stream   a stream of names.
+     * @param executor an executor of blocking reads.
+     * @return a future of a stream of configuration models.
+     */
+    default CompletableFuture<Stream<Config>> findByNamesAsync(final Stream<String> stream, final Executor executor) {
+        final List<String> names = stream.collect(Collectors.toList());
+        return CompletableFuture.supplyAsync(() -> findByNames(names.stream()), executor);
+    }
+
+    /**
+     * Returns all configuration models ordered by ids.
+     *
+     * @return a stream of configurations models.
+     */
+    Stream<Config> findAll();
+
+    /**
+     * Passes all configuration models ordered by ids to the consumer one by one while they are read.
+     *
+     * @param consumer a consumer of configuration models.
+     */
+    void forEach(final Consumer<Config> consumer);
+
+    /**
+     * Returns projections of all configuration models that have only ids, names, versions and updated times.
+     *
+     * @return a stream of configurations models without properties.
+     */
+    Stream<Config> findVersions();
+
+    /**
+     * Returns projections of configuration models by names that have only ids, names, versions and updated times.
+     *
+     * @param stream a stream of names.
+     * @return a stream of configurations models without properties.
+     */
+    Stream<Config> findVersions(final Stream<String> stream);
+
+    /**
+     * Returns changes of configuration models after a sequence number. By default a repository has no change log
+     * and returns no changes.
+     *
+     * @param sequence a sequence number of the last received change.
+     * @param size     a maximum number of changes.
+     * @return a stream of change events ordered by sequence numbers.
+     */
+    default Stream<ChangeEvent> findChanges(final long sequence, final int size) {
+        return Stream.empty();
+    }
+
     /**
      * Returns all configuration names.
      *
@@ -47,6 +105,29 @@ interface ConfigRepository {
      */
     Stream<Config> saveAndFlush(final Stream<Config> stream);
 
+    /**
+     * Saves and flushes configuration models asynchronously. By default they are written on the executor.
+     *
+     * @param stream   a stream of configuration models.
+     * @param executor an executor of blocking writes.
+     * @return a future of a stream of updated configuration models.
+     */
+    default CompletableFuture<Stream<Config>> saveAndFlushAsync(final Stream<Config> stream, final Executor executor) {
+        final List<Config> configs = stream.collect(Collectors.toList());
+        return CompletableFuture.supplyAsync(() -> saveAndFlush(configs.stream()), executor);
+    }
+
+    /**
+     * Patches a configuration model. Only changed properties and attributes are written.
+     *
+     * @param name    a configuration name.
+     * @param version an expected version of the configuration model.
+     * @param patch   a configuration patch.
+     * @return a new version of the configuration model.
+     * @throws VersionConflictException when the configuration model has another version.
+     */
+    int patch(final String name, final int version, final ConfigPatch patch);
+
     /**
      * Deletes configuration models.
      *
@@ -54,4 +135,11 @@ interface ConfigRepository {
      * @return a number of deleted models.
      */
     int delete(final Stream<String> stream);
+
+    /**
+     * Releases resources of the repository, e.g. threads, connections and files. By default nothing is released.
+     */
+    default void close() {
+        // Nothing to release
+    }
 }
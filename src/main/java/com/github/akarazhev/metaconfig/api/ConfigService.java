@@ -10,7 +10,9 @@
  * limitations under the License. */
 package com.github.akarazhev.metaconfig.api;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
@@ -25,6 +27,25 @@ public interface ConfigService {
      */
     Stream<Config> update(final Stream<Config> stream);
 
+    /**
+     * Updates configuration models asynchronously, a calling thread is not blocked.
+     *
+     * @param stream a stream of configuration models.
+     * @return a future of a stream of updated configuration models.
+     */
+    CompletableFuture<Stream<Config>> updateAsync(final Stream<Config> stream);
+
+    /**
+     * Patches a configuration model if it has the expected version.
+     *
+     * @param name    a configuration name.
+     * @param version an expected version of the configuration model.
+     * @param patch   a configuration patch.
+     * @return a new version of the configuration model.
+     * @throws VersionConflictException when the configuration model has another version.
+     */
+    int patch(final String name, final int version, final ConfigPatch patch);
+
     /**
      * Returns all configuration names.
      *
@@ -55,6 +76,47 @@ public interface ConfigService {
      */
     Stream<Config> get(final Stream<String> stream);
 
+    /**
+     * Returns configuration models by names asynchronously, a calling thread is not blocked.
+     *
+     * @param stream a stream of names.
+     * @return a future of a stream of configurations models.
+     */
+    CompletableFuture<Stream<Config>> getAsync(final Stream<String> stream);
+
+    /**
+     * Passes all configuration models to the consumer one by one while they are read.
+     *
+     * @param consumer a consumer of configuration models.
+     */
+    void forEach(final Consumer<Config> consumer);
+
+    /**
+     * Returns projections of all configuration models that have only ids, names, versions and updated times.
+     *
+     * @return a stream of configurations models without properties.
+     */
+    Stream<Config> getVersions();
+
+    /**
+     * Returns projections of configuration models by names that have only ids, names, versions and updated times.
+     *
+     * @param stream a stream of names.
+     * @return a stream of configurations models without properties.
+     */
+    Stream<Config> getVersions(final Stream<String> stream);
+
+    /**
+     * Returns changes of configuration models after a sequence number, e.g. to catch up a replica or a cache
+     * after a restart. Changes are returned only by a DB repository with the change log table,
+     * other repositories return no changes.
+     *
+     * @param sequence a sequence number of the last received change.
+     * @param size     a maximum number of changes.
+     * @return a stream of change events ordered by sequence numbers.
+     */
+    Stream<ChangeEvent> getChanges(final long sequence, final int size);
+
     /**
      * Removes configuration models by names.
      *
@@ -71,9 +133,39 @@ public interface ConfigService {
     void accept(final Stream<String> stream);
 
     /**
-     * Adds a consumer to provide an action.
+     * Adds a consumer to provide an action. The consumer replaces a previously added one and
+     * a null value removes it.
      *
      * @param consumer an implementation of the consumer.
      */
     void addConsumer(final Consumer<Config> consumer);
+
+    /**
+     * Subscribes a consumer to accepted configuration models that are matched by a filter.
+     * The consumer is called asynchronously and receives only the latest version of a model.
+     *
+     * @param filter   a filter of configuration models.
+     * @param consumer an implementation of the consumer.
+     * @return a subscription.
+     */
+    Subscription subscribe(final Predicate<Config> filter, final Consumer<Config> consumer);
+
+    /**
+     * Subscribes a consumer to accepted configuration models by names.
+     * The consumer is called asynchronously and receives only the latest version of a model.
+     *
+     * @param stream   a stream of names.
+     * @param consumer an implementation of the consumer.
+     * @return a subscription.
+     */
+    Subscription subscribe(final Stream<String> stream, final Consumer<Config> consumer);
+
+    /**
+     * Watches changes of configuration models. The consumer is called asynchronously with events
+     * that contain a name and a version of an updated or removed configuration model.
+     *
+     * @param consumer an implementation of the consumer.
+     * @return a subscription.
+     */
+    Subscription watch(final Consumer<ChangeEvent> consumer);
 }
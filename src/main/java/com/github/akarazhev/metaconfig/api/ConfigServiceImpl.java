@@ -10,18 +10,60 @@
  * limitations under the License. */
 package com.github.akarazhev.metaconfig.api;
 
+import com.github.akarazhev.metaconfig.extension.Metrics;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.REMOVE;
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.UPDATE;
+import static com.github.akarazhev.metaconfig.extension.Metrics.REPOSITORY_DURATION;
+
 /**
  * {@inheritDoc}
  */
-final class ConfigServiceImpl implements ConfigService {
+final class ConfigServiceImpl implements ConfigService, Closeable {
     private final ConfigRepository configRepository;
-    private Consumer<Config> consumer;
+    private final Coalescer coalescer;
+    private final ExecutorService ownExecutor;
+    // Executes dispatching and asynchronous requests of repositories that do not have own ones
+    private final Executor executor;
+    private final Dispatcher<Config> configDispatcher;
+    private final Dispatcher<ChangeEvent> eventDispatcher;
+    private volatile Subscription consumerSubscription;
 
     private ConfigServiceImpl(final Builder builder) {
         this.configRepository = builder.configRepository;
+        this.coalescer = new Coalescer(names -> time("findByNames", () -> configRepository.findByNames(names)));
+        if (builder.executor != null) {
+            this.ownExecutor = null;
+            this.executor = builder.executor;
+        } else {
+            this.ownExecutor = Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable, "config-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownExecutor;
+        }
+
+        this.configDispatcher = new Dispatcher.Builder<>(Config::getName, Config::getVersion, executor).
+                queueSize(builder.queueSize).
+                build();
+        this.eventDispatcher = new Dispatcher.Builder<>(ChangeEvent::getName, ChangeEvent::getUpdated, executor).
+                queueSize(builder.queueSize).
+                build();
     }
 
     /**
@@ -29,7 +71,46 @@ final class ConfigServiceImpl implements ConfigService {
      */
     @Override
     public Stream<Config> update(final Stream<Config> stream) {
-        return configRepository.saveAndFlush(stream);
+        final Stream<Config> configs;
+        try {
+            configs = time("saveAndFlush", () -> configRepository.saveAndFlush(stream));
+        } finally {
+            coalescer.invalidate();
+        }
+
+        return publish(configs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Stream<Config>> updateAsync(final Stream<Config> stream) {
+        return timeAsync("saveAndFlush", () -> configRepository.saveAndFlushAsync(stream, executor)).
+                whenComplete((configs, throwable) -> coalescer.invalidate()).
+                thenApply(this::publish);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patch(final String name, final int version, final ConfigPatch patch) {
+        final int patchedVersion;
+        try {
+            patchedVersion = time("patch", () -> configRepository.patch(name, version, patch));
+        } finally {
+            coalescer.invalidate();
+        }
+
+        if (eventDispatcher.hasSubscribers()) {
+            eventDispatcher.publish(new ChangeEvent.Builder(UPDATE, name).
+                    version(patchedVersion).
+                    updated(Clock.systemDefaultZone().millis()).
+                    build());
+        }
+
+        return patchedVersion;
     }
 
     /**
@@ -37,7 +118,7 @@ final class ConfigServiceImpl implements ConfigService {
      */
     @Override
     public Stream<String> getNames() {
-        return configRepository.findNames();
+        return time("findNames", configRepository::findNames);
     }
 
     /**
@@ -45,7 +126,7 @@ final class ConfigServiceImpl implements ConfigService {
      */
     @Override
     public PageResponse getNames(final PageRequest request) {
-        return configRepository.findByPageRequest(request);
+        return time("findByPageRequest", () -> configRepository.findByPageRequest(request));
     }
 
     /**
@@ -53,7 +134,7 @@ final class ConfigServiceImpl implements ConfigService {
      */
     @Override
     public Stream<Config> get() {
-        return get(getNames());
+        return time("findAll", configRepository::findAll);
     }
 
     /**
@@ -61,7 +142,53 @@ final class ConfigServiceImpl implements ConfigService {
      */
     @Override
     public Stream<Config> get(final Stream<String> stream) {
-        return configRepository.findByNames(stream);
+        // The tiered repository coalesces reads of the origin itself, configs of the local tier are returned at once
+        return configRepository instanceof TieredConfigRepository ?
+                configRepository.findByNames(stream) :
+                coalescer.get(stream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Stream<Config>> getAsync(final Stream<String> stream) {
+        return timeAsync("findByNames", () -> configRepository.findByNamesAsync(stream, executor));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final Consumer<Config> consumer) {
+        time("forEach", () -> {
+            configRepository.forEach(consumer);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> getVersions() {
+        return time("findVersions", () -> configRepository.findVersions());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> getVersions(final Stream<String> stream) {
+        return time("findVersions", () -> configRepository.findVersions(stream));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<ChangeEvent> getChanges(final long sequence, final int size) {
+        return time("findChanges", () -> configRepository.findChanges(sequence, size));
     }
 
     /**
@@ -69,7 +196,22 @@ final class ConfigServiceImpl implements ConfigService {
      */
     @Override
     public int remove(final Stream<String> stream) {
-        return configRepository.delete(stream);
+        final List<String> names = stream.collect(Collectors.toList());
+        final int count;
+        try {
+            count = time("delete", () -> configRepository.delete(names.stream()));
+        } finally {
+            coalescer.invalidate();
+        }
+
+        if (count > 0 && eventDispatcher.hasSubscribers()) {
+            final long updated = Clock.systemDefaultZone().millis();
+            names.forEach(name -> eventDispatcher.publish(new ChangeEvent.Builder(REMOVE, name).
+                    updated(updated).
+                    build()));
+        }
+
+        return count;
     }
 
     /**
@@ -77,11 +219,22 @@ final class ConfigServiceImpl implements ConfigService {
      */
     @Override
     public void accept(final Stream<String> stream) {
-        if (configRepository instanceof WebConfigRepository) {
-            ((WebConfigRepository) configRepository).accept(stream);
+        final List<String> names = stream.collect(Collectors.toList());
+        coalescer.invalidate();
+        if (configRepository instanceof TieredConfigRepository) {
+            // Other nodes have changed the configs, they are read from the origin on the next access
+            ((TieredConfigRepository) configRepository).invalidate(names.stream());
+        }
+
+        final ConfigRepository repository = getOrigin();
+        if (repository instanceof WebConfigRepository) {
+            ((WebConfigRepository) repository).accept(names.stream());
         } else {
-            if (consumer != null) {
-                get(stream).forEach(config -> consumer.accept(config));
+            if (configDispatcher.hasSubscribers() || eventDispatcher.hasSubscribers()) {
+                get(names.stream()).forEach(config -> {
+                    configDispatcher.publish(config);
+                    eventDispatcher.publish(getEvent(config));
+                });
             }
         }
     }
@@ -90,8 +243,103 @@ final class ConfigServiceImpl implements ConfigService {
      * {@inheritDoc}
      */
     @Override
-    public void addConsumer(final Consumer<Config> consumer) {
-        this.consumer = consumer;
+    public synchronized void addConsumer(final Consumer<Config> consumer) {
+        if (consumerSubscription != null) {
+            consumerSubscription.cancel();
+        }
+
+        consumerSubscription = consumer != null ? subscribe(config -> true, consumer) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Subscription subscribe(final Predicate<Config> filter, final Consumer<Config> consumer) {
+        return configDispatcher.subscribe(filter, consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Subscription subscribe(final Stream<String> stream, final Consumer<Config> consumer) {
+        final Set<String> names = stream.collect(Collectors.toSet());
+        return subscribe(config -> names.contains(config.getName()), consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Subscription watch(final Consumer<ChangeEvent> consumer) {
+        final ConfigRepository repository = getOrigin();
+        if (repository instanceof WebConfigRepository) {
+            return ((WebConfigRepository) repository).watch(consumer);
+        }
+
+        return eventDispatcher.subscribe(event -> true, consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        configDispatcher.close();
+        eventDispatcher.close();
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+
+
+        configRepository.close();
+    }
+
+    /**
+     * Returns a coalescer of concurrent reads.
+     *
+     * @return a coalescer.
+     */
+    Coalescer getCoalescer() {
+        return coalescer;
+    }
+
+    private ConfigRepository getOrigin() {
+        return configRepository instanceof TieredConfigRepository ?
+                ((TieredConfigRepository) configRepository).getOrigin() :
+                configRepository;
+    }
+
+    private <T> T time(final String operation, final Supplier<T> supplier) {
+        final long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            Metrics.getInstance().histogram(REPOSITORY_DURATION, "operation", operation).recordSince(start);
+        }
+    }
+
+    private <T> CompletableFuture<T> timeAsync(final String operation, final Supplier<CompletableFuture<T>> supplier) {
+        final long start = System.nanoTime();
+        return supplier.get().whenComplete((result, throwable) ->
+                Metrics.getInstance().histogram(REPOSITORY_DURATION, "operation", operation).recordSince(start));
+    }
+
+    private Stream<Config> publish(final Stream<Config> stream) {
+        final List<Config> configs = stream.collect(Collectors.toList());
+        if (eventDispatcher.hasSubscribers()) {
+            configs.forEach(config -> eventDispatcher.publish(getEvent(config)));
+        }
+
+        return configs.stream();
+    }
+
+    private ChangeEvent getEvent(final Config config) {
+        return new ChangeEvent.Builder(UPDATE, config.getName()).
+                version(config.getVersion()).
+                updated(config.getUpdated()).
+                build();
     }
 
     /**
@@ -99,6 +347,8 @@ final class ConfigServiceImpl implements ConfigService {
      */
     final static class Builder {
         private final ConfigRepository configRepository;
+        private Executor executor;
+        private int queueSize = Dispatcher.DEFAULT_QUEUE_SIZE;
 
         /**
          * Constructs a config service with a required parameter.
@@ -109,6 +359,28 @@ final class ConfigServiceImpl implements ConfigService {
             this.configRepository = configRepository;
         }
 
+        /**
+         * Constructs a config service with an executor to dispatch configuration models to subscribers.
+         *
+         * @param executor an executor.
+         * @return a builder of the config service.
+         */
+        Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Constructs a config service with a size of subscriber queues.
+         *
+         * @param queueSize a maximum number of pending configuration models per subscriber.
+         * @return a builder of the config service.
+         */
+        Builder queueSize(final int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
         /**
          * Builds a config service with a required parameter.
          *
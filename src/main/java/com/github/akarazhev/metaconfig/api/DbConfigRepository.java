@@ -13,6 +13,7 @@ package com.github.akarazhev.metaconfig.api;
 
 import com.github.akarazhev.metaconfig.api.sql.PostgreSQL;
 import com.github.akarazhev.metaconfig.api.sql.SQL;
+import com.github.akarazhev.metaconfig.extension.FlightEvents;
 import com.github.akarazhev.metaconfig.extension.Validator;
 
 import javax.sql.DataSource;
@@ -21,6 +22,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -29,42 +32,93 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.github.akarazhev.metaconfig.Constants.Mapping.CHANGE_LOG_TABLE;
 import static com.github.akarazhev.metaconfig.Constants.Mapping.CONFIGS_TABLE;
 import static com.github.akarazhev.metaconfig.Constants.Mapping.CONFIG_ATTRIBUTES_TABLE;
 import static com.github.akarazhev.metaconfig.Constants.Mapping.PROPERTIES_TABLE;
 import static com.github.akarazhev.metaconfig.Constants.Mapping.PROPERTY_ATTRIBUTES_TABLE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.COMPACT_CHANGE_LOG_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.CREATE_CONFIG_TABLE_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.DB_CONNECTION_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.DB_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.DB_ROLLBACK_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.DELETE_CONFIGS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.INSERT_ATTRIBUTES_ERROR_MSG;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_CONFIG_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_CONFIG_NOT_FOUND;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_PROPERTY_EXISTS;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_PROPERTY_NOT_FOUND;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_VERSION_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CHANGE_EVENTS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CONFIGS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CONFIG_NAMES_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_PAGE_RESPONSE_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.SAVE_CHANGE_LOG_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.SAVE_CONFIGS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.SAVE_PROPERTIES_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.UPDATE_ATTRIBUTES_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.UPDATE_ATTRIBUTES_ERROR_MSG;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_PATCH_OPERATION;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_SEQUENCE_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Settings.CHANGE_LOG_RETENTION;
 import static com.github.akarazhev.metaconfig.Constants.Settings.DB_DIALECT;
 import static com.github.akarazhev.metaconfig.Constants.Settings.DEFAULT;
+import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_CHUNK_SIZE;
+import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_ORDERED;
+import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_PARALLELISM;
 import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_SIZE;
 import static com.github.akarazhev.metaconfig.Constants.Settings.POSTGRE;
+import static com.github.akarazhev.metaconfig.Constants.Settings.SLOW_STATEMENT_THRESHOLD;
+import static com.github.akarazhev.metaconfig.Constants.Settings.STATEMENT_METRICS;
 import static java.util.AbstractMap.SimpleEntry;
 
 /**
  * {@inheritDoc}
  */
 final class DbConfigRepository implements ConfigRepository {
+    private final static Logger LOGGER = Logger.getLogger(DbConfigRepository.class.getSimpleName());
+    // Superseded changes are compacted in the background at most once per the interval
+    private static final long COMPACTION_INTERVAL = 60_000;
+    // A running compaction is waited for at most the timeout when the repository is closed
+    private static final long COMPACTION_TIMEOUT = 5_000;
     private final DataSource dataSource;
     private final SQLUtils sqlUtils;
+    private final ExecutorService fetchExecutor;
+    // Changes are logged in the same transactions if the change log table is mapped
+    private final boolean isChangeLog;
+    private final ExecutorService compactionExecutor;
+    private final AtomicLong compacted = new AtomicLong();
 
     private DbConfigRepository(final Builder builder) {
-        this.dataSource = builder.dataSource;
         this.sqlUtils = new SQLUtils(JDBCUtils.createMapping(builder.mapping), JDBCUtils.createSettings(builder.settings));
+        this.dataSource = MeteredDataSource.wrap(builder.dataSource,
+                (Integer) sqlUtils.settings.get(SLOW_STATEMENT_THRESHOLD),
+                (Boolean) sqlUtils.settings.get(STATEMENT_METRICS));
+        this.fetchExecutor = JDBCUtils.createExecutor((Integer) sqlUtils.settings.get(FETCH_PARALLELISM));
+        this.isChangeLog = sqlUtils.mapping.containsKey(CHANGE_LOG_TABLE);
+        this.compactionExecutor = isChangeLog ? JDBCUtils.createCompactionExecutor() : null;
         JDBCUtils.createDataBase(this.dataSource, sqlUtils);
     }
 
@@ -74,116 +128,272 @@ final class DbConfigRepository implements ConfigRepository {
     @Override
     public Stream<Config> findByNames(final Stream<String> stream) {
         final String[] names = stream.toArray(String[]::new);
-        if (names.length > 0) {
-            try {
-                final String sql = sqlUtils.select.configs();
-                try (final Connection connection = dataSource.getConnection();
-                     final PreparedStatement statement =
-                             connection.prepareStatement(JDBCUtils.concatSql(sql, " OR C.NAME = ?", names))) {
-                    JDBCUtils.set(statement, (Integer) sqlUtils.settings.get(FETCH_SIZE), names);
+        final int chunkSize = (Integer) sqlUtils.settings.get(FETCH_CHUNK_SIZE);
+        if (names.length > chunkSize) {
+            final Collection<String[]> chunks = new ArrayList<>();
+            for (int i = 0; i < names.length; i += chunkSize) {
+                chunks.add(Arrays.copyOfRange(names, i, Math.min(i + chunkSize, names.length)));
+            }
 
-                    try (final ResultSet resultSet = statement.executeQuery()) {
-                        long prevConfigId = -1;
-                        final Map<Long, Config> configs = new HashMap<>();
-                        final Map<Long, Property> properties = new HashMap<>();
-                        final Collection<SimpleEntry<Long, Long>> links = new LinkedHashSet<>();
-                        while (resultSet.next()) {
-                            final long configId = resultSet.getInt(1);
-                            // Create properties
-                            final long propertyId = resultSet.getLong(8);
-                            if (propertyId > 0) {
-                                final Property.Builder builder;
-                                final Property property = properties.get(propertyId);
-                                final Optional<SimpleEntry<String, String>> optional =
-                                        getAttributes(resultSet.getString(16), resultSet.getString(17));
-                                if (property == null) {
-                                    builder = new Property.Builder(resultSet.getString(10),
-                                            resultSet.getString(13),
-                                            resultSet.getString(14)).
-                                            id(propertyId).
-                                            caption(resultSet.getString(11)).
-                                            description(resultSet.getString(12)).
-                                            updated(resultSet.getLong(15));
-                                    optional.ifPresent(a -> builder.attribute(a.getKey(), a.getValue()));
-                                } else {
-                                    builder = new Property.Builder(property);
-                                    optional.ifPresent(a -> builder.attribute(a.getKey(), a.getValue()));
-                                }
-                                // Set a property
-                                properties.put(propertyId, builder.build());
-                                // Create links
-                                final long id = resultSet.getLong(9);
-                                if (id > 0) {
-                                    links.add(new SimpleEntry<>(propertyId, id));
-                                } else {
-                                    links.add(new SimpleEntry<>(propertyId, configId));
-                                }
-                            }
-                            // Create configs
-                            final Config.Builder builder;
-                            final Config config = configs.get(configId);
-                            final Optional<SimpleEntry<String, String>> optional =
-                                    getAttributes(resultSet.getString(6), resultSet.getString(7));
-                            if (config == null) {
-                                builder = new Config.Builder(resultSet.getString(2), Collections.emptyList()).
-                                        id(configId).
-                                        description(resultSet.getString(3)).
-                                        version(resultSet.getInt(4)).
-                                        updated(resultSet.getLong(5));
-                                optional.ifPresent(a -> builder.attribute(a.getKey(), a.getValue()));
-                            } else {
-                                builder = new Config.Builder(config);
-                                optional.ifPresent(a -> builder.attribute(a.getKey(), a.getValue()));
-                            }
-                            // Set a config
-                            configs.put(configId, builder.build());
-                            // Set properties to the config
-                            if (prevConfigId > -1 && configId != prevConfigId) {
-                                configs.put(prevConfigId, new Config.Builder(configs.get(prevConfigId)).
-                                        properties(new String[0], getLinkedProps(prevConfigId, properties, links)).build());
-                                links.clear();
-                                properties.clear();
-                            }
+            return findByChunks(chunks);
+        }
 
-                            prevConfigId = configId;
-                        }
+        return findByNames(names).stream();
+    }
 
-                        if (configs.size() > 0) {
-                            configs.put(prevConfigId, new Config.Builder(configs.get(prevConfigId)).
-                                    properties(new String[0], getLinkedProps(prevConfigId, properties, links)).build());
+    private Stream<Config> findByChunks(final Collection<String[]> chunks) {
+        final boolean isOrdered = (Boolean) sqlUtils.settings.get(FETCH_ORDERED);
+        final Collection<Config> configs = isOrdered ? new TreeSet<>(Comparator.comparingLong(Config::getId)) :
+                new ArrayList<>();
+        if (fetchExecutor == null) {
+            chunks.forEach(chunk -> configs.addAll(findByNames(chunk)));
+            return configs.stream();
+        }
+        // Every chunk takes own connection, so the parallelism bounds a number of used connections
+        final CompletionService<Collection<Config>> service = new ExecutorCompletionService<>(fetchExecutor);
+        final Collection<Future<Collection<Config>>> futures = new ArrayList<>(chunks.size());
+        // Statements of chunks are counted and traced by the operation of the calling thread
+        chunks.forEach(chunk -> futures.add(service.submit(MeteredDataSource.withContext(() -> findByNames(chunk)))));
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                configs.addAll(service.take().get());
+            }
+
+            return configs.stream();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(RECEIVED_CONFIGS_ERROR, e);
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ?
+                    (RuntimeException) e.getCause() : new RuntimeException(RECEIVED_CONFIGS_ERROR, e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Collection<Config> findByNames(final String[] names) {
+        return query("findByNames", names.length, () -> {
+            if (names.length > 0) {
+                try {
+                    final String sql = sqlUtils.select.configs();
+                    try (final Connection connection = dataSource.getConnection();
+                         final PreparedStatement statement =
+                                 connection.prepareStatement(JDBCUtils.concatSql(sql, " OR C.NAME = ?", names))) {
+                        JDBCUtils.set(statement, (Integer) sqlUtils.settings.get(FETCH_SIZE), names);
+
+                        try (final ResultSet resultSet = statement.executeQuery()) {
+                            return getConfigs(resultSet);
                         }
+                    }
+                } catch (final SQLException e) {
+                    throw new RuntimeException(RECEIVED_CONFIGS_ERROR, e);
+                }
+            }
+
+            return Collections.emptyList();
+        });
+    }
+
+    private Collection<Config> getConfigs(final ResultSet resultSet) throws SQLException {
+        final Map<Long, Config> configs = new TreeMap<>();
+        getConfigs(resultSet, config -> configs.merge(config.getId(), config, (prev, next) -> {
+            // Rows of a config are not adjacent
+            final Config.Builder builder = new Config.Builder(prev);
+            next.getAttributes().ifPresent(attributes -> attributes.forEach(builder::attribute));
+            return builder.properties(new String[0], next.getProperties().collect(Collectors.toList())).build();
+        }));
+        return configs.values();
+    }
+
+    private void getConfigs(final ResultSet resultSet, final Consumer<Config> consumer) throws SQLException {
+        long prevConfigId = -1;
+        Config.Builder builder = null;
+        final Map<Long, Property> properties = new HashMap<>();
+        final Collection<SimpleEntry<Long, Long>> links = new LinkedHashSet<>();
+        while (resultSet.next()) {
+            final long configId = resultSet.getInt(1);
+            // Pass the previous config with properties, so only one config is held
+            if (prevConfigId > -1 && configId != prevConfigId) {
+                consumer.accept(builder.properties(new String[0], getLinkedProps(prevConfigId, properties, links)).
+                        build());
+                builder = null;
+                links.clear();
+                properties.clear();
+            }
+            // Create properties
+            final long propertyId = resultSet.getLong(8);
+            if (propertyId > 0) {
+                final Property.Builder propertyBuilder;
+                final Property property = properties.get(propertyId);
+                final Optional<SimpleEntry<String, String>> optional =
+                        getAttributes(resultSet.getString(16), resultSet.getString(17));
+                if (property == null) {
+                    propertyBuilder = new Property.Builder(resultSet.getString(10),
+                            resultSet.getString(13),
+                            resultSet.getString(14)).
+                            id(propertyId).
+                            caption(resultSet.getString(11)).
+                            description(resultSet.getString(12)).
+                            updated(resultSet.getLong(15));
+                } else {
+                    propertyBuilder = new Property.Builder(property);
+                }
+
+                optional.ifPresent(a -> propertyBuilder.attribute(a.getKey(), a.getValue()));
+                // Set a property
+                properties.put(propertyId, propertyBuilder.build());
+                // Create links
+                final long id = resultSet.getLong(9);
+                if (id > 0) {
+                    links.add(new SimpleEntry<>(propertyId, id));
+                } else {
+                    links.add(new SimpleEntry<>(propertyId, configId));
+                }
+            }
+            // Create a config
+            if (builder == null) {
+                builder = new Config.Builder(resultSet.getString(2), Collections.emptyList()).
+                        id(configId).
+                        description(resultSet.getString(3)).
+                        version(resultSet.getInt(4)).
+                        updated(resultSet.getLong(5));
+            }
+
+            final Optional<SimpleEntry<String, String>> optional =
+                    getAttributes(resultSet.getString(6), resultSet.getString(7));
+            if (optional.isPresent()) {
+                builder.attribute(optional.get().getKey(), optional.get().getValue());
+            }
+
+            prevConfigId = configId;
+        }
 
-                        return configs.values().stream();
+        if (builder != null) {
+            consumer.accept(builder.properties(new String[0], getLinkedProps(prevConfigId, properties, links)).build());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findAll() {
+        final Collection<Config> configs = new LinkedList<>();
+        forEach(configs::add);
+        return configs.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final Consumer<Config> consumer) {
+        query("forEach", 0, () -> {
+            try {
+                final String sql = sqlUtils.select.allConfigs();
+                try (final Connection connection = dataSource.getConnection();
+                     final Statement statement = connection.createStatement()) {
+                    statement.setFetchSize((Integer) sqlUtils.settings.get(FETCH_SIZE));
+                    try (final ResultSet resultSet = statement.executeQuery(sql)) {
+                        // Rows are ordered by config ids, so every config is passed as soon as its rows are read
+                        getConfigs(resultSet, consumer);
                     }
                 }
             } catch (final SQLException e) {
                 throw new RuntimeException(RECEIVED_CONFIGS_ERROR, e);
             }
-        }
 
-        return Stream.empty();
+            return null;
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Stream<String> findNames() {
-        try {
-            final String sql = sqlUtils.select.configNames();
-            try (final Connection connection = dataSource.getConnection();
-                 final Statement statement = connection.createStatement();
-                 final ResultSet resultSet = statement.executeQuery(sql)) {
-                final Collection<String> names = new LinkedList<>();
-                while (resultSet.next()) {
-                    names.add(resultSet.getString(1));
+    public Stream<Config> findVersions() {
+        return query("findVersions", 0, () -> {
+            try {
+                final String sql = sqlUtils.select.allConfigVersions();
+                try (final Connection connection = dataSource.getConnection();
+                     final Statement statement = connection.createStatement()) {
+                    statement.setFetchSize((Integer) sqlUtils.settings.get(FETCH_SIZE));
+                    try (final ResultSet resultSet = statement.executeQuery(sql)) {
+                        return getVersions(resultSet).stream();
+                    }
                 }
+            } catch (final SQLException e) {
+                throw new RuntimeException(RECEIVED_CONFIGS_ERROR, e);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions(final Stream<String> stream) {
+        final String[] names = stream.toArray(String[]::new);
+        final int chunkSize = (Integer) sqlUtils.settings.get(FETCH_CHUNK_SIZE);
+        return query("findVersions", names.length, () -> {
+            final Collection<Config> configs = new TreeSet<>(Comparator.comparingLong(Config::getId));
+            for (int i = 0; i < names.length; i += chunkSize) {
+                final String[] chunk = Arrays.copyOfRange(names, i, Math.min(i + chunkSize, names.length));
+                try {
+                    final String sql = sqlUtils.select.configVersions();
+                    try (final Connection connection = dataSource.getConnection();
+                         final PreparedStatement statement =
+                                 connection.prepareStatement(JDBCUtils.concatSql(sql, " OR C.NAME = ?", chunk))) {
+                        JDBCUtils.set(statement, (Integer) sqlUtils.settings.get(FETCH_SIZE), chunk);
 
-                return names.stream();
+                        try (final ResultSet resultSet = statement.executeQuery()) {
+                            configs.addAll(getVersions(resultSet));
+                        }
+                    }
+                } catch (final SQLException e) {
+                    throw new RuntimeException(RECEIVED_CONFIGS_ERROR, e);
+                }
             }
-        } catch (final SQLException e) {
-            throw new RuntimeException(RECEIVED_CONFIG_NAMES_ERROR, e);
+
+            return configs.stream();
+        });
+    }
+
+    private Collection<Config> getVersions(final ResultSet resultSet) throws SQLException {
+        final Collection<Config> configs = new LinkedList<>();
+        while (resultSet.next()) {
+            configs.add(new Config.Builder(resultSet.getString(2), Collections.emptyList()).
+                    id(resultSet.getLong(1)).
+                    version(resultSet.getInt(3)).
+                    updated(resultSet.getLong(4)).
+                    build());
         }
+
+        return configs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<String> findNames() {
+        return query("findNames", 0, () -> {
+            try {
+                final String sql = sqlUtils.select.configNames();
+                try (final Connection connection = dataSource.getConnection();
+                     final Statement statement = connection.createStatement();
+                     final ResultSet resultSet = statement.executeQuery(sql)) {
+                    final Collection<String> names = new LinkedList<>();
+                    while (resultSet.next()) {
+                        names.add(resultSet.getString(1));
+                    }
+
+                    return names.stream();
+                }
+            } catch (final SQLException e) {
+                throw new RuntimeException(RECEIVED_CONFIG_NAMES_ERROR, e);
+            }
+        });
     }
 
     /**
@@ -191,38 +401,40 @@ final class DbConfigRepository implements ConfigRepository {
      */
     @Override
     public PageResponse findByPageRequest(final PageRequest request) {
-        try {
-            final String configs = sqlUtils.mapping.get(CONFIGS_TABLE);
-            final String attributes = sqlUtils.mapping.get(CONFIG_ATTRIBUTES_TABLE);
-            final String sql = sqlUtils.select.configNamesByName(request);
-            try (final Connection connection = dataSource.getConnection()) {
-                final int total = getCount(connection, configs, attributes, request);
-                if (total > 0) {
-                    try (final PreparedStatement statement = connection.prepareStatement(sql)) {
-                        JDBCUtils.set(statement, (Integer) sqlUtils.settings.get(FETCH_SIZE), request);
+        return query("findByPageRequest", 0, () -> {
+            try {
+                final String configs = sqlUtils.mapping.get(CONFIGS_TABLE);
+                final String attributes = sqlUtils.mapping.get(CONFIG_ATTRIBUTES_TABLE);
+                final String sql = sqlUtils.select.configNamesByName(request);
+                try (final Connection connection = dataSource.getConnection()) {
+                    final int total = getCount(connection, configs, attributes, request);
+                    if (total > 0) {
+                        try (final PreparedStatement statement = connection.prepareStatement(sql)) {
+                            JDBCUtils.set(statement, (Integer) sqlUtils.settings.get(FETCH_SIZE), request);
+
+                            try (final ResultSet resultSet = statement.executeQuery()) {
+                                final Collection<String> names = new LinkedList<>();
+                                while (resultSet.next()) {
+                                    names.add(resultSet.getString(1));
+                                }
 
-                        try (final ResultSet resultSet = statement.executeQuery()) {
-                            final Collection<String> names = new LinkedList<>();
-                            while (resultSet.next()) {
-                                names.add(resultSet.getString(1));
+                                return new PageResponse.Builder(names).
+                                        page(request.getPage()).
+                                        total(total).
+                                        build();
                             }
-
-                            return new PageResponse.Builder(names).
-                                    page(request.getPage()).
-                                    total(total).
-                                    build();
                         }
                     }
-                }
 
-                return new PageResponse.Builder(Collections.emptyList()).
-                        page(request.getPage()).
-                        total(total).
-                        build();
+                    return new PageResponse.Builder(Collections.emptyList()).
+                            page(request.getPage()).
+                            total(total).
+                            build();
+                }
+            } catch (final SQLException e) {
+                throw new RuntimeException(RECEIVED_PAGE_RESPONSE_ERROR, e);
             }
-        } catch (final SQLException e) {
-            throw new RuntimeException(RECEIVED_PAGE_RESPONSE_ERROR, e);
-        }
+        });
     }
 
     /**
@@ -230,39 +442,278 @@ final class DbConfigRepository implements ConfigRepository {
      */
     @Override
     public Stream<Config> saveAndFlush(final Stream<Config> stream) {
+        final Config[] toSave = stream.toArray(Config[]::new);
+        final String prevOperation = MeteredDataSource.setOperation("saveAndFlush");
+        final FlightEvents.Event event = FlightEvents.beginSave();
+        final long statements = event.isEnabled() ? MeteredDataSource.getStatements() : 0;
         Connection connection = null;
         Stream<Config> configs = Stream.empty();
         try {
             connection = JDBCUtils.open(dataSource);
-            configs = Arrays.stream(saveAndFlush(connection, stream.toArray(Config[]::new)));
+            configs = Arrays.stream(saveAndFlush(connection, toSave));
         } catch (final SQLException e) {
             JDBCUtils.rollback(connection, e);
         } finally {
             JDBCUtils.close(connection);
+            MeteredDataSource.setOperation(prevOperation);
+            if (event.isEnabled()) {
+                event.commitSave("saveAndFlush", toSave.length,
+                        Arrays.stream(toSave).mapToInt(config -> (int) config.getProperties().count()).sum(),
+                        MeteredDataSource.getStatements() - statements);
+            }
         }
 
+        compactIfDue();
         return configs;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patch(final String name, final int version, final ConfigPatch patch) {
+        final String prevOperation = MeteredDataSource.setOperation("patch");
+        final FlightEvents.Event event = FlightEvents.beginSave();
+        final long statements = event.isEnabled() ? MeteredDataSource.getStatements() : 0;
+        Connection connection = null;
+        int patched = 0;
+        try {
+            connection = JDBCUtils.open(dataSource);
+            patched = patch(connection, Validator.of(name).get(), version, Validator.of(patch).get());
+        } catch (final SQLException e) {
+            JDBCUtils.rollback(connection, e);
+        } catch (final VersionConflictException e) {
+            JDBCUtils.rollback(connection);
+            throw e;
+        } finally {
+            JDBCUtils.close(connection);
+            MeteredDataSource.setOperation(prevOperation);
+            if (event.isEnabled()) {
+                event.commitSave("patch", 1, patch != null ? (int) patch.getOperations().count() : 0,
+                        MeteredDataSource.getStatements() - statements);
+            }
+        }
+
+        compactIfDue();
+        return patched;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public int delete(final Stream<String> stream) {
+        final String[] names = stream.toArray(String[]::new);
+        final String prevOperation = MeteredDataSource.setOperation("delete");
+        final FlightEvents.Event event = FlightEvents.beginSave();
+        final long statements = event.isEnabled() ? MeteredDataSource.getStatements() : 0;
         Connection connection = null;
         int count = 0;
         try {
             connection = JDBCUtils.open(dataSource);
-            count = delete(connection, stream.toArray(String[]::new));
+            count = delete(connection, names);
         } catch (final SQLException e) {
             JDBCUtils.rollback(connection, e);
         } finally {
             JDBCUtils.close(connection);
+            MeteredDataSource.setOperation(prevOperation);
+            if (event.isEnabled()) {
+                event.commitSave("delete", names.length, 0, MeteredDataSource.getStatements() - statements);
+            }
         }
 
+        compactIfDue();
         return count;
     }
 
+    /**
+     * {@inheritDoc} Threads that fetch chunks of names are stopped and a running compaction of changes is waited for.
+     */
+    @Override
+    public void close() {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdown();
+        }
+
+        if (compactionExecutor != null) {
+            compactionExecutor.shutdown();
+            try {
+                compactionExecutor.awaitTermination(COMPACTION_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} Superseded changes are compacted after the retention, the latest change of every config is kept.
+     */
+    @Override
+    public Stream<ChangeEvent> findChanges(final long sequence, final int size) {
+        if (!isChangeLog) {
+            return Stream.empty();
+        }
+
+        final long after = Validator.of(sequence).validate(s -> s >= 0, WRONG_SEQUENCE_VALUE).get();
+        final int limit = Validator.of(size).validate(s -> s >= 0, WRONG_SIZE_VALUE).get();
+        return query("findChanges", 0, () -> {
+            try {
+                final String sql = sqlUtils.select.changeLog();
+                try (final Connection connection = dataSource.getConnection();
+                     final PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setFetchSize(Math.min(limit, (Integer) sqlUtils.settings.get(FETCH_SIZE)));
+                    statement.setLong(1, after);
+                    statement.setInt(2, limit);
+                    try (final ResultSet resultSet = statement.executeQuery()) {
+                        final Collection<ChangeEvent> events = new LinkedList<>();
+                        while (resultSet.next()) {
+                            events.add(new ChangeEvent.Builder(ChangeEvent.Operation.valueOf(resultSet.getString(4)),
+                                    resultSet.getString(2)).
+                                    sequence(resultSet.getLong(1)).
+                                    version(resultSet.getInt(3)).
+                                    updated(resultSet.getLong(5)).
+                                    build());
+                        }
+
+                        return events.stream();
+                    }
+                }
+            } catch (final SQLException e) {
+                throw new RuntimeException(RECEIVED_CHANGE_EVENTS_ERROR, e);
+            }
+        });
+    }
+
+    /**
+     * Removes changes that are older than the retention and are superseded by later changes of the same configs.
+     *
+     * @return a number of removed changes.
+     */
+    int compactChanges() {
+        final int retention = (Integer) sqlUtils.settings.get(CHANGE_LOG_RETENTION);
+        if (!isChangeLog || retention < 0) {
+            return 0;
+        }
+
+        final String prevOperation = MeteredDataSource.setOperation("compactChanges");
+        Connection connection = null;
+        int count = 0;
+        try {
+            connection = JDBCUtils.open(dataSource);
+            final String sql = sqlUtils.delete.changeLog(sqlUtils.mapping.get(CHANGE_LOG_TABLE));
+            try (final PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, Clock.systemDefaultZone().millis() - retention);
+                count = statement.executeUpdate();
+                connection.commit();
+            }
+        } catch (final SQLException e) {
+            JDBCUtils.rollback(connection, new SQLException(COMPACT_CHANGE_LOG_ERROR, e));
+        } finally {
+            JDBCUtils.close(connection);
+            MeteredDataSource.setOperation(prevOperation);
+        }
+
+        return count;
+    }
+
+    private void compactIfDue() {
+        final long now = Clock.systemDefaultZone().millis();
+        final long last = compacted.get();
+        // Only one of concurrent writers schedules the compaction, the table-wide delete does not hold it up
+        if (isChangeLog && now - last >= COMPACTION_INTERVAL && compacted.compareAndSet(last, now)) {
+            try {
+                compactionExecutor.execute(() -> {
+                    try {
+                        compactChanges();
+                    } catch (final RuntimeException e) {
+                        LOGGER.log(Level.WARNING, COMPACT_CHANGE_LOG_ERROR, e);
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                // The repository is closed, superseded changes are compacted by the next instance
+                LOGGER.log(Level.FINE, COMPACT_CHANGE_LOG_ERROR, e);
+            }
+        }
+    }
+
+    private void insertChanges(final Connection connection, final Collection<ChangeEvent> events)
+            throws SQLException {
+        if (isChangeLog && events.size() > 0) {
+            long sequence = getSequence(connection, events.size()) - events.size();
+            try (final PreparedStatement statement = connection.prepareStatement(sqlUtils.insert.changeLog())) {
+                for (final ChangeEvent event : events) {
+                    statement.setLong(1, ++sequence);
+                    statement.setString(2, event.getName());
+                    statement.setInt(3, event.getVersion());
+                    statement.setString(4, event.getOperation().name());
+                    statement.setLong(5, event.getUpdated());
+                    statement.addBatch();
+                }
+
+                if (statement.executeBatch().length != events.size()) {
+                    throw new SQLException(SAVE_CHANGE_LOG_ERROR);
+                }
+            }
+        }
+    }
+
+    private long getSequence(final Connection connection, final int count) throws SQLException {
+        // The sequence row stays locked up to the commit, so changes become visible in the order of sequences
+        // and a reader never skips a change that is committed later with a lower sequence
+        try (final PreparedStatement statement = connection.prepareStatement(sqlUtils.update.changeLogSequence())) {
+            statement.setInt(1, count);
+            if (statement.executeUpdate() != 1) {
+                throw new SQLException(SAVE_CHANGE_LOG_ERROR);
+            }
+        }
+
+        try (final PreparedStatement statement = connection.prepareStatement(sqlUtils.select.changeLogSequence());
+             final ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                return resultSet.getLong(1);
+            }
+        }
+
+        throw new SQLException(SAVE_CHANGE_LOG_ERROR);
+    }
+
+    private Collection<ChangeEvent> getRemovedChanges(final Connection connection, final String[] names)
+            throws SQLException {
+        final Collection<ChangeEvent> events = new LinkedList<>();
+        if (isChangeLog) {
+            // Versions of configs are logged as they are before the delete
+            final long updated = Clock.systemDefaultZone().millis();
+            try (final PreparedStatement statement = connection.prepareStatement(
+                    JDBCUtils.concatSql(sqlUtils.select.configVersions(), " OR C.NAME = ?", names))) {
+                JDBCUtils.set(statement, (Integer) sqlUtils.settings.get(FETCH_SIZE), names);
+                try (final ResultSet resultSet = statement.executeQuery()) {
+                    for (final Config config : getVersions(resultSet)) {
+                        events.add(new ChangeEvent.Builder(ChangeEvent.Operation.REMOVE, config.getName()).
+                                version(config.getVersion()).
+                                updated(updated).
+                                build());
+                    }
+                }
+            }
+        }
+
+        return events;
+    }
+
+    private <T> T query(final String operation, final int names, final Supplier<T> supplier) {
+        final String prevOperation = MeteredDataSource.setOperation(operation);
+        final FlightEvents.Event event = FlightEvents.beginQuery();
+        final long rows = event.isEnabled() ? MeteredDataSource.getRows() : 0;
+        try {
+            return supplier.get();
+        } finally {
+            MeteredDataSource.setOperation(prevOperation);
+            if (event.isEnabled()) {
+                event.commitQuery(operation, names, MeteredDataSource.getRows() - rows);
+            }
+        }
+    }
+
     private Collection<Property> getLinkedProps(final long configId, final Map<Long, Property> properties,
                                                 final Collection<SimpleEntry<Long, Long>> links) {
         final Map<Long, Property> linkedProps = new HashMap<>(properties);
@@ -317,12 +768,158 @@ final class DbConfigRepository implements ConfigRepository {
         }
 
         if (savedConfigs.length > 0) {
+            insertChanges(connection, Arrays.stream(savedConfigs).
+                    filter(Objects::nonNull).
+                    map(config -> new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, config.getName()).
+                            version(config.getVersion()).
+                            updated(config.getUpdated()).
+                            build()).
+                    collect(Collectors.toList()));
             connection.commit();
         }
 
         return savedConfigs;
     }
 
+    private int patch(final Connection connection, final String name, final int version, final ConfigPatch patch)
+            throws SQLException {
+        final SimpleEntry<Long, Integer> idVersion = getIdVersion(connection, name);
+        if (idVersion.getValue() != version) {
+            throw new VersionConflictException(String.format(PATCH_VERSION_ERROR, name, idVersion.getValue(),
+                    version));
+        }
+
+        final long configId = idVersion.getKey();
+        final String table = sqlUtils.mapping.get(PROPERTIES_TABLE);
+        Map<SimpleEntry<Long, String>, Long> links = null;
+        for (final ConfigPatch.Operation operation : patch.getOperations().toArray(ConfigPatch.Operation[]::new)) {
+            final String[] paths = operation.getPaths();
+            if (ConfigPatch.Type.ADD.equals(operation.getType())) {
+                links = links == null ? getPropertyLinks(connection, table, configId) : links;
+                final long propertyId = getPropertyId(links, paths);
+                final Property property = operation.getProperty().orElseThrow(IllegalArgumentException::new);
+                if (links.containsKey(new SimpleEntry<>(propertyId, property.getName()))) {
+                    throw new SQLException(String.format(PATCH_PROPERTY_EXISTS, property.getName()));
+                }
+                // Insert a property with sub-properties and attributes
+                if (propertyId > 0) {
+                    insert(connection, new SimpleEntry<>(configId, propertyId), property);
+                } else {
+                    insert(connection, configId, property);
+                }
+
+                links = null;
+            } else if (paths.length > 0) {
+                links = links == null ? getPropertyLinks(connection, table, configId) : links;
+                final long propertyId = getPropertyId(links, paths);
+                if (ConfigPatch.Type.REPLACE.equals(operation.getType())) {
+                    final Property property = operation.getProperty().orElseThrow(IllegalArgumentException::new);
+                    // Update only the property row and its attributes
+                    update(connection, table, new Property[]{new Property.Builder(property).id(propertyId).build()});
+                    links = null;
+                } else if (ConfigPatch.Type.REMOVE.equals(operation.getType())) {
+                    // Sub-properties and attributes are removed by the cascade
+                    delete(connection, sqlUtils.delete.property(table), propertyId);
+                    links = null;
+                } else {
+                    update(connection, TableId.PROPERTY, propertyId, operation);
+                }
+            } else {
+                update(connection, TableId.CONFIG, configId, operation);
+            }
+        }
+        // Update a version of the config
+        final int patchedVersion = version + 1;
+        final long updated = Clock.systemDefaultZone().millis();
+        try (final PreparedStatement statement = connection.prepareStatement(sqlUtils.update.configVersion())) {
+            statement.setInt(1, patchedVersion);
+            statement.setLong(2, updated);
+            statement.setLong(3, configId);
+            statement.setInt(4, version);
+            if (statement.executeUpdate() != 1) {
+                // The config has been patched by another client since its version was read
+                throw new VersionConflictException(PATCH_CONFIG_ERROR);
+            }
+        }
+
+        insertChanges(connection, Collections.singletonList(new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, name).
+                version(patchedVersion).
+                updated(updated).
+                build()));
+        connection.commit();
+        return patchedVersion;
+    }
+
+    private void update(final Connection connection, final TableId tableId, final long id,
+                        final ConfigPatch.Operation operation) throws SQLException {
+        final String table;
+        final Map<String, String> attributes;
+        if (TableId.CONFIG.equals(tableId)) {
+            table = sqlUtils.mapping.get(CONFIG_ATTRIBUTES_TABLE);
+            attributes = getAttributes(connection, sqlUtils.select.configAttributes(table), id);
+        } else {
+            table = sqlUtils.mapping.get(PROPERTY_ATTRIBUTES_TABLE);
+            attributes = getAttributes(connection, sqlUtils.select.propertyAttributes(table), id);
+        }
+
+        final String key = operation.getKey().orElseThrow(IllegalArgumentException::new);
+        if (ConfigPatch.Type.SET_ATTRIBUTE.equals(operation.getType())) {
+            attributes.put(key, operation.getValue().orElseThrow(IllegalArgumentException::new));
+        } else if (ConfigPatch.Type.REMOVE_ATTRIBUTE.equals(operation.getType())) {
+            attributes.remove(key);
+        } else {
+            throw new SQLException(WRONG_PATCH_OPERATION);
+        }
+        // Write only changed attributes
+        update(connection, tableId, table, id, attributes);
+    }
+
+    private SimpleEntry<Long, Integer> getIdVersion(final Connection connection, final String name)
+            throws SQLException {
+        try (final PreparedStatement statement = connection.prepareStatement(sqlUtils.select.configIdVersion())) {
+            statement.setString(1, name);
+
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return new SimpleEntry<>(resultSet.getLong(1), resultSet.getInt(2));
+                }
+            }
+        }
+
+        throw new SQLException(String.format(PATCH_CONFIG_NOT_FOUND, name));
+    }
+
+    private Map<SimpleEntry<Long, String>, Long> getPropertyLinks(final Connection connection, final String table,
+                                                                  final long id) throws SQLException {
+        final Map<SimpleEntry<Long, String>, Long> links = new HashMap<>();
+        try (final PreparedStatement statement = connection.prepareStatement(sqlUtils.select.propertyLinks(table))) {
+            statement.setLong(1, id);
+
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    links.put(new SimpleEntry<>(resultSet.getLong(2), resultSet.getString(3)), resultSet.getLong(1));
+                }
+            }
+        }
+
+        return links;
+    }
+
+    private long getPropertyId(final Map<SimpleEntry<Long, String>, Long> links, final String[] paths)
+            throws SQLException {
+        long propertyId = 0;
+        for (final String path : paths) {
+            final Long id = links.get(new SimpleEntry<>(propertyId, path));
+            if (id == null) {
+                throw new SQLException(String.format(PATCH_PROPERTY_NOT_FOUND, path));
+            }
+
+            propertyId = id;
+        }
+
+        return propertyId;
+    }
+
     private Config[] insert(final Connection connection, final Config[] configs) throws SQLException {
         Config[] inserted = new Config[0];
         if (configs.length > 0) {
@@ -745,6 +1342,7 @@ final class DbConfigRepository implements ConfigRepository {
     private int delete(final Connection connection, final String[] names) throws SQLException {
         if (names.length > 0) {
             try {
+                final Collection<ChangeEvent> events = getRemovedChanges(connection, names);
                 final String configs = sqlUtils.mapping.get(CONFIGS_TABLE);
                 final String sql = sqlUtils.delete.configs(configs);
                 final String subSql = String.format(" OR %s.NAME = ?", configs);
@@ -752,6 +1350,7 @@ final class DbConfigRepository implements ConfigRepository {
                              connection.prepareStatement(JDBCUtils.concatSql(sql, subSql, names))) {
                     JDBCUtils.set(statement, (Integer) sqlUtils.settings.get(FETCH_SIZE), names);
                     final int deleted = statement.executeUpdate();
+                    insertChanges(connection, events);
                     connection.commit();
                     return deleted;
                 }
@@ -794,6 +1393,10 @@ final class DbConfigRepository implements ConfigRepository {
             this.delete = new Delete(settings);
         }
 
+        private static String getSequenceTable(final Map<String, String> mapping) {
+            return mapping.get(CHANGE_LOG_TABLE) + "_SEQUENCE";
+        }
+
         private static String getSubSql(final PageRequest request, final String dialect) {
             final StringBuilder string = new StringBuilder();
             final int size = request.getAttributes().size();
@@ -830,6 +1433,17 @@ final class DbConfigRepository implements ConfigRepository {
                 return sql;
             }
 
+            private String configNames() {
+                final String configsTable = mapping.get(CONFIGS_TABLE);
+                // An index name can not have a schema
+                final String indexPrefix = configsTable.substring(configsTable.lastIndexOf('.') + 1);
+                if (POSTGRE.equals(dialect)) {
+                    return String.format(PostgreSQL.CREATE_INDEX.CONFIG_NAMES, configsTable, indexPrefix);
+                }
+
+                return String.format(SQL.CREATE_INDEX.CONFIG_NAMES, configsTable, indexPrefix);
+            }
+
             private String configAttributes() {
                 String sql;
                 final String configsTable = mapping.get(CONFIGS_TABLE);
@@ -868,6 +1482,28 @@ final class DbConfigRepository implements ConfigRepository {
 
                 return sql;
             }
+
+            private String changeLog() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.CREATE_TABLE.CHANGE_LOG, mapping.get(CHANGE_LOG_TABLE));
+                } else {
+                    sql = String.format(SQL.CREATE_TABLE.CHANGE_LOG, mapping.get(CHANGE_LOG_TABLE));
+                }
+
+                return sql;
+            }
+
+            private String changeLogSequence() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.CREATE_TABLE.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping));
+                } else {
+                    sql = String.format(SQL.CREATE_TABLE.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping));
+                }
+
+                return sql;
+            }
         }
 
         private static final class Select {
@@ -879,6 +1515,43 @@ final class DbConfigRepository implements ConfigRepository {
                 this.mapping = mapping;
             }
 
+            private String allConfigs() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.SELECT.ALL_CONFIGS, mapping.get(CONFIGS_TABLE),
+                            mapping.get(CONFIG_ATTRIBUTES_TABLE), mapping.get(PROPERTIES_TABLE),
+                            mapping.get(PROPERTY_ATTRIBUTES_TABLE));
+                } else {
+                    sql = String.format(SQL.SELECT.ALL_CONFIGS, mapping.get(CONFIGS_TABLE),
+                            mapping.get(CONFIG_ATTRIBUTES_TABLE), mapping.get(PROPERTIES_TABLE),
+                            mapping.get(PROPERTY_ATTRIBUTES_TABLE));
+                }
+
+                return sql;
+            }
+
+            private String allConfigVersions() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.SELECT.ALL_CONFIG_VERSIONS, mapping.get(CONFIGS_TABLE));
+                } else {
+                    sql = String.format(SQL.SELECT.ALL_CONFIG_VERSIONS, mapping.get(CONFIGS_TABLE));
+                }
+
+                return sql;
+            }
+
+            private String configVersions() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.SELECT.CONFIG_VERSIONS, mapping.get(CONFIGS_TABLE));
+                } else {
+                    sql = String.format(SQL.SELECT.CONFIG_VERSIONS, mapping.get(CONFIGS_TABLE));
+                }
+
+                return sql;
+            }
+
             private String configs() {
                 String sql;
                 if (POSTGRE.equals(dialect)) {
@@ -976,6 +1649,50 @@ final class DbConfigRepository implements ConfigRepository {
 
                 return sql;
             }
+
+            private String configIdVersion() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.SELECT.CONFIG_ID_VERSION, mapping.get(CONFIGS_TABLE));
+                } else {
+                    sql = String.format(SQL.SELECT.CONFIG_ID_VERSION, mapping.get(CONFIGS_TABLE));
+                }
+
+                return sql;
+            }
+
+            private String propertyLinks(final String table) {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.SELECT.PROPERTY_LINKS, table);
+                } else {
+                    sql = String.format(SQL.SELECT.PROPERTY_LINKS, table);
+                }
+
+                return sql;
+            }
+
+            private String changeLog() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.SELECT.CHANGE_LOG, mapping.get(CHANGE_LOG_TABLE));
+                } else {
+                    sql = String.format(SQL.SELECT.CHANGE_LOG, mapping.get(CHANGE_LOG_TABLE));
+                }
+
+                return sql;
+            }
+
+            private String changeLogSequence() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.SELECT.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping));
+                } else {
+                    sql = String.format(SQL.SELECT.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping));
+                }
+
+                return sql;
+            }
         }
 
         private static final class Insert {
@@ -1041,6 +1758,30 @@ final class DbConfigRepository implements ConfigRepository {
 
                 return sql;
             }
+
+            private String changeLog() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.INSERT.CHANGE_LOG, mapping.get(CHANGE_LOG_TABLE));
+                } else {
+                    sql = String.format(SQL.INSERT.CHANGE_LOG, mapping.get(CHANGE_LOG_TABLE));
+                }
+
+                return sql;
+            }
+
+            private String changeLogSequence() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.INSERT.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping),
+                            mapping.get(CHANGE_LOG_TABLE));
+                } else {
+                    sql = String.format(SQL.INSERT.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping),
+                            mapping.get(CHANGE_LOG_TABLE));
+                }
+
+                return sql;
+            }
         }
 
         private static final class Update {
@@ -1063,6 +1804,17 @@ final class DbConfigRepository implements ConfigRepository {
                 return sql;
             }
 
+            private String configVersion() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.UPDATE.CONFIG_VERSION, mapping.get(CONFIGS_TABLE));
+                } else {
+                    sql = String.format(SQL.UPDATE.CONFIG_VERSION, mapping.get(CONFIGS_TABLE));
+                }
+
+                return sql;
+            }
+
             private String properties(final String table) {
                 String sql;
                 if (POSTGRE.equals(dialect)) {
@@ -1095,6 +1847,17 @@ final class DbConfigRepository implements ConfigRepository {
 
                 return sql;
             }
+
+            private String changeLogSequence() {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.UPDATE.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping));
+                } else {
+                    sql = String.format(SQL.UPDATE.CHANGE_LOG_SEQUENCE, getSequenceTable(mapping));
+                }
+
+                return sql;
+            }
         }
 
         private static final class Delete {
@@ -1158,6 +1921,17 @@ final class DbConfigRepository implements ConfigRepository {
 
                 return sql;
             }
+
+            private String changeLog(final String table) {
+                String sql;
+                if (POSTGRE.equals(dialect)) {
+                    sql = String.format(PostgreSQL.DELETE.CHANGE_LOG, table);
+                } else {
+                    sql = String.format(SQL.DELETE.CHANGE_LOG, table);
+                }
+
+                return sql;
+            }
         }
     }
 
@@ -1180,9 +1954,17 @@ final class DbConfigRepository implements ConfigRepository {
             try {
                 try (final Statement statement = connection.createStatement()) {
                     statement.executeUpdate(sqlUtils.create.configs());
+                    statement.executeUpdate(sqlUtils.create.configNames());
                     statement.executeUpdate(sqlUtils.create.configAttributes());
                     statement.executeUpdate(sqlUtils.create.properties());
                     statement.executeUpdate(sqlUtils.create.propertiesAttributes());
+                    if (sqlUtils.mapping.containsKey(CHANGE_LOG_TABLE)) {
+                        statement.executeUpdate(sqlUtils.create.changeLog());
+                        statement.executeUpdate(sqlUtils.create.changeLogSequence());
+                        // The sequence continues after the last logged change
+                        statement.executeUpdate(sqlUtils.insert.changeLogSequence());
+                    }
+
                     connection.commit();
                 }
             } catch (final SQLException e) {
@@ -1212,16 +1994,56 @@ final class DbConfigRepository implements ConfigRepository {
             if (settings == null) {
                 final Map<String, Object> defaultSettings = new HashMap<>();
                 defaultSettings.put(FETCH_SIZE, 100);
+                defaultSettings.put(FETCH_CHUNK_SIZE, 1000);
+                defaultSettings.put(FETCH_PARALLELISM, 1);
+                defaultSettings.put(FETCH_ORDERED, true);
+                defaultSettings.put(SLOW_STATEMENT_THRESHOLD, -1);
+                defaultSettings.put(STATEMENT_METRICS, false);
+                defaultSettings.put(CHANGE_LOG_RETENTION, 86_400_000);
                 defaultSettings.put(DB_DIALECT, DEFAULT);
                 return defaultSettings;
             } else {
                 settings.putIfAbsent(FETCH_SIZE, 100);
+                settings.putIfAbsent(FETCH_CHUNK_SIZE, 1000);
+                settings.putIfAbsent(FETCH_PARALLELISM, 1);
+                settings.putIfAbsent(FETCH_ORDERED, true);
+                settings.putIfAbsent(SLOW_STATEMENT_THRESHOLD, -1);
+                settings.putIfAbsent(STATEMENT_METRICS, false);
+                settings.putIfAbsent(CHANGE_LOG_RETENTION, 86_400_000);
                 settings.putIfAbsent(DB_DIALECT, DEFAULT);
             }
 
             return settings;
         }
 
+        private static ExecutorService createExecutor(final int parallelism) {
+            if (parallelism > 1) {
+                final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism,
+                        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "config-fetch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                // Idle threads do not outlive the repository
+                executor.allowCoreThreadTimeOut(true);
+                return executor;
+            }
+
+            return null;
+        }
+
+        private static ExecutorService createCompactionExecutor() {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "config-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // The idle thread does not outlive the repository
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
         private static String concatSql(final String sql, final String subSql, final String[] names) {
             final StringBuilder string = new StringBuilder(sql);
             if (names.length > 1) {
@@ -1238,6 +2060,16 @@ final class DbConfigRepository implements ConfigRepository {
             return connection;
         }
 
+        private static void rollback(final Connection connection) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (final SQLException e) {
+                    throw new RuntimeException(DB_ROLLBACK_ERROR, e);
+                }
+            }
+        }
+
         private static void rollback(final Connection connection, final SQLException e) {
             if (connection != null) {
                 try {
@@ -1440,7 +2272,8 @@ final class DbConfigRepository implements ConfigRepository {
                             " mapping is wrong.").
                     validate(m -> validate(m, PROPERTIES_TABLE), PROPERTIES_TABLE + " mapping is wrong.").
                     validate(m -> validate(m, PROPERTY_ATTRIBUTES_TABLE), PROPERTY_ATTRIBUTES_TABLE +
-                            " mapping is wrong.").get();
+                            " mapping is wrong.").
+                    validate(m -> validate(m, CHANGE_LOG_TABLE), CHANGE_LOG_TABLE + " mapping is wrong.").get();
             return this;
         }
 
@@ -1464,7 +2297,16 @@ final class DbConfigRepository implements ConfigRepository {
                         }
 
                         return true;
-                    }, FETCH_SIZE + " setting is wrong.").get();
+                    }, FETCH_SIZE + " setting is wrong.").
+                    validate(m -> isPositive(m, FETCH_CHUNK_SIZE), FETCH_CHUNK_SIZE + " setting is wrong.").
+                    validate(m -> isPositive(m, FETCH_PARALLELISM), FETCH_PARALLELISM + " setting is wrong.").
+                    validate(m -> !m.containsKey(FETCH_ORDERED) || m.get(FETCH_ORDERED) instanceof Boolean,
+                            FETCH_ORDERED + " setting is wrong.").
+                    validate(m -> !m.containsKey(STATEMENT_METRICS) || m.get(STATEMENT_METRICS) instanceof Boolean,
+                            STATEMENT_METRICS + " setting is wrong.").
+                    validate(m -> !m.containsKey(CHANGE_LOG_RETENTION) ||
+                            m.get(CHANGE_LOG_RETENTION) instanceof Integer, CHANGE_LOG_RETENTION + " setting is wrong.").
+                    get();
             return this;
         }
 
@@ -1477,6 +2319,15 @@ final class DbConfigRepository implements ConfigRepository {
             return new DbConfigRepository(this);
         }
 
+        private boolean isPositive(final Map<String, Object> settings, final String key) {
+            if (settings.containsKey(key)) {
+                final Object value = settings.get(key);
+                return value instanceof Integer && (Integer) value > 0;
+            }
+
+            return true;
+        }
+
         private boolean validate(final Map<String, String> mapping, final String key) {
             if (mapping.containsKey(key)) {
                 final String configs = mapping.get(key);
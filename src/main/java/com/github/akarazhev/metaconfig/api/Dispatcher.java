@@ -0,0 +1,324 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.Validator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.CONFIG_DISPATCH_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_QUEUE_SIZE_VALUE;
+
+/**
+ * Dispatches items to subscribers asynchronously. Every subscriber has a bounded queue
+ * where items are coalesced by a key, so only the latest item with the key is delivered.
+ *
+ * @param <T> a type of items.
+ */
+final class Dispatcher<T> {
+    private final static Logger LOGGER = Logger.getLogger(Dispatcher.class.getSimpleName());
+    // The default size of a subscriber queue
+    static final int DEFAULT_QUEUE_SIZE = 1024;
+    private final Function<T, String> key;
+    private final ToLongFunction<T> order;
+    private final Executor executor;
+    private final int queueSize;
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private Dispatcher(final Builder<T> builder) {
+        this.key = builder.key;
+        this.order = builder.order;
+        this.executor = builder.executor;
+        this.queueSize = builder.queueSize;
+    }
+
+    /**
+     * Subscribes a consumer to items that are matched by a filter.
+     *
+     * @param filter   a filter of items.
+     * @param consumer a consumer of items.
+     * @return a subscription.
+     */
+    Subscription subscribe(final Predicate<T> filter, final Consumer<T> consumer) {
+        final Subscriber subscriber = new Subscriber(Validator.of(filter).get(), Validator.of(consumer).get());
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Returns true if there is at least one active subscriber.
+     *
+     * @return a state of subscribers.
+     */
+    boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Queues an item for all matched subscribers, the calling thread is never blocked by consumers.
+     *
+     * @param item an item.
+     */
+    void publish(final T item) {
+        for (final Subscriber subscriber : subscribers) {
+            subscriber.offer(item);
+        }
+    }
+
+    /**
+     * Cancels all subscriptions.
+     */
+    void close() {
+        subscribers.forEach(Subscriber::cancel);
+    }
+
+    /**
+     * A pending item with the time when it was queued.
+     */
+    private final static class Pending<T> {
+        private final T item;
+        private final long queued;
+
+        private Pending(final T item, final long queued) {
+            this.item = item;
+            this.queued = queued;
+        }
+    }
+
+    /**
+     * A subscriber with the own queue which is drained serially on the executor.
+     */
+    private final class Subscriber implements Subscription, Runnable {
+        private final Predicate<T> filter;
+        private final Consumer<T> consumer;
+        private final Map<String, Pending<T>> queue = new LinkedHashMap<>();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder latency = new LongAdder();
+        private final AtomicLong maxLatency = new AtomicLong();
+        private volatile boolean isCancelled;
+        private boolean isScheduled;
+
+        private Subscriber(final Predicate<T> filter, final Consumer<T> consumer) {
+            this.filter = filter;
+            this.consumer = consumer;
+        }
+
+        private void offer(final T item) {
+            if (isCancelled || !filter.test(item)) {
+                return;
+            }
+
+            final String itemKey = key.apply(item);
+            synchronized (this) {
+                final Pending<T> pending = queue.get(itemKey);
+                if (pending != null) {
+                    if (order.applyAsLong(pending.item) <= order.applyAsLong(item)) {
+                        queue.put(itemKey, new Pending<>(item, pending.queued));
+                    }
+
+                    coalesced.increment();
+                } else if (queue.size() < queueSize) {
+                    queue.put(itemKey, new Pending<>(item, System.nanoTime()));
+                } else {
+                    dropped.increment();
+                    return;
+                }
+
+                if (isScheduled) {
+                    return;
+                }
+                // Only one publisher schedules the drain, the flag is set before the executor runs it
+                isScheduled = true;
+            }
+            // The executor is called without the lock, so a slow or direct executor does not block publishers
+            try {
+                executor.execute(this);
+            } catch (final RejectedExecutionException e) {
+                synchronized (this) {
+                    isScheduled = false;
+                }
+                // Pending items will be delivered with the next published item
+                LOGGER.log(Level.WARNING, e.toString());
+            }
+        }
+
+        /**
+         * Delivers pending items one by one.
+         */
+        @Override
+        public void run() {
+            boolean isDrained = false;
+            try {
+                while (true) {
+                    final Pending<T> pending;
+                    synchronized (this) {
+                        final Iterator<Pending<T>> iterator = queue.values().iterator();
+                        if (isCancelled || !iterator.hasNext()) {
+                            isScheduled = false;
+                            isDrained = true;
+                            return;
+                        }
+
+                        pending = iterator.next();
+                        iterator.remove();
+                    }
+
+                    try {
+                        consumer.accept(pending.item);
+                    } catch (final Exception e) {
+                        LOGGER.log(Level.SEVERE, String.format(CONFIG_DISPATCH_ERROR, key.apply(pending.item)), e);
+                    }
+
+                    final long time = System.nanoTime() - pending.queued;
+                    latency.add(time);
+                    maxLatency.accumulateAndGet(time, Math::max);
+                    delivered.increment();
+                }
+            } finally {
+                if (!isDrained) {
+                    // An error of the consumer stops the drain, so the next published item schedules a new one
+                    synchronized (this) {
+                        isScheduled = false;
+                    }
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            subscribers.remove(this);
+            synchronized (this) {
+                queue.clear();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized int getQueueSize() {
+            return queue.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getDelivered() {
+            return delivered.sum();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getCoalesced() {
+            return coalesced.sum();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getAverageLatency() {
+            final long count = delivered.sum();
+            return count > 0 ? latency.sum() / count : 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getMaxLatency() {
+            return maxLatency.get();
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the dispatcher.
+     *
+     * @param <T> a type of items.
+     */
+    final static class Builder<T> {
+        private final Function<T, String> key;
+        private final ToLongFunction<T> order;
+        private final Executor executor;
+        private int queueSize = DEFAULT_QUEUE_SIZE;
+
+        /**
+         * Constructs a dispatcher with required parameters.
+         *
+         * @param key      a function that returns a key to coalesce items.
+         * @param order    a function that returns an order of items with the same key.
+         * @param executor an executor to deliver items.
+         */
+        Builder(final Function<T, String> key, final ToLongFunction<T> order, final Executor executor) {
+            this.key = Validator.of(key).get();
+            this.order = Validator.of(order).get();
+            this.executor = Validator.of(executor).get();
+        }
+
+        /**
+         * Constructs a dispatcher with a size of subscriber queues.
+         *
+         * @param queueSize a maximum number of pending items per subscriber.
+         * @return a builder of the dispatcher.
+         */
+        Builder<T> queueSize(final int queueSize) {
+            this.queueSize = Validator.of(queueSize).validate(s -> s > 0, WRONG_QUEUE_SIZE_VALUE).get();
+            return this;
+        }
+
+        /**
+         * Builds a dispatcher with parameters.
+         *
+         * @return a builder of the dispatcher.
+         */
+        Dispatcher<T> build() {
+            return new Dispatcher<>(this);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.CONFIG_EXISTS_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.CONFIG_VERSION_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_CONFIG_NOT_FOUND;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_VERSION_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WAL_READ_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WAL_WRITE_ERROR;
+
+/**
+ * Provides repository methods over configs kept in memory. Configs are indexed by names, ids and attributes, so
+ * sorted and paged reads do not sort or scan configs, and reads do not take locks. Writes are serialized, a version
+ * of a config is compared and set with its new value, so a batch is saved entirely or not at all. Configs of a batch
+ * are applied one by one, so a concurrent read may see a part of the batch. Writes can be appended to a write-ahead
+ * log before they are applied, the log is replayed and compacted at start.
+ */
+final class InMemoryConfigRepository implements ConfigRepository {
+    private final static Logger LOGGER = Logger.getLogger(InMemoryConfigRepository.class.getSimpleName());
+    // The minimum number of records of the log after which it is compacted
+    private final static int COMPACT_THRESHOLD = 1000;
+    private final ConcurrentSkipListMap<String, Config> configs = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Config> ids = new ConcurrentSkipListMap<>();
+    // Names of configs by values by keys of attributes
+    private final ConcurrentMap<String, ConcurrentMap<String, Set<String>>> attributes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // The path of the write-ahead log or null if it is not set
+    private final Path logPath;
+    private FileChannel log;
+    private int records;
+
+    private InMemoryConfigRepository(final Builder builder) {
+        this.logPath = builder.logPath;
+        if (logPath != null) {
+            try {
+                replay();
+                compact();
+            } catch (final IOException e) {
+                throw new RuntimeException(String.format(WAL_READ_ERROR, logPath), e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findByNames(final Stream<String> stream) {
+        return stream.distinct().
+                sorted().
+                map(configs::get).
+                filter(Objects::nonNull);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findAll() {
+        return ids.values().stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final Consumer<Config> consumer) {
+        ids.values().forEach(consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions() {
+        return findAll().map(this::getVersion);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions(final Stream<String> stream) {
+        return findByNames(stream).map(this::getVersion);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<String> findNames() {
+        return configs.keySet().stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PageResponse findByPageRequest(final PageRequest request) {
+        final String name = request.getName();
+        // Names are taken from the attribute index if attributes are requested, otherwise from the name index
+        final NavigableSet<String> names = request.getAttributes().isEmpty() ?
+                configs.keySet() :
+                getNames(request.getAttributes());
+        final NavigableSet<String> ordered = request.isAscending() ? names : names.descendingSet();
+        final long from = (long) request.getPage() * request.getSize();
+        // Every name contains an empty name, so the total is the size of the index and names after the page are skipped
+        final boolean isCounted = !name.isEmpty();
+        final List<String> page = new ArrayList<>();
+        int matched = 0;
+        for (final String configName : ordered) {
+            if (!isCounted && page.size() >= request.getSize()) {
+                break;
+            } else if (configName.contains(name)) {
+                if (matched >= from && page.size() < request.getSize()) {
+                    page.add(configName);
+                }
+
+                matched++;
+            }
+        }
+
+        return new PageResponse.Builder(page).
+                page(request.getPage()).
+                total(isCounted ? matched : names.size()).
+                build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> saveAndFlush(final Stream<Config> stream) {
+        final Config[] toSave = stream.toArray(Config[]::new);
+        writeLock.lock();
+        try {
+            // Configs of the batch are checked before any of them is saved
+            final Map<String, Config> saved = new HashMap<>();
+            final Config[] configs = new Config[toSave.length];
+            long id = sequence.get();
+            for (int i = 0; i < toSave.length; i++) {
+                final Config config = toSave[i];
+                final Config current = saved.containsKey(config.getName()) ?
+                        saved.get(config.getName()) : this.configs.get(config.getName());
+                if (config.getId() > 0) {
+                    if (current == null || current.getId() != config.getId() ||
+                            current.getVersion() != config.getVersion()) {
+                        throw new IllegalStateException(String.format(CONFIG_VERSION_ERROR, config.getName()));
+                    }
+
+                    configs[i] = new Config.Builder(config).version(current.getVersion() + 1).build();
+                } else if (current != null) {
+                    throw new IllegalStateException(String.format(CONFIG_EXISTS_ERROR, config.getName()));
+                } else {
+                    configs[i] = new Config.Builder(config).id(++id).build();
+                }
+
+                saved.put(config.getName(), configs[i]);
+            }
+
+            append(Arrays.stream(configs).map(this::getPutRecord).collect(Collectors.toList()));
+            sequence.set(id);
+            for (final Config config : configs) {
+                put(config);
+            }
+
+            return Arrays.stream(configs);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patch(final String name, final int version, final ConfigPatch patch) {
+        Validator.of(patch).get();
+        writeLock.lock();
+        try {
+            final Config current = configs.get(Validator.of(name).get());
+            if (current == null) {
+                throw new IllegalStateException(String.format(PATCH_CONFIG_NOT_FOUND, name));
+            } else if (current.getVersion() != version) {
+                throw new VersionConflictException(String.format(PATCH_VERSION_ERROR, name, current.getVersion(),
+                        version));
+            }
+
+            final Config patched = new Config.Builder(patch.apply(current)).
+                    version(version + 1).
+                    updated(Clock.systemDefaultZone().millis()).
+                    build();
+            append(Collections.singletonList(getPutRecord(patched)));
+            put(patched);
+            return patched.getVersion();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int delete(final Stream<String> stream) {
+        final List<String> names = stream.collect(Collectors.toList());
+        writeLock.lock();
+        try {
+            final List<String> existed = names.stream().distinct().filter(configs::containsKey).
+                    collect(Collectors.toList());
+            append(existed.stream().map(this::getDeleteRecord).collect(Collectors.toList()));
+            existed.forEach(this::remove);
+            return existed.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc} The write-ahead log is closed.
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, String.format(WAL_WRITE_ERROR, logPath), e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Config getVersion(final Config config) {
+        return new Config.Builder(config.getName(), Collections.emptyList()).
+                id(config.getId()).
+                version(config.getVersion()).
+                updated(config.getUpdated()).
+                build();
+    }
+
+    private NavigableSet<String> getNames(final Map<String, String> filter) {
+        final NavigableSet<String> names = new TreeSet<>();
+        // A config matches if any of its attributes contains any of the requested ones
+        filter.forEach((key, value) -> attributes.forEach((attributeKey, values) -> {
+            if (attributeKey.contains(key)) {
+                values.forEach((attributeValue, configNames) -> {
+                    if (attributeValue.contains(value)) {
+                        names.addAll(configNames);
+                    }
+                });
+            }
+        }));
+
+        return names;
+    }
+
+    private void put(final Config config) {
+        final Config previous = configs.put(config.getName(), config);
+        if (previous != null) {
+            // An updated config keeps its id, so it is replaced in place and is always visible to readers
+            if (previous.getId() != config.getId()) {
+                ids.remove(previous.getId());
+            }
+
+            unindex(previous);
+        }
+
+        ids.put(config.getId(), config);
+        config.getAttributes().ifPresent(values -> values.forEach((key, value) ->
+                attributes.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).
+                        computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).
+                        add(config.getName())));
+    }
+
+    private void remove(final String name) {
+        final Config previous = configs.remove(name);
+        if (previous != null) {
+            ids.remove(previous.getId());
+            unindex(previous);
+        }
+    }
+
+    private void unindex(final Config config) {
+        config.getAttributes().ifPresent(values -> values.forEach((key, value) -> {
+            final ConcurrentMap<String, Set<String>> names = attributes.get(key);
+            if (names != null) {
+                final Set<String> configNames = names.get(value);
+                if (configNames != null) {
+                    configNames.remove(config.getName());
+                    if (configNames.isEmpty()) {
+                        names.remove(value);
+                    }
+                }
+
+                if (names.isEmpty()) {
+                    attributes.remove(key);
+                }
+            }
+        }));
+    }
+
+    private String getPutRecord(final Config config) {
+        final JsonObject record = new JsonObject();
+        record.put("operation", "put");
+        record.put("config", config);
+        return record.toJson();
+    }
+
+    private String getDeleteRecord(final String name) {
+        final JsonObject record = new JsonObject();
+        record.put("operation", "delete");
+        record.put("name", name);
+        return record.toJson();
+    }
+
+    private void append(final List<String> records) {
+        if (log != null && records.size() > 0) {
+            final StringBuilder content = new StringBuilder();
+            records.forEach(record -> content.append(record).append('\n'));
+            try {
+                // Records are forced to the disk before configs are changed in memory
+                final ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    log.write(buffer);
+                }
+
+                log.force(false);
+            } catch (final IOException e) {
+                throw new RuntimeException(String.format(WAL_WRITE_ERROR, logPath), e);
+            }
+
+            this.records += records.size();
+            if (this.records > Math.max(COMPACT_THRESHOLD, configs.size() * 2)) {
+                try {
+                    compact();
+                } catch (final IOException e) {
+                    LOGGER.log(Level.WARNING, String.format(WAL_WRITE_ERROR, logPath), e);
+                }
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        if (Files.exists(logPath)) {
+            try (final BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final JsonObject record;
+                    try {
+                        record = (JsonObject) Jsoner.deserialize(line);
+                    } catch (final Exception e) {
+                        // The last record is not complete if writing was interrupted, it is dropped by the compaction
+                        LOGGER.log(Level.WARNING, String.format(WAL_READ_ERROR, logPath), e);
+                        break;
+                    }
+
+                    if ("put".equals(record.get("operation"))) {
+                        final Config config = new Config.Builder((JsonObject) record.get("config")).build();
+                        put(config);
+                        sequence.accumulateAndGet(config.getId(), Math::max);
+                    } else {
+                        remove((String) record.get("name"));
+                    }
+                }
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        final Path target = logPath.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (final Config config : ids.values()) {
+                    final ByteBuffer buffer =
+                            ByteBuffer.wrap((getPutRecord(config) + '\n').getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+
+                channel.force(true);
+            }
+
+            if (log != null) {
+                log.close();
+            }
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+            log = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            records = configs.size();
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the in-memory config repository.
+     */
+    final static class Builder {
+        private Path logPath;
+
+        /**
+         * Constructs an in-memory config repository.
+         */
+        Builder() {
+        }
+
+        /**
+         * Constructs an in-memory config repository with a write-ahead log.
+         *
+         * @param path a path of the log.
+         * @return a builder of the in-memory config repository.
+         */
+        Builder writeAheadLog(final Path path) {
+            this.logPath = Validator.of(path).get();
+            return this;
+        }
+
+        /**
+         * Builds an in-memory config repository.
+         *
+         * @return a builder of the in-memory config repository.
+         */
+        public ConfigRepository build() {
+            return new InMemoryConfigRepository(this);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.MAPPED_FILE_READ_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.MAPPED_FILE_SIZE_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.MAPPED_FILE_WRITE_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.READ_ONLY_REPOSITORY;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_INTERVAL_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_MAPPED_FILE;
+
+/**
+ * Provides read-only repository methods over a memory-mapped file. The file has an index of names sorted by
+ * their UTF-8 bytes that points to configs serialized in JSON, so a config is found without reading the other ones
+ * and is decoded only when it is accessed. A new version of the file is written to a temporary file that replaces
+ * the old one, the repository maps the new version on the first access after the check interval.
+ */
+final class MappedConfigRepository implements ConfigRepository {
+    private final static Logger LOGGER = Logger.getLogger(MappedConfigRepository.class.getSimpleName());
+    // The magic number of a file, "MCFG"
+    private final static int MAGIC = 0x4D434647;
+    private final static int FORMAT_VERSION = 1;
+    // The magic number, the format version and the number of configs
+    private final static int HEADER_SIZE = 12;
+    // Offsets and lengths of a name and a config, an id, a version and an updated time
+    private final static int ENTRY_SIZE = 36;
+    private final Path path;
+    // The time in nanoseconds to wait before the file is checked for a new version
+    private final long checkInterval;
+    private volatile Mapping mapping;
+    private volatile long checked;
+
+    private MappedConfigRepository(final Builder builder) {
+        this.path = builder.path;
+        this.checkInterval = TimeUnit.MILLISECONDS.toNanos(builder.checkInterval);
+        try {
+            this.mapping = Mapping.map(path);
+        } catch (final IOException e) {
+            throw new RuntimeException(String.format(MAPPED_FILE_READ_ERROR, path), e);
+        }
+
+        this.checked = System.nanoTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findByNames(final Stream<String> stream) {
+        final Mapping mapping = getMapping();
+        return stream.mapToInt(mapping::find).
+                filter(index -> index >= 0).
+                distinct().
+                sorted().
+                mapToObj(mapping::getConfig);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findAll() {
+        final Mapping mapping = getMapping();
+        return mapping.getIndexesById().mapToObj(mapping::getConfig);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final Consumer<Config> consumer) {
+        findAll().forEach(consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions() {
+        final Mapping mapping = getMapping();
+        return mapping.getIndexesById().mapToObj(mapping::getVersion);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions(final Stream<String> stream) {
+        final Mapping mapping = getMapping();
+        return stream.mapToInt(mapping::find).
+                filter(index -> index >= 0).
+                distinct().
+                sorted().
+                mapToObj(mapping::getVersion);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<String> findNames() {
+        final Mapping mapping = getMapping();
+        return IntStream.range(0, mapping.count).mapToObj(mapping::getName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PageResponse findByPageRequest(final PageRequest request) {
+        final Mapping mapping = getMapping();
+        final Map<String, String> attributes = request.getAttributes();
+        // Only configs with matched names are decoded to check attributes
+        final List<String> names = IntStream.range(0, mapping.count).
+                filter(index -> mapping.getName(index).contains(request.getName())).
+                filter(index -> attributes.isEmpty() || mapping.getConfig(index).getAttributes().
+                        map(values -> values.entrySet().stream().anyMatch(value -> attributes.entrySet().stream().
+                                anyMatch(attribute -> value.getKey().contains(attribute.getKey()) &&
+                                        value.getValue().contains(attribute.getValue())))).
+                        orElse(false)).
+                mapToObj(mapping::getName).
+                sorted(request.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder()).
+                collect(Collectors.toList());
+        final long from = (long) request.getPage() * request.getSize();
+        return new PageResponse.Builder(from < names.size() ?
+                names.subList((int) from, (int) Math.min(from + request.getSize(), names.size())) :
+                names.subList(0, 0)).
+                page(request.getPage()).
+                total(names.size()).
+                build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> saveAndFlush(final Stream<Config> stream) {
+        throw new UnsupportedOperationException(READ_ONLY_REPOSITORY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patch(final String name, final int version, final ConfigPatch patch) {
+        throw new UnsupportedOperationException(READ_ONLY_REPOSITORY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int delete(final Stream<String> stream) {
+        throw new UnsupportedOperationException(READ_ONLY_REPOSITORY);
+    }
+
+    /**
+     * Writes configuration models into a file that is mapped by the repository. The file is written to a temporary
+     * file that replaces the old one, so a reader never maps a partially written file.
+     *
+     * @param path   a path of the file.
+     * @param stream a stream of configuration models.
+     */
+    static void write(final Path path, final Stream<Config> stream) {
+        final Map<String, Config> configs = new LinkedHashMap<>();
+        Validator.of(stream).get().forEach(config -> configs.put(config.getName(), config));
+        final List<byte[][]> entries = new ArrayList<>(configs.size());
+        configs.values().forEach(config -> entries.add(new byte[][]{
+                config.getName().getBytes(StandardCharsets.UTF_8),
+                config.toJson().getBytes(StandardCharsets.UTF_8)}));
+        entries.sort((first, second) -> compare(first[0], second[0]));
+
+        long size = HEADER_SIZE + (long) entries.size() * ENTRY_SIZE;
+        for (final byte[][] entry : entries) {
+            size += entry[0].length + entry[1].length;
+        }
+
+        final Path target = Validator.of(path).get().toAbsolutePath();
+        try {
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(MAPPED_FILE_SIZE_ERROR);
+            }
+
+            Files.createDirectories(target.getParent());
+            final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                try (final DataOutputStream output =
+                             new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    output.writeInt(MAGIC);
+                    output.writeInt(FORMAT_VERSION);
+                    output.writeInt(entries.size());
+                    int offset = HEADER_SIZE + entries.size() * ENTRY_SIZE;
+                    for (final byte[][] entry : entries) {
+                        final Config config = configs.get(new String(entry[0], StandardCharsets.UTF_8));
+                        output.writeInt(offset);
+                        output.writeInt(entry[0].length);
+                        output.writeInt(offset + entry[0].length);
+                        output.writeInt(entry[1].length);
+                        output.writeLong(config.getId());
+                        output.writeInt(config.getVersion());
+                        output.writeLong(config.getUpdated());
+                        offset += entry[0].length + entry[1].length;
+                    }
+
+                    for (final byte[][] entry : entries) {
+                        output.write(entry[0]);
+                        output.write(entry[1]);
+                    }
+                }
+
+                try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(String.format(MAPPED_FILE_WRITE_ERROR, path), e);
+        }
+    }
+
+    private Mapping getMapping() {
+        final long now = System.nanoTime();
+        if (now - checked >= checkInterval) {
+            synchronized (this) {
+                if (now - checked >= checkInterval) {
+                    try {
+                        if (mapping.isChanged(path)) {
+                            // Readers of the old version keep its buffer until they complete
+                            mapping = Mapping.map(path);
+                        }
+                    } catch (final IOException e) {
+                        LOGGER.log(Level.WARNING, String.format(MAPPED_FILE_READ_ERROR, path), e);
+                    }
+
+                    checked = System.nanoTime();
+                }
+            }
+        }
+
+        return mapping;
+    }
+
+    private static int compare(final byte[] first, final byte[] second) {
+        final int length = Math.min(first.length, second.length);
+        for (int i = 0; i < length; i++) {
+            final int result = Integer.compare(first[i] & 0xFF, second[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        return Integer.compare(first.length, second.length);
+    }
+
+    /**
+     * A mapped version of the file, it is not changed when the file is replaced.
+     */
+    private final static class Mapping {
+        private final ByteBuffer buffer;
+        private final int count;
+        private final BasicFileAttributes attributes;
+
+        private Mapping(final ByteBuffer buffer, final BasicFileAttributes attributes) throws IOException {
+            this.buffer = buffer;
+            this.attributes = attributes;
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException(WRONG_MAPPED_FILE);
+            }
+
+            this.count = buffer.getInt(8);
+            if (count < 0 || HEADER_SIZE + (long) count * ENTRY_SIZE > buffer.limit()) {
+                throw new IOException(WRONG_MAPPED_FILE);
+            }
+            // A truncated file fails here instead of on the first access to a missing name or config
+            for (int index = 0; index < count; index++) {
+                final int entry = HEADER_SIZE + index * ENTRY_SIZE;
+                if (isOutOfBuffer(buffer.getInt(entry), buffer.getInt(entry + 4)) ||
+                        isOutOfBuffer(buffer.getInt(entry + 8), buffer.getInt(entry + 12))) {
+                    throw new IOException(WRONG_MAPPED_FILE);
+                }
+            }
+        }
+
+        private boolean isOutOfBuffer(final int offset, final int length) {
+            return offset < 0 || length < 0 || (long) offset + length > buffer.limit();
+        }
+
+        private static Mapping map(final Path path) throws IOException {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed
+                return new Mapping(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), attributes);
+            }
+        }
+
+        private boolean isChanged(final Path path) throws IOException {
+            final BasicFileAttributes current = Files.readAttributes(path, BasicFileAttributes.class);
+            return !Objects.equals(attributes.fileKey(), current.fileKey()) ||
+                    !attributes.lastModifiedTime().equals(current.lastModifiedTime()) ||
+                    attributes.size() != current.size();
+        }
+
+        private int find(final String name) {
+            final byte[] key = name.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int result = compare(middle, key);
+                if (result < 0) {
+                    low = middle + 1;
+                } else if (result > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+
+            return -1;
+        }
+
+        private int compare(final int index, final byte[] key) {
+            final int entry = HEADER_SIZE + index * ENTRY_SIZE;
+            final int offset = buffer.getInt(entry);
+            final int length = buffer.getInt(entry + 4);
+            final int size = Math.min(length, key.length);
+            for (int i = 0; i < size; i++) {
+                final int result = Integer.compare(buffer.get(offset + i) & 0xFF, key[i] & 0xFF);
+                if (result != 0) {
+                    return result;
+                }
+            }
+
+            return Integer.compare(length, key.length);
+        }
+
+        private IntStream getIndexesById() {
+            return IntStream.range(0, count).
+                    boxed().
+                    sorted(Comparator.comparingLong(this::getId)).
+                    mapToInt(Integer::intValue);
+        }
+
+        private long getId(final int index) {
+            return buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE + 16);
+        }
+
+        private String getName(final int index) {
+            final int entry = HEADER_SIZE + index * ENTRY_SIZE;
+            return getString(buffer.getInt(entry), buffer.getInt(entry + 4));
+        }
+
+        private Config getConfig(final int index) {
+            final int entry = HEADER_SIZE + index * ENTRY_SIZE;
+            try {
+                return new Config.Builder((JsonObject) Jsoner.deserialize(getString(buffer.getInt(entry + 8),
+                        buffer.getInt(entry + 12)))).build();
+            } catch (final Exception e) {
+                throw new RuntimeException(WRONG_MAPPED_FILE, e);
+            }
+        }
+
+        private Config getVersion(final int index) {
+            final int entry = HEADER_SIZE + index * ENTRY_SIZE;
+            final Config.Builder builder = new Config.Builder(getName(index), Collections.emptyList()).
+                    version(buffer.getInt(entry + 24)).
+                    updated(buffer.getLong(entry + 28));
+            final long id = buffer.getLong(entry + 16);
+            return (id > 0 ? builder.id(id) : builder).build();
+        }
+
+        private String getString(final int offset, final int length) {
+            final byte[] bytes = new byte[length];
+            // A duplicate has its own position, so the buffer is read by several threads
+            final ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(offset);
+            duplicate.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the mapped config repository.
+     */
+    final static class Builder {
+        private final Path path;
+        private long checkInterval = 1000;
+
+        /**
+         * Constructs a mapped config repository with a required parameter.
+         *
+         * @param path a path of the file.
+         */
+        Builder(final Path path) {
+            this.path = Validator.of(path).get();
+        }
+
+        /**
+         * Constructs a mapped config repository with a time to wait before the file is checked for a new version.
+         *
+         * @param checkInterval a check interval in milliseconds, 1000 by default.
+         * @return a builder of the mapped config repository.
+         */
+        Builder checkInterval(final long checkInterval) {
+            this.checkInterval = Validator.of(checkInterval).validate(i -> i >= 0, WRONG_INTERVAL_VALUE).get();
+            return this;
+        }
+
+        /**
+         * Builds a mapped config repository with a required parameter.
+         *
+         * @return a builder of the mapped config repository.
+         */
+        public ConfigRepository build() {
+            return new MappedConfigRepository(this);
+        }
+    }
+}
@@ -12,16 +12,22 @@ package com.github.akarazhev.metaconfig.api;
 
 import com.github.akarazhev.metaconfig.engine.web.WebServer;
 import com.github.akarazhev.metaconfig.engine.web.WebServers;
+import com.github.akarazhev.metaconfig.extension.Metrics;
 import com.github.akarazhev.metaconfig.extension.Validator;
 
 import javax.sql.DataSource;
 import java.io.Closeable;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static com.github.akarazhev.metaconfig.Constants.Messages.META_CONFIG_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_QUEUE_SIZE_VALUE;
 
 /**
  * The core configuration class that provides the functionality.
@@ -43,6 +49,22 @@ public final class MetaConfig implements ConfigService, Closeable {
         return configService.update(stream);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Stream<Config>> updateAsync(final Stream<Config> stream) {
+        return configService.updateAsync(stream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patch(final String name, final int version, final ConfigPatch patch) {
+        return configService.patch(name, version, patch);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -75,6 +97,46 @@ public final class MetaConfig implements ConfigService, Closeable {
         return configService.get(stream);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Stream<Config>> getAsync(final Stream<String> stream) {
+        return configService.getAsync(stream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final Consumer<Config> consumer) {
+        configService.forEach(consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> getVersions() {
+        return configService.getVersions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> getVersions(final Stream<String> stream) {
+        return configService.getVersions(stream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<ChangeEvent> getChanges(final long sequence, final int size) {
+        return configService.getChanges(sequence, size);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -99,6 +161,51 @@ public final class MetaConfig implements ConfigService, Closeable {
         configService.addConsumer(consumer);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Subscription subscribe(final Predicate<Config> filter, final Consumer<Config> consumer) {
+        return configService.subscribe(filter, consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Subscription subscribe(final Stream<String> stream, final Consumer<Config> consumer) {
+        return configService.subscribe(stream, consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Subscription watch(final Consumer<ChangeEvent> consumer) {
+        return configService.watch(consumer);
+    }
+
+    /**
+     * Writes all configuration models into a file that can be mapped by another instance, e.g. on an edge node.
+     * The file replaces an existed one at once, so a mapping instance reads either the old or the new version.
+     *
+     * @param path a path of the file.
+     */
+    public void export(final Path path) {
+        try (final Stream<Config> stream = configService.get()) {
+            MappedConfigRepository.write(path, stream);
+        }
+    }
+
+    /**
+     * Returns metrics of requests, repository operations and statements, e.g. to export them to a monitoring system.
+     *
+     * @return metrics.
+     */
+    public Metrics getMetrics() {
+        return Metrics.getInstance();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -108,6 +215,10 @@ public final class MetaConfig implements ConfigService, Closeable {
         if (webServer != null) {
             webServer.stop();
         }
+        // Stop the dispatching of configs
+        if (configService instanceof ConfigServiceImpl) {
+            ((ConfigServiceImpl) configService).close();
+        }
     }
 
     /**
@@ -119,6 +230,12 @@ public final class MetaConfig implements ConfigService, Closeable {
         private Map<String, String> dataMapping;
         private Map<String, Object> dbSettings;
         private DataSource dataSource;
+        private Path mappedFile;
+        private boolean isInMemory;
+        private Path writeAheadLog;
+        private boolean isTiered;
+        private Executor dispatchExecutor;
+        private int dispatchQueueSize = Dispatcher.DEFAULT_QUEUE_SIZE;
         private boolean isDefaultConfig;
 
         /**
@@ -183,6 +300,71 @@ public final class MetaConfig implements ConfigService, Closeable {
             return this;
         }
 
+        /**
+         * Constructs the core configuration class with a read-only file that is mapped into memory.
+         *
+         * @param path a path of the file that is written by <code>export</code>.
+         * @return a builder of the core configuration class.
+         */
+        public Builder mappedFile(final Path path) {
+            this.mappedFile = Validator.of(path).get();
+            return this;
+        }
+
+        /**
+         * Constructs the core configuration class with configs that are kept in memory, e.g. on a single node.
+         *
+         * @return a builder of the core configuration class.
+         */
+        public Builder inMemory() {
+            this.isInMemory = true;
+            return this;
+        }
+
+        /**
+         * Constructs the core configuration class with configs that are kept in memory and written to a log.
+         *
+         * @param path a path of the write-ahead log, configs are restored from it at start.
+         * @return a builder of the core configuration class.
+         */
+        public Builder inMemory(final Path path) {
+            this.isInMemory = true;
+            this.writeAheadLog = Validator.of(path).get();
+            return this;
+        }
+
+        /**
+         * Constructs the core configuration class with configs that are cached in the heap over a DB or a web server.
+         *
+         * @return a builder of the core configuration class.
+         */
+        public Builder tiered() {
+            this.isTiered = true;
+            return this;
+        }
+
+        /**
+         * Constructs the core configuration class with an executor to dispatch configs to subscribers.
+         *
+         * @param executor an executor.
+         * @return a builder of the core configuration class.
+         */
+        public Builder dispatchExecutor(final Executor executor) {
+            this.dispatchExecutor = Validator.of(executor).get();
+            return this;
+        }
+
+        /**
+         * Constructs the core configuration class with a size of subscriber queues.
+         *
+         * @param queueSize a maximum number of pending configs per subscriber.
+         * @return a builder of the core configuration class.
+         */
+        public Builder dispatchQueueSize(final int queueSize) {
+            this.dispatchQueueSize = Validator.of(queueSize).validate(s -> s > 0, WRONG_QUEUE_SIZE_VALUE).get();
+            return this;
+        }
+
         /**
          * Constructs the core configuration with the default configuration.
          *
@@ -205,11 +387,21 @@ public final class MetaConfig implements ConfigService, Closeable {
                 // init settings
                 final Map<String, Object> settings = dbSettings != null ? dbSettings : new HashMap<>();
                 // Init the repository
-                final ConfigRepository configRepository = dataSource != null ?
+                final ConfigRepository repository = dataSource != null ?
                         new DbConfigRepository.Builder(dataSource).mapping(mapping).settings(settings).build() :
-                        new WebConfigRepository.Builder(webClient).build();
+                        mappedFile != null ? new MappedConfigRepository.Builder(mappedFile).build() :
+                                isInMemory ? getInMemoryRepository() :
+                                        new WebConfigRepository.Builder(webClient).build();
+                // Configs of a mapped file or in memory are already in the heap
+                final ConfigRepository configRepository = isTiered &&
+                        (repository instanceof DbConfigRepository || repository instanceof WebConfigRepository) ?
+                        new TieredConfigRepository.Builder(repository).build() :
+                        repository;
                 // Init the config service
-                final ConfigService configService = new ConfigServiceImpl.Builder(configRepository).build();
+                final ConfigService configService = new ConfigServiceImpl.Builder(configRepository).
+                        executor(dispatchExecutor).
+                        queueSize(dispatchQueueSize).
+                        build();
                 // Init the web server
                 WebServer webServer = null;
                 if (isDefaultConfig) {
@@ -223,5 +415,10 @@ public final class MetaConfig implements ConfigService, Closeable {
                 throw new RuntimeException(META_CONFIG_ERROR, e);
             }
         }
+
+        private ConfigRepository getInMemoryRepository() {
+            final InMemoryConfigRepository.Builder builder = new InMemoryConfigRepository.Builder();
+            return (writeAheadLog != null ? builder.writeAheadLog(writeAheadLog) : builder).build();
+        }
     }
 }
@@ -0,0 +1,277 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.Metrics;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.SLOW_STATEMENT;
+import static com.github.akarazhev.metaconfig.extension.Metrics.DB_ROWS_READ;
+import static com.github.akarazhev.metaconfig.extension.Metrics.DB_SLOW_STATEMENTS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.DB_STATEMENTS;
+
+/**
+ * Wraps a data source, so statements executed and rows read by the repository are counted.
+ * Connections, statements and result sets are wrapped with dynamic proxies of their interfaces.
+ * If a threshold is set, every statement is traced, and a statement that takes longer is logged
+ * with the operation of the repository and kept by metrics. If neither is enabled, the data source
+ * is not wrapped.
+ */
+final class MeteredDataSource {
+    private final static Logger LOGGER = Logger.getLogger(MeteredDataSource.class.getSimpleName());
+    // A context of the thread that has taken a connection, it is shared with tasks of the thread
+    private final static ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+    private final static Metrics.Counter STATEMENTS_COUNTER = Metrics.getInstance().counter(DB_STATEMENTS);
+    private final static Metrics.Counter ROWS_COUNTER = Metrics.getInstance().counter(DB_ROWS_READ);
+    private final static Metrics.Counter SLOW_STATEMENTS_COUNTER = Metrics.getInstance().counter(DB_SLOW_STATEMENTS);
+
+    private MeteredDataSource() {
+        throw new AssertionError("Private constructor could not be instantiated");
+    }
+
+    /**
+     * Returns a data source that counts statements and rows.
+     *
+     * @param dataSource a data source.
+     * @param threshold  a threshold of slow statements in milliseconds, a negative value disables tracing.
+     * @param isCounted  true if statements and rows are counted.
+     * @return a metered data source or the data source if nothing is metered.
+     */
+    static DataSource wrap(final DataSource dataSource, final int threshold, final boolean isCounted) {
+        if (threshold < 0 && !isCounted) {
+            return dataSource;
+        }
+
+        return (DataSource) wrap(DataSource.class, dataSource, null,
+                threshold >= 0 ? TimeUnit.MILLISECONDS.toNanos(threshold) : -1, null);
+    }
+
+    /**
+     * Returns a task that is executed with the context of the current thread, so statements of another thread
+     * are counted and traced by the operation of the current one.
+     *
+     * @param task a task.
+     * @param <T>  a type of the result.
+     * @return a task with the context.
+     */
+    static <T> Callable<T> withContext(final Callable<T> task) {
+        final Context context = CONTEXT.get();
+        return () -> {
+            final Context prevContext = CONTEXT.get();
+            CONTEXT.set(context);
+            try {
+                return task.call();
+            } finally {
+                CONTEXT.set(prevContext);
+            }
+        };
+    }
+
+    /**
+     * Sets an operation of the repository for statements of the current thread.
+     *
+     * @param operation an operation.
+     * @return a previous operation.
+     */
+    static String setOperation(final String operation) {
+        final Context context = CONTEXT.get();
+        final String prevOperation = context.operation;
+        context.operation = operation;
+        return prevOperation;
+    }
+
+    /**
+     * Returns a number of statements executed by the current thread.
+     *
+     * @return a number of statements.
+     */
+    static long getStatements() {
+        return CONTEXT.get().statements.get();
+    }
+
+    /**
+     * Returns a number of rows read by the current thread.
+     *
+     * @return a number of rows.
+     */
+    static long getRows() {
+        return CONTEXT.get().rows.get();
+    }
+
+    private static Object wrap(final Class<?> type, final Object target, final Context context, final long threshold,
+                               final Trace trace) {
+        return Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class[]{type},
+                new Handler(target, context, threshold, trace));
+    }
+
+    private final static class Context {
+        private volatile String operation;
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+    }
+
+    /**
+     * A trace of a statement execution, a query is finished when its result set is closed.
+     */
+    private final static class Trace {
+        private final Context context;
+        private String sql;
+        private int binds;
+        private int batch;
+        private long rows;
+        private long start = -1;
+
+        private Trace(final Context context, final String sql) {
+            this.context = context;
+            this.sql = sql;
+        }
+
+        private void start(final String sql) {
+            if (sql != null) {
+                // The sql of a plain statement is passed with every execution
+                this.sql = sql;
+            }
+
+            rows = 0;
+            start = System.nanoTime();
+        }
+
+        private void finish(final long threshold) {
+            if (start < 0) {
+                return;
+            }
+
+            final long duration = System.nanoTime() - start;
+            // A zero threshold logs every statement that takes any time
+            if (duration > threshold) {
+                final long millis = TimeUnit.NANOSECONDS.toMillis(duration);
+                SLOW_STATEMENTS_COUNTER.increment();
+                LOGGER.log(Level.WARNING,
+                        String.format(SLOW_STATEMENT, context.operation, millis, rows, binds, batch, sql));
+                final JsonObject statement = new JsonObject();
+                statement.put("operation", context.operation);
+                statement.put("sql", sql);
+                statement.put("binds", binds);
+                statement.put("batch", batch);
+                statement.put("rows", rows);
+                statement.put("time", millis);
+                statement.put("executed", Clock.systemDefaultZone().millis() - millis);
+                Metrics.getInstance().addSlowStatement(statement);
+            }
+
+            batch = 0;
+            start = -1;
+        }
+    }
+
+    private final static class Handler implements InvocationHandler {
+        private final Object target;
+        private final Context context;
+        private final long threshold;
+        private final Trace trace;
+
+        private Handler(final Object target, final Context context, final long threshold, final Trace trace) {
+            this.target = target;
+            this.context = context;
+            this.threshold = threshold;
+            this.trace = trace;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            final boolean isExecute = target instanceof Statement && name.startsWith("execute");
+            if (trace != null && target instanceof Statement) {
+                trace(name, args, isExecute);
+            }
+
+            final Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (isExecute) {
+                // A batch is sent with one round trip, so it is counted as one statement
+                STATEMENTS_COUNTER.increment();
+                context.statements.incrementAndGet();
+                if (trace != null && !(result instanceof ResultSet)) {
+                    trace.rows = getRows(result);
+                    trace.finish(threshold);
+                }
+            } else if (target instanceof ResultSet && "next".equals(name) && Boolean.TRUE.equals(result)) {
+                ROWS_COUNTER.increment();
+                context.rows.incrementAndGet();
+                if (trace != null) {
+                    trace.rows++;
+                }
+            } else if (trace != null && "close".equals(name)) {
+                trace.finish(threshold);
+            }
+
+            final Class<?> type = method.getReturnType();
+            if (result != null && type == Connection.class) {
+                return wrap(type, result, CONTEXT.get(), threshold, null);
+            } else if (result != null && Statement.class.isAssignableFrom(type)) {
+                final String sql = args != null && args[0] instanceof String ? (String) args[0] : null;
+                return wrap(type, result, context, threshold, threshold >= 0 ? new Trace(context, sql) : null);
+            } else if (result != null && type == ResultSet.class) {
+                return wrap(type, result, context, threshold, trace);
+            }
+
+            return result;
+        }
+
+        private void trace(final String name, final Object[] args, final boolean isExecute) {
+            if (isExecute) {
+                trace.start(args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+            } else if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                trace.binds = Math.max(trace.binds, (Integer) args[0]);
+            } else if ("addBatch".equals(name)) {
+                trace.batch++;
+            }
+        }
+
+        private long getRows(final Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                long rows = 0;
+                for (final int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+
+                return rows;
+            }
+
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+/**
+ * Provides methods to control a subscription to configuration changes and to read its metrics.
+ */
+public interface Subscription {
+    /**
+     * Cancels the subscription, pending changes are discarded.
+     */
+    void cancel();
+
+    /**
+     * Returns a state of the subscription.
+     *
+     * @return true if the subscription is cancelled.
+     */
+    boolean isCancelled();
+
+    /**
+     * Returns a number of configuration models that are waiting for delivery.
+     *
+     * @return a queue depth.
+     */
+    int getQueueSize();
+
+    /**
+     * Returns a number of delivered configuration models.
+     *
+     * @return a number of deliveries.
+     */
+    long getDelivered();
+
+    /**
+     * Returns a number of configuration models replaced in the queue by a later version.
+     *
+     * @return a number of coalesced models.
+     */
+    long getCoalesced();
+
+    /**
+     * Returns a number of configuration models dropped because the queue was full.
+     *
+     * @return a number of dropped models.
+     */
+    long getDropped();
+
+    /**
+     * Returns an average time between queuing and delivering of a configuration model.
+     *
+     * @return a latency in nanoseconds.
+     */
+    long getAverageLatency();
+
+    /**
+     * Returns a maximum time between queuing and delivering of a configuration model.
+     *
+     * @return a latency in nanoseconds.
+     */
+    long getMaxLatency();
+}
@@ -0,0 +1,316 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.extension.Validator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.RESET;
+
+/**
+ * Provides repository methods over two tiers: configs are read through a local tier in the heap and are written
+ * through to an origin repository, e.g. a DB or a web one. The local tier is read without locks, configs are
+ * immutable. Names of changed configs are invalidated by writes, by the accept endpoint that other nodes call and by
+ * the watch stream of a web origin.
+ */
+final class TieredConfigRepository implements ConfigRepository {
+    private final ConfigRepository origin;
+    private final Map<String, Config> configs = new ConcurrentHashMap<>();
+    // Concurrent misses of the same names are fetched from the origin once
+    private final Coalescer coalescer;
+    // It is changed by every invalidation, configs fetched before it are not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Subscription watchSubscription;
+
+    private TieredConfigRepository(final Builder builder) {
+        this.origin = builder.origin;
+        this.coalescer = new Coalescer(origin::findByNames);
+        // A web origin streams changes of the server
+        this.watchSubscription = origin instanceof WebConfigRepository ?
+                ((WebConfigRepository) origin).watch(this::invalidate) :
+                null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findByNames(final Stream<String> stream) {
+        final List<Config> found = new ArrayList<>();
+        final List<String> missed = new ArrayList<>();
+        stream.distinct().forEach(name -> {
+            final Config config = configs.get(name);
+            if (config != null) {
+                found.add(config);
+            } else {
+                missed.add(name);
+            }
+        });
+
+        hits.add(found.size());
+        if (!missed.isEmpty()) {
+            misses.add(missed.size());
+            final long current = generation.get();
+            final List<Config> fetched = coalescer.get(missed.stream()).collect(Collectors.toList());
+            put(fetched, current);
+            found.addAll(fetched);
+        }
+
+        found.sort(Comparator.comparing(Config::getName));
+        return found.stream();
+    }
+
+    /**
+     * {@inheritDoc} Configs of the local tier are returned at once.
+     */
+    @Override
+    public CompletableFuture<Stream<Config>> findByNamesAsync(final Stream<String> stream, final Executor executor) {
+        final List<String> names = stream.collect(Collectors.toList());
+        final List<Config> cached = getCached(names);
+        return cached != null ?
+                CompletableFuture.completedFuture(cached.stream()) :
+                CompletableFuture.supplyAsync(() -> findByNames(names.stream()), executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findAll() {
+        return origin.findAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final Consumer<Config> consumer) {
+        origin.forEach(consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions() {
+        return origin.findVersions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions(final Stream<String> stream) {
+        return findByNames(stream).map(config -> new Config.Builder(config.getName(), new ArrayList<>()).
+                id(config.getId()).
+                version(config.getVersion()).
+                updated(config.getUpdated()).
+                build());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<ChangeEvent> findChanges(final long sequence, final int size) {
+        return origin.findChanges(sequence, size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<String> findNames() {
+        return origin.findNames();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PageResponse findByPageRequest(final PageRequest request) {
+        return origin.findByPageRequest(request);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> saveAndFlush(final Stream<Config> stream) {
+        final long current = generation.get();
+        final List<Config> saved;
+        try {
+            saved = origin.saveAndFlush(stream).collect(Collectors.toList());
+        } finally {
+            coalescer.invalidate();
+        }
+
+        put(saved, current);
+        return saved.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patch(final String name, final int version, final ConfigPatch patch) {
+        try {
+            return origin.patch(name, version, patch);
+        } finally {
+            invalidate(Stream.of(name));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int delete(final Stream<String> stream) {
+        final List<String> names = stream.collect(Collectors.toList());
+        try {
+            return origin.delete(names.stream());
+        } finally {
+            invalidate(names.stream());
+        }
+    }
+
+    /**
+     * Returns configuration models if all of them are in the local tier.
+     *
+     * @param names configuration names.
+     * @return configuration models or null if any of them is not in the local tier.
+     */
+    List<Config> getCached(final Collection<String> names) {
+        final List<Config> found = new ArrayList<>(names.size());
+        for (final String name : names) {
+            final Config config = configs.get(name);
+            if (config == null) {
+                return null;
+            }
+
+            if (!found.contains(config)) {
+                found.add(config);
+            }
+        }
+
+        hits.add(found.size());
+        found.sort(Comparator.comparing(Config::getName));
+        return found;
+    }
+
+    /**
+     * Removes configuration models from the local tier, they are read from the origin on the next access.
+     *
+     * @param stream a stream of names.
+     */
+    void invalidate(final Stream<String> stream) {
+        generation.incrementAndGet();
+        coalescer.invalidate();
+        stream.forEach(configs::remove);
+    }
+
+    /**
+     * Removes configuration models of a change event from the local tier.
+     *
+     * @param event a change event.
+     */
+    void invalidate(final ChangeEvent event) {
+        if (RESET.equals(event.getOperation())) {
+            // Events are lost, so no config of the local tier can be trusted
+            generation.incrementAndGet();
+            coalescer.invalidate();
+            configs.clear();
+        } else {
+            invalidate(Stream.of(event.getName()));
+        }
+    }
+
+    /**
+     * Returns the origin repository.
+     *
+     * @return a repository.
+     */
+    ConfigRepository getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Returns the number of configs in the local tier, hits and misses.
+     *
+     * @return an array of the size, hits and misses.
+     */
+    long[] getStats() {
+        return new long[]{configs.size(), hits.sum(), misses.sum()};
+    }
+
+    /**
+     * {@inheritDoc} The watch of a web origin is stopped and the origin is closed.
+     */
+    @Override
+    public void close() {
+        if (watchSubscription != null) {
+            watchSubscription.cancel();
+        }
+
+        origin.close();
+    }
+
+    private void put(final List<Config> fetched, final long current) {
+        // Configs are not cached if an invalidation has happened while they were fetched
+        if (generation.get() == current) {
+            fetched.forEach(config -> configs.merge(config.getName(), config, (cached, value) ->
+                    value.getVersion() >= cached.getVersion() ? value : cached));
+            if (generation.get() != current) {
+                fetched.forEach(config -> configs.remove(config.getName(), config));
+            }
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the tiered config repository.
+     */
+    final static class Builder {
+        private final ConfigRepository origin;
+
+        /**
+         * Constructs a tiered config repository with a required parameter.
+         *
+         * @param origin an origin repository.
+         */
+        Builder(final ConfigRepository origin) {
+            this.origin = Validator.of(origin).get();
+        }
+
+        /**
+         * Builds a tiered config repository with a required parameter.
+         *
+         * @return a builder of the tiered config repository.
+         */
+        public ConfigRepository build() {
+            return new TieredConfigRepository(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+/**
+ * Extends a standard <code>IllegalStateException</code> to be thrown when a configuration model does not have
+ * the expected version, e.g. it has been changed by another client.
+ */
+public final class VersionConflictException extends IllegalStateException {
+    /**
+     * Constructs an exception with a message.
+     *
+     * @param message a message.
+     */
+    public VersionConflictException(final String message) {
+        super(message);
+    }
+}
@@ -10,20 +10,49 @@
  * limitations under the License. */
 package com.github.akarazhev.metaconfig.api;
 
-import com.github.akarazhev.metaconfig.engine.web.WebClient;
+import com.github.akarazhev.metaconfig.engine.web.BalancedWebClient;
+import com.github.akarazhev.metaconfig.engine.web.PooledWebClient;
+import com.github.akarazhev.metaconfig.extension.Metrics;
 import com.github.akarazhev.metaconfig.extension.Validator;
 import com.github.cliftonlabs.json_simple.JsonArray;
 import com.github.cliftonlabs.json_simple.JsonObject;
 import com.github.cliftonlabs.json_simple.Jsoner;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.ACCEPT_CONFIG;
@@ -31,39 +60,150 @@ import static com.github.akarazhev.metaconfig.Constants.Endpoints.ACCEPT_CONFIG_
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_QUERY;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_QUERY_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.WATCH;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.WATCH_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Messages.CONFIG_ACCEPT_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.DELETE_CONFIGS_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_CONFIG_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CHANGE_EVENTS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CONFIGS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CONFIG_NAMES_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_PAGE_RESPONSE_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.SAVE_CONFIGS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.SERVER_WRONG_STATUS_CODE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.SNAPSHOT_READ_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.SNAPSHOT_SERVED;
+import static com.github.akarazhev.metaconfig.Constants.Messages.SNAPSHOT_WRITE_ERROR;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.APPLICATION_JSON;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.DELETE;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PATCH;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.POST;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PUT;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.CONFIGS;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.NAMES;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.PROJECTION;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.VERSIONS;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT_TYPE;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.IF_NONE_MATCH;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.QUERY_THRESHOLD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.READ_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.SNAPSHOT_PATH;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.STALE_IF_ERROR;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.STALE_WHILE_REVALIDATE;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.WATCH_TIMEOUT;
 import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.ERROR;
 import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.RESULT;
 import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.SUCCESS;
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.RESET;
+import static com.github.akarazhev.metaconfig.api.Configurable.ConfigBuilder.getLong;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_SNAPSHOT_AGE;
+import static java.net.HttpURLConnection.HTTP_CONFLICT;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.AbstractMap.SimpleEntry;
 
 /**
  * {@inheritDoc}
  */
 final class WebConfigRepository implements ConfigRepository {
+    private final static Logger LOGGER = Logger.getLogger(WebConfigRepository.class.getSimpleName());
+    // The default time to wait for change events
+    private final static long WATCH_TIMEOUT_VALUE = 30000;
+    // The time to wait before the next watch request after an error
+    private final static long WATCH_RETRY_DELAY = 1000;
+    // The time to wait for a response of the watch request in addition to its timeout
+    private final static long WATCH_READ_DELAY = 10000;
+    // The maximum number of cached responses
+    private final static int MAX_CACHED_RESPONSES = 256;
+    // The default number of names above which names are posted in the body of a query
+    private final static int QUERY_THRESHOLD_VALUE = 100;
+    // The default maximum age of a snapshot that is served while it is revalidated
+    private final static long STALE_WHILE_REVALIDATE_VALUE = 3600000;
+    // The default maximum age of a snapshot that is served when servers are unavailable
+    private final static long STALE_IF_ERROR_VALUE = 86400000;
+    // The maximum time to wait before the next revalidation of a snapshot after an error
+    private final static long REVALIDATE_MAX_DELAY = 30000;
+    // The time after which a confirmed but not changed snapshot is written again to keep its age on the disk
+    private final static long SNAPSHOT_WRITE_INTERVAL = 60000;
+    // The maximum time to wait for the last snapshot to be written on close
+    private final static long SNAPSHOT_WRITE_TIMEOUT = 5000;
     private final Config config;
+    // The client keeps connections and TLS sessions between requests and balances them between servers
+    private final BalancedWebClient client;
+    // The number of names above which names are posted in the body of a query
+    private final int queryThreshold;
+    // The last responses with entity tags by urls of requests, they are revalidated by the server
+    private final Map<String, SimpleEntry<String, JsonObject>> responses =
+            Collections.synchronizedMap(new LinkedHashMap<String, SimpleEntry<String, JsonObject>>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, SimpleEntry<String, JsonObject>> eldest) {
+                    return size() > MAX_CACHED_RESPONSES;
+                }
+            });
+    private final Dispatcher<ChangeEvent> watchDispatcher =
+            new Dispatcher.Builder<>(ChangeEvent::getName, ChangeEvent::getSequence, Runnable::run).build();
+    private Thread watchThread;
+    // The path of a local snapshot or null if it is not set
+    private final Path snapshotPath;
+    private final long staleWhileRevalidate;
+    private final long staleIfError;
+    private final Object snapshotLock = new Object();
+    // Configs of the snapshot by names, the map is replaced on changes
+    private volatile Map<String, Config> snapshot = Collections.emptyMap();
+    // The time when all configs of the snapshot were received from a server or 0 if there is no snapshot
+    private volatile long snapshotUpdated;
+    // The time of the snapshot on the disk
+    private volatile long snapshotWritten;
+    // Snapshots are written on the own thread, so reads do not wait for the disk
+    private final ExecutorService snapshotWriter;
+    // The latest snapshot that is not written yet, a newer snapshot replaces it, so writes are coalesced
+    private SimpleEntry<Collection<Config>, Long> pendingSnapshot;
+    // The snapshot is served without requests until it is revalidated
+    private volatile boolean revalidated = true;
+    private Thread revalidateThread;
 
     private WebConfigRepository(final Builder builder) {
-        this.config = builder.config;
+        this.client = new BalancedWebClient.Builder(builder.config).build();
+        // Requests are built by the url of the client, it is rewritten for a chosen server
+        this.config = builder.config.getProperty(URL).isPresent() ? builder.config :
+                new Config.Builder(builder.config).property(new String[0],
+                        new Property.Builder(URL, client.getUrl()).build()).build();
+        this.queryThreshold = config.getProperty(QUERY_THRESHOLD).
+                map(property -> (int) property.asLong()).
+                orElse(QUERY_THRESHOLD_VALUE);
+        this.snapshotPath = config.getProperty(SNAPSHOT_PATH).map(property -> Paths.get(property.getValue())).
+                orElse(null);
+        this.staleWhileRevalidate = config.getProperty(STALE_WHILE_REVALIDATE).map(Property::asLong).
+                orElse(STALE_WHILE_REVALIDATE_VALUE);
+        this.staleIfError = config.getProperty(STALE_IF_ERROR).map(Property::asLong).orElse(STALE_IF_ERROR_VALUE);
+        this.snapshotWriter = snapshotPath != null ? Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "config-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (snapshotPath != null) {
+            readSnapshot();
+            Metrics.getInstance().gauge(CLIENT_SNAPSHOT_AGE, "path", snapshotPath.toString()).
+                    set(() -> snapshotUpdated > 0 ? getSnapshotAge() / 1000.0 : Double.NaN);
+            if (isRevalidating(false)) {
+                // Configs are served from the snapshot at once and are received from a server in the background
+                revalidated = false;
+                revalidateThread = new Thread(this::revalidate, "config-revalidate");
+                revalidateThread.setDaemon(true);
+                revalidateThread.start();
+            }
+        }
     }
 
     /**
@@ -71,8 +211,86 @@ final class WebConfigRepository implements ConfigRepository {
      */
     @Override
     public Stream<Config> findByNames(final Stream<String> stream) {
-        return ((JsonArray) getContent(getProperties(stream, GET), RECEIVED_CONFIGS_ERROR)).stream().
-                map(config -> new Config.Builder((JsonObject) config).build());
+        final List<String> names = stream.collect(Collectors.toList());
+        return serve(() -> putSnapshot(names,
+                        getConfigs(getContent(getNamesProperties(names), RECEIVED_CONFIGS_ERROR))),
+                () -> getSnapshot(names)).stream();
+    }
+
+    /**
+     * {@inheritDoc} A calling thread is not blocked, the executor is not used.
+     */
+    @Override
+    public CompletableFuture<Stream<Config>> findByNamesAsync(final Stream<String> stream, final Executor executor) {
+        final List<String> names = stream.collect(Collectors.toList());
+        if (isRevalidating(true)) {
+            return CompletableFuture.completedFuture(getSnapshot(names).stream());
+        }
+
+        return getContentAsync(getNamesProperties(names), RECEIVED_CONFIGS_ERROR).
+                thenApply(content -> putSnapshot(names, getConfigs(content))).
+                handle((configs, throwable) -> {
+                    if (throwable == null) {
+                        return configs;
+                    }
+
+                    final RuntimeException exception = (RuntimeException) (throwable instanceof CompletionException ?
+                            throwable.getCause() : throwable);
+                    return getStaleSnapshot(exception, () -> getSnapshot(names));
+                }).
+                thenApply(List::stream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findAll() {
+        // Set the configuration
+        final Collection<Property> properties = new ArrayList<>(3);
+        this.config.getProperty(ACCEPT_ALL_HOSTS).ifPresent(property ->
+                properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, property.asBool()).build()));
+        setProperties(GET, CONFIG, CONFIG_VALUE, properties);
+
+        return serve(() -> putSnapshot(getConfigs(getContent(properties, RECEIVED_CONFIGS_ERROR))),
+                () -> getSnapshot(snapshot.keySet())).stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(final Consumer<Config> consumer) {
+        findAll().forEach(consumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions() {
+        // A revalidated response is served from the cache, so the projection does not transfer configs again
+        return findAll().map(this::getVersion);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Config> findVersions(final Stream<String> stream) {
+        final List<String> names = stream.collect(Collectors.toList());
+        // Only the projection is transferred, since a revalidated response is not cached for the post method
+        return serve(() -> getConfigs(getContent(getQueryProperties(names, VERSIONS), RECEIVED_CONFIGS_ERROR)),
+                () -> getSnapshot(names)).stream().
+                map(this::getVersion);
+    }
+
+    private Config getVersion(final Config config) {
+        return new Config.Builder(config.getName(), Collections.emptyList()).
+                id(config.getId()).
+                version(config.getVersion()).
+                updated(config.getUpdated()).
+                build();
     }
 
     /**
@@ -86,7 +304,10 @@ final class WebConfigRepository implements ConfigRepository {
                 properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, property.asBool()).build()));
         setProperties(GET, CONFIG_NAMES, CONFIG_NAMES_VALUE, properties);
 
-        return ((JsonArray) getContent(properties, RECEIVED_CONFIG_NAMES_ERROR)).stream().map(Objects::toString);
+        return serve(() -> ((JsonArray) getContent(properties, RECEIVED_CONFIG_NAMES_ERROR)).stream().
+                        map(Objects::toString).
+                        collect(Collectors.toList()),
+                () -> snapshot.keySet().stream().sorted().collect(Collectors.toList())).stream();
     }
 
     /**
@@ -109,17 +330,42 @@ final class WebConfigRepository implements ConfigRepository {
      */
     @Override
     public Stream<Config> saveAndFlush(final Stream<Config> stream) {
+        final List<Config> configs = getConfigs(getContent(getProperties(stream), SAVE_CONFIGS_ERROR));
+        return putSnapshot(configs.stream().map(Config::getName).collect(Collectors.toList()), configs).stream();
+    }
+
+    /**
+     * {@inheritDoc} A calling thread is not blocked, the executor is not used.
+     */
+    @Override
+    public CompletableFuture<Stream<Config>> saveAndFlushAsync(final Stream<Config> stream, final Executor executor) {
+        return getContentAsync(getProperties(stream), SAVE_CONFIGS_ERROR).
+                thenApply(content -> {
+                    final List<Config> configs = getConfigs(content);
+                    return putSnapshot(configs.stream().map(Config::getName).collect(Collectors.toList()), configs).
+                            stream();
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patch(final String name, final int version, final ConfigPatch patch) {
+        final JsonObject jsonPatch = new JsonObject();
+        jsonPatch.put("name", Validator.of(name).get());
+        jsonPatch.put("version", version);
+        jsonPatch.put("operations", Validator.of(patch).get().getOperations().collect(Collectors.toList()));
         // Set the configuration
         final Collection<Property> properties = new ArrayList<>(6);
         this.config.getProperty(ACCEPT_ALL_HOSTS).ifPresent(property ->
                 properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, property.asBool()).build()));
-        setProperties(PUT, CONFIG, CONFIG_VALUE, properties);
+        setProperties(PATCH, CONFIG, CONFIG_VALUE, properties);
         properties.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
         properties.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
-        properties.add(new Property.Builder(CONTENT, Jsoner.serialize(stream.toArray(Config[]::new))).build());
+        properties.add(new Property.Builder(CONTENT, jsonPatch.toJson()).build());
 
-        return ((JsonArray) getContent(properties, SAVE_CONFIGS_ERROR)).stream().
-                map(config -> new Config.Builder((JsonObject) config).build());
+        return ((BigDecimal) getContent(properties, PATCH_CONFIG_ERROR)).intValue();
     }
 
     /**
@@ -127,7 +373,11 @@ final class WebConfigRepository implements ConfigRepository {
      */
     @Override
     public int delete(final Stream<String> stream) {
-        return ((BigDecimal) getContent(getProperties(stream, DELETE), DELETE_CONFIGS_ERROR)).intValue();
+        final List<String> names = stream.collect(Collectors.toList());
+        final int deleted = ((BigDecimal) getContent(getProperties(names.stream(), DELETE), DELETE_CONFIGS_ERROR)).
+                intValue();
+        putSnapshot(names, Collections.emptyList());
+        return deleted;
     }
 
     /**
@@ -151,6 +401,317 @@ final class WebConfigRepository implements ConfigRepository {
         getContent(properties, CONFIG_ACCEPT_ERROR);
     }
 
+    /**
+     * Watches changes of configuration models. One background thread holds a long-poll request to the server
+     * while there is at least one active subscription, the consumer is called on this thread.
+     *
+     * @param consumer an implementation of the consumer.
+     * @return a subscription.
+     */
+    public synchronized Subscription watch(final Consumer<ChangeEvent> consumer) {
+        final Subscription subscription = watchDispatcher.subscribe(event -> true, consumer);
+        if (watchThread == null) {
+            watchThread = new Thread(this::watch, "config-watch");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        }
+
+        return subscription;
+    }
+
+    /**
+     * {@inheritDoc} Idle connections of the web client are closed, the revalidation of the snapshot is stopped and
+     * the last snapshot is written.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (revalidateThread != null) {
+                revalidateThread.interrupt();
+                revalidateThread = null;
+            }
+        }
+
+        if (snapshotWriter != null) {
+            snapshotWriter.shutdown();
+            try {
+                snapshotWriter.awaitTermination(SNAPSHOT_WRITE_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (snapshotPath != null) {
+            Metrics.getInstance().gauge(CLIENT_SNAPSHOT_AGE, "path", snapshotPath.toString()).set(Double.NaN);
+        }
+
+        client.close();
+    }
+
+    private void revalidate() {
+        long delay = WATCH_RETRY_DELAY;
+        while (!revalidated) {
+            try {
+                final List<String> names = new ArrayList<>(snapshot.keySet());
+                putSnapshot(names, getConfigs(getContent(getNamesProperties(names), RECEIVED_CONFIGS_ERROR)));
+                revalidated = true;
+            } catch (final Exception e) {
+                LOGGER.log(Level.WARNING, e.toString());
+                try {
+                    Thread.sleep(delay);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                delay = Math.min(delay * 2, REVALIDATE_MAX_DELAY);
+            }
+        }
+
+        synchronized (this) {
+            revalidateThread = null;
+        }
+    }
+
+    private <T> T serve(final Supplier<T> remote, final Supplier<T> local) {
+        if (isRevalidating(true)) {
+            return local.get();
+        }
+
+        try {
+            return remote.get();
+        } catch (final RuntimeException e) {
+            return getStaleSnapshot(e, local);
+        }
+    }
+
+    private <T> T getStaleSnapshot(final RuntimeException exception, final Supplier<T> local) {
+        final long age = getSnapshotAge();
+        if (age >= 0 && age <= staleIfError) {
+            LOGGER.log(Level.WARNING, String.format(SNAPSHOT_SERVED, snapshotPath, age), exception);
+            return local.get();
+        }
+
+        throw exception;
+    }
+
+    private boolean isRevalidating(final boolean checkRevalidated) {
+        final long age = getSnapshotAge();
+        return !(checkRevalidated && revalidated) && age >= 0 && age <= staleWhileRevalidate;
+    }
+
+    private long getSnapshotAge() {
+        final long updated = snapshotUpdated;
+        return updated > 0 ? Math.max(0, System.currentTimeMillis() - updated) : -1;
+    }
+
+    private List<Config> getSnapshot(final Collection<String> names) {
+        final Map<String, Config> configs = snapshot;
+        return names.stream().
+                distinct().
+                map(configs::get).
+                filter(Objects::nonNull).
+                sorted(Comparator.comparing(Config::getName)).
+                collect(Collectors.toList());
+    }
+
+    private List<Config> putSnapshot(final List<Config> configs) {
+        if (snapshotPath != null) {
+            synchronized (snapshotLock) {
+                // All configs are received, so deleted ones are removed
+                final Map<String, Config> current = new HashMap<>();
+                configs.forEach(config -> current.put(config.getName(), config));
+                setSnapshot(current, true);
+            }
+        }
+
+        return configs;
+    }
+
+    private List<Config> putSnapshot(final Collection<String> names, final List<Config> configs) {
+        if (snapshotPath != null) {
+            synchronized (snapshotLock) {
+                // Requested configs that are not received have been deleted
+                final Map<String, Config> current = new HashMap<>(snapshot);
+                names.forEach(current::remove);
+                // The age is reset only when every config of the snapshot is received
+                final boolean confirmed = current.isEmpty();
+                configs.forEach(config -> current.put(config.getName(), config));
+                setSnapshot(current, confirmed);
+            }
+        }
+
+        return configs;
+    }
+
+    private void setSnapshot(final Map<String, Config> configs, final boolean confirmed) {
+        final long updated = confirmed ? System.currentTimeMillis() : snapshotUpdated;
+        final boolean changed = !configs.equals(snapshot);
+        snapshot = Collections.unmodifiableMap(configs);
+        snapshotUpdated = updated;
+        if (changed || updated - snapshotWritten >= SNAPSHOT_WRITE_INTERVAL) {
+            final boolean isScheduled = pendingSnapshot != null;
+            pendingSnapshot = new SimpleEntry<>(configs.values(), updated);
+            if (!isScheduled) {
+                try {
+                    snapshotWriter.execute(this::writeSnapshot);
+                } catch (final RejectedExecutionException e) {
+                    // The repository is closed, the last snapshot has been written
+                    pendingSnapshot = null;
+                }
+            }
+        }
+    }
+
+    private void readSnapshot() {
+        if (Files.exists(snapshotPath)) {
+            try (final BufferedReader reader = Files.newBufferedReader(snapshotPath, StandardCharsets.UTF_8)) {
+                final JsonObject jsonSnapshot = (JsonObject) Jsoner.deserialize(reader);
+                final Map<String, Config> configs = new HashMap<>();
+                ((JsonArray) jsonSnapshot.get("configs")).forEach(json -> {
+                    final Config config = new Config.Builder((JsonObject) json).build();
+                    configs.put(config.getName(), config);
+                });
+
+                snapshot = Collections.unmodifiableMap(configs);
+                snapshotWritten = getLong(jsonSnapshot, "updated");
+                snapshotUpdated = snapshotWritten;
+            } catch (final Exception e) {
+                LOGGER.log(Level.WARNING, String.format(SNAPSHOT_READ_ERROR, snapshotPath), e);
+            }
+        }
+    }
+
+    private void writeSnapshot() {
+        final SimpleEntry<Collection<Config>, Long> pending;
+        synchronized (snapshotLock) {
+            pending = pendingSnapshot;
+            pendingSnapshot = null;
+        }
+
+        if (pending != null) {
+            writeSnapshot(pending.getKey(), pending.getValue());
+        }
+    }
+
+    private void writeSnapshot(final Collection<Config> configs, final long updated) {
+        final JsonObject jsonSnapshot = new JsonObject();
+        jsonSnapshot.put("updated", updated);
+        jsonSnapshot.put("configs", new JsonArray(configs));
+        try {
+            final Path directory = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            // The snapshot is replaced by a complete file, so it is never read partially written
+            final Path temp = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
+            try {
+                try (final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    jsonSnapshot.toJson(writer);
+                }
+
+                try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+
+                try {
+                    Files.move(temp, snapshotPath, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                snapshotWritten = updated;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, String.format(SNAPSHOT_WRITE_ERROR, snapshotPath), e);
+        }
+    }
+
+    private void watch() {
+        long sequence = -1;
+        String url = null;
+        boolean isResync = false;
+        while (true) {
+            synchronized (this) {
+                if (!watchDispatcher.hasSubscribers()) {
+                    watchThread = null;
+                    return;
+                }
+            }
+
+            try {
+                final String watchUrl = client.getWatchUrl();
+                if (url != null && !url.equals(watchUrl)) {
+                    // Sequences of servers are not the same, so the watch of another server starts from its current
+                    // sequence and changes between servers are lost
+                    sequence = -1;
+                    isResync = true;
+                }
+
+                url = watchUrl;
+                final JsonObject result = getWatchResult(getProperties(sequence));
+                sequence = getLong(result, "sequence");
+                if (isResync) {
+                    isResync = false;
+                    watchDispatcher.publish(new ChangeEvent.Builder(RESET, "").sequence(sequence).build());
+                }
+
+                ((JsonArray) result.get("events")).forEach(event ->
+                        watchDispatcher.publish(new ChangeEvent.Builder((JsonObject) event).build()));
+            } catch (final Exception e) {
+                LOGGER.log(Level.WARNING, e.toString());
+                try {
+                    Thread.sleep(WATCH_RETRY_DELAY);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    synchronized (this) {
+                        watchThread = null;
+                    }
+
+                    return;
+                }
+            }
+        }
+    }
+
+    private JsonObject getWatchResult(final Collection<Property> properties) {
+        try {
+            final Config request = new Config.Builder(CONFIG_NAME, properties).build();
+            return (JsonObject) Jsoner.deserialize((String) getResult(request, null, client.watch(request)));
+        } catch (final Exception e) {
+            throw new RuntimeException(RECEIVED_CHANGE_EVENTS_ERROR, e);
+        }
+    }
+
+    private Collection<Property> getProperties(final long sequence) {
+        final long timeout = config.getProperty(WATCH_TIMEOUT).map(Property::asLong).orElse(WATCH_TIMEOUT_VALUE);
+        // Set the configuration
+        final Collection<Property> properties = new ArrayList<>(4);
+        this.config.getProperty(ACCEPT_ALL_HOSTS).ifPresent(property ->
+                properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, property.asBool()).build()));
+        this.config.getProperty(URL).ifPresent(property ->
+                properties.add(new Property.Builder(URL, property.getValue() + "/" +
+                        config.getProperty(WATCH).map(Property::getValue).orElse(WATCH_VALUE) +
+                        "?since=" + sequence + "&timeout=" + timeout).build()));
+        properties.add(new Property.Builder(METHOD, GET).build());
+        // The response is held by the server up to the timeout
+        properties.add(new Property.Builder(READ_TIMEOUT, timeout + WATCH_READ_DELAY).build());
+        return properties;
+    }
+
+    private Collection<Property> getProperties(final Stream<Config> stream) {
+        // Set the configuration
+        final Collection<Property> properties = new ArrayList<>(6);
+        this.config.getProperty(ACCEPT_ALL_HOSTS).ifPresent(property ->
+                properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, property.asBool()).build()));
+        setProperties(PUT, CONFIG, CONFIG_VALUE, properties);
+        properties.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT, Jsoner.serialize(stream.toArray(Config[]::new))).build());
+        return properties;
+    }
+
     private Collection<Property> getProperties(final Stream<String> stream, final String method) {
         // Set the configuration
         final Collection<Property> properties = new ArrayList<>(3);
@@ -164,6 +725,28 @@ final class WebConfigRepository implements ConfigRepository {
         return properties;
     }
 
+    private Collection<Property> getNamesProperties(final List<String> names) {
+        // A large set of names is sent in the body, so the url does not exceed limits of proxies
+        return names.size() > queryThreshold ?
+                getQueryProperties(names, CONFIGS) :
+                getProperties(names.stream(), GET);
+    }
+
+    private Collection<Property> getQueryProperties(final Collection<String> names, final String projection) {
+        final JsonObject jsonQuery = new JsonObject();
+        jsonQuery.put(NAMES, new JsonArray(names));
+        jsonQuery.put(PROJECTION, projection);
+        // Set the configuration
+        final Collection<Property> properties = new ArrayList<>(6);
+        this.config.getProperty(ACCEPT_ALL_HOSTS).ifPresent(property ->
+                properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, property.asBool()).build()));
+        setProperties(POST, CONFIG_QUERY, CONFIG_QUERY_VALUE, properties);
+        properties.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT, jsonQuery.toJson()).build());
+        return properties;
+    }
+
     private Collection<Property> getProperties(final PageRequest request) {
         final String pageRequest =
                 new String(Base64.getEncoder().encode(request.toJson().getBytes()), StandardCharsets.UTF_8);
@@ -189,6 +772,12 @@ final class WebConfigRepository implements ConfigRepository {
         properties.add(new Property.Builder(METHOD, method).build());
     }
 
+    private List<Config> getConfigs(final Object content) {
+        return ((JsonArray) content).stream().
+                map(config -> new Config.Builder((JsonObject) config).build()).
+                collect(Collectors.toList());
+    }
+
     private String getAsArrayInBase64(final Stream<String> stream) {
         final String jsonNames = new JsonArray(Arrays.asList(stream.toArray(String[]::new))).toJson();
         return new String(Base64.getEncoder().encode(jsonNames.getBytes()), StandardCharsets.UTF_8);
@@ -196,20 +785,78 @@ final class WebConfigRepository implements ConfigRepository {
 
     private Object getContent(final Collection<Property> properties, final String error) {
         try {
-            final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
-            final int code = client.getStatusCode();
-            if (code == HTTP_OK) {
-                final JsonObject content = client.getJsonContent();
-                if ((Boolean) content.get(SUCCESS)) {
-                    return content.get(RESULT);
-                } else {
-                    throw new IOException((String) content.get(ERROR));
+            final Config request = new Config.Builder(CONFIG_NAME, properties).build();
+            final SimpleEntry<String, JsonObject> response = getResponse(request);
+            return getResult(request, response, client.send(revalidate(request, response)));
+        } catch (final VersionConflictException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new RuntimeException(error, e);
+        }
+    }
+
+    private CompletableFuture<Object> getContentAsync(final Collection<Property> properties, final String error) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        try {
+            final Config request = new Config.Builder(CONFIG_NAME, properties).build();
+            final SimpleEntry<String, JsonObject> response = getResponse(request);
+            client.sendAsync(revalidate(request, response)).whenComplete((reply, throwable) -> {
+                try {
+                    if (throwable != null) {
+                        future.completeExceptionally(new RuntimeException(error,
+                                throwable instanceof CompletionException ? throwable.getCause() : throwable));
+                    } else {
+                        future.complete(getResult(request, response, reply));
+                    }
+                } catch (final Exception e) {
+                    future.completeExceptionally(new RuntimeException(error, e));
                 }
+            });
+        } catch (final Exception e) {
+            future.completeExceptionally(new RuntimeException(error, e));
+        }
+
+        return future;
+    }
+
+    private String getCachedUrl(final Config request) {
+        // Only a content of the get method is cached
+        return request.getProperty(METHOD).map(Property::getValue).filter(GET::equals).
+                flatMap(method -> request.getProperty(URL)).map(Property::getValue).orElse(null);
+    }
+
+    private SimpleEntry<String, JsonObject> getResponse(final Config request) {
+        final String url = getCachedUrl(request);
+        return url != null ? responses.get(url) : null;
+    }
+
+    private Config revalidate(final Config request, final SimpleEntry<String, JsonObject> response) {
+        return response != null ? new Config.Builder(request).
+                property(new String[0], new Property.Builder(IF_NONE_MATCH, response.getKey()).build()).
+                build() : request;
+    }
+
+    private Object getResult(final Config request, final SimpleEntry<String, JsonObject> response,
+                             final PooledWebClient.Response reply) throws Exception {
+        final int code = reply.getStatusCode();
+        if (code == HTTP_NOT_MODIFIED && response != null) {
+            return response.getValue().get(RESULT);
+        } else if (code == HTTP_OK) {
+            final JsonObject content = reply.getJsonContent();
+            final String url = getCachedUrl(request);
+            if (url != null && reply.getETag() != null) {
+                responses.put(url, new SimpleEntry<>(reply.getETag(), content));
+            }
+
+            if ((Boolean) content.get(SUCCESS)) {
+                return content.get(RESULT);
             } else {
-                throw new IOException(String.format(SERVER_WRONG_STATUS_CODE, code));
+                throw new IOException((String) content.get(ERROR));
             }
-        } catch (final Exception e) {
-            throw new RuntimeException(error, e);
+        } else if (code == HTTP_CONFLICT) {
+            throw new VersionConflictException((String) reply.getJsonContent().get(ERROR));
+        } else {
+            throw new IOException(String.format(SERVER_WRONG_STATUS_CODE, code));
         }
     }
 
@@ -16,6 +16,12 @@ public final class SQL {
         public static final String SUB_PROPERTIES =
                 "INSERT INTO %s (PROPERTY_ID, CONFIG_ID, NAME, CAPTION, DESCRIPTION, TYPE, `VALUE`, " +
                         "UPDATED) VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
+        public static final String CHANGE_LOG =
+                "INSERT INTO %s (ID, NAME, VERSION, OPERATION, UPDATED) VALUES (?, ?, ?, ?, ?);";
+        public static final String CHANGE_LOG_SEQUENCE =
+                "INSERT INTO %1$s (ID, LAST_ID) SELECT 1, M.LAST_ID FROM " +
+                        "(SELECT COALESCE(MAX(CL.ID), 0) AS LAST_ID FROM %2$s AS CL) AS M " +
+                        "WHERE NOT EXISTS (SELECT S.ID FROM %1$s AS S WHERE S.ID = 1);";
     }
 
     public final static class UPDATE {
@@ -23,6 +29,8 @@ public final class SQL {
         public static final String CONFIGS =
                 "UPDATE %s SET NAME = ?, DESCRIPTION = ?, VERSION = ?, UPDATED = ? " +
                         "WHERE ID = ? AND VERSION = ?;";
+        public static final String CONFIG_VERSION =
+                "UPDATE %s SET VERSION = ?, UPDATED = ? WHERE ID = ? AND VERSION = ?;";
         public static final String CONFIG_ATTRIBUTE =
                 "UPDATE %s SET `VALUE` = ? WHERE CONFIG_ID = ? AND `KEY` = ?;";
         public static final String PROPERTIES =
@@ -30,6 +38,8 @@ public final class SQL {
                         "UPDATED = ? WHERE ID = ?;";
         public static final String PROPERTY_ATTRIBUTE =
                 "UPDATE %s SET `VALUE` = ? WHERE PROPERTY_ID = ? AND `KEY` = ?;";
+        public static final String CHANGE_LOG_SEQUENCE =
+                "UPDATE %s SET LAST_ID = LAST_ID + ? WHERE ID = 1;";
     }
 
     public final static class DELETE {
@@ -48,6 +58,9 @@ public final class SQL {
                 "DELETE FROM %1$s WHERE %1$s.CONFIG_ID = ?;";
         public static final String PROPERTY =
                 "DELETE FROM %1$s WHERE %1$s.ID = ?;";
+        public static final String CHANGE_LOG =
+                "DELETE FROM %1$s WHERE %1$s.UPDATED <= ? AND %1$s.ID NOT IN " +
+                        "(SELECT MAX(CL.ID) FROM %1$s AS CL GROUP BY CL.NAME);";
     }
 
     public final static class SELECT {
@@ -70,6 +83,14 @@ public final class SQL {
                 "SELECT P.ID, P.UPDATED FROM %s AS P WHERE P.CONFIG_ID = ?;";
         public static final String CONFIG_VERSION_UPDATED =
                 "SELECT C.ID, C.VERSION, C.UPDATED FROM %s AS C WHERE ";
+        public static final String CONFIG_VERSIONS =
+                "SELECT C.ID, C.NAME, C.VERSION, C.UPDATED FROM %s AS C WHERE C.NAME = ?";
+        public static final String ALL_CONFIG_VERSIONS =
+                "SELECT C.ID, C.NAME, C.VERSION, C.UPDATED FROM %s AS C ORDER BY C.ID;";
+        public static final String CONFIG_ID_VERSION =
+                "SELECT C.ID, C.VERSION FROM %s AS C WHERE C.NAME = ?;";
+        public static final String PROPERTY_LINKS =
+                "SELECT P.ID, P.PROPERTY_ID, P.NAME FROM %s AS P WHERE P.CONFIG_ID = ?;";
         public static final String CONFIGS =
                 "SELECT C.ID, C.NAME, C.DESCRIPTION, C.VERSION, C.UPDATED, CA.`KEY`, " +
                         "CA.`VALUE`, P.ID, P.PROPERTY_ID, P.NAME , P.CAPTION, " +
@@ -79,6 +100,26 @@ public final class SQL {
                         "LEFT JOIN %2$s AS CA ON C.ID = CA.CONFIG_ID " +
                         "LEFT JOIN %4$s AS PA ON P.ID = PA.PROPERTY_ID " +
                         "WHERE C.NAME = ?";
+        public static final String ALL_CONFIGS =
+                "SELECT C.ID, C.NAME, C.DESCRIPTION, C.VERSION, C.UPDATED, CA.`KEY`, " +
+                        "CA.`VALUE`, P.ID, P.PROPERTY_ID, P.NAME , P.CAPTION, " +
+                        "P.DESCRIPTION, P.TYPE, P.`VALUE`, P.UPDATED, PA.`KEY`, PA.`VALUE` " +
+                        "FROM %1$s AS C " +
+                        "LEFT JOIN %3$s AS P ON C.ID = P.CONFIG_ID " +
+                        "LEFT JOIN %2$s AS CA ON C.ID = CA.CONFIG_ID " +
+                        "LEFT JOIN %4$s AS PA ON P.ID = PA.PROPERTY_ID " +
+                        "ORDER BY C.ID;";
+        public static final String CHANGE_LOG =
+                "SELECT CL.ID, CL.NAME, CL.VERSION, CL.OPERATION, CL.UPDATED FROM %s AS CL " +
+                        "WHERE CL.ID > ? ORDER BY CL.ID LIMIT ?;";
+        public static final String CHANGE_LOG_SEQUENCE =
+                "SELECT S.LAST_ID FROM %s AS S WHERE S.ID = 1;";
+    }
+
+    public final static class CREATE_INDEX {
+
+        public static final String CONFIG_NAMES =
+                "CREATE INDEX IF NOT EXISTS %2$s_NAME_IDX ON %1$s (NAME);";
     }
 
     public final static class CREATE_TABLE {
@@ -117,5 +158,16 @@ public final class SQL {
                         "`KEY` VARCHAR(255) NOT NULL, " +
                         "`VALUE` VARCHAR(1024), " +
                         "FOREIGN KEY(PROPERTY_ID) REFERENCES %2$s(ID) ON DELETE CASCADE)";
+        public static final String CHANGE_LOG =
+                "CREATE TABLE IF NOT EXISTS %s " +
+                        "(ID BIGINT NOT NULL PRIMARY KEY, " +
+                        "NAME VARCHAR(255) NOT NULL, " +
+                        "VERSION INT NOT NULL, " +
+                        "OPERATION VARCHAR(16) NOT NULL, " +
+                        "UPDATED BIGINT NOT NULL);";
+        public static final String CHANGE_LOG_SEQUENCE =
+                "CREATE TABLE IF NOT EXISTS %s " +
+                        "(ID INT NOT NULL PRIMARY KEY, " +
+                        "LAST_ID BIGINT NOT NULL);";
     }
 }
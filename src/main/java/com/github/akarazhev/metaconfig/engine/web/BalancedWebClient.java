@@ -0,0 +1,605 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web;
+
+import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.Property;
+import com.github.akarazhev.metaconfig.extension.Metrics;
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.PARAM_NOT_PRESENTED;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_BALANCING_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_EJECTION_FAILURES_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_TIMEOUT_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.BALANCING;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.EJECTION_FAILURES;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.EJECTION_TIME;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.HEDGING;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URLS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_EJECTIONS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_ENDPOINT_DURATION;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_HEDGED_REQUESTS;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/**
+ * The web client that sends requests to several servers with the same api. It is created once by a config with
+ * the "web-client" name, a request is sent by a url that starts with the first url of the client and the url
+ * is rewritten for a chosen server. Connections are kept by one pooled web client. The following parameters
+ * can be set in a config property in addition to the ones of the pooled web client:
+ * - urls: urls of servers, the url param is used if it is not set;
+ * - balancing: "round-robin" or "least-outstanding" requests;
+ * - hedging: a get request is sent to another server if the first one has not answered after its p95 latency;
+ * - ejection-failures: a number of consecutive failures after which a server is ejected;
+ * - ejection-time: a time in milliseconds for which a failed server is not chosen while others are available;
+ * A request that fails to connect or is answered with 503 is sent to the next server, a get request is also
+ * sent to the next server after any failure. A watch request is sent to one server while it answers,
+ * it is not hedged and its latency is not recorded.
+ */
+public final class BalancedWebClient implements AutoCloseable {
+    // Requests are sent to servers in turn
+    public static final String ROUND_ROBIN = "round-robin";
+    // A request is sent to a server with the least number of outstanding requests
+    public static final String LEAST_OUTSTANDING = "least-outstanding";
+    // The default number of consecutive failures after which a server is ejected
+    private final static long EJECTION_FAILURES_VALUE = 3;
+    // The default time for which a failed server is ejected
+    private final static long EJECTION_TIME_VALUE = 30000;
+    // The minimum number of latencies of a server to estimate the delay of a hedged request
+    private final static long HEDGE_MIN_COUNT = 20;
+    private final static double HEDGE_QUANTILE = 0.95;
+    private final PooledWebClient client;
+    private final String url;
+    private final List<Endpoint> endpoints;
+    private final boolean isLeastOutstanding;
+    private final boolean isHedging;
+    private final int ejectionFailures;
+    private final long ejectionTime;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    // The server of watch requests, it is chosen again after a failure
+    private volatile Endpoint watchEndpoint;
+
+    private BalancedWebClient(final Builder builder) {
+        final Config config = builder.config;
+        final PooledWebClient.Builder clientBuilder = new PooledWebClient.Builder(config);
+        if (builder.executor != null) {
+            clientBuilder.executor(builder.executor);
+        }
+
+        this.client = clientBuilder.build();
+        final List<String> urls = getUrls(config);
+        this.url = config.getProperty(URL).map(property -> trim(property.getValue())).orElse(urls.get(0));
+        this.endpoints = Collections.unmodifiableList(urls.stream().map(Endpoint::new).collect(Collectors.toList()));
+        this.isLeastOutstanding =
+                LEAST_OUTSTANDING.equals(config.getProperty(BALANCING).map(Property::getValue).orElse(ROUND_ROBIN));
+        this.isHedging = config.getProperty(HEDGING).map(Property::asBool).orElse(false);
+        this.ejectionFailures =
+                config.getProperty(EJECTION_FAILURES).map(Property::asLong).orElse(EJECTION_FAILURES_VALUE).intValue();
+        this.ejectionTime = TimeUnit.MILLISECONDS.toNanos(
+                config.getProperty(EJECTION_TIME).map(Property::asLong).orElse(EJECTION_TIME_VALUE));
+        if (isHedging) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "web-client-hedge");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Returns the url by which requests of the client start.
+     *
+     * @return a url.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Sends a request to one of servers and reads the whole response. A hedged request is sent asynchronously.
+     *
+     * @param request a configuration of a request with the "web-client" name.
+     * @return a response.
+     */
+    public PooledWebClient.Response send(final Config request) {
+        if (isHedged(request)) {
+            try {
+                return sendAsync(request).join();
+            } catch (final CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        final String path = getPath(request);
+        if (path == null) {
+            return client.send(request);
+        }
+
+        final Collection<Endpoint> tried = new ArrayList<>(endpoints.size());
+        PooledWebClient.Response failed = null;
+        RuntimeException error = null;
+        Endpoint endpoint;
+        while ((endpoint = choose(tried)) != null) {
+            tried.add(endpoint);
+            try {
+                final PooledWebClient.Response response = endpoint.send(request, path);
+                if (!isFailover(request, response)) {
+                    return response;
+                }
+
+                failed = response;
+            } catch (final RuntimeException e) {
+                if (!isFailover(request, e)) {
+                    throw e;
+                }
+
+                error = e;
+            }
+        }
+
+        if (failed != null) {
+            return failed;
+        }
+
+        throw error;
+    }
+
+    /**
+     * Sends a request to one of servers asynchronously, the request is executed by the pool of the client.
+     *
+     * @param request a configuration of a request with the "web-client" name.
+     * @return a future of a response.
+     */
+    public CompletableFuture<PooledWebClient.Response> sendAsync(final Config request) {
+        final String path = getPath(request);
+        if (path == null) {
+            return client.sendAsync(request);
+        }
+
+        final Exchange exchange = new Exchange(request, path);
+        exchange.start();
+        return exchange.result;
+    }
+
+    /**
+     * Returns the url of the server that watch requests are sent to. The server is kept while it answers, another
+     * one is chosen after a failure, so a watcher of another server starts from its current sequence.
+     *
+     * @return a url of the server.
+     */
+    public String getWatchUrl() {
+        Endpoint endpoint = watchEndpoint;
+        if (endpoint == null) {
+            endpoint = choose(Collections.emptyList());
+            watchEndpoint = endpoint;
+        }
+
+        return endpoint.url;
+    }
+
+    /**
+     * Sends a long-poll watch request to the server of the watch url and reads the whole response.
+     *
+     * @param request a configuration of a request with the "web-client" name.
+     * @return a response.
+     */
+    public PooledWebClient.Response watch(final Config request) {
+        final String path = getPath(request);
+        if (path == null) {
+            return client.send(request);
+        }
+
+        getWatchUrl();
+        final Endpoint endpoint = watchEndpoint;
+        try {
+            final PooledWebClient.Response response = endpoint.watch(request, path);
+            if (response.getStatusCode() >= HTTP_INTERNAL_ERROR) {
+                watchEndpoint = null;
+            }
+
+            return response;
+        } catch (final RuntimeException e) {
+            watchEndpoint = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Returns statistics of servers by their urls: outstanding requests, requests, failures, hedged requests,
+     * an ejected state and the p95 latency in milliseconds.
+     *
+     * @return statistics.
+     */
+    public JsonObject getStats() {
+        final long now = System.nanoTime();
+        final JsonObject stats = new JsonObject();
+        endpoints.forEach(endpoint -> {
+            final JsonObject endpointStats = new JsonObject();
+            endpointStats.put("outstanding", endpoint.outstanding.get());
+            endpointStats.put("requests", endpoint.requests.sum());
+            endpointStats.put("failures", endpoint.failures.sum());
+            endpointStats.put("hedges", endpoint.hedges.sum());
+            endpointStats.put("ejected", endpoint.isEjected(now));
+            endpointStats.put("p95", endpoint.latency.getValueAtQuantile(HEDGE_QUANTILE) / 1_000_000d);
+            stats.put(endpoint.url, endpointStats);
+        });
+        return stats;
+    }
+
+    /**
+     * Closes idle connections and stops hedging.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        client.close();
+    }
+
+    private List<String> getUrls(final Config config) {
+        final Stream<String> urls = config.getProperty(URLS).
+                map(property -> Arrays.stream(property.asArray())).
+                orElseGet(() -> config.getProperty(URL).
+                        map(property -> Stream.of(property.getValue())).
+                        orElseGet(Stream::empty));
+        return urls.map(this::trim).collect(Collectors.toList());
+    }
+
+    private String trim(final String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private String getPath(final Config request) {
+        final String requestUrl = request.getProperty(URL).map(Property::getValue).orElse(null);
+        return requestUrl != null && requestUrl.startsWith(url) ? requestUrl.substring(url.length()) : null;
+    }
+
+    private Endpoint choose(final Collection<Endpoint> tried) {
+        final long now = System.nanoTime();
+        final int size = endpoints.size();
+        final int start = Math.floorMod(next.getAndIncrement(), size);
+        Endpoint chosen = null;
+        Endpoint ejected = null;
+        for (int i = 0; i < size; i++) {
+            final Endpoint endpoint = endpoints.get((start + i) % size);
+            if (tried.contains(endpoint)) {
+                continue;
+            }
+
+            if (endpoint.isEjected(now)) {
+                // If all servers are ejected, the one that is ejected earlier is chosen
+                if (ejected == null || endpoint.ejectedUntil - ejected.ejectedUntil < 0) {
+                    ejected = endpoint;
+                }
+            } else if (chosen == null) {
+                chosen = endpoint;
+                if (!isLeastOutstanding) {
+                    break;
+                }
+            } else if (endpoint.outstanding.get() < chosen.outstanding.get()) {
+                chosen = endpoint;
+            }
+        }
+
+        return chosen != null ? chosen : ejected;
+    }
+
+    private long getHedgeDelay(final Endpoint endpoint) {
+        // A server that has not answered enough requests is hedged by latencies of others
+        long delay = -1;
+        for (final Endpoint other : endpoints) {
+            if (other.latency.getCount() >= HEDGE_MIN_COUNT) {
+                final long latency = other.latency.getValueAtQuantile(HEDGE_QUANTILE);
+                if (other == endpoint) {
+                    return latency;
+                }
+
+                delay = Math.max(delay, latency);
+            }
+        }
+
+        return delay;
+    }
+
+    private boolean isHedged(final Config request) {
+        return isHedging && endpoints.size() > 1 && isIdempotent(request);
+    }
+
+    private boolean isIdempotent(final Config request) {
+        return GET.equals(request.getProperty(METHOD).map(Property::getValue).orElse(GET));
+    }
+
+    private boolean isFailover(final Config request, final PooledWebClient.Response response) {
+        // The server sheds a request before it is executed
+        return response.getStatusCode() == HTTP_UNAVAILABLE ||
+                response.getStatusCode() >= HTTP_INTERNAL_ERROR && isIdempotent(request);
+    }
+
+    private boolean isFailover(final Config request, final Throwable throwable) {
+        // A request that has not been sent to a server can be sent to another one
+        return isIdempotent(request) || isConnectFailure(throwable);
+    }
+
+    private static boolean isConnectFailure(final Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * A server of the client with its latency and failures.
+     */
+    private final class Endpoint {
+        private final String url;
+        private final Metrics.Histogram latency;
+        private final Metrics.Counter ejections;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private volatile boolean isEjected;
+        private volatile long ejectedUntil;
+
+        private Endpoint(final String url) {
+            this.url = url;
+            this.latency = Metrics.getInstance().histogram(CLIENT_ENDPOINT_DURATION, "endpoint", url);
+            this.ejections = Metrics.getInstance().counter(CLIENT_EJECTIONS, "endpoint", url);
+        }
+
+        private PooledWebClient.Response send(final Config request, final String path) {
+            final long start = begin();
+            try {
+                final PooledWebClient.Response response = client.send(getRequest(request, path));
+                complete(start, response, null);
+                return response;
+            } catch (final RuntimeException e) {
+                complete(start, null, e);
+                throw e;
+            }
+        }
+
+        private PooledWebClient.Response watch(final Config request, final String path) {
+            // A long-poll request is held by the server, so it is not outstanding and its latency is not recorded
+            requests.increment();
+            try {
+                final PooledWebClient.Response response = client.send(getRequest(request, path));
+                complete(response, null);
+                return response;
+            } catch (final RuntimeException e) {
+                complete(null, e);
+                throw e;
+            }
+        }
+
+        private CompletableFuture<PooledWebClient.Response> sendAsync(final Config request, final String path) {
+            final long start = begin();
+            return client.sendAsync(getRequest(request, path)).
+                    whenComplete((response, throwable) -> complete(start, response, throwable));
+        }
+
+        private long begin() {
+            outstanding.incrementAndGet();
+            requests.increment();
+            return System.nanoTime();
+        }
+
+        private void complete(final long start, final PooledWebClient.Response response, final Throwable throwable) {
+            outstanding.decrementAndGet();
+            if (complete(response, throwable)) {
+                latency.recordSince(start);
+            }
+        }
+
+        private boolean complete(final PooledWebClient.Response response, final Throwable throwable) {
+            if (throwable == null && response.getStatusCode() < HTTP_INTERNAL_ERROR) {
+                consecutiveFailures.set(0);
+                isEjected = false;
+                return true;
+            }
+
+            failures.increment();
+            // A server that refuses connections is ejected at once
+            if (consecutiveFailures.incrementAndGet() >= ejectionFailures || isConnectFailure(throwable)) {
+                consecutiveFailures.set(0);
+                ejectedUntil = System.nanoTime() + ejectionTime;
+                isEjected = true;
+                ejections.increment();
+            }
+
+            return false;
+        }
+
+        private boolean isEjected(final long now) {
+            return isEjected && ejectedUntil - now > 0;
+        }
+
+        private Config getRequest(final Config request, final String path) {
+            final Collection<Property> properties = request.getProperties().
+                    filter(property -> !URL.equals(property.getName())).
+                    collect(Collectors.toCollection(ArrayList::new));
+            properties.add(new Property.Builder(URL, url + path).build());
+            return new Config.Builder(CONFIG_NAME, properties).build();
+        }
+    }
+
+    /**
+     * An asynchronous request that is sent to the next server after a failure, or to another server
+     * if it is hedged. The first successful response completes the request.
+     */
+    private final class Exchange {
+        private final Config request;
+        private final String path;
+        private final CompletableFuture<PooledWebClient.Response> result = new CompletableFuture<>();
+        private final Collection<Endpoint> tried = new ArrayList<>(endpoints.size());
+        private PooledWebClient.Response failed;
+        private Throwable error;
+        private int inFlight;
+
+        private Exchange(final Config request, final String path) {
+            this.request = request;
+            this.path = path;
+        }
+
+        private synchronized void start() {
+            final Endpoint endpoint = attempt();
+            if (endpoint != null && isHedged(request)) {
+                final long delay = getHedgeDelay(endpoint);
+                if (delay >= 0) {
+                    try {
+                        scheduler.schedule(this::hedge, delay, TimeUnit.NANOSECONDS);
+                    } catch (final RejectedExecutionException e) {
+                        // The client is closed, so the request is not hedged
+                    }
+                }
+            }
+        }
+
+        private synchronized void hedge() {
+            if (!result.isDone() && inFlight == 1) {
+                final Endpoint endpoint = attempt();
+                if (endpoint != null) {
+                    endpoint.hedges.increment();
+                    Metrics.getInstance().counter(CLIENT_HEDGED_REQUESTS).increment();
+                }
+            }
+        }
+
+        private Endpoint attempt() {
+            final Endpoint endpoint = choose(tried);
+            if (endpoint == null) {
+                complete();
+                return null;
+            }
+
+            tried.add(endpoint);
+            inFlight++;
+            endpoint.sendAsync(request, path).whenComplete(this::complete);
+            return endpoint;
+        }
+
+        private synchronized void complete(final PooledWebClient.Response response, final Throwable throwable) {
+            inFlight--;
+            if (result.isDone()) {
+                return;
+            }
+
+            if (throwable == null) {
+                if (!isFailover(request, response)) {
+                    result.complete(response);
+                    return;
+                }
+
+                failed = response;
+            } else {
+                error = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                if (!isFailover(request, error)) {
+                    complete();
+                    return;
+                }
+            }
+            // A hedged request is still running, so the next server is not tried yet
+            if (inFlight == 0) {
+                attempt();
+            }
+        }
+
+        private void complete() {
+            if (inFlight == 0) {
+                if (failed != null) {
+                    result.complete(failed);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the balanced web client.
+     */
+    public final static class Builder {
+        private final Config config;
+        private Executor executor;
+
+        /**
+         * Constructs a client based on the configuration.
+         *
+         * @param config a configuration of a web client.
+         */
+        public Builder(final Config config) {
+            this.config = Validator.of(config).
+                    validate(c -> CONFIG_NAME.equals(c.getName()), WRONG_CONFIG_NAME).
+                    validate(c -> c.getProperty(URLS).map(property -> property.asArray().length > 0).
+                            orElseGet(() -> c.getProperty(URL).isPresent()), String.format(PARAM_NOT_PRESENTED, URL)).
+                    validate(c -> c.getProperty(BALANCING).map(Property::getValue).
+                            map(value -> ROUND_ROBIN.equals(value) || LEAST_OUTSTANDING.equals(value)).
+                            orElse(true), WRONG_BALANCING_VALUE).
+                    validate(c -> c.getProperty(EJECTION_FAILURES).map(Property::asLong).orElse(1L) > 0,
+                            WRONG_EJECTION_FAILURES_VALUE).
+                    validate(c -> c.getProperty(EJECTION_TIME).map(Property::asLong).orElse(0L) >= 0,
+                            WRONG_TIMEOUT_VALUE).get();
+        }
+
+        /**
+         * Constructs a client with an executor of asynchronous requests.
+         *
+         * @param executor an executor.
+         * @return a builder of the balanced web client.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = Validator.of(executor).get();
+            return this;
+        }
+
+        /**
+         * Builds the balanced web client with parameters.
+         *
+         * @return a balanced web client.
+         */
+        public BalancedWebClient build() {
+            return new BalancedWebClient(this);
+        }
+    }
+}
@@ -31,6 +31,17 @@ public final class Constants {
         }
 
         public static final String APPLICATION_JSON = "application/json";
+        public static final String TEXT_PLAIN = "text/plain; version=0.0.4; charset=utf-8";
+        public static final String METHOD_OVERRIDE = "X-HTTP-Method-Override";
+        public static final String ACCEPT_ENCODING = "Accept-Encoding";
+        public static final String CONTENT_ENCODING = "Content-Encoding";
+        public static final String VARY = "Vary";
+        public static final String ETAG = "ETag";
+        public static final String IF_NONE_MATCH = "If-None-Match";
+        public static final String RETRY_AFTER = "Retry-After";
+        public static final String REQUEST_TIMEOUT = "X-Request-Timeout";
+        public static final String GZIP = "gzip";
+        public static final String DEFLATE = "deflate";
     }
 
     /**
@@ -46,5 +57,25 @@ public final class Constants {
         public static final String DELETE = "DELETE";
         public static final String GET = "GET";
         public static final String PUT = "PUT";
+        public static final String PATCH = "PATCH";
+    }
+
+    /**
+     * Query constants for the web client-server.
+     */
+    public final static class Query {
+
+        private Query() {
+            throw new AssertionError(CREATE_CONSTANT_CLASS_ERROR);
+        }
+
+        public static final String NAMES = "names";
+        public static final String PROJECTION = "projection";
+        public static final String PAGE = "page";
+        public static final String SIZE = "size";
+        // The projection of configuration models with properties
+        public static final String CONFIGS = "configs";
+        // The projection of configuration models with ids, names, versions and updated times
+        public static final String VERSIONS = "versions";
     }
 }
@@ -0,0 +1,97 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.DEFLATE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.GZIP;
+
+/**
+ * Reads contents of responses as bytes into a reusable buffer of the current thread, a content is decoded
+ * from UTF-8 once. The buffer is sized by a content length if it is known, a buffer that has grown beyond
+ * the limit is not kept by the thread.
+ */
+final class ContentReader {
+    // The initial size of a buffer of a thread
+    private final static int BUFFER_SIZE = 8192;
+    // The maximum size of a buffer that is kept by a thread
+    private final static int MAX_BUFFER_SIZE = 1 << 20;
+    // The expected ratio of a decompressed content to a compressed one
+    private final static int COMPRESSION_RATIO = 4;
+    private final static ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private ContentReader() {
+        throw new AssertionError("Private constructor could not be instantiated");
+    }
+
+    /**
+     * Reads a content until the end of a stream and decodes it.
+     *
+     * @param inputStream an input stream of a content, it is not closed.
+     * @param length      a length of a content in bytes or -1 if it is unknown.
+     * @param encoding    a content encoding or null.
+     * @return a content.
+     * @throws IOException when a content can not be read.
+     */
+    static String read(final InputStream inputStream, final long length, final String encoding) throws IOException {
+        if (GZIP.equalsIgnoreCase(encoding)) {
+            return read(new GZIPInputStream(inputStream), length > 0 ? length * COMPRESSION_RATIO : -1);
+        } else if (DEFLATE.equalsIgnoreCase(encoding)) {
+            return read(new InflaterInputStream(inputStream), length > 0 ? length * COMPRESSION_RATIO : -1);
+        }
+
+        return read(inputStream, length);
+    }
+
+    private static String read(final InputStream inputStream, final long length) throws IOException {
+        byte[] buffer = BUFFER.get();
+        if (length > buffer.length) {
+            buffer = new byte[(int) Math.min(length, Integer.MAX_VALUE - 8)];
+        }
+
+        int size = 0;
+        int count;
+        while ((count = inputStream.read(buffer, size, buffer.length - size)) >= 0) {
+            size += count;
+            if (size == buffer.length) {
+                if (size == length) {
+                    // An exact buffer is not grown to check the end of the stream
+                    final int next = inputStream.read();
+                    if (next < 0) {
+                        break;
+                    }
+
+                    buffer = grow(buffer);
+                    buffer[size++] = (byte) next;
+                } else {
+                    buffer = grow(buffer);
+                }
+            }
+        }
+
+        if (buffer.length <= MAX_BUFFER_SIZE && buffer.length > BUFFER.get().length) {
+            BUFFER.set(buffer);
+        }
+
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] grow(final byte[] buffer) {
+        final byte[] grown = new byte[buffer.length << 1];
+        System.arraycopy(buffer, 0, grown, 0, buffer.length);
+        return grown;
+    }
+}
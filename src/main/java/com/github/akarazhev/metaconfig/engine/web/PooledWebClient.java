@@ -0,0 +1,723 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web;
+
+import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.Property;
+import com.github.akarazhev.metaconfig.extension.FlightEvents;
+import com.github.akarazhev.metaconfig.extension.Metrics;
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonException;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.PARAM_NOT_PRESENTED;
+import static com.github.akarazhev.metaconfig.Constants.Messages.REQUEST_SEND_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_HTTP_RESPONSE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_POOL_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_TIMEOUT_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ACCEPT_ENCODING;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.CONTENT_ENCODING;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.DEFLATE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ETAG;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.GZIP;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.IF_NONE_MATCH;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.METHOD_OVERRIDE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.REQUEST_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PATCH;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.POST;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONNECT_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT_TYPE;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.IDLE_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.POOL_SIZE;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.READ_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_REQUESTS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_REQUEST_BYTES;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_REQUEST_DURATION;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+
+/**
+ * The long-lived implementation of the web client. It is created once by a config with the "web-client" name,
+ * requests are sent by configs with the same name and parameters as the ones of the web client.
+ * One SSL context is created for the client, so TLS sessions are resumed by new connections, and
+ * connections are kept alive between requests. The following parameters can be set in a config property:
+ * - accept-all-hosts: trust all certificates and hosts;
+ * - pool-size: a maximum number of idle connections per host;
+ * - idle-timeout: a time in milliseconds after which an idle connection is closed;
+ * - connect-timeout: a time in milliseconds to wait for a new connection;
+ * - read-timeout: a time in milliseconds to wait for data of a response, it can be set for a request;
+ * Requests can be sent asynchronously, they are executed by a dedicated pool, so a calling thread is not blocked.
+ * A request that fails on a reused connection before a response is sent again by a new one if it is a get request
+ * or if the request has not been written, a timed out request is not sent again.
+ * Connections are opened directly to hosts, proxies of the JVM (e.g. https.proxyHost) are not used.
+ */
+public final class PooledWebClient implements AutoCloseable {
+    // The default maximum number of idle connections per host
+    private final static long POOL_SIZE_VALUE = 8;
+    // The default time after which an idle connection is closed, it is less than the one of the server
+    private final static long IDLE_TIMEOUT_VALUE = 20000;
+    // The default time to wait for a new connection
+    private final static long CONNECT_TIMEOUT_VALUE = 10000;
+    // The default time to wait for data of a response, zero is an infinite timeout
+    private final static long READ_TIMEOUT_VALUE = 0;
+    private final static String HTTP_VERSION = "HTTP/1.1";
+    private final static String CRLF = "\r\n";
+    private final SSLContext sslContext;
+    private final boolean isAcceptAllHosts;
+    private final int poolSize;
+    private final long idleTimeout;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+    // Idle connections by hosts, the last released connection is taken first
+    private final Map<String, Deque<Connection>> idleConnections = new HashMap<>();
+    private volatile boolean isClosed;
+
+    private PooledWebClient(final Builder builder) {
+        final Config config = builder.config;
+        this.isAcceptAllHosts = config.getProperty(ACCEPT_ALL_HOSTS).map(Property::asBool).orElse(false);
+        this.poolSize = config.getProperty(POOL_SIZE).map(Property::asLong).orElse(POOL_SIZE_VALUE).intValue();
+        this.idleTimeout = config.getProperty(IDLE_TIMEOUT).map(Property::asLong).orElse(IDLE_TIMEOUT_VALUE);
+        this.connectTimeout =
+                config.getProperty(CONNECT_TIMEOUT).map(Property::asLong).orElse(CONNECT_TIMEOUT_VALUE).intValue();
+        this.readTimeout = getReadTimeout(config, READ_TIMEOUT_VALUE);
+        if (builder.executor != null) {
+            this.ownExecutor = null;
+            this.executor = builder.executor;
+        } else {
+            // Every thread of the pool takes one connection at a time
+            final AtomicInteger threads = new AtomicInteger();
+            this.ownExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+                final Thread thread = new Thread(runnable, "web-client-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownExecutor;
+        }
+
+        try {
+            this.sslContext = isAcceptAllHosts ? getTrustAllContext() : SSLContext.getDefault();
+        } catch (final Exception e) {
+            throw new RuntimeException(REQUEST_SEND_ERROR, e);
+        }
+    }
+
+    /**
+     * Sends a request and reads the whole response.
+     *
+     * @param request a configuration of a request with the "web-client" name.
+     * @return a response.
+     */
+    public Response send(final Config request) {
+        Validator.of(request).
+                validate(c -> CONFIG_NAME.equals(c.getName()), WRONG_CONFIG_NAME).
+                validate(c -> c.getProperty(METHOD).isPresent(), String.format(PARAM_NOT_PRESENTED, METHOD)).
+                validate(c -> c.getProperty(URL).isPresent(), String.format(PARAM_NOT_PRESENTED, URL)).get();
+        try {
+            final URL url = new URL(request.getProperty(URL).map(Property::getValue).orElse(""));
+            final String method = request.getProperty(METHOD).map(Property::getValue).orElse(GET);
+            final int timeout = getReadTimeout(request, readTimeout);
+            final byte[] head = getHead(url, method, request, timeout);
+            final byte[] content = request.getProperty(CONTENT).
+                    map(property -> property.getValue().getBytes(StandardCharsets.UTF_8)).
+                    orElse(null);
+            final long start = System.nanoTime();
+            final FlightEvents.Event event = FlightEvents.beginHttpRequest();
+            // A request that is not sent again is written by a connection that is checked to be open
+            Connection connection = acquire(url, !GET.equals(method));
+            Response response;
+            try {
+                connection.socket.setSoTimeout(timeout);
+                response = connection.exchange(head, content);
+            } catch (final IOException e) {
+                connection.close();
+                if (!connection.isReused || connection.isResponded || e instanceof SocketTimeoutException ||
+                        (!GET.equals(method) && connection.isWritten)) {
+                    throw e;
+                }
+                // The server has closed an idle connection, so the request that has not been processed
+                // is sent by a new one
+                connection = connect(url);
+                connection.socket.setSoTimeout(timeout);
+                response = connection.exchange(head, content);
+            }
+
+            release(connection);
+            // Record the request
+            Metrics.getInstance().histogram(CLIENT_REQUEST_DURATION, "method", method).recordSince(start);
+            Metrics.getInstance().counter(CLIENT_REQUESTS, "method", method,
+                    "status", String.valueOf(response.statusCode)).increment();
+            if (content != null) {
+                Metrics.getInstance().counter(CLIENT_REQUEST_BYTES).add(content.length);
+            }
+
+            if (event.isEnabled()) {
+                event.commitHttpRequest(url.toString(), method, response.statusCode, response.bytes);
+            }
+
+            return response;
+        } catch (final Exception e) {
+            throw new RuntimeException(REQUEST_SEND_ERROR, e);
+        }
+    }
+
+    /**
+     * Sends a request asynchronously, the request is executed by the pool of the client.
+     *
+     * @param request a configuration of a request with the "web-client" name.
+     * @return a future of a response.
+     */
+    public CompletableFuture<Response> sendAsync(final Config request) {
+        try {
+            return CompletableFuture.supplyAsync(() -> send(request), executor);
+        } catch (final RejectedExecutionException e) {
+            final CompletableFuture<Response> future = new CompletableFuture<>();
+            future.completeExceptionally(new RuntimeException(REQUEST_SEND_ERROR, e));
+            return future;
+        }
+    }
+
+    /**
+     * Returns a number of idle connections.
+     *
+     * @return a number of connections.
+     */
+    public synchronized int getIdleConnections() {
+        return idleConnections.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * Closes idle connections, connections in use are closed when their requests are completed.
+     * Asynchronous requests that are not started yet are rejected.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+
+        synchronized (this) {
+            idleConnections.values().forEach(connections -> connections.forEach(Connection::close));
+            idleConnections.clear();
+        }
+    }
+
+    private Connection acquire(final URL url, final boolean isChecked) throws IOException {
+        final long now = System.nanoTime();
+        final String key = getKey(url);
+        while (true) {
+            final Connection connection;
+            synchronized (this) {
+                final Deque<Connection> connections = idleConnections.get(key);
+                connection = connections != null ? connections.pollFirst() : null;
+            }
+
+            if (connection == null) {
+                return connect(url);
+            }
+
+            if (now - connection.released < idleTimeout * 1_000_000L && !connection.socket.isClosed() &&
+                    !(isChecked && connection.isStale())) {
+                connection.isReused = true;
+                connection.isWritten = false;
+                connection.isResponded = false;
+                return connection;
+            }
+
+            connection.close();
+        }
+    }
+
+    private void release(final Connection connection) {
+        if (connection.isKeptAlive && !isClosed) {
+            connection.released = System.nanoTime();
+            synchronized (this) {
+                final Deque<Connection> connections =
+                        idleConnections.computeIfAbsent(connection.key, key -> new ArrayDeque<>(poolSize));
+                // Expired connections are at the end of the queue
+                final Iterator<Connection> iterator = connections.descendingIterator();
+                while (iterator.hasNext()) {
+                    final Connection idle = iterator.next();
+                    if (connection.released - idle.released < idleTimeout * 1_000_000L) {
+                        break;
+                    }
+
+                    iterator.remove();
+                    idle.close();
+                }
+
+                if (connections.size() < poolSize) {
+                    connections.addFirst(connection);
+                    return;
+                }
+            }
+        }
+
+        connection.close();
+    }
+
+    private Connection connect(final URL url) throws IOException {
+        final boolean isSecure = "https".equalsIgnoreCase(url.getProtocol());
+        final int port = url.getPort() > 0 ? url.getPort() : url.getDefaultPort();
+        final Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(url.getHost(), port), connectTimeout);
+            if (isSecure) {
+                final SSLSocket sslSocket = (SSLSocket) sslContext.getSocketFactory().
+                        createSocket(socket, url.getHost(), port, true);
+                if (!isAcceptAllHosts) {
+                    final SSLParameters parameters = sslSocket.getSSLParameters();
+                    parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                    sslSocket.setSSLParameters(parameters);
+                }
+                // A session of the context is resumed by the handshake, it is limited by the connect timeout
+                sslSocket.setSoTimeout(connectTimeout);
+                sslSocket.startHandshake();
+                return new Connection(getKey(url), sslSocket);
+            }
+
+            return new Connection(getKey(url), socket);
+        } catch (final IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private byte[] getHead(final URL url, final String method, final Config request, final int timeout) {
+        final StringBuilder head = new StringBuilder(256);
+        final String file = url.getFile().isEmpty() ? "/" : url.getFile();
+        if (PATCH.equals(method)) {
+            // The patch method is tunneled through post as it is done by the web client
+            head.append(POST).append(' ').append(file).append(' ').append(HTTP_VERSION).append(CRLF);
+            appendHeader(head, METHOD_OVERRIDE, PATCH);
+        } else {
+            head.append(method).append(' ').append(file).append(' ').append(HTTP_VERSION).append(CRLF);
+        }
+
+        appendHeader(head, "Host", url.getPort() > 0 ? url.getHost() + ":" + url.getPort() : url.getHost());
+        request.getProperty(ACCEPT).ifPresent(property -> appendHeader(head, "Accept", property.getValue()));
+        // Revalidate a cached content
+        request.getProperty(WebClient.Settings.IF_NONE_MATCH).ifPresent(property ->
+                appendHeader(head, IF_NONE_MATCH, property.getValue()));
+        // Accept compressed responses
+        appendHeader(head, ACCEPT_ENCODING, GZIP + ", " + DEFLATE);
+        if (timeout > 0) {
+            // The server drops the request if it is not handled before the client stops waiting for it
+            appendHeader(head, REQUEST_TIMEOUT, String.valueOf(timeout));
+        }
+
+        request.getProperty(CONTENT_TYPE).ifPresent(property ->
+                appendHeader(head, "Content-Type", property.getValue()));
+        final Optional<Property> content = request.getProperty(CONTENT);
+        if (content.isPresent()) {
+            appendHeader(head, "Content-Length",
+                    String.valueOf(content.get().getValue().getBytes(StandardCharsets.UTF_8).length));
+        } else if (!GET.equals(method)) {
+            appendHeader(head, "Content-Length", "0");
+        }
+
+        return head.append(CRLF).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int getReadTimeout(final Config config, final long timeout) {
+        return config.getProperty(READ_TIMEOUT).map(Property::asLong).orElse(timeout).intValue();
+    }
+
+    private static void appendHeader(final StringBuilder head, final String name, final String value) {
+        head.append(name).append(": ").append(value).append(CRLF);
+    }
+
+    private static String getKey(final URL url) {
+        return url.getProtocol() + "://" + url.getHost() + ":" + url.getPort();
+    }
+
+    private static SSLContext getTrustAllContext() throws Exception {
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, new TrustManager[]{
+                new X509TrustManager() {
+                    public X509Certificate[] getAcceptedIssuers() {
+                        return new X509Certificate[0];
+                    }
+
+                    public void checkClientTrusted(X509Certificate[] certs, String authType) {
+                        // Empty implementation
+                    }
+
+                    public void checkServerTrusted(X509Certificate[] certs, String authType) {
+                        // Empty implementation
+                    }
+                }
+        }, new SecureRandom());
+        return sslContext;
+    }
+
+    /**
+     * A response of the web client, its content is read completely.
+     */
+    public final static class Response {
+        private final int statusCode;
+        private final String eTag;
+        private final String content;
+        private final long bytes;
+
+        private Response(final int statusCode, final String eTag, final String content, final long bytes) {
+            this.statusCode = statusCode;
+            this.eTag = eTag;
+            this.content = content;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Returns a status response code.
+         *
+         * @return a status code.
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Returns an entity tag of the response.
+         *
+         * @return the entity tag or null if the response does not have it.
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * Returns a json content of the response.
+         *
+         * @return the content.
+         * @throws JsonException when a web client encounters a problem.
+         */
+        public JsonObject getJsonContent() throws JsonException {
+            return (JsonObject) Jsoner.deserialize(content);
+        }
+    }
+
+    /**
+     * A connection that sends one request at a time with the HTTP/1.1 protocol.
+     */
+    private final static class Connection {
+        private final String key;
+        private final Socket socket;
+        private final InputStream inputStream;
+        private final OutputStream outputStream;
+        private boolean isReused;
+        private boolean isWritten;
+        private boolean isResponded;
+        private boolean isKeptAlive;
+        private long released;
+
+        private Connection(final String key, final Socket socket) throws IOException {
+            this.key = key;
+            this.socket = socket;
+            this.inputStream = new BufferedInputStream(socket.getInputStream());
+            this.outputStream = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private Response exchange(final byte[] head, final byte[] content) throws IOException {
+            outputStream.write(head);
+            if (content != null) {
+                outputStream.write(content);
+            }
+
+            outputStream.flush();
+            isWritten = true;
+            // Read a status line
+            final String statusLine = readLine(true);
+            isResponded = true;
+            final String[] status = statusLine.split(" ", 3);
+            if (status.length < 2 || !status[0].startsWith("HTTP/1.")) {
+                throw new IOException(String.format(WRONG_HTTP_RESPONSE, statusLine));
+            }
+
+            final int statusCode;
+            try {
+                statusCode = Integer.parseInt(status[1]);
+            } catch (final NumberFormatException e) {
+                throw new IOException(String.format(WRONG_HTTP_RESPONSE, statusLine));
+            }
+            // Read headers
+            final Map<String, String> headers = new HashMap<>();
+            String line;
+            while (!(line = readLine(false)).isEmpty()) {
+                final int index = line.indexOf(':');
+                if (index > 0) {
+                    headers.put(line.substring(0, index).trim().toLowerCase(Locale.ROOT),
+                            line.substring(index + 1).trim());
+                }
+            }
+            // Read a body
+            isKeptAlive = HTTP_VERSION.equals(status[0]) ? !"close".equalsIgnoreCase(headers.get("connection")) :
+                    "keep-alive".equalsIgnoreCase(headers.get("connection"));
+            final String eTag = headers.get(ETAG.toLowerCase(Locale.ROOT));
+            if (statusCode == HTTP_NOT_MODIFIED || statusCode == HTTP_NO_CONTENT || statusCode / 100 == 1) {
+                return new Response(statusCode, eTag, "", 0);
+            }
+
+            final String length = headers.get("content-length");
+            final Body body;
+            if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+                body = new Body(-1, true);
+            } else if (length != null) {
+                body = new Body(parseLength(length, 10), false);
+            } else {
+                isKeptAlive = false;
+                body = new Body(-1, false);
+            }
+
+            final String text = ContentReader.read(body, body.length,
+                    headers.get(CONTENT_ENCODING.toLowerCase(Locale.ROOT)));
+            // A decoder may stop before the end of a body, the rest is skipped to reuse the connection
+            body.skipAll();
+            return new Response(statusCode, eTag, text, body.count);
+        }
+
+        private boolean isStale() {
+            try {
+                // An idle connection does not have data, so any read means that it can not be used
+                socket.setSoTimeout(1);
+                inputStream.read();
+                return true;
+            } catch (final SocketTimeoutException e) {
+                return false;
+            } catch (final IOException e) {
+                return true;
+            }
+        }
+
+        private long parseLength(final String value, final int radix) throws IOException {
+            try {
+                final long length = Long.parseLong(value, radix);
+                if (length >= 0) {
+                    return length;
+                }
+            } catch (final NumberFormatException e) {
+                throw new IOException(String.format(WRONG_HTTP_RESPONSE, value), e);
+            }
+
+            throw new IOException(String.format(WRONG_HTTP_RESPONSE, value));
+        }
+
+        private String readLine(final boolean isFirst) throws IOException {
+            final StringBuilder line = new StringBuilder(64);
+            int b;
+            while ((b = inputStream.read()) != '\n') {
+                if (b < 0) {
+                    if (isFirst && line.length() == 0) {
+                        // The server has closed the connection before a response
+                        throw new EOFException();
+                    }
+
+                    throw new IOException(String.format(WRONG_HTTP_RESPONSE, line));
+                }
+
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+
+            return line.toString();
+        }
+
+        /**
+         * A body of a response that is read from the connection with a content length, by chunks or
+         * until the end of the stream.
+         */
+        private final class Body extends InputStream {
+            private final byte[] single = new byte[1];
+            private final long length;
+            private final boolean isChunked;
+            // Remaining bytes of a content or a chunk, -1 is an unknown number
+            private long remaining;
+            private boolean isFinished;
+            private long count;
+
+            private Body(final long length, final boolean isChunked) {
+                this.length = length;
+                this.isChunked = isChunked;
+                this.remaining = isChunked ? 0 : length;
+                this.isFinished = length == 0;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int read() throws IOException {
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (isFinished) {
+                    return -1;
+                } else if (len == 0) {
+                    return 0;
+                }
+
+                if (isChunked && remaining == 0 && !nextChunk()) {
+                    return -1;
+                }
+
+                final int count = inputStream.read(b, off, remaining < 0 ? len : (int) Math.min(len, remaining));
+                if (count < 0) {
+                    if (remaining < 0) {
+                        isFinished = true;
+                        return -1;
+                    }
+
+                    throw new EOFException();
+                }
+
+                this.count += count;
+                if (remaining > 0) {
+                    remaining -= count;
+                    if (remaining == 0 && isChunked) {
+                        // Skip the end of a chunk
+                        readLine(false);
+                    } else if (remaining == 0) {
+                        isFinished = true;
+                    }
+                }
+
+                return count;
+            }
+
+            private boolean nextChunk() throws IOException {
+                final String line = readLine(false);
+                final int index = line.indexOf(';');
+                remaining = parseLength((index < 0 ? line : line.substring(0, index)).trim(), 16);
+                if (remaining == 0) {
+                    // Skip trailers
+                    while (!readLine(false).isEmpty()) {
+                        // Empty implementation
+                    }
+
+                    isFinished = true;
+                    return false;
+                }
+
+                return true;
+            }
+
+            private void skipAll() throws IOException {
+                final byte[] buffer = new byte[256];
+                while (read(buffer, 0, buffer.length) >= 0) {
+                    // Empty implementation
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (final IOException e) {
+                // Ignore an exception of a closed connection
+            }
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the pooled web client.
+     */
+    public final static class Builder {
+        private final Config config;
+        private Executor executor;
+
+        /**
+         * Constructs a client based on the configuration.
+         *
+         * @param config a configuration of a web client.
+         */
+        public Builder(final Config config) {
+            this.config = Validator.of(config).
+                    validate(c -> CONFIG_NAME.equals(c.getName()), WRONG_CONFIG_NAME).
+                    validate(c -> c.getProperty(POOL_SIZE).map(Property::asLong).orElse(POOL_SIZE_VALUE) > 0,
+                            WRONG_POOL_SIZE_VALUE).
+                    validate(c -> c.getProperty(IDLE_TIMEOUT).map(Property::asLong).orElse(0L) >= 0,
+                            WRONG_TIMEOUT_VALUE).
+                    validate(c -> c.getProperty(CONNECT_TIMEOUT).map(Property::asLong).orElse(0L) >= 0,
+                            WRONG_TIMEOUT_VALUE).
+                    validate(c -> c.getProperty(READ_TIMEOUT).map(Property::asLong).orElse(0L) >= 0,
+                            WRONG_TIMEOUT_VALUE).get();
+        }
+
+        /**
+         * Constructs a client with an executor of asynchronous requests.
+         *
+         * @param executor an executor.
+         * @return a builder of the pooled web client.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = Validator.of(executor).get();
+            return this;
+        }
+
+        /**
+         * Builds the pooled web client with parameters.
+         *
+         * @return a pooled web client.
+         */
+        public PooledWebClient build() {
+            return new PooledWebClient(this);
+        }
+    }
+}
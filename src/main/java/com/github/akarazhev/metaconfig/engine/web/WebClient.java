@@ -12,6 +12,8 @@ package com.github.akarazhev.metaconfig.engine.web;
 
 import com.github.akarazhev.metaconfig.api.Config;
 import com.github.akarazhev.metaconfig.api.Property;
+import com.github.akarazhev.metaconfig.extension.FlightEvents;
+import com.github.akarazhev.metaconfig.extension.Metrics;
 import com.github.akarazhev.metaconfig.extension.Validator;
 import com.github.cliftonlabs.json_simple.JsonException;
 import com.github.cliftonlabs.json_simple.JsonObject;
@@ -21,10 +23,8 @@ import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -37,12 +37,25 @@ import static com.github.akarazhev.metaconfig.Constants.CREATE_CONSTANT_CLASS_ER
 import static com.github.akarazhev.metaconfig.Constants.Messages.PARAM_NOT_PRESENTED;
 import static com.github.akarazhev.metaconfig.Constants.Messages.REQUEST_SEND_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ACCEPT_ENCODING;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.DEFLATE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ETAG;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.GZIP;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.IF_NONE_MATCH;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.METHOD_OVERRIDE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PATCH;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.POST;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT_TYPE;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_REQUESTS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_REQUEST_BYTES;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_REQUEST_DURATION;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 
 /**
  * The internal implementation of the web client. The config name must be "web-client".
@@ -77,12 +90,42 @@ public final class WebClient {
         public static final String CONTENT_TYPE = "content-type";
         // The content key
         public static final String CONTENT = "content";
+        // The entity tag of a cached content key
+        public static final String IF_NONE_MATCH = "if-none-match";
+        // The maximum number of idle connections of the pooled web client key
+        public static final String POOL_SIZE = "pool-size";
+        // The idle timeout of connections of the pooled web client key
+        public static final String IDLE_TIMEOUT = "idle-timeout";
+        // The connect timeout of the pooled web client key
+        public static final String CONNECT_TIMEOUT = "connect-timeout";
+        // The read timeout of the pooled web client key
+        public static final String READ_TIMEOUT = "read-timeout";
+        // The number of names above which the web config repository posts a query key
+        public static final String QUERY_THRESHOLD = "query-threshold";
+        // The urls of servers of the balanced web client key
+        public static final String URLS = "urls";
+        // The balancing policy of the balanced web client key
+        public static final String BALANCING = "balancing";
+        // The hedging of get requests of the balanced web client key
+        public static final String HEDGING = "hedging";
+        // The number of consecutive failures after which a server is ejected key
+        public static final String EJECTION_FAILURES = "ejection-failures";
+        // The time in milliseconds for which a failed server is ejected key
+        public static final String EJECTION_TIME = "ejection-time";
+        // The path of a local snapshot of the web config repository key
+        public static final String SNAPSHOT_PATH = "snapshot-path";
+        // The maximum age in milliseconds of a snapshot that is served while it is revalidated key
+        public static final String STALE_WHILE_REVALIDATE = "stale-while-revalidate";
+        // The maximum age in milliseconds of a snapshot that is served when servers are unavailable key
+        public static final String STALE_IF_ERROR = "stale-if-error";
     }
 
     // Status code
     private int statusCode;
     // Content
     private String content;
+    // Entity tag
+    private String eTag;
 
     private WebClient(final Builder builder) {
         final Config config = builder.config;
@@ -105,16 +148,30 @@ public final class WebClient {
                     throw new Exception(exceptions.get(0));
                 }
                 // Open a connection
+                final long start = System.nanoTime();
+                final FlightEvents.Event event = FlightEvents.beginHttpRequest();
                 final HttpsURLConnection connection =
                         (HttpsURLConnection) new URL(urlProperty.get().getValue()).openConnection();
                 final Optional<Property> methodProperty = config.getProperty(METHOD);
                 if (methodProperty.isPresent()) {
                     // Set a method
-                    connection.setRequestMethod(methodProperty.get().getValue());
+                    final String method = methodProperty.get().getValue();
+                    if (PATCH.equals(method)) {
+                        // The connection does not support the patch method, so it is tunneled through post
+                        connection.setRequestMethod(POST);
+                        connection.setRequestProperty(METHOD_OVERRIDE, PATCH);
+                    } else {
+                        connection.setRequestMethod(method);
+                    }
                 }
                 // Set the accept header
                 config.getProperty(ACCEPT).ifPresent(acceptProp ->
                         connection.setRequestProperty("Accept", acceptProp.getValue()));
+                // Revalidate a cached content
+                config.getProperty(Settings.IF_NONE_MATCH).ifPresent(eTagProp ->
+                        connection.setRequestProperty(IF_NONE_MATCH, eTagProp.getValue()));
+                // Accept compressed responses
+                connection.setRequestProperty(ACCEPT_ENCODING, GZIP + ", " + DEFLATE);
                 // Set the content type
                 config.getProperty(CONTENT_TYPE).ifPresent(contentTypeProp ->
                         connection.setRequestProperty("Content-Type", contentTypeProp.getValue()));
@@ -127,14 +184,25 @@ public final class WebClient {
                 }
                 // Get a response code
                 statusCode = connection.getResponseCode();
+                eTag = connection.getHeaderField(ETAG);
                 // Get a content
-                if (statusCode > 299) {
-                    content = readContent(connection.getErrorStream());
+                if (statusCode == HTTP_NOT_MODIFIED) {
+                    content = "";
                 } else {
-                    content = readContent(connection.getInputStream());
+                    content = readContent(statusCode > 299 ? connection.getErrorStream() : connection.getInputStream(),
+                            connection.getContentLengthLong(), connection.getContentEncoding());
                 }
                 // Close the connection
                 connection.disconnect();
+                // Record the request
+                final String method = methodProperty.map(Property::getValue).orElse(GET);
+                Metrics.getInstance().histogram(CLIENT_REQUEST_DURATION, "method", method).recordSince(start);
+                Metrics.getInstance().counter(CLIENT_REQUESTS, "method", method,
+                        "status", String.valueOf(statusCode)).increment();
+                if (event.isEnabled()) {
+                    event.commitHttpRequest(urlProperty.get().getValue(), method, statusCode,
+                            content.getBytes(StandardCharsets.UTF_8).length);
+                }
             }
         } catch (final Exception e) {
             throw new RuntimeException(REQUEST_SEND_ERROR, e);
@@ -150,6 +218,15 @@ public final class WebClient {
         return statusCode;
     }
 
+    /**
+     * Returns an entity tag of the response.
+     *
+     * @return the entity tag or null if the response does not have it.
+     */
+    public String getETag() {
+        return eTag;
+    }
+
     /**
      * Returns a content of the response.
      *
@@ -169,15 +246,14 @@ public final class WebClient {
         return (JsonObject) Jsoner.deserialize(getContent());
     }
 
-    private String readContent(final InputStream inputStream) throws IOException {
-        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            final StringBuilder content = new StringBuilder();
-            String inputLine;
-            while ((inputLine = reader.readLine()) != null) {
-                content.append(inputLine);
-            }
+    private String readContent(final InputStream inputStream, final long length, final String encoding)
+            throws IOException {
+        if (inputStream == null) {
+            return "";
+        }
 
-            return content.toString();
+        try (final InputStream stream = inputStream) {
+            return ContentReader.read(stream, length, encoding);
         }
     }
 
@@ -185,6 +261,7 @@ public final class WebClient {
         try (final OutputStream outputStream = connection.getOutputStream()) {
             final byte[] input = content.getBytes(StandardCharsets.UTF_8);
             outputStream.write(input, 0, input.length);
+            Metrics.getInstance().counter(CLIENT_REQUEST_BYTES).add(input.length);
         }
     }
 
@@ -10,10 +10,14 @@
  * limitations under the License. */
 package com.github.akarazhev.metaconfig.engine.web;
 
+import com.github.akarazhev.metaconfig.api.ChangeEvent;
 import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.ConfigPatch;
 import com.github.akarazhev.metaconfig.api.ConfigService;
 import com.github.akarazhev.metaconfig.api.PageRequest;
 import com.github.akarazhev.metaconfig.api.PageResponse;
+import com.github.akarazhev.metaconfig.api.Subscription;
+import com.github.akarazhev.metaconfig.api.VersionConflictException;
 import com.github.akarazhev.metaconfig.engine.web.server.Server;
 
 import java.util.Arrays;
@@ -23,13 +27,20 @@ import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.github.akarazhev.metaconfig.Constants.Messages.CREATE_FACTORY_CLASS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.DB_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_VERSION_ERROR;
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.REMOVE;
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.UPDATE;
 
 /**
  * Provides factory methods to create a web server.
@@ -47,9 +58,26 @@ public final class WebServers {
      * @throws Exception when a test web server encounters a problem.
      */
     public static WebServer newTestServer() throws Exception {
-        return newServer(new ConfigService() {
+        return newServer(newTestService());
+    }
+
+    /**
+     * Returns a test web server based on the configuration, e.g. with another port.
+     *
+     * @param config a configuration of a web server.
+     * @return a test web server.
+     * @throws Exception when a test web server encounters a problem.
+     */
+    public static WebServer newTestServer(final Config config) throws Exception {
+        return newServer(config, newTestService());
+    }
+
+    private static ConfigService newTestService() {
+        return new ConfigService() {
             private Consumer<Config> consumer;
             private final Map<String, Config> dataStorage = new ConcurrentHashMap<>();
+            private final Collection<TestSubscription<Config>> subscriptions = new CopyOnWriteArrayList<>();
+            private final Collection<TestSubscription<ChangeEvent>> watches = new CopyOnWriteArrayList<>();
 
             /**
              * {@inheritDoc}
@@ -74,11 +102,46 @@ public final class WebServers {
 
                     output[i] = input[i];
                     dataStorage.put(output[i].getName(), output[i]);
+                    publish(watches, new ChangeEvent.Builder(UPDATE, output[i].getName()).
+                            version(output[i].getVersion()).
+                            updated(output[i].getUpdated()).
+                            build());
                 }
 
                 return Arrays.stream(output);
             }
 
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public CompletableFuture<Stream<Config>> updateAsync(final Stream<Config> stream) {
+                return CompletableFuture.completedFuture(update(stream));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int patch(final String name, final int version, final ConfigPatch patch) {
+                final Config config = dataStorage.get(name);
+                if (config == null) {
+                    throw new RuntimeException(DB_ERROR);
+                }
+
+                final Config patched = new Config.Builder(patch.apply(config)).version(version + 1).build();
+                if (config.getVersion() != version || !dataStorage.replace(name, config, patched)) {
+                    throw new VersionConflictException(String.format(PATCH_VERSION_ERROR, name, config.getVersion(),
+                            version));
+                }
+
+                publish(watches, new ChangeEvent.Builder(UPDATE, name).
+                        version(patched.getVersion()).
+                        updated(patched.getUpdated()).
+                        build());
+                return patched.getVersion();
+            }
+
             /**
              * {@inheritDoc}
              */
@@ -139,13 +202,57 @@ public final class WebServers {
                 return configs.stream().sorted(Comparator.comparing(Config::getName));
             }
 
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public CompletableFuture<Stream<Config>> getAsync(final Stream<String> stream) {
+                return CompletableFuture.completedFuture(get(stream));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void forEach(final Consumer<Config> consumer) {
+                get().forEach(consumer);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Stream<Config> getVersions() {
+                return get();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Stream<Config> getVersions(final Stream<String> stream) {
+                return get(stream);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Stream<ChangeEvent> getChanges(final long sequence, final int size) {
+                return Stream.empty();
+            }
+
             /**
              * {@inheritDoc}
              */
             @Override
             public int remove(final Stream<String> stream) {
                 final int size = dataStorage.size();
-                stream.forEach(dataStorage::remove);
+                stream.forEach(name -> {
+                    if (dataStorage.remove(name) != null) {
+                        publish(watches, new ChangeEvent.Builder(REMOVE, name).build());
+                    }
+                });
                 return size - dataStorage.size();
             }
 
@@ -154,9 +261,12 @@ public final class WebServers {
              */
             @Override
             public void accept(final Stream<String> stream) {
+                final List<Config> configs = get(stream).collect(Collectors.toList());
                 if (consumer != null) {
-                    get(stream).findAny().ifPresent(config -> consumer.accept(config));
+                    configs.stream().findAny().ifPresent(config -> consumer.accept(config));
                 }
+
+                configs.forEach(config -> publish(subscriptions, config));
             }
 
             /**
@@ -167,6 +277,35 @@ public final class WebServers {
                 this.consumer = consumer;
             }
 
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Subscription subscribe(final Predicate<Config> filter, final Consumer<Config> consumer) {
+                return new TestSubscription<>(subscriptions, filter, consumer);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Subscription subscribe(final Stream<String> stream, final Consumer<Config> consumer) {
+                final List<String> names = stream.collect(Collectors.toList());
+                return subscribe(config -> names.contains(config.getName()), consumer);
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Subscription watch(final Consumer<ChangeEvent> consumer) {
+                return new TestSubscription<>(watches, event -> true, consumer);
+            }
+
+            private <T> void publish(final Collection<TestSubscription<T>> subscriptions, final T item) {
+                subscriptions.forEach(subscription -> subscription.accept(item));
+            }
+
             private boolean contains(final Map<String, String> filter, final Map<String, String> data) {
                 if (filter.size() > 0) {
                     for (final String dataKey : data.keySet()) {
@@ -185,7 +324,104 @@ public final class WebServers {
 
                 return true;
             }
-        });
+        };
+    }
+
+    /**
+     * A subscription of the test web server that delivers items synchronously.
+     *
+     * @param <T> a type of items.
+     */
+    private final static class TestSubscription<T> implements Subscription, Consumer<T> {
+        private final Collection<TestSubscription<T>> subscriptions;
+        private final Predicate<T> filter;
+        private final Consumer<T> consumer;
+        private final LongAdder delivered = new LongAdder();
+        private volatile boolean isCancelled;
+
+        private TestSubscription(final Collection<TestSubscription<T>> subscriptions, final Predicate<T> filter,
+                                 final Consumer<T> consumer) {
+            this.subscriptions = subscriptions;
+            this.filter = filter;
+            this.consumer = consumer;
+            subscriptions.add(this);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void accept(final T item) {
+            if (!isCancelled && filter.test(item)) {
+                consumer.accept(item);
+                delivered.increment();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getQueueSize() {
+            return 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getDelivered() {
+            return delivered.sum();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getCoalesced() {
+            return 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getDropped() {
+            return 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getAverageLatency() {
+            return 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getMaxLatency() {
+            return 0;
+        }
     }
 
     /**
@@ -10,20 +10,59 @@
  * limitations under the License. */
 package com.github.akarazhev.metaconfig.engine.web.server;
 
+import com.github.akarazhev.metaconfig.api.Config;
 import com.github.akarazhev.metaconfig.api.ConfigService;
+import com.github.akarazhev.metaconfig.extension.FlightEvents;
+import com.github.akarazhev.metaconfig.extension.Metrics;
 import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonArray;
 import com.sun.net.httpserver.HttpExchange;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.SERVICE_UNAVAILABLE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_COMPRESSION_LEVEL;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_REQUEST_TIMEOUT;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_TIMEOUT_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ACCEPT_ENCODING;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.APPLICATION_JSON;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.CONTENT_ENCODING;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.DEFLATE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ETAG;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.GZIP;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.IF_NONE_MATCH;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.METHOD_OVERRIDE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.REQUEST_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.RETRY_AFTER;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.TEXT_PLAIN;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.VARY;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PATCH;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.POST;
+import static com.github.akarazhev.metaconfig.extension.Metrics.HTTP_REQUESTS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.HTTP_REQUEST_DURATION;
+import static com.github.akarazhev.metaconfig.extension.Metrics.HTTP_RESPONSE_BYTES;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 
 /**
  * Provides a basic functionality for all controllers.
@@ -32,12 +71,26 @@ abstract class AbstractController {
     private final static Logger LOGGER = Logger.getLogger(AbstractController.class.getSimpleName());
     final static String REQ_PARAM_NAMES = "names";
     final static String REQ_PARAM_PAGE_REQUEST = "page_request";
+    final static String REQ_PARAM_NAME = "name";
+    final static String REQ_PARAM_VERSION = "version";
+    final static String REQ_PARAM_SINCE = "since";
+    final static String REQ_PARAM_TIMEOUT = "timeout";
     final String apiPath;
     final ConfigService configService;
+    private final int compressionLevel;
+    private final int compressionThreshold;
+    final ResponseCache responseCache;
+    final AdmissionControl admissionControl;
+    private final long retryAfter;
 
     AbstractController(final AbstractBuilder abstractBuilder) {
         this.apiPath = abstractBuilder.apiPath;
         this.configService = abstractBuilder.configService;
+        this.compressionLevel = abstractBuilder.compressionLevel;
+        this.compressionThreshold = abstractBuilder.compressionThreshold;
+        this.responseCache = abstractBuilder.responseCache;
+        this.admissionControl = abstractBuilder.admissionControl;
+        this.retryAfter = abstractBuilder.retryAfter;
     }
 
     /**
@@ -47,12 +100,22 @@ abstract class AbstractController {
      * @see HttpExchange for more information.
      */
     void handle(final HttpExchange httpExchange) {
+        final Runnable recorder = startRecording(httpExchange);
+        boolean isAdmitted = false;
         try {
+            checkAvailability();
+            admissionControl.acquire(getDeadline(httpExchange));
+            isAdmitted = true;
             execute(httpExchange);
         } catch (final Exception e) {
             handle(httpExchange, e);
         } finally {
+            if (isAdmitted) {
+                admissionControl.release();
+            }
+
             httpExchange.close();
+            recorder.run();
         }
     }
 
@@ -65,6 +128,97 @@ abstract class AbstractController {
      */
     abstract void execute(final HttpExchange httpExchange) throws IOException;
 
+    /**
+     * Checks that the request has not been rejected by the executor of the web server.
+     *
+     * @throws ServiceUnavailableException when the server is overloaded.
+     */
+    void checkAvailability() throws ServiceUnavailableException {
+        if (RequestExecutor.isRejected()) {
+            throw new ServiceUnavailableException(HTTP_UNAVAILABLE, SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Starts recording of a request. The returned action records metrics and the flight event of the request,
+     * it is run after the exchange is closed.
+     *
+     * @param httpExchange a http exchange.
+     * @return an action that records the request.
+     */
+    Runnable startRecording(final HttpExchange httpExchange) {
+        final long start = System.nanoTime();
+        final FlightEvents.Event event = FlightEvents.beginHttpRequest();
+        final CountingOutputStream responseBody = getCountingResponseBody(httpExchange);
+        return () -> record(httpExchange, responseBody, start, event);
+    }
+
+    private CountingOutputStream getCountingResponseBody(final HttpExchange httpExchange) {
+        // The response body is wrapped before headers are sent, so compressed and chunked bytes are also counted
+        final CountingOutputStream responseBody = new CountingOutputStream(httpExchange.getResponseBody());
+        httpExchange.setStreams(null, responseBody);
+        return responseBody;
+    }
+
+    private void record(final HttpExchange httpExchange, final CountingOutputStream responseBody, final long start,
+                        final FlightEvents.Event event) {
+        final String endpoint = httpExchange.getHttpContext() != null ?
+                httpExchange.getHttpContext().getPath() : apiPath;
+        final Metrics metrics = Metrics.getInstance();
+        metrics.histogram(HTTP_REQUEST_DURATION, "endpoint", endpoint).recordSince(start);
+        metrics.counter(HTTP_REQUESTS, "endpoint", endpoint, "method", httpExchange.getRequestMethod(),
+                "status", String.valueOf(httpExchange.getResponseCode())).increment();
+        metrics.counter(HTTP_RESPONSE_BYTES, "endpoint", endpoint).add(responseBody.count);
+        event.commitHttpRequest(endpoint, httpExchange.getRequestMethod(), httpExchange.getResponseCode(),
+                responseBody.count);
+    }
+
+    /**
+     * Returns a deadline of the request in milliseconds since the epoch. The client sets a timeout in milliseconds
+     * that is left for the request, so the deadline does not depend on clocks of the client and the server.
+     *
+     * @param httpExchange a http exchange.
+     * @return a deadline or 0 if it is not set.
+     * @throws InvalidRequestException when the timeout is not a number or is negative.
+     */
+    long getDeadline(final HttpExchange httpExchange) throws InvalidRequestException {
+        final String header = httpExchange.getRequestHeaders() != null ?
+                httpExchange.getRequestHeaders().getFirst(REQUEST_TIMEOUT) : null;
+        if (header == null) {
+            return 0;
+        }
+
+        final long timeout;
+        try {
+            timeout = Long.parseLong(header.trim());
+        } catch (final NumberFormatException e) {
+            throw new InvalidRequestException(HTTP_BAD_REQUEST, WRONG_REQUEST_TIMEOUT);
+        }
+
+        if (timeout < 0) {
+            throw new InvalidRequestException(HTTP_BAD_REQUEST, WRONG_REQUEST_TIMEOUT);
+        }
+        // The timeout is counted from the time when the server has handed the request to the executor
+        return RequestExecutor.getArrival() + timeout;
+    }
+
+    /**
+     * Returns a method of the request. The post method can be overridden by the method override header.
+     *
+     * @param httpExchange a http exchange.
+     * @return a http method.
+     * @see HttpExchange for more information.
+     */
+    String getMethod(final HttpExchange httpExchange) {
+        final String method = httpExchange.getRequestMethod();
+        if (POST.equals(method) && httpExchange.getRequestHeaders() != null &&
+                PATCH.equals(httpExchange.getRequestHeaders().getFirst(METHOD_OVERRIDE))) {
+            return PATCH;
+        }
+
+        return method;
+    }
+
     /**
      * Writes an operation response.
      *
@@ -75,20 +229,320 @@ abstract class AbstractController {
      * @see HttpExchange for more information.
      */
     <T> void writeResponse(final HttpExchange httpExchange, final OperationResponse<T> response) throws IOException {
+        writeResponse(httpExchange, response.toJson().getBytes(), null, APPLICATION_JSON);
+    }
+
+    /**
+     * Writes a plain text response.
+     *
+     * @param httpExchange a http exchange.
+     * @param text         a text of the response.
+     * @throws IOException when a controller encounters a problem.
+     * @see HttpExchange for more information.
+     */
+    void writeResponse(final HttpExchange httpExchange, final String text) throws IOException {
+        writeResponse(httpExchange, text.getBytes(StandardCharsets.UTF_8), null, TEXT_PLAIN);
+    }
+
+    /**
+     * Writes an operation response with the entity tag of its content, or the not modified status
+     * if the client has the same content. The response is cached until any configuration is changed.
+     *
+     * @param httpExchange a http exchange.
+     * @param key          a key of the response cache.
+     * @param generation   a generation of the response cache taken before the response was read.
+     * @param response     an operation response.
+     * @param <T>          a type of result.
+     * @throws IOException when a controller encounters a problem.
+     * @see HttpExchange for more information.
+     */
+    <T> void writeConditionalResponse(final HttpExchange httpExchange, final String key, final long generation,
+                                      final OperationResponse<T> response) throws IOException {
+        final byte[] jsonBytes = response.toJson().getBytes();
+        final ResponseCache.Entry entry = getCacheEntry(jsonBytes, getETag(jsonBytes), null);
+        responseCache.put(key, entry, generation);
+        if (!writeNotModified(httpExchange, entry.getETag())) {
+            writeResponse(httpExchange, entry);
+        }
+    }
+
+    /**
+     * Writes configuration models by names, or the not modified status if the client has the same configs.
+     * The response is cached until one of the configs is changed, a cached response is revalidated by versions.
+     *
+     * @param httpExchange a http exchange.
+     * @param names        distinct sorted configuration names.
+     * @throws IOException when a controller encounters a problem.
+     * @see HttpExchange for more information.
+     */
+    void writeConfigs(final HttpExchange httpExchange, final Collection<String> names) throws IOException {
+        // The key is built by the sorted names, so the same names in any order are cached once
+        final String key = CONFIG_VALUE + "?" + REQ_PARAM_NAMES + "=" + new JsonArray(names).toJson();
+        final long generation = responseCache.getGeneration();
+        // The versions are cheaper to read than configs, so an unchanged result is not loaded
+        final String eTag = getETag(configService.getVersions(names.stream()));
+        final ResponseCache.Entry cached = responseCache.get(key);
+        if (cached != null) {
+            if (cached.getETag().equals(eTag)) {
+                if (!writeNotModified(httpExchange, eTag)) {
+                    writeResponse(httpExchange, cached);
+                }
+
+                return;
+            }
+            // A change has not invalidated the response, e.g. it has been made by another node
+            responseCache.remove(key, cached);
+        }
+
+        if (!writeNotModified(httpExchange, eTag)) {
+            final Collection<Config> result = configService.get(names.stream()).collect(Collectors.toList());
+            final byte[] jsonBytes =
+                    new OperationResponse.Builder<Collection<Config>>().result(result).build().toJson().getBytes();
+            // Configs may be changed after reading the versions
+            final ResponseCache.Entry entry = getCacheEntry(jsonBytes, getETag(result.stream()), names);
+            responseCache.put(key, entry, generation);
+            writeResponse(httpExchange, entry);
+        }
+    }
+
+    /**
+     * Writes a cached response, or the not modified status if the client has the same content.
+     *
+     * @param httpExchange a http exchange.
+     * @param key          a key of the response cache.
+     * @return true if the response has been cached.
+     * @throws IOException when a controller encounters a problem.
+     * @see HttpExchange for more information.
+     */
+    boolean writeCachedResponse(final HttpExchange httpExchange, final String key) throws IOException {
+        final ResponseCache.Entry entry = responseCache.get(key);
+        if (entry == null) {
+            return false;
+        }
+
+        if (!writeNotModified(httpExchange, entry.getETag())) {
+            writeResponse(httpExchange, entry);
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes a response of the cache with its entity tag, the compressed content is written as is.
+     *
+     * @param httpExchange a http exchange.
+     * @param entry        a cached response.
+     * @throws IOException when a controller encounters a problem.
+     * @see HttpExchange for more information.
+     */
+    void writeResponse(final HttpExchange httpExchange, final ResponseCache.Entry entry) throws IOException {
+        httpExchange.getResponseHeaders().put(ETAG, Collections.singletonList(entry.getETag()));
+        writeResponse(httpExchange, entry.getBytes(), entry.getCompressed(), APPLICATION_JSON);
+    }
+
+    /**
+     * Returns a response for the cache. The content is compressed with gzip once, if it can be cached.
+     *
+     * @param jsonBytes an encoded response.
+     * @param eTag      an entity tag of the response.
+     * @param names     configuration names of the response or null if any change affects it.
+     * @return a cached response.
+     * @throws IOException when a controller encounters a problem.
+     */
+    ResponseCache.Entry getCacheEntry(final byte[] jsonBytes, final String eTag, final Collection<String> names)
+            throws IOException {
+        byte[] compressed = null;
+        if (responseCache.isEnabled() && jsonBytes.length >= compressionThreshold) {
+            final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(jsonBytes.length / 4);
+            try (final OutputStream outputStream = getOutputStream(byteArrayOutputStream, GZIP)) {
+                outputStream.write(jsonBytes);
+            }
+
+            compressed = byteArrayOutputStream.toByteArray();
+        }
+
+        return new ResponseCache.Entry(jsonBytes, compressed, eTag, names);
+    }
+
+    /**
+     * Sets the entity tag of the response and writes the not modified status if the tag matches
+     * the If-None-Match header of the request.
+     *
+     * @param httpExchange a http exchange.
+     * @param eTag         an entity tag of the response content.
+     * @return true if the not modified status has been written.
+     * @throws IOException when a controller encounters a problem.
+     */
+    boolean writeNotModified(final HttpExchange httpExchange, final String eTag) throws IOException {
+        httpExchange.getResponseHeaders().put(ETAG, Collections.singletonList(eTag));
+        final String header = httpExchange.getRequestHeaders() != null ?
+                httpExchange.getRequestHeaders().getFirst(IF_NONE_MATCH) : null;
+        if (header != null) {
+            for (final String value : header.split(",")) {
+                final String tag = value.trim();
+                // The weak comparison is used for the If-None-Match header
+                if ("*".equals(tag) || eTag.equals(tag.startsWith("W/") ? tag.substring(2) : tag)) {
+                    httpExchange.sendResponseHeaders(HTTP_NOT_MODIFIED, -1);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns a strong entity tag of configuration models which is built by their ids, versions and updated times.
+     *
+     * @param stream a stream of configuration models.
+     * @return an entity tag.
+     */
+    String getETag(final Stream<Config> stream) {
+        final StringBuilder versions = new StringBuilder();
+        stream.sorted(Comparator.comparingLong(Config::getId)).
+                forEach(config -> versions.append(config.getId()).append(':').append(config.getVersion()).append(':').
+                        append(config.getUpdated()).append(','));
+        return getETag(versions.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a strong entity tag of a content.
+     *
+     * @param bytes a content.
+     * @return an entity tag.
+     */
+    String getETag(final byte[] bytes) {
         try {
-            httpExchange.getResponseHeaders().put("Content-Type", Collections.singletonList(APPLICATION_JSON));
-            final byte[] jsonBytes = response.toJson().getBytes();
-            httpExchange.sendResponseHeaders(HTTP_OK, jsonBytes.length);
-            OutputStream outputStream = httpExchange.getResponseBody();
-            outputStream.write(jsonBytes);
-            outputStream.flush();
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            final StringBuilder eTag = new StringBuilder("\"");
+            for (int i = 0; i < 16; i++) {
+                eTag.append(String.format("%02x", digest[i]));
+            }
+
+            return eTag.append('"').toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeResponse(final HttpExchange httpExchange, final byte[] jsonBytes, final byte[] compressed,
+                               final String contentType) throws IOException {
+        try {
+            httpExchange.getResponseHeaders().put("Content-Type", Collections.singletonList(contentType));
+            final String encoding = jsonBytes.length >= compressionThreshold ? getEncoding(httpExchange) : null;
+            if (compressed != null && GZIP.equals(encoding)) {
+                httpExchange.getResponseHeaders().put(CONTENT_ENCODING, Collections.singletonList(GZIP));
+                httpExchange.getResponseHeaders().put(VARY, Collections.singletonList(ACCEPT_ENCODING));
+                httpExchange.sendResponseHeaders(HTTP_OK, compressed.length);
+                final OutputStream outputStream = httpExchange.getResponseBody();
+                outputStream.write(compressed);
+                outputStream.flush();
+            } else if (encoding != null) {
+                // The compressed length is unknown, so the response is chunked
+                try (final OutputStream outputStream = getChunkedResponseBody(httpExchange, encoding)) {
+                    outputStream.write(jsonBytes);
+                }
+            } else {
+                httpExchange.sendResponseHeaders(HTTP_OK, jsonBytes.length);
+                OutputStream outputStream = httpExchange.getResponseBody();
+                outputStream.write(jsonBytes);
+                outputStream.flush();
+            }
         } catch (final Exception e) {
             LOGGER.log(Level.SEVERE, e.getMessage());
             throw new InvalidRequestException(HTTP_BAD_REQUEST, e.getMessage());
         }
     }
 
-    private void handle(final HttpExchange httpExchange, final Throwable throwable) {
+    /**
+     * Returns an encoding which is accepted by the client, gzip is preferred.
+     *
+     * @param httpExchange a http exchange.
+     * @return an encoding or null if the response must not be compressed.
+     */
+    String getEncoding(final HttpExchange httpExchange) {
+        final String header = httpExchange.getRequestHeaders() != null ?
+                httpExchange.getRequestHeaders().getFirst(ACCEPT_ENCODING) : null;
+        if (header == null) {
+            return null;
+        }
+
+        boolean isDeflate = false;
+        for (final String value : header.split(",")) {
+            final String[] params = value.split(";");
+            final String coding = params[0].trim().toLowerCase();
+            // Skip an encoding with zero quality, e.g. "gzip;q=0"
+            if (params.length > 1 && params[1].trim().matches("q=0(\\.0*)?")) {
+                continue;
+            }
+
+            if (GZIP.equals(coding)) {
+                return GZIP;
+            } else if (DEFLATE.equals(coding)) {
+                isDeflate = true;
+            }
+        }
+
+        return isDeflate ? DEFLATE : null;
+    }
+
+    /**
+     * Sends headers of a chunked json response and returns its body. The body is compressed
+     * if the client accepts it, since the size of the response is unknown.
+     *
+     * @param httpExchange a http exchange.
+     * @return an output stream of the response body.
+     * @throws IOException when a controller encounters a problem.
+     */
+    OutputStream getChunkedResponseBody(final HttpExchange httpExchange) throws IOException {
+        httpExchange.getResponseHeaders().put("Content-Type", Collections.singletonList(APPLICATION_JSON));
+        return getChunkedResponseBody(httpExchange, getEncoding(httpExchange));
+    }
+
+    private OutputStream getChunkedResponseBody(final HttpExchange httpExchange, final String encoding)
+            throws IOException {
+        if (encoding != null) {
+            httpExchange.getResponseHeaders().put(CONTENT_ENCODING, Collections.singletonList(encoding));
+            httpExchange.getResponseHeaders().put(VARY, Collections.singletonList(ACCEPT_ENCODING));
+            httpExchange.sendResponseHeaders(HTTP_OK, 0);
+            return getOutputStream(httpExchange.getResponseBody(), encoding);
+        }
+
+        httpExchange.sendResponseHeaders(HTTP_OK, 0);
+        return httpExchange.getResponseBody();
+    }
+
+    private OutputStream getOutputStream(final OutputStream outputStream, final String encoding) throws IOException {
+        if (GZIP.equals(encoding)) {
+            return new GZIPOutputStream(outputStream) {
+                {
+                    def.setLevel(compressionLevel);
+                }
+            };
+        }
+
+        final Deflater deflater = new Deflater(compressionLevel);
+        return new DeflaterOutputStream(outputStream, deflater) {
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes an error response.
+     *
+     * @param httpExchange a http exchange.
+     * @param throwable    an error.
+     * @see HttpExchange for more information.
+     */
+    void handle(final HttpExchange httpExchange, final Throwable throwable) {
         try {
             LOGGER.log(Level.WARNING, throwable.getMessage());
             throwable.printStackTrace();
@@ -111,9 +565,17 @@ abstract class AbstractController {
         } else if (throwable instanceof ResourceNotFoundException) {
             final ResourceNotFoundException exception = (ResourceNotFoundException) throwable;
             httpExchange.sendResponseHeaders(exception.getCode(), 0);
+        } else if (throwable instanceof ConflictException) {
+            final ConflictException exception = (ConflictException) throwable;
+            httpExchange.sendResponseHeaders(exception.getCode(), 0);
         } else if (throwable instanceof MethodNotAllowedException) {
             final MethodNotAllowedException exception = (MethodNotAllowedException) throwable;
             httpExchange.sendResponseHeaders(exception.getCode(), 0);
+        } else if (throwable instanceof ServiceUnavailableException) {
+            final ServiceUnavailableException exception = (ServiceUnavailableException) throwable;
+            // The client is told when the server may be available
+            httpExchange.getResponseHeaders().put(RETRY_AFTER, Collections.singletonList(String.valueOf(retryAfter)));
+            httpExchange.sendResponseHeaders(exception.getCode(), 0);
         } else {
             if (throwable instanceof InternalServerErrorException) {
                 httpExchange.sendResponseHeaders(((InternalServerErrorException) throwable).getCode(), 0);
@@ -125,12 +587,46 @@ abstract class AbstractController {
         return response;
     }
 
+    /**
+     * Counts bytes written to the response body.
+     */
+    private final static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(final OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
     /**
      * Wraps and builds instances of controllers.
      */
     static abstract class AbstractBuilder {
         private final String apiPath;
         private final ConfigService configService;
+        private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        private int compressionThreshold = Integer.MAX_VALUE;
+        private ResponseCache responseCache = new ResponseCache.Builder(0).build();
+        private AdmissionControl admissionControl = new AdmissionControl.Builder(Integer.MAX_VALUE).build();
+        private long retryAfter = 1;
 
         /**
          * Constructs a controller with the configuration service param.
@@ -143,6 +639,54 @@ abstract class AbstractController {
             this.configService = Validator.of(configService).get();
         }
 
+        /**
+         * Constructs a controller that compresses responses.
+         *
+         * @param level     a compression level from 0 to 9 or -1 for the default level.
+         * @param threshold a minimum size of a response to be compressed.
+         * @return a builder of the controller.
+         */
+        AbstractBuilder compression(final int level, final int threshold) {
+            this.compressionLevel = Validator.of(level).
+                    validate(l -> l >= Deflater.DEFAULT_COMPRESSION && l <= Deflater.BEST_COMPRESSION,
+                            WRONG_COMPRESSION_LEVEL).get();
+            this.compressionThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Constructs a controller that caches responses.
+         *
+         * @param responseCache a response cache of the web server.
+         * @return a builder of the controller.
+         */
+        AbstractBuilder responseCache(final ResponseCache responseCache) {
+            this.responseCache = Validator.of(responseCache).get();
+            return this;
+        }
+
+        /**
+         * Constructs a controller that limits requests handled at the same time.
+         *
+         * @param admissionControl an admission control of the endpoint.
+         * @return a builder of the controller.
+         */
+        AbstractBuilder admissionControl(final AdmissionControl admissionControl) {
+            this.admissionControl = Validator.of(admissionControl).get();
+            return this;
+        }
+
+        /**
+         * Constructs a controller that tells the client when to retry a request which has been shed.
+         *
+         * @param retryAfter a time in seconds.
+         * @return a builder of the controller.
+         */
+        AbstractBuilder retryAfter(final long retryAfter) {
+            this.retryAfter = Validator.of(retryAfter).validate(r -> r >= 0, WRONG_TIMEOUT_VALUE).get();
+            return this;
+        }
+
         /**
          * Builds a controller with the required parameter.
          *
@@ -0,0 +1,176 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.REQUEST_DEADLINE_EXCEEDED;
+import static com.github.akarazhev.metaconfig.Constants.Messages.SERVICE_UNAVAILABLE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_IN_FLIGHT_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_ADMISSION_QUEUE_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_TIMEOUT_VALUE;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/**
+ * Limits requests of an endpoint that are handled at the same time. A request over the limit waits in a bounded
+ * queue until a request is completed, its timeout or its deadline. A request that can not be admitted is shed,
+ * so the server does not do work which nobody is waiting for.
+ */
+final class AdmissionControl {
+    private final int maxInFlight;
+    private final int queueSize;
+    private final long timeout;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private volatile int maxQueued;
+
+    private AdmissionControl(final Builder builder) {
+        this.maxInFlight = builder.maxInFlight;
+        this.queueSize = builder.queueSize;
+        this.timeout = builder.timeout;
+        this.permits = new Semaphore(maxInFlight, true);
+    }
+
+    /**
+     * Admits a request, the request waits in the queue if the limit of requests is reached.
+     * The release method must be called after the request is handled.
+     *
+     * @param deadline a time in milliseconds after which the client does not wait, or 0 if it is not set.
+     * @throws ServiceUnavailableException when the request is shed or its deadline is exceeded.
+     */
+    void acquire(final long deadline) throws ServiceUnavailableException {
+        if (deadline > 0 && Clock.systemDefaultZone().millis() >= deadline) {
+            expired.increment();
+            throw new ServiceUnavailableException(HTTP_UNAVAILABLE, REQUEST_DEADLINE_EXCEEDED);
+        }
+
+        try {
+            // The zero timeout respects the order of waiting requests unlike tryAcquire()
+            if (!permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                if (queued.incrementAndGet() > queueSize) {
+                    queued.decrementAndGet();
+                    shed.increment();
+                    throw new ServiceUnavailableException(HTTP_UNAVAILABLE, SERVICE_UNAVAILABLE);
+                }
+
+                updateMaxQueued();
+                final long start = System.nanoTime();
+                try {
+                    final long wait = deadline > 0 ?
+                            Math.min(timeout, deadline - Clock.systemDefaultZone().millis()) : timeout;
+                    if (!permits.tryAcquire(wait, TimeUnit.MILLISECONDS)) {
+                        if (deadline > 0 && Clock.systemDefaultZone().millis() >= deadline) {
+                            expired.increment();
+                            throw new ServiceUnavailableException(HTTP_UNAVAILABLE, REQUEST_DEADLINE_EXCEEDED);
+                        }
+
+                        shed.increment();
+                        throw new ServiceUnavailableException(HTTP_UNAVAILABLE, SERVICE_UNAVAILABLE);
+                    }
+                } finally {
+                    queued.decrementAndGet();
+                    waitTime.add(System.nanoTime() - start);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shed.increment();
+            throw new ServiceUnavailableException(HTTP_UNAVAILABLE, SERVICE_UNAVAILABLE);
+        }
+
+        admitted.increment();
+    }
+
+    /**
+     * Releases a request that has been admitted.
+     */
+    void release() {
+        permits.release();
+    }
+
+    /**
+     * Returns statistics of the admission control.
+     *
+     * @return statistics that have in-flight and queued requests, admitted, shed and expired requests.
+     */
+    JsonObject getStats() {
+        final JsonObject stats = new JsonObject();
+        stats.put("max_in_flight", maxInFlight);
+        stats.put("in_flight", maxInFlight - permits.availablePermits());
+        stats.put("queued", queued.get());
+        stats.put("max_queued", maxQueued);
+        stats.put("admitted", admitted.sum());
+        stats.put("shed", shed.sum());
+        stats.put("expired", expired.sum());
+        stats.put("wait_time", TimeUnit.NANOSECONDS.toMillis(waitTime.sum()));
+        return stats;
+    }
+
+    private void updateMaxQueued() {
+        final int current = queued.get();
+        if (current > maxQueued) {
+            synchronized (this) {
+                maxQueued = Math.max(maxQueued, current);
+            }
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the admission control.
+     */
+    final static class Builder {
+        private final int maxInFlight;
+        private int queueSize;
+        private long timeout;
+
+        /**
+         * Constructs an admission control with a required parameter.
+         *
+         * @param maxInFlight a maximum number of requests that are handled at the same time.
+         */
+        Builder(final int maxInFlight) {
+            this.maxInFlight = Validator.of(maxInFlight).validate(s -> s > 0, WRONG_IN_FLIGHT_VALUE).get();
+        }
+
+        /**
+         * Constructs an admission control with a bounded queue.
+         *
+         * @param queueSize a maximum number of waiting requests.
+         * @param timeout   a maximum time in milliseconds that a request waits.
+         * @return a builder of the admission control.
+         */
+        Builder queue(final int queueSize, final long timeout) {
+            this.queueSize = Validator.of(queueSize).validate(s -> s >= 0, WRONG_ADMISSION_QUEUE_VALUE).get();
+            this.timeout = Validator.of(timeout).validate(t -> t >= 0, WRONG_TIMEOUT_VALUE).get();
+            return this;
+        }
+
+        /**
+         * Builds an admission control with parameters.
+         *
+         * @return a builder of the admission control.
+         */
+        AdmissionControl build() {
+            return new AdmissionControl(this);
+        }
+    }
+}
@@ -12,7 +12,9 @@ package com.github.akarazhev.metaconfig.engine.web.server;
 
 import com.github.akarazhev.metaconfig.Constants;
 import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.ConfigPatch;
 import com.github.akarazhev.metaconfig.api.ConfigService;
+import com.github.akarazhev.metaconfig.api.VersionConflictException;
 import com.github.cliftonlabs.json_simple.JsonArray;
 import com.github.cliftonlabs.json_simple.JsonException;
 import com.github.cliftonlabs.json_simple.JsonObject;
@@ -20,29 +22,41 @@ import com.github.cliftonlabs.json_simple.Jsoner;
 import com.sun.net.httpserver.HttpExchange;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.github.akarazhev.metaconfig.Constants.Messages.JSON_TO_CONFIG_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.JSON_TO_PATCH_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.REQUEST_PARAM_NOT_PRESENT;
 import static com.github.akarazhev.metaconfig.Constants.Messages.STRING_TO_JSON_ERROR;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.DELETE;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PATCH;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PUT;
+import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.ERROR;
+import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.RESULT;
+import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.SUCCESS;
 import static com.github.akarazhev.metaconfig.extension.WebUtils.getRequestParam;
 import static com.github.akarazhev.metaconfig.extension.WebUtils.getValues;
 import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_CONFLICT;
 
 /**
- * Provides a handler functionality for the GET, PUT, DELETE config methods.
+ * Provides a handler functionality for the GET, PUT, PATCH, DELETE config methods.
  */
 final class ConfigController extends AbstractController {
     private final static Logger LOGGER = Logger.getLogger(ConfigController.class.getSimpleName());
@@ -57,24 +71,24 @@ final class ConfigController extends AbstractController {
     @Override
     void execute(final HttpExchange httpExchange) throws IOException {
         final URI uri = httpExchange.getRequestURI();
-        final String method = httpExchange.getRequestMethod();
+        final String method = getMethod(httpExchange);
         if (GET.equals(method)) {
-            final OperationResponse<Collection<Config>> response = getRequestParam(uri, REQ_PARAM_NAMES).
-                    map(param -> {
-                        try {
-                            final Collection<Config> configs =
-                                    configService.get(getValues(param)).collect(Collectors.toList());
-                            return new OperationResponse.Builder<Collection<Config>>().result(configs).build();
-                        } catch (final Exception e) {
-                            LOGGER.log(Level.SEVERE, e.toString());
-                            return new OperationResponse.Builder<Collection<Config>>().error(STRING_TO_JSON_ERROR).build();
-                        }
-                    }).
-                    orElseGet(() -> {
-                        final Collection<Config> configs = configService.get().collect(Collectors.toList());
-                        return new OperationResponse.Builder<Collection<Config>>().result(configs).build();
-                    });
-            writeResponse(httpExchange, response);
+            final Optional<String> param = getRequestParam(uri, REQ_PARAM_NAMES);
+            if (param.isPresent()) {
+                final Collection<String> names;
+                try {
+                    names = getValues(param.get()).distinct().sorted().collect(Collectors.toList());
+                } catch (final Exception e) {
+                    LOGGER.log(Level.SEVERE, e.toString());
+                    writeResponse(httpExchange,
+                            new OperationResponse.Builder<Collection<Config>>().error(STRING_TO_JSON_ERROR).build());
+                    return;
+                }
+
+                writeConfigs(httpExchange, names);
+            } else {
+                writeAllConfigs(httpExchange);
+            }
         } else if (PUT.equals(method)) {
             try (final BufferedReader bufferedReader =
                          new BufferedReader(new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8))) {
@@ -83,16 +97,43 @@ final class ConfigController extends AbstractController {
                         map(config -> new Config.Builder((JsonObject) config).build());
                 final Collection<Config> updatedConfigs = configService.update(stream).
                         collect(Collectors.toList());
+                responseCache.invalidate(updatedConfigs.stream().map(Config::getName));
                 writeResponse(httpExchange, new OperationResponse.Builder<>().result(updatedConfigs).build());
             } catch (final JsonException e) {
                 LOGGER.log(Level.SEVERE, e.toString());
                 throw new InvalidRequestException(HTTP_BAD_REQUEST, JSON_TO_CONFIG_ERROR);
             }
+        } else if (PATCH.equals(method)) {
+            final String name;
+            final int version;
+            final ConfigPatch patch;
+            try (final BufferedReader bufferedReader =
+                         new BufferedReader(new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8))) {
+                final JsonObject jsonPatch = (JsonObject) Jsoner.deserialize(bufferedReader);
+                name = (String) jsonPatch.get(REQ_PARAM_NAME);
+                version = ((BigDecimal) jsonPatch.get(REQ_PARAM_VERSION)).intValue();
+                patch = new ConfigPatch.Builder(jsonPatch).build();
+            } catch (final JsonException | RuntimeException e) {
+                LOGGER.log(Level.SEVERE, e.toString());
+                throw new InvalidRequestException(HTTP_BAD_REQUEST, JSON_TO_PATCH_ERROR);
+            }
+
+            final int patchedVersion;
+            try {
+                patchedVersion = configService.patch(name, version, patch);
+            } catch (final VersionConflictException e) {
+                throw new ConflictException(HTTP_CONFLICT, e.getMessage());
+            }
+
+            responseCache.invalidate(Stream.of(name));
+            writeResponse(httpExchange, new OperationResponse.Builder<>().result(patchedVersion).build());
         } else if (DELETE.equals(method)) {
             final OperationResponse<Integer> response = getRequestParam(uri, REQ_PARAM_NAMES).
                     map(param -> {
                         try {
-                            final int result = configService.remove(getValues(param));
+                            final Collection<String> names = getValues(param).collect(Collectors.toList());
+                            final int result = configService.remove(names.stream());
+                            responseCache.invalidate(names.stream());
                             return new OperationResponse.Builder<Integer>().result(result).build();
                         } catch (final Exception e) {
                             LOGGER.log(Level.SEVERE, e.toString());
@@ -106,6 +147,62 @@ final class ConfigController extends AbstractController {
         }
     }
 
+    private void writeAllConfigs(final HttpExchange httpExchange) throws IOException {
+        // The versions are read before configs, so a config changed in between is revalidated by the next request
+        if (!writeNotModified(httpExchange, getETag(configService.getVersions()))) {
+            final ConfigsWriter writer = new ConfigsWriter(httpExchange);
+            try {
+                configService.forEach(writer::write);
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes configs of the response one by one with chunked transfer, so the response is not held in memory.
+     * Headers are sent with the first config, so an error of the repository is still answered with an error status.
+     */
+    private final class ConfigsWriter {
+        private final HttpExchange httpExchange;
+        private Writer writer;
+
+        private ConfigsWriter(final HttpExchange httpExchange) {
+            this.httpExchange = httpExchange;
+        }
+
+        private void write(final Config config) {
+            try {
+                if (writer == null) {
+                    open();
+                } else {
+                    writer.write(',');
+                }
+
+                config.toJson(writer);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void close() throws IOException {
+            if (writer == null) {
+                open();
+            }
+
+            writer.write("]}");
+            writer.close();
+        }
+
+        private void open() throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(getChunkedResponseBody(httpExchange),
+                    StandardCharsets.UTF_8));
+            writer.write("{\"" + SUCCESS + "\":true,\"" + ERROR + "\":null,\"" + RESULT + "\":[");
+        }
+    }
+
     /**
      * Wraps and builds the instance of the config controller.
      */
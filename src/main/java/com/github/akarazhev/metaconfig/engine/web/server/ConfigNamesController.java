@@ -24,6 +24,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Messages.STRING_TO_JSON_ERROR;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
 import static com.github.akarazhev.metaconfig.extension.WebUtils.getRequestParam;
@@ -50,18 +51,28 @@ final class ConfigNamesController extends AbstractController {
             final URI uri = httpExchange.getRequestURI();
             final Optional<String> param = getRequestParam(uri, REQ_PARAM_PAGE_REQUEST);
             if (param.isPresent()) {
+                final PageRequest request;
                 try {
-                    final PageResponse response =
-                            configService.getNames(new PageRequest.Builder(getValue(param.get())).build());
-                    writeResponse(httpExchange, new OperationResponse.Builder<PageResponse>().result(response).build());
+                    request = new PageRequest.Builder(getValue(param.get())).build();
                 } catch (final Exception e) {
                     LOGGER.log(Level.SEVERE, e.toString());
                     writeResponse(httpExchange,
                             new OperationResponse.Builder<PageResponse>().error(STRING_TO_JSON_ERROR).build());
+                    return;
                 }
-            } else {
+                // The key is built by the normalized page request, so the same request is cached once
+                final String key = CONFIG_NAMES_VALUE + "?" + REQ_PARAM_PAGE_REQUEST + "=" + request.toJson();
+                if (!writeCachedResponse(httpExchange, key)) {
+                    final long generation = responseCache.getGeneration();
+                    final PageResponse response = configService.getNames(request);
+                    writeConditionalResponse(httpExchange, key, generation,
+                            new OperationResponse.Builder<PageResponse>().result(response).build());
+                }
+            } else if (!writeCachedResponse(httpExchange, CONFIG_NAMES_VALUE)) {
+                final long generation = responseCache.getGeneration();
                 final List<String> names = configService.getNames().collect(Collectors.toList());
-                writeResponse(httpExchange, new OperationResponse.Builder<List<String>>().result(names).build());
+                writeConditionalResponse(httpExchange, CONFIG_NAMES_VALUE, generation,
+                        new OperationResponse.Builder<List<String>>().result(names).build());
             }
         } else {
             throw new MethodNotAllowedException(HTTP_BAD_METHOD, Constants.Messages.METHOD_NOT_ALLOWED);
@@ -0,0 +1,147 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.Constants;
+import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.ConfigService;
+import com.github.cliftonlabs.json_simple.JsonArray;
+import com.github.cliftonlabs.json_simple.JsonException;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_QUERY_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.JSON_TO_QUERY_ERROR;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.POST;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.CONFIGS;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.NAMES;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.PAGE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.PROJECTION;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.SIZE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Query.VERSIONS;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+
+/**
+ * Provides a handler functionality for the POST config query method. Names, a projection and a page are sent
+ * in the body, so a large set of names does not have to be encoded into the url.
+ */
+final class ConfigQueryController extends AbstractController {
+    private final static Logger LOGGER = Logger.getLogger(ConfigQueryController.class.getSimpleName());
+
+    private ConfigQueryController(final Builder builder) {
+        super(builder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void execute(final HttpExchange httpExchange) throws IOException {
+        if (POST.equals(httpExchange.getRequestMethod())) {
+            final List<String> names;
+            final String projection;
+            try (final BufferedReader bufferedReader =
+                         new BufferedReader(new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8))) {
+                final JsonObject jsonQuery = (JsonObject) Jsoner.deserialize(bufferedReader);
+                projection = (String) jsonQuery.getOrDefault(PROJECTION, CONFIGS);
+                if (!CONFIGS.equals(projection) && !VERSIONS.equals(projection)) {
+                    throw new IllegalArgumentException(projection);
+                }
+
+                names = getPage(((JsonArray) Objects.requireNonNull(jsonQuery.get(NAMES))).stream().
+                                map(name -> (String) Objects.requireNonNull(name)).
+                                distinct().
+                                sorted().
+                                collect(Collectors.toList()),
+                        getInt(jsonQuery, PAGE), getInt(jsonQuery, SIZE));
+            } catch (final JsonException | RuntimeException e) {
+                LOGGER.log(Level.SEVERE, e.toString());
+                throw new InvalidRequestException(HTTP_BAD_REQUEST, JSON_TO_QUERY_ERROR);
+            }
+
+            if (CONFIGS.equals(projection)) {
+                // The same names are cached once for the get and post methods
+                writeConfigs(httpExchange, names);
+            } else {
+                final String key = CONFIG_QUERY_VALUE + "?" + PROJECTION + "=" + projection + "&" +
+                        NAMES + "=" + new JsonArray(names).toJson();
+                if (!writeCachedResponse(httpExchange, key)) {
+                    final long generation = responseCache.getGeneration();
+                    final Collection<Config> versions =
+                            configService.getVersions(names.stream()).collect(Collectors.toList());
+                    writeConditionalResponse(httpExchange, key, generation,
+                            new OperationResponse.Builder<Collection<Config>>().result(versions).build());
+                }
+            }
+        } else {
+            throw new MethodNotAllowedException(HTTP_BAD_METHOD, Constants.Messages.METHOD_NOT_ALLOWED);
+        }
+    }
+
+    private int getInt(final JsonObject jsonQuery, final String key) {
+        final Object value = jsonQuery.get(key);
+        final int number = value != null ? ((BigDecimal) value).intValueExact() : 0;
+        if (number < 0) {
+            throw new IllegalArgumentException(key);
+        }
+
+        return number;
+    }
+
+    private List<String> getPage(final List<String> names, final int page, final int size) {
+        if (size == 0) {
+            // All names are returned if the size of a page is not set
+            return names;
+        }
+
+        final long from = (long) page * size;
+        return from < names.size() ?
+                names.subList((int) from, (int) Math.min(from + size, names.size())) :
+                names.subList(0, 0);
+    }
+
+    /**
+     * Wraps and builds the instance of the config query controller.
+     */
+    final static class Builder extends AbstractBuilder {
+
+        /**
+         * Constructs a controller with the configuration service param.
+         *
+         * @param configService a configuration service.
+         */
+        Builder(final ConfigService configService) {
+            super("", configService);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        ConfigQueryController build() {
+            return new ConfigQueryController(this);
+        }
+    }
+}
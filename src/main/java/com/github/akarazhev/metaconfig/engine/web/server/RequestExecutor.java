@@ -0,0 +1,165 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.extension.Validator;
+
+import java.time.Clock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.VIRTUAL_THREADS_NOT_SUPPORTED;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_POOL_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_QUEUE_SIZE_VALUE;
+
+/**
+ * Executes requests of the web server on a bounded thread pool or on virtual threads. A request that exceeds
+ * the queue bound is run on the calling thread as rejected, so a controller answers it without doing any work.
+ */
+final class RequestExecutor implements Executor {
+    private final static Logger LOGGER = Logger.getLogger(RequestExecutor.class.getSimpleName());
+    private final static ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+    private final static ThreadLocal<Long> ARRIVAL = new ThreadLocal<>();
+    private final ExecutorService executorService;
+
+    private RequestExecutor(final Builder builder) {
+        final ExecutorService virtual = builder.isVirtual ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.executorService = virtual;
+        } else {
+            final AtomicInteger number = new AtomicInteger();
+            this.executorService = new ThreadPoolExecutor(builder.poolSize, builder.poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(builder.queueSize), runnable -> {
+                final Thread thread = new Thread(runnable, "config-server-" + number.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, (runnable, executor) -> {
+                // The exchange is read on the calling thread, then it is answered with the error
+                REJECTED.set(true);
+                try {
+                    runnable.run();
+                } finally {
+                    REJECTED.remove();
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns true if a request of the current thread has been rejected.
+     *
+     * @return a rejected state.
+     */
+    static boolean isRejected() {
+        return REJECTED.get() != null;
+    }
+
+    /**
+     * Returns a time in milliseconds since the epoch when a request of the current thread has been handed to
+     * the executor, or the current time if the request has not been passed through it.
+     *
+     * @return an arrival time.
+     */
+    static long getArrival() {
+        final Long arrival = ARRIVAL.get();
+        return arrival != null ? arrival : Clock.systemDefaultZone().millis();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(final Runnable command) {
+        // The arrival is stamped before the request waits in the queue, so the wait is a part of its timeout
+        final long arrival = Clock.systemDefaultZone().millis();
+        executorService.execute(() -> {
+            ARRIVAL.set(arrival);
+            try {
+                command.run();
+            } finally {
+                ARRIVAL.remove();
+            }
+        });
+    }
+
+    /**
+     * Stops the executor, running requests are completed.
+     */
+    void shutdown() {
+        executorService.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // The method is available since JDK 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final Exception e) {
+            LOGGER.log(Level.WARNING, VIRTUAL_THREADS_NOT_SUPPORTED);
+            return null;
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the request executor.
+     */
+    final static class Builder {
+        private final int poolSize;
+        private int queueSize = Integer.MAX_VALUE;
+        private boolean isVirtual;
+
+        /**
+         * Constructs a request executor with a required parameter.
+         *
+         * @param poolSize a number of threads.
+         */
+        Builder(final int poolSize) {
+            this.poolSize = Validator.of(poolSize).validate(s -> s > 0, WRONG_POOL_SIZE_VALUE).get();
+        }
+
+        /**
+         * Constructs a request executor with a bound of the queue.
+         *
+         * @param queueSize a maximum number of waiting requests.
+         * @return a builder of the request executor.
+         */
+        Builder queueSize(final int queueSize) {
+            this.queueSize = Validator.of(queueSize).validate(s -> s > 0, WRONG_QUEUE_SIZE_VALUE).get();
+            return this;
+        }
+
+        /**
+         * Constructs a request executor that runs every request on a new virtual thread if it is supported.
+         *
+         * @param isVirtual true to use virtual threads.
+         * @return a builder of the request executor.
+         */
+        Builder virtualThreads(final boolean isVirtual) {
+            this.isVirtual = isVirtual;
+            return this;
+        }
+
+        /**
+         * Builds a request executor with parameters.
+         *
+         * @return a builder of the request executor.
+         */
+        RequestExecutor build() {
+            return new RequestExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.api.ChangeEvent;
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_CACHE_AGE_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_CACHE_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.RESET;
+
+/**
+ * Caches encoded responses of the web server by endpoints and normalized params. An entry is removed when
+ * a configuration with one of its names is changed or when it is older than the max age, so a lost change
+ * is not served forever. The least recently used entries are evicted when the number of entries or bytes
+ * exceeds the bound.
+ */
+final class ResponseCache {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long maxAge;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long bytes;
+    private long evictions;
+    private long invalidations;
+    // The generation is changed with every invalidation, so a response read before a change is not cached
+    private long generation;
+
+    private ResponseCache(final Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.maxBytes = builder.maxBytes;
+        this.maxAge = builder.maxAge;
+    }
+
+    /**
+     * Returns a cached response.
+     *
+     * @param key an endpoint with normalized params.
+     * @return a cached response or null if it is not cached or expired.
+     */
+    Entry get(final String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.created > maxAge) {
+                remove(key, entry);
+                entry = null;
+            }
+        }
+
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        return entry;
+    }
+
+    /**
+     * Returns true if responses can be cached.
+     *
+     * @return an enabled state.
+     */
+    boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Returns the current generation that must be taken before a response is read.
+     *
+     * @return a generation.
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a response if no configuration has been changed since the generation.
+     *
+     * @param key        an endpoint with normalized params.
+     * @param entry      a response.
+     * @param generation a generation taken before the response was read.
+     */
+    synchronized void put(final String key, final Entry entry, final long generation) {
+        if (!isEnabled() || entry.getSize() > maxBytes || generation != this.generation) {
+            return;
+        }
+
+        final Entry prev = entries.put(key, entry);
+        if (prev != null) {
+            bytes -= prev.getSize();
+        }
+
+        bytes += entry.getSize();
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= iterator.next().getSize();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes a response if it is still cached by the key, e.g. when it is stale.
+     *
+     * @param key   an endpoint with normalized params.
+     * @param entry a response.
+     */
+    synchronized void remove(final String key, final Entry entry) {
+        if (entries.remove(key, entry)) {
+            bytes -= entry.getSize();
+            invalidations++;
+        }
+    }
+
+    /**
+     * Removes responses that contain any of configuration names.
+     *
+     * @param stream a stream of configuration names.
+     */
+    synchronized void invalidate(final Stream<String> stream) {
+        final Collection<String> names = new HashSet<>();
+        stream.forEach(names::add);
+        generation++;
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.names == null || entry.names.stream().anyMatch(names::contains)) {
+                bytes -= entry.getSize();
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Removes responses affected by a change event.
+     *
+     * @param event a change event.
+     */
+    void invalidate(final ChangeEvent event) {
+        if (RESET.equals(event.getOperation())) {
+            clear();
+        } else {
+            invalidate(Stream.of(event.getName()));
+        }
+    }
+
+    /**
+     * Removes all responses.
+     */
+    synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns statistics of the cache.
+     *
+     * @return statistics that have entries, bytes, hits, misses, evictions and invalidations.
+     */
+    synchronized JsonObject getStats() {
+        final JsonObject stats = new JsonObject();
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+
+    /**
+     * A cached response with its encoded and compressed content.
+     */
+    final static class Entry {
+        private final byte[] bytes;
+        private final byte[] compressed;
+        private final String eTag;
+        private final Collection<String> names;
+        private final long created = System.nanoTime();
+
+        /**
+         * Constructs a cached response.
+         *
+         * @param bytes      an encoded response.
+         * @param compressed a response compressed with gzip or null.
+         * @param eTag       an entity tag of the response.
+         * @param names      configuration names of the response or null if any change affects it.
+         */
+        Entry(final byte[] bytes, final byte[] compressed, final String eTag, final Collection<String> names) {
+            this.bytes = Validator.of(bytes).get();
+            this.compressed = compressed;
+            this.eTag = Validator.of(eTag).get();
+            this.names = names;
+        }
+
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        byte[] getCompressed() {
+            return compressed;
+        }
+
+        String getETag() {
+            return eTag;
+        }
+
+        private long getSize() {
+            return bytes.length + (compressed != null ? compressed.length : 0);
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the response cache.
+     */
+    final static class Builder {
+        private final int maxEntries;
+        private long maxBytes = Long.MAX_VALUE;
+        private long maxAge = Long.MAX_VALUE;
+
+        /**
+         * Constructs a response cache with a required parameter.
+         *
+         * @param maxEntries a maximum number of responses, zero disables the cache.
+         */
+        Builder(final int maxEntries) {
+            this.maxEntries = Validator.of(maxEntries).validate(s -> s >= 0, WRONG_CACHE_SIZE_VALUE).get();
+        }
+
+        /**
+         * Constructs a response cache with a bound of bytes.
+         *
+         * @param maxBytes a maximum number of bytes of responses.
+         * @return a builder of the response cache.
+         */
+        Builder maxBytes(final long maxBytes) {
+            this.maxBytes = Validator.of(maxBytes).validate(s -> s >= 0, WRONG_CACHE_SIZE_VALUE).get();
+            return this;
+        }
+
+        /**
+         * Constructs a response cache with a bound of the age of responses.
+         *
+         * @param maxAge a maximum age of a response in milliseconds.
+         * @return a builder of the response cache.
+         */
+        Builder maxAge(final long maxAge) {
+            this.maxAge = TimeUnit.MILLISECONDS.toNanos(Validator.of(maxAge).
+                    validate(s -> s >= 0, WRONG_CACHE_AGE_VALUE).get());
+            return this;
+        }
+
+        /**
+         * Builds a response cache with parameters.
+         *
+         * @return a builder of the response cache.
+         */
+        ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
@@ -13,8 +13,11 @@ package com.github.akarazhev.metaconfig.engine.web.server;
 import com.github.akarazhev.metaconfig.api.Config;
 import com.github.akarazhev.metaconfig.api.ConfigService;
 import com.github.akarazhev.metaconfig.api.Property;
+import com.github.akarazhev.metaconfig.api.Subscription;
 import com.github.akarazhev.metaconfig.engine.web.WebServer;
+import com.github.akarazhev.metaconfig.extension.Metrics;
 import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
 import com.sun.net.httpserver.HttpsConfigurator;
 import com.sun.net.httpserver.HttpsParameters;
 import com.sun.net.httpserver.HttpsServer;
@@ -34,31 +37,53 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.Deflater;
 
 import static com.github.akarazhev.metaconfig.Constants.CREATE_CONSTANT_CLASS_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.ACCEPT_CONFIG;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.ACCEPT_CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.ADMISSION_STATS;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.ADMISSION_STATS_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CACHE_STATS;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CACHE_STATS_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_QUERY;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_QUERY_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.METRICS;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.METRICS_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.SLOW_STATEMENTS;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.SLOW_STATEMENTS_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.WATCH;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.WATCH_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Messages.CERTIFICATE_LOAD_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.PARAM_NOT_PRESENTED;
 import static com.github.akarazhev.metaconfig.Constants.Messages.SERVER_CREATE_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.SERVER_STARTED;
 import static com.github.akarazhev.metaconfig.Constants.Messages.SERVER_STOPPED;
 import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.ADMISSION_QUEUE_SIZE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.ADMISSION_QUEUE_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.ADMISSION_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.ADMISSION_TIMEOUT_VALUE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.ALIAS;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.ALIAS_VALUE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.API_PATH;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.API_PATH_VALUE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.BACKLOG;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.BACKLOG_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.COMPRESSION_LEVEL;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.COMPRESSION_LEVEL_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.COMPRESSION_THRESHOLD;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.COMPRESSION_THRESHOLD_VALUE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.CONFIG_NAME;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.HOSTNAME;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.HOSTNAME_VALUE;
@@ -66,17 +91,47 @@ import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.KEY_PASSWORD_VALUE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.KEY_STORE_FILE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.KEY_STORE_FILE_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.MAX_IN_FLIGHT;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.MAX_IN_FLIGHT_VALUE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.PORT;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.PORT_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RESPONSE_CACHE_BYTES;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RESPONSE_CACHE_BYTES_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RESPONSE_CACHE_MAX_AGE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RESPONSE_CACHE_MAX_AGE_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RESPONSE_CACHE_SIZE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RESPONSE_CACHE_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RETRY_AFTER;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.RETRY_AFTER_VALUE;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.STORE_PASSWORD;
 import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.STORE_PASSWORD_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.TCP_NO_DELAY;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.TCP_NO_DELAY_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.THREAD_POOL_SIZE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.THREAD_POOL_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.THREAD_QUEUE_SIZE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.THREAD_QUEUE_SIZE_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.VIRTUAL_THREADS;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.VIRTUAL_THREADS_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.WATCH_CAPACITY;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.WATCH_CAPACITY_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.WATCH_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.server.Server.Settings.WATCH_TIMEOUT_VALUE;
 
 /**
  * The internal implementation of the web server.
  */
 public final class Server implements WebServer {
     private final static Logger LOGGER = Logger.getLogger(Server.class.getSimpleName());
+    // The property of the http server to disable the Nagle's algorithm
+    private final static String NO_DELAY = "sun.net.httpserver.nodelay";
     private final HttpsServer httpsServer;
+    private final WatchController watchController;
+    private final RequestExecutor requestExecutor;
+    private final ConfigService configService;
+    private final ResponseCache responseCache;
+    private final Map<String, AdmissionControl> admissionControls = new LinkedHashMap<>();
+    private Subscription subscription;
 
     /**
      * Settings constants for the web server.
@@ -121,6 +176,66 @@ public final class Server implements WebServer {
         public static final String KEY_PASSWORD = "key-password";
         // The key password value
         static final String KEY_PASSWORD_VALUE = "password";
+        // The watch timeout key
+        public static final String WATCH_TIMEOUT = "watch-timeout";
+        // The watch timeout value
+        static final long WATCH_TIMEOUT_VALUE = 30000;
+        // The watch capacity key
+        public static final String WATCH_CAPACITY = "watch-capacity";
+        // The watch capacity value
+        static final int WATCH_CAPACITY_VALUE = 1024;
+        // The thread pool size key
+        public static final String THREAD_POOL_SIZE = "thread-pool-size";
+        // The thread pool size value
+        static final int THREAD_POOL_SIZE_VALUE = Runtime.getRuntime().availableProcessors();
+        // The thread queue size key
+        public static final String THREAD_QUEUE_SIZE = "thread-queue-size";
+        // The thread queue size value
+        static final int THREAD_QUEUE_SIZE_VALUE = Integer.MAX_VALUE;
+        // The compression level key
+        public static final String COMPRESSION_LEVEL = "compression-level";
+        // The compression level value
+        static final int COMPRESSION_LEVEL_VALUE = Deflater.DEFAULT_COMPRESSION;
+        // The compression threshold key
+        public static final String COMPRESSION_THRESHOLD = "compression-threshold";
+        // The compression threshold value
+        static final int COMPRESSION_THRESHOLD_VALUE = 1024;
+        // The virtual threads key
+        public static final String VIRTUAL_THREADS = "virtual-threads";
+        // The virtual threads value
+        static final boolean VIRTUAL_THREADS_VALUE = false;
+        // The response cache size key
+        public static final String RESPONSE_CACHE_SIZE = "response-cache-size";
+        // The response cache size value
+        static final int RESPONSE_CACHE_SIZE_VALUE = 1000;
+        // The response cache bytes key
+        public static final String RESPONSE_CACHE_BYTES = "response-cache-bytes";
+        // The response cache bytes value
+        static final long RESPONSE_CACHE_BYTES_VALUE = 16 * 1024 * 1024;
+        // The response cache max age key
+        public static final String RESPONSE_CACHE_MAX_AGE = "response-cache-max-age";
+        // The response cache max age value
+        static final long RESPONSE_CACHE_MAX_AGE_VALUE = 60000;
+        // The max in-flight key
+        public static final String MAX_IN_FLIGHT = "max-in-flight";
+        // The max in-flight value
+        static final int MAX_IN_FLIGHT_VALUE = Integer.MAX_VALUE;
+        // The admission queue size key
+        public static final String ADMISSION_QUEUE_SIZE = "admission-queue-size";
+        // The admission queue size value
+        static final int ADMISSION_QUEUE_SIZE_VALUE = 0;
+        // The admission timeout key
+        public static final String ADMISSION_TIMEOUT = "admission-timeout";
+        // The admission timeout value
+        static final long ADMISSION_TIMEOUT_VALUE = 1000;
+        // The retry after key
+        public static final String RETRY_AFTER = "retry-after";
+        // The retry after value
+        static final long RETRY_AFTER_VALUE = 1;
+        // The tcp no delay key, it sets the property of the JDK that is shared by all http servers of the process
+        public static final String TCP_NO_DELAY = "tcp-no-delay";
+        // The tcp no delay value
+        static final boolean TCP_NO_DELAY_VALUE = false;
     }
 
     /**
@@ -173,6 +288,36 @@ public final class Server implements WebServer {
         final int backlog = serverConfig.getProperty(BACKLOG).
                 map(property -> (int) property.asLong()).
                 orElse(BACKLOG_VALUE);
+        // Get the compression level
+        final int compressionLevel = serverConfig.getProperty(COMPRESSION_LEVEL).
+                map(property -> (int) property.asLong()).
+                orElse(COMPRESSION_LEVEL_VALUE);
+        // Get the compression threshold
+        final int compressionThreshold = serverConfig.getProperty(COMPRESSION_THRESHOLD).
+                map(property -> (int) property.asLong()).
+                orElse(COMPRESSION_THRESHOLD_VALUE);
+        // Get the retry after
+        final long retryAfter = serverConfig.getProperty(RETRY_AFTER).
+                map(Property::asLong).
+                orElse(RETRY_AFTER_VALUE);
+        // Init the response cache
+        this.configService = configService;
+        responseCache = new ResponseCache.Builder(serverConfig.getProperty(RESPONSE_CACHE_SIZE).
+                map(property -> (int) property.asLong()).
+                orElse(RESPONSE_CACHE_SIZE_VALUE)).
+                maxBytes(serverConfig.getProperty(RESPONSE_CACHE_BYTES).
+                        map(Property::asLong).
+                        orElse(RESPONSE_CACHE_BYTES_VALUE)).
+                maxAge(serverConfig.getProperty(RESPONSE_CACHE_MAX_AGE).
+                        map(Property::asLong).
+                        orElse(RESPONSE_CACHE_MAX_AGE_VALUE)).
+                build();
+        // Headers and a body are written separately, so they must not wait for an acknowledgement of
+        // a client that keeps the connection alive. The property is process-wide, so it is set on demand.
+        if (serverConfig.getProperty(TCP_NO_DELAY).map(Property::asBool).orElse(TCP_NO_DELAY_VALUE) &&
+                System.getProperty(NO_DELAY) == null) {
+            System.setProperty(NO_DELAY, "true");
+        }
         // Init the server
         httpsServer = HttpsServer.create(new InetSocketAddress(hostname, port), backlog);
         // Get the accept config endpoint
@@ -181,20 +326,93 @@ public final class Server implements WebServer {
                 orElse(ACCEPT_CONFIG_VALUE);
         final String acceptApi = apiPath + acceptConfigEndpoint;
         httpsServer.createContext(acceptApi,
-                new AcceptConfigController.Builder(acceptApi, configService).build()::handle);
+                new AcceptConfigController.Builder(acceptApi, configService).
+                        compression(compressionLevel, compressionThreshold).
+                        admissionControl(getAdmissionControl(serverConfig, acceptConfigEndpoint)).
+                        retryAfter(retryAfter).build()::handle);
         // Get the config names endpoint
         final String configNamesEndpoint = serverConfig.getProperty(CONFIG_NAMES).
                 map(Property::getValue).
                 orElse(CONFIG_NAMES_VALUE);
         httpsServer.createContext(apiPath + configNamesEndpoint,
-                new ConfigNamesController.Builder(configService).build()::handle);
+                new ConfigNamesController.Builder(configService).
+                        compression(compressionLevel, compressionThreshold).
+                        responseCache(responseCache).
+                        admissionControl(getAdmissionControl(serverConfig, configNamesEndpoint)).
+                        retryAfter(retryAfter).build()::handle);
         // Get the config endpoint
         final String configEndpoint = serverConfig.getProperty(CONFIG).
                 map(Property::getValue).
                 orElse(CONFIG_VALUE);
         httpsServer.createContext(apiPath + configEndpoint,
-                new ConfigController.Builder(configService).build()::handle);
-        httpsServer.setExecutor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+                new ConfigController.Builder(configService).
+                        compression(compressionLevel, compressionThreshold).
+                        responseCache(responseCache).
+                        admissionControl(getAdmissionControl(serverConfig, configEndpoint)).
+                        retryAfter(retryAfter).build()::handle);
+        // Get the config query endpoint
+        final String configQueryEndpoint = serverConfig.getProperty(CONFIG_QUERY).
+                map(Property::getValue).
+                orElse(CONFIG_QUERY_VALUE);
+        httpsServer.createContext(apiPath + configQueryEndpoint,
+                new ConfigQueryController.Builder(configService).
+                        compression(compressionLevel, compressionThreshold).
+                        responseCache(responseCache).
+                        admissionControl(getAdmissionControl(serverConfig, configQueryEndpoint)).
+                        retryAfter(retryAfter).build()::handle);
+        // Get the cache stats endpoint
+        final String cacheStatsEndpoint = serverConfig.getProperty(CACHE_STATS).
+                map(Property::getValue).
+                orElse(CACHE_STATS_VALUE);
+        httpsServer.createContext(apiPath + cacheStatsEndpoint,
+                new StatsController.Builder(configService, responseCache::getStats).build()::handle);
+        // Get the admission stats endpoint
+        final String admissionStatsEndpoint = serverConfig.getProperty(ADMISSION_STATS).
+                map(Property::getValue).
+                orElse(ADMISSION_STATS_VALUE);
+        httpsServer.createContext(apiPath + admissionStatsEndpoint,
+                new StatsController.Builder(configService, this::getAdmissionStats).build()::handle);
+        // Get the metrics endpoint
+        final String metricsEndpoint = serverConfig.getProperty(METRICS).
+                map(Property::getValue).
+                orElse(METRICS_VALUE);
+        httpsServer.createContext(apiPath + metricsEndpoint,
+                new MetricsController.Builder(configService).build()::handle);
+        // Get the slow statements endpoint
+        final String slowStatementsEndpoint = serverConfig.getProperty(SLOW_STATEMENTS).
+                map(Property::getValue).
+                orElse(SLOW_STATEMENTS_VALUE);
+        httpsServer.createContext(apiPath + slowStatementsEndpoint,
+                new StatsController.Builder(configService, this::getSlowStatements).build()::handle);
+        // Init the executor
+        requestExecutor = new RequestExecutor.Builder(serverConfig.getProperty(THREAD_POOL_SIZE).
+                map(property -> (int) property.asLong()).
+                orElse(THREAD_POOL_SIZE_VALUE)).
+                queueSize(serverConfig.getProperty(THREAD_QUEUE_SIZE).
+                        map(property -> (int) property.asLong()).
+                        orElse(THREAD_QUEUE_SIZE_VALUE)).
+                virtualThreads(serverConfig.getProperty(VIRTUAL_THREADS).
+                        map(Property::asBool).
+                        orElse(VIRTUAL_THREADS_VALUE)).
+                build();
+        // Get the watch endpoint
+        final String watchEndpoint = serverConfig.getProperty(WATCH).
+                map(Property::getValue).
+                orElse(WATCH_VALUE);
+        watchController = new WatchController.Builder(configService).
+                timeout(serverConfig.getProperty(WATCH_TIMEOUT).
+                        map(Property::asLong).
+                        orElse(WATCH_TIMEOUT_VALUE)).
+                capacity(serverConfig.getProperty(WATCH_CAPACITY).
+                        map(property -> (int) property.asLong()).
+                        orElse(WATCH_CAPACITY_VALUE)).
+                executor(requestExecutor).
+                compression(compressionLevel, compressionThreshold).
+                admissionControl(getAdmissionControl(serverConfig, watchEndpoint)).
+                retryAfter(retryAfter).
+                build();
+        httpsServer.createContext(apiPath + watchEndpoint, watchController::handle);
+        httpsServer.setExecutor(requestExecutor);
         httpsServer.setHttpsConfigurator(new HttpsConfigurator(getSSLContext(serverConfig)) {
 
             /**
@@ -223,6 +441,8 @@ public final class Server implements WebServer {
      */
     @Override
     public WebServer start() {
+        // Changes that are not made by the server also invalidate cached responses
+        subscription = configService.watch(responseCache::invalidate);
         httpsServer.start();
         LOGGER.log(Level.INFO, SERVER_STARTED);
         return this;
@@ -233,10 +453,45 @@ public final class Server implements WebServer {
      */
     @Override
     public void stop() {
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+
+        watchController.close();
         httpsServer.stop(0);
+        requestExecutor.shutdown();
         LOGGER.log(Level.INFO, SERVER_STOPPED);
     }
 
+    private AdmissionControl getAdmissionControl(final Config serverConfig, final String endpoint) {
+        // Every endpoint has its own limit, so a slow endpoint does not shed requests of others
+        final AdmissionControl admissionControl = new AdmissionControl.Builder(serverConfig.getProperty(MAX_IN_FLIGHT).
+                map(property -> (int) property.asLong()).
+                orElse(MAX_IN_FLIGHT_VALUE)).
+                queue(serverConfig.getProperty(ADMISSION_QUEUE_SIZE).
+                                map(property -> (int) property.asLong()).
+                                orElse(ADMISSION_QUEUE_SIZE_VALUE),
+                        serverConfig.getProperty(ADMISSION_TIMEOUT).
+                                map(Property::asLong).
+                                orElse(ADMISSION_TIMEOUT_VALUE)).
+                build();
+        admissionControls.put(endpoint, admissionControl);
+        return admissionControl;
+    }
+
+    private JsonObject getSlowStatements() {
+        final JsonObject stats = new JsonObject();
+        stats.put("statements", Metrics.getInstance().getSlowStatements());
+        return stats;
+    }
+
+    private JsonObject getAdmissionStats() {
+        final JsonObject stats = new JsonObject();
+        admissionControls.forEach((endpoint, admissionControl) -> stats.put(endpoint, admissionControl.getStats()));
+        return stats;
+    }
+
     private SSLContext getSSLContext(final Config serverConfig) throws Exception {
         final Optional<Property> keyStoreFile = serverConfig.getProperty(KEY_STORE_FILE);
         if (!keyStoreFile.isPresent()) {
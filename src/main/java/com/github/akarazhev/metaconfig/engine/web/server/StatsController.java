@@ -0,0 +1,73 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.Constants;
+import com.github.akarazhev.metaconfig.api.ConfigService;
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+
+/**
+ * Provides a handler functionality for the GET statistics method of the web server.
+ */
+final class StatsController extends AbstractController {
+    private final Supplier<JsonObject> stats;
+
+    private StatsController(final Builder builder) {
+        super(builder);
+        this.stats = builder.stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void execute(final HttpExchange httpExchange) throws IOException {
+        if (GET.equals(httpExchange.getRequestMethod())) {
+            writeResponse(httpExchange, new OperationResponse.Builder<JsonObject>().result(stats.get()).build());
+        } else {
+            throw new MethodNotAllowedException(HTTP_BAD_METHOD, Constants.Messages.METHOD_NOT_ALLOWED);
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the statistics controller.
+     */
+    final static class Builder extends AbstractBuilder {
+        private final Supplier<JsonObject> stats;
+
+        /**
+         * Constructs a controller with the configuration service and statistics params.
+         *
+         * @param configService a configuration service.
+         * @param stats         a supplier of statistics.
+         */
+        Builder(final ConfigService configService, final Supplier<JsonObject> stats) {
+            super("", configService);
+            this.stats = Validator.of(stats).get();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        StatsController build() {
+            return new StatsController(this);
+        }
+    }
+}
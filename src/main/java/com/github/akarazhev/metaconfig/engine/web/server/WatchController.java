@@ -0,0 +1,365 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.Constants;
+import com.github.akarazhev.metaconfig.api.ChangeEvent;
+import com.github.akarazhev.metaconfig.api.ConfigService;
+import com.github.akarazhev.metaconfig.api.Subscription;
+import com.github.akarazhev.metaconfig.extension.Validator;
+import com.github.cliftonlabs.json_simple.JsonArray;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.WATCH_RESPONSE_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_WATCH_PARAM;
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.RESET;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.extension.WebUtils.getRequestParam;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+
+/**
+ * Provides a handler functionality for the GET watch method. A request is parked without a thread
+ * until a change event arrives or the timeout expires, then it is answered with events after the sequence.
+ * Parked requests are answered on an executor, so a change event is not held by slow clients.
+ * A parked request counts against the admission control of the endpoint until it is answered.
+ */
+final class WatchController extends AbstractController {
+    private final static Logger LOGGER = Logger.getLogger(WatchController.class.getSimpleName());
+    private final long timeout;
+    private final int capacity;
+    private final Deque<ChangeEvent> events = new ArrayDeque<>();
+    private final Map<HttpExchange, Watcher> watchers = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private Subscription subscription;
+    private long sequence;
+
+    private WatchController(final Builder builder) {
+        super(builder);
+        this.timeout = builder.timeout;
+        this.capacity = builder.capacity;
+        // A new sequence is greater than sequences of a previous server run, so clients detect the restart
+        this.sequence = Clock.systemDefaultZone().millis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "config-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = builder.executor != null ? builder.executor : scheduler;
+    }
+
+    /**
+     * {@inheritDoc} A parked request keeps its admission and is recorded when it is answered.
+     */
+    @Override
+    void handle(final HttpExchange httpExchange) {
+        final Runnable recorder = startRecording(httpExchange);
+        boolean isAdmitted = false;
+        boolean isParked = false;
+        try {
+            checkAvailability();
+            admissionControl.acquire(getDeadline(httpExchange));
+            isAdmitted = true;
+            isParked = watch(httpExchange, recorder);
+        } catch (final Exception e) {
+            handle(httpExchange, e);
+        } finally {
+            if (!isParked) {
+                if (isAdmitted) {
+                    admissionControl.release();
+                }
+
+                httpExchange.close();
+                recorder.run();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc} Watch requests are parked, so they are handled by {@link #handle(HttpExchange)}.
+     */
+    @Override
+    void execute(final HttpExchange httpExchange) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    private boolean watch(final HttpExchange httpExchange, final Runnable recorder) throws IOException {
+        if (GET.equals(httpExchange.getRequestMethod())) {
+            final URI uri = httpExchange.getRequestURI();
+            final long since;
+            final long wait;
+            try {
+                since = getRequestParam(uri, REQ_PARAM_SINCE).map(Long::parseLong).orElse(-1L);
+                wait = Math.min(getRequestParam(uri, REQ_PARAM_TIMEOUT).map(Long::parseLong).orElse(timeout), timeout);
+            } catch (final NumberFormatException e) {
+                throw new InvalidRequestException(HTTP_BAD_REQUEST, WRONG_WATCH_PARAM);
+            }
+
+            final JsonObject result;
+            synchronized (this) {
+                if (subscription == null) {
+                    // Start watching with the first request
+                    subscription = configService.watch(this::publish);
+                }
+
+                final JsonObject ready = getResult(since);
+                if (ready == null && wait > 0) {
+                    // Park the request, it does not hold a thread
+                    final Watcher watcher = new Watcher(httpExchange, since, recorder);
+                    watcher.timeout = scheduler.schedule(() -> expire(watcher), wait, TimeUnit.MILLISECONDS);
+                    watchers.put(httpExchange, watcher);
+                    return true;
+                }
+
+                result = ready != null ? ready : getResult(sequence, new JsonArray());
+            }
+
+            writeResponse(httpExchange, new OperationResponse.Builder<JsonObject>().result(result).build());
+            return false;
+        } else {
+            throw new MethodNotAllowedException(HTTP_BAD_METHOD, Constants.Messages.METHOD_NOT_ALLOWED);
+        }
+    }
+
+    /**
+     * Stops watching, parked requests are answered with the current sequence.
+     */
+    void close() {
+        scheduler.shutdownNow();
+        final Collection<Watcher> parked;
+        final JsonObject result;
+        synchronized (this) {
+            if (subscription != null) {
+                subscription.cancel();
+                subscription = null;
+            }
+
+            parked = new ArrayList<>(watchers.values());
+            watchers.clear();
+            result = getResult(sequence, new JsonArray());
+        }
+
+        parked.forEach(watcher -> respond(watcher, result));
+    }
+
+    private void publish(final ChangeEvent event) {
+        final Map<Watcher, JsonObject> ready = new LinkedHashMap<>();
+        synchronized (this) {
+            events.addLast(new ChangeEvent.Builder(event).sequence(++sequence).build());
+            if (events.size() > capacity) {
+                events.removeFirst();
+            }
+
+            for (final Watcher watcher : watchers.values()) {
+                ready.put(watcher, getResult(watcher.since));
+            }
+
+            watchers.clear();
+        }
+
+        ready.forEach((watcher, result) -> {
+            watcher.timeout.cancel(false);
+            respondAsync(watcher, result);
+        });
+    }
+
+    private void expire(final Watcher watcher) {
+        final JsonObject result;
+        synchronized (this) {
+            if (watchers.remove(watcher.httpExchange) == null) {
+                return;
+            }
+
+            result = getResult(sequence, new JsonArray());
+        }
+
+        respondAsync(watcher, result);
+    }
+
+    private JsonObject getResult(final long since) {
+        if (since < 0) {
+            // The first request returns the current sequence
+            return getResult(sequence, new JsonArray());
+        }
+
+        final long first = events.isEmpty() ? sequence + 1 : events.getFirst().getSequence();
+        if (since > sequence || since < first - 1) {
+            // Events are lost or the server is restarted
+            final JsonArray reset = new JsonArray();
+            reset.add(new ChangeEvent.Builder(RESET, "").sequence(sequence).build());
+            return getResult(sequence, reset);
+        }
+
+        final JsonArray result = new JsonArray();
+        for (final ChangeEvent event : events) {
+            if (event.getSequence() > since) {
+                result.add(event);
+            }
+        }
+
+        return result.size() > 0 ? getResult(sequence, result) : null;
+    }
+
+    private JsonObject getResult(final long sequence, final JsonArray events) {
+        final JsonObject result = new JsonObject();
+        result.put("sequence", sequence);
+        result.put("events", events);
+        return result;
+    }
+
+    private void respondAsync(final Watcher watcher, final JsonObject result) {
+        try {
+            executor.execute(() -> respond(watcher, result));
+        } catch (final RejectedExecutionException e) {
+            // The response is dropped, so the publisher is not held by a slow client, the client watches again
+            LOGGER.log(Level.WARNING, WATCH_RESPONSE_ERROR, e);
+            complete(watcher);
+        }
+    }
+
+    private void respond(final Watcher watcher, final JsonObject result) {
+        try {
+            writeResponse(watcher.httpExchange, new OperationResponse.Builder<JsonObject>().result(result).build());
+        } catch (final Exception e) {
+            LOGGER.log(Level.WARNING, WATCH_RESPONSE_ERROR, e);
+        } finally {
+            complete(watcher);
+        }
+    }
+
+    private void complete(final Watcher watcher) {
+        admissionControl.release();
+        watcher.httpExchange.close();
+        watcher.recorder.run();
+    }
+
+    /**
+     * A parked request.
+     */
+    private final static class Watcher {
+        private final HttpExchange httpExchange;
+        private final long since;
+        private final Runnable recorder;
+        private ScheduledFuture<?> timeout;
+
+        private Watcher(final HttpExchange httpExchange, final long since, final Runnable recorder) {
+            this.httpExchange = httpExchange;
+            this.since = since;
+            this.recorder = recorder;
+        }
+    }
+
+    /**
+     * Wraps and builds the instance of the watch controller.
+     */
+    final static class Builder extends AbstractBuilder {
+        private long timeout = Server.Settings.WATCH_TIMEOUT_VALUE;
+        private int capacity = Server.Settings.WATCH_CAPACITY_VALUE;
+        private Executor executor;
+
+        /**
+         * Constructs a controller with the configuration service param.
+         *
+         * @param configService a configuration service.
+         */
+        Builder(final ConfigService configService) {
+            super("", configService);
+        }
+
+        /**
+         * Constructs a controller with a maximum time to park a request.
+         *
+         * @param timeout a timeout in milliseconds.
+         * @return a builder of the controller.
+         */
+        Builder timeout(final long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Constructs a controller with a number of kept change events.
+         *
+         * @param capacity a number of change events.
+         * @return a builder of the controller.
+         */
+        Builder capacity(final int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Constructs a controller with an executor that answers parked requests.
+         *
+         * @param executor an executor, the scheduler of the controller is used if it is not set.
+         * @return a builder of the controller.
+         */
+        Builder executor(final Executor executor) {
+            this.executor = Validator.of(executor).get();
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Builder compression(final int level, final int threshold) {
+            super.compression(level, threshold);
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Builder admissionControl(final AdmissionControl admissionControl) {
+            super.admissionControl(admissionControl);
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        Builder retryAfter(final long retryAfter) {
+            super.retryAfter(retryAfter);
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        WatchController build() {
+            return new WatchController(this);
+        }
+    }
+}
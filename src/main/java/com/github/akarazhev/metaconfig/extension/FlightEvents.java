@@ -0,0 +1,130 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.extension;
+
+/**
+ * Emits Java Flight Recorder events of repository queries, saves and http requests:
+ * <code>com.github.akarazhev.metaconfig.ConfigQuery</code>, <code>com.github.akarazhev.metaconfig.ConfigSave</code>
+ * and <code>com.github.akarazhev.metaconfig.ConfigHttpRequest</code>. If the runtime does not have the recorder
+ * or an event is not enabled in a recording, a shared empty event is returned and nothing is allocated.
+ */
+public final class FlightEvents {
+    private final static boolean IS_AVAILABLE = isAvailable();
+
+    private FlightEvents() {
+        throw new AssertionError("Private constructor could not be instantiated");
+    }
+
+    /**
+     * Begins an event of a repository query.
+     *
+     * @return an event.
+     */
+    public static Event beginQuery() {
+        return IS_AVAILABLE ? Event.of(JfrEvents.beginQuery()) : Event.EMPTY;
+    }
+
+    /**
+     * Begins an event of a repository save.
+     *
+     * @return an event.
+     */
+    public static Event beginSave() {
+        return IS_AVAILABLE ? Event.of(JfrEvents.beginSave()) : Event.EMPTY;
+    }
+
+    /**
+     * Begins an event of a http request.
+     *
+     * @return an event.
+     */
+    public static Event beginHttpRequest() {
+        return IS_AVAILABLE ? Event.of(JfrEvents.beginHttpRequest()) : Event.EMPTY;
+    }
+
+    private static boolean isAvailable() {
+        try {
+            // The recorder is a part of Java 11 and later updates of Java 8
+            Class.forName("jdk.jfr.Event", false, FlightEvents.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * An event that has begun and is committed with its values.
+     */
+    public final static class Event {
+        private final static Event EMPTY = new Event(null);
+        private final Object event;
+
+        private Event(final Object event) {
+            this.event = event;
+        }
+
+        private static Event of(final Object event) {
+            return event != null ? new Event(event) : EMPTY;
+        }
+
+        /**
+         * Returns true if the event is recorded, so values of the event can be collected.
+         *
+         * @return an enabled state.
+         */
+        public boolean isEnabled() {
+            return event != null;
+        }
+
+        /**
+         * Commits an event of a repository query.
+         *
+         * @param operation an operation of the repository.
+         * @param names     a number of requested configuration names.
+         * @param rows      a number of read rows.
+         */
+        public void commitQuery(final String operation, final int names, final long rows) {
+            if (event != null) {
+                JfrEvents.commitQuery(event, operation, names, rows);
+            }
+        }
+
+        /**
+         * Commits an event of a repository save.
+         *
+         * @param operation  an operation of the repository.
+         * @param configs    a number of configuration models.
+         * @param properties a number of properties.
+         * @param statements a number of executed statements.
+         */
+        public void commitSave(final String operation, final int configs, final int properties,
+                               final long statements) {
+            if (event != null) {
+                JfrEvents.commitSave(event, operation, configs, properties, statements);
+            }
+        }
+
+        /**
+         * Commits an event of a http request.
+         *
+         * @param endpoint an endpoint or a url.
+         * @param method   a http method.
+         * @param status   a status code.
+         * @param bytes    a number of bytes of the response body.
+         */
+        public void commitHttpRequest(final String endpoint, final String method, final int status,
+                                      final long bytes) {
+            if (event != null) {
+                JfrEvents.commitHttpRequest(event, endpoint, method, status, bytes);
+            }
+        }
+    }
+}
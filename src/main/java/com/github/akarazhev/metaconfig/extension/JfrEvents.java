@@ -0,0 +1,122 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.extension;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Contains Java Flight Recorder events of the library. The class is loaded only if the runtime has the recorder,
+ * so all references to <code>jdk.jfr</code> are kept here.
+ */
+final class JfrEvents {
+    private final static EventType QUERY = EventType.getEventType(ConfigQuery.class);
+    private final static EventType SAVE = EventType.getEventType(ConfigSave.class);
+    private final static EventType HTTP_REQUEST = EventType.getEventType(ConfigHttpRequest.class);
+
+    private JfrEvents() {
+        throw new AssertionError("Private constructor could not be instantiated");
+    }
+
+    static Object beginQuery() {
+        return QUERY.isEnabled() ? begin(new ConfigQuery()) : null;
+    }
+
+    static Object beginSave() {
+        return SAVE.isEnabled() ? begin(new ConfigSave()) : null;
+    }
+
+    static Object beginHttpRequest() {
+        return HTTP_REQUEST.isEnabled() ? begin(new ConfigHttpRequest()) : null;
+    }
+
+    static void commitQuery(final Object event, final String operation, final int names, final long rows) {
+        final ConfigQuery query = (ConfigQuery) event;
+        query.operation = operation;
+        query.names = names;
+        query.rows = rows;
+        query.commit();
+    }
+
+    static void commitSave(final Object event, final String operation, final int configs, final int properties,
+                           final long statements) {
+        final ConfigSave save = (ConfigSave) event;
+        save.operation = operation;
+        save.configs = configs;
+        save.properties = properties;
+        save.statements = statements;
+        save.commit();
+    }
+
+    static void commitHttpRequest(final Object event, final String endpoint, final String method, final int status,
+                                  final long bytes) {
+        final ConfigHttpRequest request = (ConfigHttpRequest) event;
+        request.endpoint = endpoint;
+        request.method = method;
+        request.status = status;
+        request.bytes = bytes;
+        request.commit();
+    }
+
+    private static Event begin(final Event event) {
+        event.begin();
+        return event;
+    }
+
+    @Name("com.github.akarazhev.metaconfig.ConfigQuery")
+    @Label("Config Query")
+    @Category("metacfg4j")
+    @StackTrace(false)
+    static final class ConfigQuery extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Names")
+        int names;
+        @Label("Rows")
+        long rows;
+    }
+
+    @Name("com.github.akarazhev.metaconfig.ConfigSave")
+    @Label("Config Save")
+    @Category("metacfg4j")
+    @StackTrace(false)
+    static final class ConfigSave extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Configs")
+        int configs;
+        @Label("Properties")
+        int properties;
+        @Label("Statements")
+        long statements;
+    }
+
+    @Name("com.github.akarazhev.metaconfig.ConfigHttpRequest")
+    @Label("Config HTTP Request")
+    @Category("metacfg4j")
+    @StackTrace(false)
+    static final class ConfigHttpRequest extends Event {
+        @Label("Endpoint")
+        String endpoint;
+        @Label("Method")
+        String method;
+        @Label("Status")
+        int status;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+}
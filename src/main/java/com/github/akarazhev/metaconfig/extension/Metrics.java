@@ -0,0 +1,405 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.extension;
+
+import com.github.cliftonlabs.json_simple.JsonArray;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_METRIC_LABELS;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_METRIC_TYPE;
+
+/**
+ * Contains counters, gauges and latency histograms of the library. Metrics are identified by a name and label pairs,
+ * e.g. <code>counter("metacfg_db_statements_total")</code> or
+ * <code>histogram("metacfg_http_request_duration_seconds", "endpoint", "/api/metacfg/config")</code>,
+ * and are written in the Prometheus text format.
+ */
+public final class Metrics {
+    // The number of http requests by endpoints, methods and statuses
+    public static final String HTTP_REQUESTS = "metacfg_http_requests_total";
+    // The latency of http requests by endpoints
+    public static final String HTTP_REQUEST_DURATION = "metacfg_http_request_duration_seconds";
+    // The number of bytes written to http responses by endpoints
+    public static final String HTTP_RESPONSE_BYTES = "metacfg_http_response_bytes_total";
+    // The number of requests of the web client by methods and statuses
+    public static final String CLIENT_REQUESTS = "metacfg_client_requests_total";
+    // The latency of requests of the web client by methods
+    public static final String CLIENT_REQUEST_DURATION = "metacfg_client_request_duration_seconds";
+    // The number of bytes written to requests of the web client
+    public static final String CLIENT_REQUEST_BYTES = "metacfg_client_request_bytes_total";
+    // The latency of requests of the balanced web client by endpoints
+    public static final String CLIENT_ENDPOINT_DURATION = "metacfg_client_endpoint_duration_seconds";
+    // The number of hedged requests of the balanced web client
+    public static final String CLIENT_HEDGED_REQUESTS = "metacfg_client_hedged_requests_total";
+    // The number of ejections of endpoints of the balanced web client by endpoints
+    public static final String CLIENT_EJECTIONS = "metacfg_client_ejections_total";
+    // The latency of repository operations by operations
+    public static final String REPOSITORY_DURATION = "metacfg_repository_duration_seconds";
+    // The number of statements executed by the data base repository
+    public static final String DB_STATEMENTS = "metacfg_db_statements_total";
+    // The number of rows read by the data base repository
+    public static final String DB_ROWS_READ = "metacfg_db_rows_read_total";
+    // The number of statements that have exceeded the threshold of the data base repository
+    public static final String DB_SLOW_STATEMENTS = "metacfg_db_slow_statements_total";
+    // The age of a local snapshot of the web repository
+    public static final String CLIENT_SNAPSHOT_AGE = "metacfg_client_snapshot_age_seconds";
+    private final static int SLOW_STATEMENTS_SIZE = 100;
+    private final static Metrics INSTANCE = new Metrics();
+    private final Map<String, Map<String, Object>> families = new ConcurrentHashMap<>();
+    private final JsonObject[] slowStatements = new JsonObject[SLOW_STATEMENTS_SIZE];
+    private long slowStatementCount;
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns metrics of the library.
+     *
+     * @return metrics.
+     */
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a counter, the counter is created with the first call.
+     *
+     * @param name   a name of the counter.
+     * @param labels label names and values, e.g. "method", "GET".
+     * @return a counter.
+     */
+    public Counter counter(final String name, final String... labels) {
+        return get(name, labels, Counter.class);
+    }
+
+    /**
+     * Returns a gauge, the gauge is created with the first call.
+     *
+     * @param name   a name of the gauge.
+     * @param labels label names and values, e.g. "path", "data/snapshot.json".
+     * @return a gauge.
+     */
+    public Gauge gauge(final String name, final String... labels) {
+        return get(name, labels, Gauge.class);
+    }
+
+    /**
+     * Returns a latency histogram, the histogram is created with the first call.
+     *
+     * @param name   a name of the histogram.
+     * @param labels label names and values, e.g. "operation", "findByNames".
+     * @return a histogram.
+     */
+    public Histogram histogram(final String name, final String... labels) {
+        return get(name, labels, Histogram.class);
+    }
+
+    /**
+     * Keeps a slow statement, only the most recent statements are kept.
+     *
+     * @param statement a statement with its operation, sql, binds, batch, rows, time and executed time.
+     */
+    public synchronized void addSlowStatement(final JsonObject statement) {
+        slowStatements[(int) (slowStatementCount++ % SLOW_STATEMENTS_SIZE)] = Validator.of(statement).get();
+    }
+
+    /**
+     * Returns recent slow statements, the oldest statement is the first.
+     *
+     * @return slow statements.
+     */
+    public synchronized JsonArray getSlowStatements() {
+        final JsonArray statements = new JsonArray();
+        for (long i = Math.max(0, slowStatementCount - SLOW_STATEMENTS_SIZE); i < slowStatementCount; i++) {
+            statements.add(slowStatements[(int) (i % SLOW_STATEMENTS_SIZE)]);
+        }
+
+        return statements;
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text format, histograms are written as summaries in seconds.
+     *
+     * @param writer a writer.
+     * @throws IOException when metrics can not be written.
+     */
+    public void write(final Writer writer) throws IOException {
+        for (final Map.Entry<String, Map<String, Object>> family : new TreeMap<>(families).entrySet()) {
+            final String name = family.getKey();
+            final Map<String, Object> metrics = new TreeMap<>(family.getValue());
+            if (metrics.isEmpty()) {
+                continue;
+            }
+
+            final Object type = metrics.values().iterator().next();
+            writer.write("# TYPE " + name + (type instanceof Counter ? " counter\n" :
+                    type instanceof Gauge ? " gauge\n" : " summary\n"));
+            for (final Map.Entry<String, Object> metric : metrics.entrySet()) {
+                final String labels = metric.getKey();
+                if (type instanceof Counter) {
+                    writer.write(name + getLabels(labels, null) + " " + ((Counter) metric.getValue()).get() + "\n");
+                } else if (type instanceof Gauge) {
+                    writer.write(name + getLabels(labels, null) + " " + ((Gauge) metric.getValue()).get() + "\n");
+                } else {
+                    final Histogram histogram = (Histogram) metric.getValue();
+                    for (final double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+                        writer.write(name + getLabels(labels, "quantile=\"" + quantile + "\"") + " " +
+                                toSeconds(histogram.getValueAtQuantile(quantile)) + "\n");
+                    }
+
+                    writer.write(name + "_sum" + getLabels(labels, null) + " " + toSeconds(histogram.getSum()) + "\n");
+                    writer.write(name + "_count" + getLabels(labels, null) + " " + histogram.getCount() + "\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns all metrics in the Prometheus text format.
+     *
+     * @return metrics.
+     */
+    @Override
+    public String toString() {
+        final StringWriter writer = new StringWriter();
+        try {
+            write(writer);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return writer.toString();
+    }
+
+    private <T> T get(final String name, final String[] labels, final Class<T> type) {
+        final Object metric = families.computeIfAbsent(name, key -> new ConcurrentHashMap<>()).
+                computeIfAbsent(toLabels(labels), key -> type == Counter.class ? new Counter() :
+                        type == Gauge.class ? new Gauge() : new Histogram());
+        if (!type.isInstance(metric)) {
+            throw new IllegalStateException(String.format(WRONG_METRIC_TYPE, name));
+        }
+
+        return type.cast(metric);
+    }
+
+    private String toLabels(final String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalStateException(WRONG_METRIC_LABELS);
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+
+            final String value = String.valueOf(labels[i + 1]).
+                    replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+            builder.append(labels[i]).append("=\"").append(value).append('"');
+        }
+
+        return builder.toString();
+    }
+
+    private String getLabels(final String labels, final String label) {
+        if (labels.isEmpty()) {
+            return label != null ? "{" + label + "}" : "";
+        }
+
+        return "{" + labels + (label != null ? "," + label : "") + "}";
+    }
+
+    private static double toSeconds(final long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    /**
+     * A monotonic counter which is updated without locks.
+     */
+    public final static class Counter {
+        private final LongAdder value = new LongAdder();
+
+        private Counter() {
+        }
+
+        /**
+         * Increments the counter.
+         */
+        public void increment() {
+            value.increment();
+        }
+
+        /**
+         * Adds a value to the counter.
+         *
+         * @param value a value.
+         */
+        public void add(final long value) {
+            this.value.add(value);
+        }
+
+        /**
+         * Returns a value of the counter.
+         *
+         * @return a value.
+         */
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * A gauge which value is set or is read from a supplier when metrics are written.
+     */
+    public final static class Gauge {
+        private volatile DoubleSupplier supplier = () -> 0;
+
+        private Gauge() {
+        }
+
+        /**
+         * Sets a value of the gauge.
+         *
+         * @param value a value.
+         */
+        public void set(final double value) {
+            this.supplier = () -> value;
+        }
+
+        /**
+         * Sets a supplier of values of the gauge.
+         *
+         * @param supplier a supplier.
+         */
+        public void set(final DoubleSupplier supplier) {
+            this.supplier = Validator.of(supplier).get();
+        }
+
+        /**
+         * Returns a value of the gauge.
+         *
+         * @return a value.
+         */
+        public double get() {
+            return supplier.getAsDouble();
+        }
+    }
+
+    /**
+     * A histogram of durations in nanoseconds with log-linear buckets, every power of two is divided into
+     * 16 buckets, so a quantile has a relative error within 6.25%. Values are recorded without locks.
+     */
+    public final static class Histogram {
+        private final static int SUB_BUCKET_BITS = 4;
+        private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+
+        private Histogram() {
+        }
+
+        /**
+         * Records a duration.
+         *
+         * @param nanos a duration in nanoseconds.
+         */
+        public void record(final long nanos) {
+            final long value = Math.max(nanos, 0);
+            buckets.incrementAndGet(getIndex(value));
+            count.increment();
+            sum.add(value);
+        }
+
+        /**
+         * Records a duration since a start time.
+         *
+         * @param start a start time that is returned by <code>System.nanoTime()</code>.
+         */
+        public void recordSince(final long start) {
+            record(System.nanoTime() - start);
+        }
+
+        /**
+         * Returns a number of recorded durations.
+         *
+         * @return a count.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Returns a sum of recorded durations.
+         *
+         * @return a sum in nanoseconds.
+         */
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * Returns a duration at a quantile, the highest value of its bucket is returned.
+         *
+         * @param quantile a quantile from 0 to 1.
+         * @return a duration in nanoseconds or 0 if nothing is recorded.
+         */
+        public long getValueAtQuantile(final double quantile) {
+            final long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(quantile, 0), 1) * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (counts[i] > 0 && seen >= rank) {
+                    return getHighestValue(i);
+                }
+            }
+
+            return 0;
+        }
+
+        private static int getIndex(final long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            // The highest bit selects a power of two, next bits select a bucket inside it
+            final int exponent = 63 - Long.numberOfLeadingZeros(value);
+            final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long getHighestValue(final int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+
+            final int shift = index / SUB_BUCKETS - 1;
+            final long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import com.github.cliftonlabs.json_simple.JsonException;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Change event test")
+final class ChangeEventTest extends UnitTest {
+
+    @Test
+    @DisplayName("Create a change event")
+    void createChangeEvent() {
+        final ChangeEvent event = new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, CONFIG).
+                sequence(1).
+                version(2).
+                updated(3).
+                build();
+        // Check test results
+        assertEquals(ChangeEvent.Operation.UPDATE, event.getOperation());
+        assertEquals(CONFIG, event.getName());
+        assertEquals(1, event.getSequence());
+        assertEquals(2, event.getVersion());
+        assertEquals(3, event.getUpdated());
+    }
+
+    @Test
+    @DisplayName("Create a change event via the json builder")
+    void createChangeEventViaJsonBuilder() throws JsonException {
+        final ChangeEvent event = new ChangeEvent.Builder(ChangeEvent.Operation.REMOVE, CONFIG).
+                sequence(1).
+                updated(3).
+                build();
+        final ChangeEvent parsed = new ChangeEvent.Builder((JsonObject) Jsoner.deserialize(event.toJson())).build();
+        // Check test results
+        assertEquals(event, parsed);
+        assertEquals(event.hashCode(), parsed.hashCode());
+        assertEquals(event.toString(), parsed.toString());
+    }
+
+    @Test
+    @DisplayName("Create a change event via the event builder")
+    void createChangeEventViaEventBuilder() {
+        final ChangeEvent event = new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, CONFIG).version(2).build();
+        final ChangeEvent copy = new ChangeEvent.Builder(event).sequence(5).build();
+        // Check test results
+        assertEquals(5, copy.getSequence());
+        assertEquals(event.getName(), copy.getName());
+        assertEquals(event.getVersion(), copy.getVersion());
+    }
+
+    @Test
+    @DisplayName("Create a change event exception")
+    void createChangeEventException() {
+        // Check test results
+        assertThrows(NullPointerException.class, () -> new ChangeEvent.Builder(null, CONFIG));
+        assertThrows(NullPointerException.class, () -> new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, null));
+        assertThrows(IllegalArgumentException.class, () ->
+                new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, CONFIG).sequence(-1));
+        assertThrows(IllegalArgumentException.class, () ->
+                new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, CONFIG).version(-1));
+        assertThrows(IllegalArgumentException.class, () ->
+                new ChangeEvent.Builder(ChangeEvent.Operation.UPDATE, CONFIG).updated(-1));
+        assertThrows(IllegalArgumentException.class, () -> {
+            final String json = "{\"operation\":\"WRONG\",\"name\":\"Config\"}";
+            new ChangeEvent.Builder((JsonObject) Jsoner.deserialize(json));
+        });
+    }
+}
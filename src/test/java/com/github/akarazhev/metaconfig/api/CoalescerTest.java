@@ -0,0 +1,212 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Coalescer test")
+final class CoalescerTest extends UnitTest {
+
+    @Test
+    @DisplayName("Get configs without concurrent requests")
+    void getConfigs() {
+        final Queue<List<String>> fetches = new ConcurrentLinkedQueue<>();
+        final Coalescer coalescer = new Coalescer(stream -> {
+            final List<String> names = stream.collect(Collectors.toList());
+            fetches.add(names);
+            return names.stream().filter(FIRST_CONFIG::equals).map(name -> getConfig(name, 1));
+        });
+        final List<Config> configs = coalescer.get(Stream.of(FIRST_CONFIG, SECOND_CONFIG, FIRST_CONFIG)).
+                collect(Collectors.toList());
+        // Check test results
+        assertEquals(1, configs.size());
+        assertEquals(FIRST_CONFIG, configs.get(0).getName());
+        assertEquals(1, fetches.size());
+        assertEquals(2, fetches.poll().size());
+        assertEquals(2, coalescer.getRequested());
+        assertEquals(0, coalescer.getCoalesced());
+        assertEquals(2, coalescer.getFetched());
+    }
+
+    @Test
+    @DisplayName("Get configs with concurrent identical requests")
+    void getConfigsWithIdenticalRequests() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Queue<List<String>> fetches = new ConcurrentLinkedQueue<>();
+        final Coalescer coalescer = new Coalescer(stream -> {
+            final List<String> names = stream.collect(Collectors.toList());
+            fetches.add(names);
+            started.countDown();
+            await(release);
+            return names.stream().map(name -> getConfig(name, 1));
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<List<Config>> first = executor.submit(() ->
+                    coalescer.get(Stream.of(FIRST_CONFIG)).collect(Collectors.toList()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            final Future<List<Config>> second = executor.submit(() ->
+                    coalescer.get(Stream.of(FIRST_CONFIG)).collect(Collectors.toList()));
+            awaitCoalesced(coalescer, 1);
+            release.countDown();
+            // Check test results
+            assertEquals(FIRST_CONFIG, first.get(5, TimeUnit.SECONDS).get(0).getName());
+            assertEquals(FIRST_CONFIG, second.get(5, TimeUnit.SECONDS).get(0).getName());
+            assertEquals(1, fetches.size());
+            assertEquals(2, coalescer.getRequested());
+            assertEquals(1, coalescer.getCoalesced());
+            assertEquals(1, coalescer.getFetched());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Get configs with concurrent overlapped requests")
+    void getConfigsWithOverlappedRequests() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Queue<List<String>> fetches = new ConcurrentLinkedQueue<>();
+        final Coalescer coalescer = new Coalescer(stream -> {
+            final List<String> names = stream.collect(Collectors.toList());
+            fetches.add(names);
+            if (names.contains(FIRST_CONFIG)) {
+                started.countDown();
+                await(release);
+            }
+
+            return names.stream().map(name -> getConfig(name, FIRST_CONFIG.equals(name) ? 1 : 2));
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<List<Config>> first = executor.submit(() ->
+                    coalescer.get(Stream.of(FIRST_CONFIG)).collect(Collectors.toList()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            final Future<List<Config>> second = executor.submit(() ->
+                    coalescer.get(Stream.of(SECOND_CONFIG, FIRST_CONFIG)).collect(Collectors.toList()));
+            awaitCoalesced(coalescer, 1);
+            release.countDown();
+            final List<Config> configs = second.get(5, TimeUnit.SECONDS);
+            // Check test results
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).size());
+            assertEquals(2, configs.size());
+            assertEquals(FIRST_CONFIG, configs.get(0).getName());
+            assertEquals(SECOND_CONFIG, configs.get(1).getName());
+            assertEquals(2, fetches.size());
+            assertEquals(Collections.singletonList(FIRST_CONFIG), fetches.poll());
+            assertEquals(Collections.singletonList(SECOND_CONFIG), fetches.poll());
+            assertEquals(3, coalescer.getRequested());
+            assertEquals(1, coalescer.getCoalesced());
+            assertEquals(2, coalescer.getFetched());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Get configs with an exception")
+    void getConfigsWithException() {
+        final Coalescer coalescer = new Coalescer(stream -> {
+            throw new RuntimeException(CONFIG);
+        });
+        // Check test results
+        assertThrows(RuntimeException.class, () -> coalescer.get(Stream.of(FIRST_CONFIG)));
+        assertThrows(RuntimeException.class, () -> coalescer.get(Stream.of(FIRST_CONFIG)));
+        assertEquals(2, coalescer.getFetched());
+    }
+
+    @Test
+    @DisplayName("Get configs with an error")
+    void getConfigsWithError() {
+        final Coalescer coalescer = new Coalescer(stream -> {
+            throw new AssertionError(CONFIG);
+        });
+        // Check test results
+        assertThrows(AssertionError.class, () -> coalescer.get(Stream.of(FIRST_CONFIG)));
+        // The flight of the failed fetch is removed, so the next request fetches the config again
+        assertThrows(AssertionError.class, () -> coalescer.get(Stream.of(FIRST_CONFIG)));
+        assertEquals(0, coalescer.getCoalesced());
+        assertEquals(2, coalescer.getFetched());
+    }
+
+    @Test
+    @DisplayName("Get configs after a write")
+    void getConfigsAfterWrite() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Queue<List<String>> fetches = new ConcurrentLinkedQueue<>();
+        final Coalescer coalescer = new Coalescer(stream -> {
+            final List<String> names = stream.collect(Collectors.toList());
+            fetches.add(names);
+            final int id = fetches.size();
+            if (id == 1) {
+                started.countDown();
+                await(release);
+            }
+
+            return names.stream().map(name -> getConfig(name, id));
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            final Future<List<Config>> first = executor.submit(() ->
+                    coalescer.get(Stream.of(FIRST_CONFIG)).collect(Collectors.toList()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // The config is written while it is fetched, so the next request does not share the fetch
+            coalescer.invalidate();
+            final List<Config> configs = coalescer.get(Stream.of(FIRST_CONFIG)).collect(Collectors.toList());
+            release.countDown();
+            // Check test results
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).get(0).getId());
+            assertEquals(2, configs.get(0).getId());
+            assertEquals(2, fetches.size());
+            assertEquals(0, coalescer.getCoalesced());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitCoalesced(final Coalescer coalescer, final long count) throws InterruptedException {
+        for (int i = 0; i < 500 && coalescer.getCoalesced() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Config getConfig(final String name, final int id) {
+        return new Config.Builder(name, Collections.emptyList()).id(id).build();
+    }
+}
@@ -0,0 +1,147 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import com.github.cliftonlabs.json_simple.JsonException;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Config patch test")
+final class ConfigPatchTest extends UnitTest {
+
+    @Test
+    @DisplayName("Create an empty patch")
+    void createEmptyPatch() {
+        final ConfigPatch patch = new ConfigPatch.Builder().build();
+        // Check test results
+        assertTrue(patch.isEmpty());
+        assertEquals(0, patch.getOperations().count());
+    }
+
+    @Test
+    @DisplayName("Build patches with one builder")
+    void buildPatchesWithOneBuilder() {
+        final ConfigPatch.Builder builder = new ConfigPatch.Builder().attribute(new String[0], "key_1", "value_1");
+        final ConfigPatch patch = builder.build();
+        builder.attribute(new String[0], "key_2", "value_2");
+        // Check test results
+        assertEquals(1, patch.getOperations().count());
+        assertEquals(2, builder.build().getOperations().count());
+    }
+
+    @Test
+    @DisplayName("Create a patch exception")
+    void createPatchException() {
+        // Check test results
+        assertThrows(NullPointerException.class, () -> new ConfigPatch.Builder().add(null, null));
+        assertThrows(IllegalStateException.class, () -> new ConfigPatch.Builder().remove(new String[0]));
+        assertThrows(IllegalStateException.class, () ->
+                new ConfigPatch.Builder().replace(new String[0], new Property.Builder("Property", "Value").build()));
+    }
+
+    @Test
+    @DisplayName("Apply a patch with properties")
+    void applyPatchWithProperties() {
+        final Config config = getConfigWithSubProperties(FIRST_CONFIG);
+        final ConfigPatch patch = new ConfigPatch.Builder().
+                add(new String[]{"Property"}, new Property.Builder("New-Property", "New-Value").build()).
+                replace(new String[]{"Property", "Sub-Property-1"},
+                        new Property.Builder("Sub-Property-1", "Replaced-Value").build()).
+                remove(new String[]{"Property", "Sub-Property-1", "Sub-Property-2", "Sub-Property-3"}).
+                build();
+        final Config patched = patch.apply(config);
+        // Check test results
+        assertEquals(config.getVersion(), patched.getVersion());
+        assertEquals("New-Value", patched.getProperty("Property", "New-Property").map(Property::getValue).orElse(null));
+        final Optional<Property> replaced = patched.getProperty("Property", "Sub-Property-1");
+        assertTrue(replaced.isPresent());
+        assertEquals("Replaced-Value", replaced.get().getValue());
+        assertTrue(replaced.get().getAttributes().get().isEmpty());
+        assertTrue(patched.getProperty("Property", "Sub-Property-1", "Sub-Property-2").isPresent());
+        assertFalse(patched.getProperty("Property", "Sub-Property-1", "Sub-Property-2", "Sub-Property-3").isPresent());
+        // The source config is not changed
+        assertEquals("Sub-Value-1", config.getProperty("Property", "Sub-Property-1").map(Property::getValue).orElse(null));
+    }
+
+    @Test
+    @DisplayName("Apply a patch with attributes")
+    void applyPatchWithAttributes() {
+        final ConfigPatch patch = new ConfigPatch.Builder().
+                attribute(new String[0], "key_4", "value_4").
+                removeAttribute(new String[0], "key_1").
+                attribute(new String[]{"Property"}, "key", "new_value").
+                removeAttribute(new String[]{"Property", "Property-1"}, "key_1").
+                build();
+        final Config patched = patch.apply(getConfigWithProperties(FIRST_CONFIG));
+        // Check test results
+        assertEquals("value_4", patched.getAttribute("key_4").orElse(null));
+        assertFalse(patched.getAttribute("key_1").isPresent());
+        assertEquals("new_value", patched.getProperty("Property").flatMap(p -> p.getAttribute("key")).orElse(null));
+        assertTrue(patched.getProperty("Property", "Property-1").map(p -> p.getAttributes().get().isEmpty()).
+                orElse(false));
+    }
+
+    @Test
+    @DisplayName("Apply a patch with wrong paths")
+    void applyPatchWithWrongPaths() {
+        final Config config = getConfigWithProperties(FIRST_CONFIG);
+        // Check test results
+        assertThrows(IllegalArgumentException.class, () -> new ConfigPatch.Builder().
+                remove(new String[]{"Property", "Property-4"}).build().apply(config));
+        assertThrows(IllegalArgumentException.class, () -> new ConfigPatch.Builder().
+                add(new String[0], new Property.Builder("Property", "Value").build()).build().apply(config));
+    }
+
+    @Test
+    @DisplayName("Diff configs")
+    void diffConfigs() {
+        final Config source = getConfigWithProperties(FIRST_CONFIG);
+        final Config target = new ConfigPatch.Builder().
+                add(new String[]{"Property", "Property-1"}, new Property.Builder("Property-4", 4L).build()).
+                replace(new String[]{"Property", "Property-2"}, new Property.Builder("Property-2", "Value-22").
+                        attribute("key_2", "value_22").build()).
+                remove(new String[]{"Property", "Property-3"}).
+                attribute(new String[]{"Property"}, "key", "new_value").
+                removeAttribute(new String[0], "key_3").
+                build().apply(source);
+        final ConfigPatch diff = ConfigPatch.diff(source, target);
+        // Check test results
+        assertEquals(5, diff.getOperations().count());
+        assertEquals(target.toJson(), diff.apply(source).toJson());
+        assertTrue(ConfigPatch.diff(target, target).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Convert to JSON")
+    void toJson() throws JsonException {
+        final ConfigPatch patch = new ConfigPatch.Builder().
+                add(new String[]{"Property"}, new Property.Builder("New-Property", "New-Value").build()).
+                remove(new String[]{"Property", "Property-1"}).
+                attribute(new String[0], "key", "value").
+                removeAttribute(new String[]{"Property"}, "key").
+                build();
+        final ConfigPatch parsed = new ConfigPatch.Builder((JsonObject) Jsoner.deserialize(patch.toJson())).build();
+        // Check test results
+        assertEquals(patch, parsed);
+        assertEquals(patch.hashCode(), parsed.hashCode());
+        assertEquals(patch.toString(), parsed.toString());
+    }
+}
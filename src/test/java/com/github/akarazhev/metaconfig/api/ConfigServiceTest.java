@@ -24,8 +24,13 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -110,6 +115,29 @@ final class ConfigServiceTest extends UnitTest {
         assertEqualsProperty(secondExpected, configs[1]);
     }
 
+    @Test
+    @DisplayName("Get configs by names asynchronously")
+    void getConfigsByNamesAsync() throws Exception {
+        final Config[] configs = configService.getAsync(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).
+                get(10, TimeUnit.SECONDS).
+                toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        assertEquals(FIRST_CONFIG, configs[0].getName());
+        assertEquals(SECOND_CONFIG, configs[1].getName());
+    }
+
+    @Test
+    @DisplayName("Update a new config asynchronously")
+    void updateNewConfigAsync() throws Exception {
+        final Optional<Config> newConfig = configService.updateAsync(Stream.of(getConfigWithProperties(NEW_CONFIG))).
+                get(10, TimeUnit.SECONDS).
+                findFirst();
+        // Check test results
+        assertTrue(newConfig.isPresent());
+        assertTrue(newConfig.get().getId() > 0);
+    }
+
     @Test
     @DisplayName("Get configs by names with the closed connection pool")
     void getByNamesWithClosedConnectionPool() throws IOException {
@@ -279,16 +307,92 @@ final class ConfigServiceTest extends UnitTest {
 
     @Test
     @DisplayName("Accept config by names with consumer")
-    void acceptByNamesWithConsumer() {
-        final StringBuilder message = new StringBuilder();
+    void acceptByNamesWithConsumer() throws InterruptedException {
+        final StringBuffer message = new StringBuffer();
+        final CountDownLatch latch = new CountDownLatch(1);
         configService.addConsumer(config -> {
             if (FIRST_CONFIG.equals(config.getName())) {
                 message.append(FIRST_CONFIG);
             }
+
+            latch.countDown();
         });
 
         configService.accept(Stream.of(FIRST_CONFIG));
         // Check test results
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
         assertEquals(FIRST_CONFIG, message.toString());
     }
+
+    @Test
+    @DisplayName("Accept config by names with subscribers")
+    void acceptByNamesWithSubscribers() throws InterruptedException {
+        final Collection<String> firstNames = new ConcurrentLinkedQueue<>();
+        final Collection<String> secondNames = new ConcurrentLinkedQueue<>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final Subscription first = configService.subscribe(Stream.of(FIRST_CONFIG), config -> {
+            firstNames.add(config.getName());
+            latch.countDown();
+        });
+        final Subscription second = configService.subscribe(config -> true, config -> {
+            secondNames.add(config.getName());
+            latch.countDown();
+        });
+
+        configService.accept(Stream.of(FIRST_CONFIG, SECOND_CONFIG));
+        // Check test results
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(FIRST_CONFIG), new ArrayList<>(firstNames));
+        assertEquals(2, secondNames.size());
+        assertEquals(1, first.getDelivered());
+        assertEquals(0, first.getQueueSize());
+        assertTrue(first.getMaxLatency() >= first.getAverageLatency());
+        first.cancel();
+        second.cancel();
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Accept config by names with a cancelled subscription")
+    void acceptByNamesWithCancelledSubscription() {
+        final Subscription subscription = configService.subscribe(Stream.of(FIRST_CONFIG), config -> {
+            // Empty implementation
+        });
+        subscription.cancel();
+
+        configService.accept(Stream.of(FIRST_CONFIG));
+        // Check test results
+        assertEquals(0, subscription.getQueueSize());
+        assertEquals(0, subscription.getDelivered());
+    }
+
+    @Test
+    @DisplayName("Watch configs")
+    void watchConfigs() throws InterruptedException {
+        final Collection<ChangeEvent> events = new ConcurrentLinkedQueue<>();
+        final CountDownLatch updated = new CountDownLatch(1);
+        final CountDownLatch removed = new CountDownLatch(1);
+        final Subscription subscription = configService.watch(event -> {
+            if (NEW_CONFIG.equals(event.getName())) {
+                events.add(event);
+                if (ChangeEvent.Operation.UPDATE == event.getOperation()) {
+                    updated.countDown();
+                } else {
+                    removed.countDown();
+                }
+            }
+        });
+
+        configService.update(Stream.of(getConfigWithProperties(NEW_CONFIG)));
+        // Check test results
+        assertTrue(updated.await(5, TimeUnit.SECONDS));
+        configService.remove(Stream.of(NEW_CONFIG));
+        assertTrue(removed.await(5, TimeUnit.SECONDS));
+        subscription.cancel();
+        final ChangeEvent[] changes = events.toArray(new ChangeEvent[0]);
+        assertEquals(2, changes.length);
+        assertEquals(1, changes[0].getVersion());
+        assertEquals(ChangeEvent.Operation.REMOVE, changes[1].getOperation());
+    }
 }
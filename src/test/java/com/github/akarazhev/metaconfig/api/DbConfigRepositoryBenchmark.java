@@ -0,0 +1,85 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_PARALLELISM;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The benchmark is not run by the default build: mvn test -Dtest=DbConfigRepositoryBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Data base repository benchmark")
+final class DbConfigRepositoryBenchmark extends UnitTest {
+    private static final int CONFIGS = 50_000;
+    private static final int BATCH = 5_000;
+    private static final int RUNS = 3;
+    private static JdbcConnectionPool connectionPool;
+
+    @BeforeAll
+    static void beforeAll() {
+        connectionPool = JdbcConnectionPool.create("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1", "sa", "sa");
+        connectionPool.setMaxConnections(16);
+        final ConfigRepository repository = new DbConfigRepository.Builder(connectionPool).build();
+        for (int i = 0; i < CONFIGS; i += BATCH) {
+            final Collection<Config> configs = new ArrayList<>(BATCH);
+            for (int j = i; j < i + BATCH; j++) {
+                configs.add(new Config.Builder("Config-" + j, Collections.singletonList(
+                        new Property.Builder("Property-" + j, "Value-" + j).build())).build());
+            }
+
+            repository.saveAndFlush(configs.stream()).count();
+        }
+    }
+
+    @AfterAll
+    static void afterAll() {
+        connectionPool.dispose();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    @DisplayName("Find all configs by names")
+    void findAllConfigsByNames(final int parallelism) {
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(FETCH_PARALLELISM, parallelism);
+        final ConfigRepository repository = new DbConfigRepository.Builder(connectionPool).settings(settings).build();
+        // Warm up
+        assertEquals(CONFIGS, repository.findByNames(repository.findNames()).count());
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            final long start = System.nanoTime();
+            final long count = repository.findByNames(repository.findNames()).count();
+            best = Math.min(best, System.nanoTime() - start);
+            // Check test results
+            assertEquals(CONFIGS, count);
+        }
+
+        System.out.printf("Threads: %d, configs: %d, best time: %d ms%n", parallelism, CONFIGS,
+                TimeUnit.NANOSECONDS.toMillis(best));
+    }
+}
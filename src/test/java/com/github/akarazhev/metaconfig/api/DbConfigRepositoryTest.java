@@ -15,6 +15,8 @@ import com.github.akarazhev.metaconfig.engine.db.DbServer;
 import com.github.akarazhev.metaconfig.engine.db.DbServers;
 import com.github.akarazhev.metaconfig.engine.db.pool.ConnectionPool;
 import com.github.akarazhev.metaconfig.engine.db.pool.ConnectionPools;
+import com.github.akarazhev.metaconfig.extension.Metrics;
+import com.github.cliftonlabs.json_simple.JsonObject;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -31,11 +33,27 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.github.akarazhev.metaconfig.Constants.Mapping.CHANGE_LOG_TABLE;
+import static com.github.akarazhev.metaconfig.Constants.Settings.CHANGE_LOG_RETENTION;
+import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_CHUNK_SIZE;
+import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_ORDERED;
+import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_PARALLELISM;
+import static com.github.akarazhev.metaconfig.Constants.Settings.SLOW_STATEMENT_THRESHOLD;
+import static com.github.akarazhev.metaconfig.Constants.Settings.STATEMENT_METRICS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -133,6 +151,194 @@ final class DbConfigRepositoryTest extends UnitTest {
         assertEqualsProperty(secondExpected, configs[1]);
     }
 
+    @Test
+    @DisplayName("Find all configs")
+    void findAllConfigs() {
+        final Config[] configs = configRepository.findAll().toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        assertEquals(configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst(), Optional.of(configs[0]));
+        assertEquals(configRepository.findByNames(Stream.of(SECOND_CONFIG)).findFirst(), Optional.of(configs[1]));
+        assertEquals(getConfigWithSubProperties(FIRST_CONFIG).getProperties().count(),
+                configs[0].getProperties().count());
+        assertEquals(getConfigWithProperties(SECOND_CONFIG).getProperties().count(),
+                configs[1].getProperties().count());
+    }
+
+    @Test
+    @DisplayName("Find config versions")
+    void findVersions() {
+        final Config[] configs = configRepository.findVersions().toArray(Config[]::new);
+        final Config[] expected = configRepository.findAll().toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        for (int i = 0; i < configs.length; i++) {
+            assertEquals(expected[i].getId(), configs[i].getId());
+            assertEquals(expected[i].getName(), configs[i].getName());
+            assertEquals(expected[i].getVersion(), configs[i].getVersion());
+            assertEquals(expected[i].getUpdated(), configs[i].getUpdated());
+            assertEquals(0, configs[i].getProperties().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Find config versions by names")
+    void findVersionsByNames() {
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(FETCH_CHUNK_SIZE, 1);
+        final ConfigRepository repository =
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(settings).build();
+        final Config[] configs =
+                repository.findVersions(Stream.of(SECOND_CONFIG, FIRST_CONFIG, NEW_CONFIG)).toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        assertEquals(FIRST_CONFIG, configs[0].getName());
+        assertEquals(SECOND_CONFIG, configs[1].getName());
+        assertTrue(configs[0].getId() < configs[1].getId());
+        assertEquals(0, repository.findVersions(Stream.empty()).count());
+    }
+
+    @Test
+    @DisplayName("Pass all configs to a consumer")
+    void forEachConfig() {
+        final List<Config> configs = new ArrayList<>();
+        configRepository.forEach(configs::add);
+        // Check test results
+        assertEquals(configRepository.findAll().collect(Collectors.toList()), configs);
+        assertEquals(FIRST_CONFIG, configs.get(0).getName());
+        assertEquals(SECOND_CONFIG, configs.get(1).getName());
+    }
+
+    @Test
+    @DisplayName("Pass all configs to a consumer with not existed tables")
+    void forEachWithNotExistedTables() throws SQLException {
+        dropTables();
+        // Check test results
+        assertThrows(RuntimeException.class, () -> configRepository.forEach(config -> {
+        }));
+        createRepository();
+    }
+
+    @Test
+    @DisplayName("Find all configs with not existed tables")
+    void findAllWithNotExistedTables() throws SQLException {
+        dropTables();
+        // Check test results
+        assertThrows(RuntimeException.class, () -> configRepository.findAll());
+        createRepository();
+    }
+
+    @Test
+    @DisplayName("Find all configs by names in parallel chunks")
+    void findAllConfigsByNamesInParallelChunks() {
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(FETCH_CHUNK_SIZE, 1);
+        settings.put(FETCH_PARALLELISM, 2);
+        final ConfigRepository repository =
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(settings).build();
+        final Config[] configs =
+                repository.findByNames(Stream.of(SECOND_CONFIG, FIRST_CONFIG, NEW_CONFIG)).toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        final Config firstExpected = getConfigWithSubProperties(FIRST_CONFIG);
+        final Config secondExpected = getConfigWithSubProperties(SECOND_CONFIG);
+        assertEqualsConfig(firstExpected, configs[0]);
+        assertEqualsProperty(firstExpected, configs[0]);
+        assertEqualsConfig(secondExpected, configs[1]);
+        assertEqualsProperty(secondExpected, configs[1]);
+    }
+
+    @Test
+    @DisplayName("Close the repository with parallel fetches")
+    void closeRepositoryWithParallelFetches() {
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(FETCH_CHUNK_SIZE, 1);
+        settings.put(FETCH_PARALLELISM, 2);
+        final ConfigRepository repository =
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(settings).build();
+        final long count = repository.findByNames(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).count();
+        repository.close();
+        // Check test results
+        assertEquals(2, count);
+        assertThrows(RejectedExecutionException.class,
+                () -> repository.findByNames(Stream.of(FIRST_CONFIG, SECOND_CONFIG)));
+    }
+
+    @Test
+    @DisplayName("Find all configs by names in unordered chunks")
+    void findAllConfigsByNamesInUnorderedChunks() {
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(FETCH_CHUNK_SIZE, 1);
+        settings.put(FETCH_ORDERED, false);
+        final ConfigRepository repository =
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(settings).build();
+        final Config[] configs =
+                repository.findByNames(Stream.of(SECOND_CONFIG, FIRST_CONFIG)).toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        assertEquals(SECOND_CONFIG, configs[0].getName());
+        assertEquals(FIRST_CONFIG, configs[1].getName());
+    }
+
+    @Test
+    @DisplayName("Trace slow statements")
+    void traceSlowStatements() {
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(SLOW_STATEMENT_THRESHOLD, 0);
+        final ConfigRepository repository =
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(settings).build();
+        repository.findByPageRequest(new PageRequest.Builder(CONFIG).build());
+        repository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG)));
+        final List<JsonObject> statements = Metrics.getInstance().getSlowStatements().stream().
+                map(statement -> (JsonObject) statement).
+                collect(Collectors.toList());
+        // Check test results
+        final JsonObject page = statements.stream().
+                filter(statement -> "findByPageRequest".equals(statement.get("operation"))).
+                reduce((first, second) -> second).
+                orElseThrow(() -> new AssertionError("A statement of findByPageRequest is not traced"));
+        assertTrue(((String) page.get("sql")).contains("?"));
+        assertTrue((Integer) page.get("binds") > 0);
+        assertTrue((Long) page.get("rows") > 0);
+        assertTrue(statements.stream().anyMatch(statement -> "saveAndFlush".equals(statement.get("operation")) &&
+                (Integer) statement.get("batch") > 0));
+    }
+
+    @Test
+    @DisplayName("Count statements of parallel fetches")
+    void countStatementsOfParallelFetches() {
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(FETCH_CHUNK_SIZE, 1);
+        settings.put(FETCH_PARALLELISM, 2);
+        settings.put(STATEMENT_METRICS, true);
+        final ConfigRepository repository =
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(settings).build();
+        final long rows = MeteredDataSource.getRows();
+        final long count = repository.findByNames(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).count();
+        // Check test results
+        assertEquals(2, count);
+        assertTrue(MeteredDataSource.getRows() - rows >= 2);
+        assertSame(connectionPool.getDataSource(), MeteredDataSource.wrap(connectionPool.getDataSource(), -1, false));
+    }
+
+    @Test
+    @DisplayName("Create a repository with wrong fetch settings")
+    void createRepositoryWithWrongFetchSettings() {
+        final Map<String, Object> chunkSize = new HashMap<>();
+        chunkSize.put(FETCH_CHUNK_SIZE, 0);
+        final Map<String, Object> parallelism = new HashMap<>();
+        parallelism.put(FETCH_PARALLELISM, "2");
+        final Map<String, Object> ordered = new HashMap<>();
+        ordered.put(FETCH_ORDERED, "true");
+        // Check test results
+        assertThrows(IllegalStateException.class, () ->
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(chunkSize));
+        assertThrows(IllegalStateException.class, () ->
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(parallelism));
+        assertThrows(IllegalStateException.class, () ->
+                new DbConfigRepository.Builder(connectionPool.getDataSource()).settings(ordered));
+    }
+
     @Test
     @DisplayName("Find configs by names with not existed tables")
     void findByNamesWithNotExistedTables() throws SQLException {
@@ -583,6 +789,46 @@ final class DbConfigRepositoryTest extends UnitTest {
         assertThrows(RuntimeException.class, () -> configRepository.saveAndFlush(Stream.of(newConfig)));
     }
 
+    @Test
+    @DisplayName("Patch a config")
+    void patchConfig() {
+        final ConfigPatch patch = new ConfigPatch.Builder().
+                add(new String[]{"Property"}, new Property.Builder("New-Property", "New-Value").
+                        attribute("key", "value").build()).
+                replace(new String[]{"Property", "Sub-Property-1"},
+                        new Property.Builder("Sub-Property-1", "Replaced-Value").build()).
+                remove(new String[]{"Property", "Sub-Property-1", "Sub-Property-2", "Sub-Property-3"}).
+                attribute(new String[0], "key_4", "value_4").
+                removeAttribute(new String[0], "key_1").
+                build();
+        final Config expected = patch.apply(getConfigWithSubProperties(FIRST_CONFIG));
+        final int version = configRepository.patch(FIRST_CONFIG, 1, patch);
+        final Optional<Config> config = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst();
+        // Check test results
+        assertEquals(2, version);
+        assertTrue(config.isPresent());
+        assertEquals(2, config.get().getVersion());
+        assertEquals(expected.getAttributes(), config.get().getAttributes());
+        assertEquals("Replaced-Value",
+                config.get().getProperty("Property", "Sub-Property-1").map(Property::getValue).orElse(null));
+        assertEquals("value", config.get().getProperty("Property", "New-Property").
+                flatMap(p -> p.getAttribute("key")).orElse(null));
+        assertTrue(config.get().getProperty("Property", "Sub-Property-1", "Sub-Property-2").isPresent());
+        assertFalse(config.get().getProperty("Property", "Sub-Property-1", "Sub-Property-2", "Sub-Property-3").
+                isPresent());
+    }
+
+    @Test
+    @DisplayName("Patch a config with a wrong version")
+    void patchConfigWithWrongVersion() {
+        final ConfigPatch patch = new ConfigPatch.Builder().attribute(new String[0], "key", "value").build();
+        // Check test results
+        assertThrows(VersionConflictException.class, () -> configRepository.patch(FIRST_CONFIG, 2, patch));
+        assertThrows(RuntimeException.class, () -> configRepository.patch(NEW_CONFIG, 1, patch));
+        assertEquals(1, configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().
+                map(Config::getVersion).orElse(0));
+    }
+
     @Test
     @DisplayName("Delete configs by empty names")
     void deleteByEmptyNames() {
@@ -613,6 +859,117 @@ final class DbConfigRepositoryTest extends UnitTest {
         assertEquals(2, configRepository.delete(Stream.of(FIRST_CONFIG, SECOND_CONFIG)));
     }
 
+    @Test
+    @DisplayName("Find changes of configs")
+    void findChanges() {
+        final DbConfigRepository repository = createChangeLogRepository(86_400_000);
+        final long sequence = getLastSequence(repository);
+        repository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG)));
+        repository.patch(FIRST_CONFIG, 1, new ConfigPatch.Builder().attribute(new String[0], "key_4", "value_4").
+                build());
+        repository.delete(Stream.of(FIRST_CONFIG, NEW_CONFIG));
+        final ChangeEvent[] changes = repository.findChanges(sequence, 10).toArray(ChangeEvent[]::new);
+        final ChangeEvent[] batch = repository.findChanges(changes[0].getSequence(), 1).toArray(ChangeEvent[]::new);
+        // Check test results
+        assertEquals(4, changes.length);
+        assertEquals(ChangeEvent.Operation.UPDATE, changes[0].getOperation());
+        assertEquals(NEW_CONFIG, changes[0].getName());
+        assertEquals(1, changes[0].getVersion());
+        assertEquals(ChangeEvent.Operation.UPDATE, changes[1].getOperation());
+        assertEquals(FIRST_CONFIG, changes[1].getName());
+        assertEquals(2, changes[1].getVersion());
+        assertEquals(ChangeEvent.Operation.REMOVE, changes[2].getOperation());
+        assertEquals(ChangeEvent.Operation.REMOVE, changes[3].getOperation());
+        assertEquals(2, Stream.of(changes[2], changes[3]).map(ChangeEvent::getName).
+                filter(name -> FIRST_CONFIG.equals(name) || NEW_CONFIG.equals(name)).distinct().count());
+        assertTrue(changes[0].getSequence() < changes[1].getSequence());
+        assertEquals(1, batch.length);
+        assertEquals(changes[1], batch[0]);
+        assertEquals(0, configRepository.findChanges(0, 10).count());
+    }
+
+    @Test
+    @DisplayName("Find changes of concurrent writers")
+    void findConcurrentChanges() throws Exception {
+        final DbConfigRepository repository = createChangeLogRepository(86_400_000);
+        final long sequence = getLastSequence(repository);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final String name : new String[]{NEW_CONFIG, FIRST_CONFIG + "_2"}) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        repository.saveAndFlush(Stream.of(new Config.Builder(name + "_" + i,
+                                Collections.emptyList()).build()));
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final long[] sequences = repository.findChanges(sequence, 100).mapToLong(ChangeEvent::getSequence).
+                toArray();
+        repository.delete(Stream.of(NEW_CONFIG, FIRST_CONFIG + "_2").
+                flatMap(name -> IntStream.range(0, 10).mapToObj(i -> name + "_" + i)));
+        // Check test results
+        assertEquals(20, sequences.length);
+        for (int i = 0; i < sequences.length; i++) {
+            assertEquals(sequence + i + 1, sequences[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Compact changes of configs")
+    void compactChanges() {
+        final DbConfigRepository repository = createChangeLogRepository(0);
+        final long sequence = getLastSequence(repository);
+        final Config config = repository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG))).
+                findFirst().get();
+        repository.saveAndFlush(Stream.of(config));
+        repository.patch(SECOND_CONFIG, 1, new ConfigPatch.Builder().attribute(new String[0], "key_4", "value_4").
+                build());
+        repository.compactChanges();
+        final ChangeEvent[] changes = repository.findChanges(sequence, 10).toArray(ChangeEvent[]::new);
+        // Check test results
+        assertEquals(2, changes.length);
+        assertEquals(NEW_CONFIG, changes[0].getName());
+        assertEquals(2, changes[0].getVersion());
+        assertEquals(SECOND_CONFIG, changes[1].getName());
+        assertEquals(2, changes[1].getVersion());
+    }
+
+    @Test
+    @DisplayName("Save configs to the closed repository with the change log")
+    void saveConfigsToClosedChangeLogRepository() {
+        final DbConfigRepository repository = createChangeLogRepository(0);
+        final long sequence = getLastSequence(repository);
+        repository.close();
+        final long count = repository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG))).count();
+        // Check test results
+        assertEquals(1, count);
+        assertEquals(1, repository.findChanges(sequence, 10).count());
+    }
+
+    private static DbConfigRepository createChangeLogRepository(final int retention) {
+        final Map<String, String> mapping = new HashMap<>();
+        mapping.put(CHANGE_LOG_TABLE, "CHANGE_LOG");
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put(CHANGE_LOG_RETENTION, retention);
+        return (DbConfigRepository) new DbConfigRepository.Builder(connectionPool.getDataSource()).
+                mapping(mapping).
+                settings(settings).
+                build();
+    }
+
+    private static long getLastSequence(final DbConfigRepository repository) {
+        return repository.findChanges(0, Integer.MAX_VALUE).mapToLong(ChangeEvent::getSequence).max().orElse(0);
+    }
+
     private static void createRepository() {
         final Map<String, String> mapping = new HashMap<>();
         mapping.put("configs", "CONFIGS");
@@ -0,0 +1,206 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Dispatcher test")
+final class DispatcherTest extends UnitTest {
+
+    @Test
+    @DisplayName("Create a dispatcher with a wrong queue size")
+    void createDispatcherWithWrongQueueSize() {
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> new Dispatcher.Builder<Config>(Config::getName, Config::getVersion, Runnable::run).
+                queueSize(0));
+    }
+
+    @Test
+    @DisplayName("Publish configs without subscribers")
+    void publishWithoutSubscribers() {
+        final Queue<Runnable> tasks = new LinkedList<>();
+        final Dispatcher<Config> dispatcher = getDispatcher(tasks).build();
+        dispatcher.publish(getConfig(FIRST_CONFIG, 1));
+        // Check test results
+        assertFalse(dispatcher.hasSubscribers());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Publish configs with coalescing")
+    void publishWithCoalescing() {
+        final Queue<Runnable> tasks = new LinkedList<>();
+        final Dispatcher<Config> dispatcher = getDispatcher(tasks).build();
+        final List<Config> configs = new ArrayList<>();
+        final Subscription subscription = dispatcher.subscribe(config -> true, configs::add);
+        dispatcher.publish(getConfig(FIRST_CONFIG, 1));
+        dispatcher.publish(getConfig(SECOND_CONFIG, 1));
+        dispatcher.publish(getConfig(FIRST_CONFIG, 3));
+        dispatcher.publish(getConfig(FIRST_CONFIG, 2));
+        // Check test results
+        assertEquals(1, tasks.size());
+        assertEquals(2, subscription.getQueueSize());
+        assertEquals(2, subscription.getCoalesced());
+        tasks.poll().run();
+        assertEquals(2, configs.size());
+        assertEquals(FIRST_CONFIG, configs.get(0).getName());
+        assertEquals(3, configs.get(0).getVersion());
+        assertEquals(SECOND_CONFIG, configs.get(1).getName());
+        assertEquals(0, subscription.getQueueSize());
+        assertEquals(2, subscription.getDelivered());
+    }
+
+    @Test
+    @DisplayName("Publish configs with a full queue")
+    void publishWithFullQueue() {
+        final Queue<Runnable> tasks = new LinkedList<>();
+        final Dispatcher<Config> dispatcher = getDispatcher(tasks).queueSize(1).build();
+        final List<Config> configs = new ArrayList<>();
+        final Subscription subscription = dispatcher.subscribe(config -> true, configs::add);
+        dispatcher.publish(getConfig(FIRST_CONFIG, 1));
+        dispatcher.publish(getConfig(SECOND_CONFIG, 1));
+        // Check test results
+        assertEquals(1, subscription.getQueueSize());
+        assertEquals(1, subscription.getDropped());
+        tasks.poll().run();
+        assertEquals(1, configs.size());
+        assertEquals(FIRST_CONFIG, configs.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Publish configs with filters")
+    void publishWithFilters() {
+        final Queue<Runnable> tasks = new LinkedList<>();
+        final Dispatcher<Config> dispatcher = getDispatcher(tasks).build();
+        final List<Config> first = new ArrayList<>();
+        final List<Config> second = new ArrayList<>();
+        dispatcher.subscribe(config -> FIRST_CONFIG.equals(config.getName()), first::add);
+        dispatcher.subscribe(config -> SECOND_CONFIG.equals(config.getName()), second::add);
+        dispatcher.publish(getConfig(FIRST_CONFIG, 1));
+        dispatcher.publish(getConfig(SECOND_CONFIG, 1));
+        tasks.forEach(Runnable::run);
+        // Check test results
+        assertEquals(1, first.size());
+        assertEquals(FIRST_CONFIG, first.get(0).getName());
+        assertEquals(1, second.size());
+        assertEquals(SECOND_CONFIG, second.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Publish configs with a failed consumer")
+    void publishWithFailedConsumer() {
+        final Queue<Runnable> tasks = new LinkedList<>();
+        final Dispatcher<Config> dispatcher = getDispatcher(tasks).build();
+        final Subscription subscription = dispatcher.subscribe(config -> true, config -> {
+            throw new RuntimeException(config.getName());
+        });
+        dispatcher.publish(getConfig(FIRST_CONFIG, 1));
+        dispatcher.publish(getConfig(SECOND_CONFIG, 1));
+        tasks.poll().run();
+        // Check test results
+        assertEquals(2, subscription.getDelivered());
+    }
+
+    @Test
+    @DisplayName("Publish configs after an error of the consumer")
+    void publishAfterErrorOfConsumer() {
+        final Queue<Runnable> tasks = new LinkedList<>();
+        final Dispatcher<Config> dispatcher = getDispatcher(tasks).build();
+        final List<Config> configs = new ArrayList<>();
+        dispatcher.subscribe(config -> true, config -> {
+            if (FIRST_CONFIG.equals(config.getName())) {
+                throw new Error(config.getName());
+            }
+
+            configs.add(config);
+        });
+        dispatcher.publish(getConfig(FIRST_CONFIG, 1));
+        assertThrows(Error.class, () -> tasks.poll().run());
+        dispatcher.publish(getConfig(SECOND_CONFIG, 1));
+        final Runnable task = tasks.poll();
+        // Check test results
+        assertNotNull(task);
+        task.run();
+        assertEquals(1, configs.size());
+        assertEquals(SECOND_CONFIG, configs.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Publish configs while the executor is blocked")
+    void publishWithBlockedExecutor() throws Exception {
+        final CountDownLatch executed = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final Dispatcher<Config> dispatcher = new Dispatcher.Builder<Config>(Config::getName, Config::getVersion,
+                task -> {
+                    executed.countDown();
+                    try {
+                        released.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }).build();
+        final Subscription subscription = dispatcher.subscribe(config -> true, config -> {
+        });
+        final Thread publisher = new Thread(() -> dispatcher.publish(getConfig(FIRST_CONFIG, 1)));
+        publisher.start();
+        executed.await();
+        // The second item is queued while the first publisher is still in the executor
+        final Thread second = new Thread(() -> dispatcher.publish(getConfig(SECOND_CONFIG, 1)));
+        second.start();
+        second.join(1000);
+        final boolean isBlocked = second.isAlive();
+        released.countDown();
+        publisher.join();
+        // Check test results
+        assertFalse(isBlocked);
+        assertEquals(2, subscription.getQueueSize());
+    }
+
+    @Test
+    @DisplayName("Cancel a subscription")
+    void cancelSubscription() {
+        final Queue<Runnable> tasks = new LinkedList<>();
+        final Dispatcher<Config> dispatcher = getDispatcher(tasks).build();
+        final List<Config> configs = new ArrayList<>();
+        final Subscription subscription = dispatcher.subscribe(config -> true, configs::add);
+        dispatcher.publish(getConfig(FIRST_CONFIG, 1));
+        subscription.cancel();
+        tasks.poll().run();
+        // Check test results
+        assertTrue(subscription.isCancelled());
+        assertFalse(dispatcher.hasSubscribers());
+        assertTrue(configs.isEmpty());
+        assertEquals(0, subscription.getQueueSize());
+    }
+
+    private Dispatcher.Builder<Config> getDispatcher(final Queue<Runnable> tasks) {
+        return new Dispatcher.Builder<>(Config::getName, Config::getVersion, tasks::add);
+    }
+
+    private Config getConfig(final String name, final int version) {
+        return new Config.Builder(name, Collections.emptyList()).id(1).version(version).build();
+    }
+}
@@ -0,0 +1,193 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.CONFIG_EXISTS_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.CONFIG_VERSION_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.PATCH_VERSION_ERROR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("In-memory config repository test")
+final class InMemoryConfigRepositoryTest extends UnitTest {
+    private ConfigRepository configRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        configRepository = new InMemoryConfigRepository.Builder().build();
+        configRepository.saveAndFlush(Stream.of(getConfigWithSubProperties(SECOND_CONFIG),
+                getConfigWithProperties(FIRST_CONFIG)));
+    }
+
+    @Test
+    @DisplayName("Find configs by names")
+    void findConfigsByNames() {
+        final Config[] configs = configRepository.findByNames(Stream.of(SECOND_CONFIG, NEW_CONFIG, FIRST_CONFIG)).
+                toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        final Config firstExpected = getConfigWithProperties(FIRST_CONFIG);
+        assertEqualsConfig(firstExpected, configs[0]);
+        assertEqualsProperty(firstExpected, configs[0]);
+        assertEquals(2, configs[0].getId());
+        assertEquals(SECOND_CONFIG, configs[1].getName());
+        assertEquals(1, configs[1].getId());
+    }
+
+    @Test
+    @DisplayName("Find all configs")
+    void findAllConfigs() {
+        final Config[] configs = configRepository.findAll().toArray(Config[]::new);
+        final Config[] versions = configRepository.findVersions().toArray(Config[]::new);
+        final String[] names = configRepository.findNames().toArray(String[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        assertEquals(SECOND_CONFIG, configs[0].getName());
+        assertEquals(FIRST_CONFIG, configs[1].getName());
+        assertEquals(2, versions.length);
+        assertEquals(0, versions[0].getProperties().count());
+        assertEquals(FIRST_CONFIG, names[0]);
+        assertEquals(SECOND_CONFIG, names[1]);
+    }
+
+    @Test
+    @DisplayName("Find config names by a page request")
+    void findByPageRequest() {
+        final PageResponse page = configRepository.findByPageRequest(new PageRequest.Builder(CONFIG).
+                page(1).
+                size(1).
+                ascending(false).
+                build());
+        final PageResponse attributePage = configRepository.findByPageRequest(new PageRequest.Builder("First").
+                attribute("key", "value_2").
+                build());
+        final PageResponse emptyPage = configRepository.findByPageRequest(new PageRequest.Builder(CONFIG).
+                attribute("key_4", "value").
+                build());
+        final PageResponse allPage = configRepository.findByPageRequest(new PageRequest.Builder("").
+                size(1).
+                build());
+        // Check test results
+        assertEquals(1, page.getPage());
+        assertEquals(2, page.getTotal());
+        assertEquals(Collections.singletonList(FIRST_CONFIG), page.getNames().collect(Collectors.toList()));
+        assertEquals(1, attributePage.getTotal());
+        assertEquals(Collections.singletonList(FIRST_CONFIG), attributePage.getNames().collect(Collectors.toList()));
+        assertEquals(0, emptyPage.getTotal());
+        assertEquals(2, allPage.getTotal());
+        assertEquals(Collections.singletonList(FIRST_CONFIG), allPage.getNames().collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Save and flush configs")
+    void saveAndFlushConfigs() {
+        final Config config = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().get();
+        final Config[] configs = configRepository.saveAndFlush(Stream.of(
+                new Config.Builder(config).attributes(Collections.singletonMap("key_4", "value_4")).build(),
+                getConfigWithProperties(NEW_CONFIG))).toArray(Config[]::new);
+        final PageResponse page = configRepository.findByPageRequest(new PageRequest.Builder(CONFIG).
+                attribute("key_4", "value_4").
+                build());
+        // Check test results
+        assertEquals(2, configs[0].getVersion());
+        assertEquals(3, configs[1].getId());
+        assertEquals(1, configs[1].getVersion());
+        assertEquals(Collections.singletonList(FIRST_CONFIG), page.getNames().collect(Collectors.toList()));
+        assertEquals(3, configRepository.findNames().count());
+    }
+
+    @Test
+    @DisplayName("Optimistic locking error")
+    void optimisticLockingError() {
+        final Config config = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().get();
+        configRepository.saveAndFlush(Stream.of(config));
+        // Check test results
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                configRepository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG), config)));
+        assertEquals(String.format(CONFIG_VERSION_ERROR, FIRST_CONFIG), exception.getMessage());
+        assertEquals(0, configRepository.findByNames(Stream.of(NEW_CONFIG)).count());
+        final IllegalStateException existsException = assertThrows(IllegalStateException.class, () ->
+                configRepository.saveAndFlush(Stream.of(getConfigWithProperties(FIRST_CONFIG))));
+        assertEquals(String.format(CONFIG_EXISTS_ERROR, FIRST_CONFIG), existsException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Patch a config")
+    void patchConfig() {
+        final int version = configRepository.patch(FIRST_CONFIG, 1,
+                new ConfigPatch.Builder().attribute(new String[0], "key", "value").build());
+        final Config config = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().get();
+        // Check test results
+        assertEquals(2, version);
+        assertEquals(2, config.getVersion());
+        assertEquals(Optional.of("value"), config.getAttribute("key"));
+        final VersionConflictException exception = assertThrows(VersionConflictException.class, () ->
+                configRepository.patch(FIRST_CONFIG, 1,
+                        new ConfigPatch.Builder().attribute(new String[0], "key", "value").build()));
+        assertEquals(String.format(PATCH_VERSION_ERROR, FIRST_CONFIG, 2, 1), exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Delete configs")
+    void deleteConfigs() {
+        final int deleted = configRepository.delete(Stream.of(FIRST_CONFIG, NEW_CONFIG, FIRST_CONFIG));
+        final PageResponse page = configRepository.findByPageRequest(new PageRequest.Builder(CONFIG).
+                attribute("key_1", "value_1").
+                build());
+        // Check test results
+        assertEquals(1, deleted);
+        assertEquals(1, configRepository.findAll().count());
+        assertEquals(Collections.singletonList(SECOND_CONFIG), page.getNames().collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Restore configs from a write-ahead log")
+    void restoreConfigsFromLog() throws Exception {
+        final Path path = Files.createTempDirectory("metacfg4j").resolve("configs.log");
+        final InMemoryConfigRepository repository =
+                (InMemoryConfigRepository) new InMemoryConfigRepository.Builder().writeAheadLog(path).build();
+        repository.saveAndFlush(Stream.of(getConfigWithSubProperties(FIRST_CONFIG),
+                getConfigWithProperties(SECOND_CONFIG), getConfigWithProperties(NEW_CONFIG)));
+        repository.patch(FIRST_CONFIG, 1, new ConfigPatch.Builder().attribute(new String[0], "key", "value").build());
+        repository.delete(Stream.of(SECOND_CONFIG));
+        repository.close();
+        // An interrupted write leaves an incomplete record
+        Files.write(path, "{\"operation\":\"put\",\"con".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        final InMemoryConfigRepository restored =
+                (InMemoryConfigRepository) new InMemoryConfigRepository.Builder().writeAheadLog(path).build();
+        final Config[] configs = restored.findAll().toArray(Config[]::new);
+        final Config saved = restored.saveAndFlush(Stream.of(getConfigWithProperties(CONFIG))).findFirst().get();
+        restored.close();
+        // Check test results
+        assertEquals(2, configs.length);
+        assertEquals(FIRST_CONFIG, configs[0].getName());
+        assertEquals(2, configs[0].getVersion());
+        assertEquals(Optional.of("value"), configs[0].getAttribute("key"));
+        assertEqualsProperty(getConfigWithSubProperties(FIRST_CONFIG), configs[0]);
+        assertEquals(NEW_CONFIG, configs[1].getName());
+        assertEquals(4, saved.getId());
+        assertEquals(3, Files.readAllLines(path).size());
+    }
+}
@@ -0,0 +1,167 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.READ_ONLY_REPOSITORY;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_MAPPED_FILE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Mapped config repository test")
+final class MappedConfigRepositoryTest extends UnitTest {
+    private Path path;
+    private ConfigRepository configRepository;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        path = Files.createTempDirectory("metacfg4j").resolve("configs.bin");
+        MappedConfigRepository.write(path, Stream.of(
+                new Config.Builder(getConfigWithProperties(SECOND_CONFIG)).id(1).build(),
+                new Config.Builder(getConfigWithSubProperties(FIRST_CONFIG)).id(2).version(3).build()));
+        configRepository = new MappedConfigRepository.Builder(path).checkInterval(0).build();
+    }
+
+    @Test
+    @DisplayName("Find configs by names")
+    void findConfigsByNames() {
+        final Config[] configs = configRepository.findByNames(Stream.of(SECOND_CONFIG, NEW_CONFIG, FIRST_CONFIG)).
+                toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        final Config firstExpected = new Config.Builder(getConfigWithSubProperties(FIRST_CONFIG)).version(3).build();
+        assertEqualsConfig(firstExpected, configs[0]);
+        assertEqualsProperty(firstExpected, configs[0]);
+        assertEquals(SECOND_CONFIG, configs[1].getName());
+        assertEquals(0, configRepository.findByNames(Stream.of(NEW_CONFIG)).count());
+    }
+
+    @Test
+    @DisplayName("Find all configs")
+    void findAllConfigs() {
+        final Config[] configs = configRepository.findAll().toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        assertEquals(SECOND_CONFIG, configs[0].getName());
+        assertEquals(FIRST_CONFIG, configs[1].getName());
+    }
+
+    @Test
+    @DisplayName("Find config versions")
+    void findVersions() {
+        final Config[] versions = configRepository.findVersions().toArray(Config[]::new);
+        final Config[] namedVersions = configRepository.findVersions(Stream.of(FIRST_CONFIG)).toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, versions.length);
+        assertEquals(1, versions[0].getId());
+        assertEquals(SECOND_CONFIG, versions[0].getName());
+        assertEquals(0, versions[0].getProperties().count());
+        assertEquals(1, namedVersions.length);
+        assertEquals(2, namedVersions[0].getId());
+        assertEquals(3, namedVersions[0].getVersion());
+    }
+
+    @Test
+    @DisplayName("Find config names")
+    void findNames() {
+        final String[] names = configRepository.findNames().toArray(String[]::new);
+        // Check test results
+        assertEquals(2, names.length);
+        assertEquals(FIRST_CONFIG, names[0]);
+        assertEquals(SECOND_CONFIG, names[1]);
+    }
+
+    @Test
+    @DisplayName("Find config names by a page request")
+    void findByPageRequest() {
+        final PageResponse page = configRepository.findByPageRequest(new PageRequest.Builder(CONFIG).
+                attribute("key_1", "value_1").
+                page(1).
+                size(1).
+                ascending(false).
+                build());
+        final PageResponse emptyPage = configRepository.findByPageRequest(new PageRequest.Builder(CONFIG).
+                attribute("key_4", "value_4").
+                build());
+        // Check test results
+        assertEquals(1, page.getPage());
+        assertEquals(2, page.getTotal());
+        final String[] names = page.getNames().toArray(String[]::new);
+        assertEquals(1, names.length);
+        assertEquals(FIRST_CONFIG, names[0]);
+        assertEquals(0, emptyPage.getTotal());
+    }
+
+    @Test
+    @DisplayName("Map a new version of the file")
+    void mapNewVersion() throws Exception {
+        final Stream<Config> configs = configRepository.findByNames(Stream.of(FIRST_CONFIG));
+        MappedConfigRepository.write(path, Stream.of(new Config.Builder(NEW_CONFIG, Collections.emptyList()).build()));
+        // Check test results
+        assertEquals(FIRST_CONFIG, configs.findFirst().map(Config::getName).orElse(null));
+        final String[] names = configRepository.findNames().toArray(String[]::new);
+        assertEquals(1, names.length);
+        assertEquals(NEW_CONFIG, names[0]);
+    }
+
+    @Test
+    @DisplayName("Keep the mapped version for a wrong file")
+    void keepMappedVersionForWrongFile() throws Exception {
+        Files.write(path, "wrong".getBytes(StandardCharsets.UTF_8));
+        // Check test results
+        assertEquals(2, configRepository.findNames().count());
+        assertThrows(RuntimeException.class, () -> new MappedConfigRepository.Builder(path).build());
+    }
+
+    @Test
+    @DisplayName("Map a truncated file")
+    void mapTruncatedFile() throws Exception {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        // Check test results
+        final RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> new MappedConfigRepository.Builder(path).build());
+        assertEquals(WRONG_MAPPED_FILE, exception.getCause().getMessage());
+        assertEquals(2, configRepository.findNames().count());
+    }
+
+    @Test
+    @DisplayName("Set a wrong check interval")
+    void setWrongCheckInterval() {
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> new MappedConfigRepository.Builder(path).checkInterval(-1));
+    }
+
+    @Test
+    @DisplayName("Save and flush a config")
+    void saveAndFlush() {
+        // Check test results
+        final UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class,
+                () -> configRepository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG))));
+        assertEquals(READ_ONLY_REPOSITORY, exception.getMessage());
+        assertThrows(UnsupportedOperationException.class, () -> configRepository.delete(Stream.of(FIRST_CONFIG)));
+        assertTrue(configRepository.findByNames(Stream.of(FIRST_CONFIG)).findAny().isPresent());
+    }
+}
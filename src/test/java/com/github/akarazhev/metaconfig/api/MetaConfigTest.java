@@ -26,12 +26,16 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Clock;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static com.github.akarazhev.metaconfig.Constants.Settings.FETCH_SIZE;
@@ -132,6 +136,77 @@ final class MetaConfigTest extends UnitTest {
         dbMetaConfig.remove(Stream.of(FIRST_CONFIG, SECOND_CONFIG, NEW_CONFIG));
     }
 
+    @Test
+    @DisplayName("Export configs to a mapped file")
+    void exportConfigsToMappedFile() throws Exception {
+        final Path path = Files.createTempDirectory("metacfg4j").resolve("configs.bin");
+        dbMetaConfig.export(path);
+        try (final MetaConfig metaConfig = new MetaConfig.Builder().mappedFile(path).build()) {
+            // Check test results
+            assertEqualsConfigs(metaConfig.get(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).toArray(Config[]::new));
+            assertEquals(2, metaConfig.getVersions().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Build in-memory config")
+    void buildInMemoryConfig() throws Exception {
+        final Path path = Files.createTempDirectory("metacfg4j").resolve("configs.log");
+        try (final MetaConfig metaConfig = new MetaConfig.Builder().inMemory(path).build()) {
+            metaConfig.update(Stream.of(getConfigWithSubProperties(FIRST_CONFIG),
+                    getConfigWithProperties(SECOND_CONFIG)));
+        }
+
+        try (final MetaConfig metaConfig = new MetaConfig.Builder().inMemory(path).build()) {
+            // Check test results
+            assertEqualsConfigs(metaConfig.get(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).toArray(Config[]::new));
+        }
+    }
+
+    @Test
+    @DisplayName("Build tiered config")
+    void buildTieredConfig() {
+        try (final MetaConfig metaConfig = new MetaConfig.Builder().
+                dataSource(connectionPool.getDataSource()).
+                tiered().
+                build()) {
+            final Config config = metaConfig.get(Stream.of(FIRST_CONFIG)).findFirst().get();
+            // Another node updates the config
+            dbMetaConfig.update(Stream.of(config));
+            final Config cached = metaConfig.get(Stream.of(FIRST_CONFIG)).findFirst().get();
+            metaConfig.accept(Stream.of(FIRST_CONFIG));
+            final Config accepted = metaConfig.get(Stream.of(FIRST_CONFIG)).findFirst().get();
+            // Check test results
+            assertEquals(1, cached.getVersion());
+            assertEquals(2, accepted.getVersion());
+            assertEquals(2, metaConfig.get(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).count());
+        }
+    }
+
+    @Test
+    @DisplayName("Get changes of configs")
+    void getChanges() {
+        final Map<String, String> dataMapping = new HashMap<>();
+        dataMapping.put(Constants.Mapping.CHANGE_LOG_TABLE, "CHANGE_LOG");
+        try (final MetaConfig metaConfig = new MetaConfig.Builder().
+                dataSource(connectionPool.getDataSource()).
+                dataMapping(dataMapping).
+                tiered().
+                build()) {
+            final long sequence = metaConfig.getChanges(0, Integer.MAX_VALUE).
+                    mapToLong(ChangeEvent::getSequence).
+                    max().
+                    orElse(0);
+            metaConfig.update(Stream.of(getConfigWithProperties(NEW_CONFIG)));
+            final ChangeEvent[] changes = metaConfig.getChanges(sequence, 10).toArray(ChangeEvent[]::new);
+            // Check test results
+            assertEquals(1, changes.length);
+            assertEquals(NEW_CONFIG, changes[0].getName());
+            assertEquals(ChangeEvent.Operation.UPDATE, changes[0].getOperation());
+            assertEquals(0, dbMetaConfig.getChanges(0, 10).count());
+        }
+    }
+
     @Test
     @DisplayName("Build default config")
     void buildDefaultConfig() {
@@ -168,6 +243,17 @@ final class MetaConfigTest extends UnitTest {
         assertEqualsConfigs(webMetaConfig.get(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).toArray(Config[]::new));
     }
 
+    @Test
+    @DisplayName("Get configs by names asynchronously")
+    void getConfigsByNamesAsync() throws Exception {
+        assertEqualsConfigs(dbMetaConfig.getAsync(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).
+                get(10, TimeUnit.SECONDS).
+                toArray(Config[]::new));
+        assertEqualsConfigs(webMetaConfig.getAsync(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).
+                get(10, TimeUnit.SECONDS).
+                toArray(Config[]::new));
+    }
+
     @Test
     @DisplayName("Get config with empty attributes")
     void getConfigWithEmptyAttributes() {
@@ -331,16 +417,20 @@ final class MetaConfigTest extends UnitTest {
 
     @Test
     @DisplayName("Accept config by names with consumer")
-    void acceptByNamesWithConsumer() {
-        final StringBuilder message = new StringBuilder();
+    void acceptByNamesWithConsumer() throws InterruptedException {
+        final StringBuffer message = new StringBuffer();
+        final CountDownLatch latch = new CountDownLatch(1);
         dbMetaConfig.addConsumer(config -> {
             if (FIRST_CONFIG.equals(config.getName())) {
                 message.append(FIRST_CONFIG);
             }
+
+            latch.countDown();
         });
 
         webMetaConfig.accept(Stream.of(FIRST_CONFIG));
         // Check test results
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
         assertEquals(FIRST_CONFIG, message.toString());
     }
 
@@ -0,0 +1,142 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.api;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import com.github.akarazhev.metaconfig.engine.web.WebServer;
+import com.github.akarazhev.metaconfig.engine.web.WebServers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tiered config repository test")
+final class TieredConfigRepositoryTest extends UnitTest {
+    private ConfigRepository origin;
+    private TieredConfigRepository configRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        origin = new InMemoryConfigRepository.Builder().build();
+        origin.saveAndFlush(Stream.of(getConfigWithSubProperties(SECOND_CONFIG),
+                getConfigWithProperties(FIRST_CONFIG)));
+        configRepository = (TieredConfigRepository) new TieredConfigRepository.Builder(origin).build();
+    }
+
+    @Test
+    @DisplayName("Read configs through the local tier")
+    void readThrough() {
+        final Config[] configs = configRepository.findByNames(Stream.of(SECOND_CONFIG, NEW_CONFIG, FIRST_CONFIG)).
+                toArray(Config[]::new);
+        final Config[] cached = configRepository.findByNames(Stream.of(SECOND_CONFIG, FIRST_CONFIG)).
+                toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        final Config firstExpected = getConfigWithProperties(FIRST_CONFIG);
+        assertEqualsConfig(firstExpected, configs[0]);
+        assertEqualsProperty(firstExpected, configs[0]);
+        assertEquals(SECOND_CONFIG, configs[1].getName());
+        assertArrayEquals(configs, cached);
+        assertArrayEquals(new long[]{2, 2, 3}, configRepository.getStats());
+        assertNull(configRepository.getCached(Arrays.asList(FIRST_CONFIG, NEW_CONFIG)));
+        assertEquals(2, configRepository.getCached(Arrays.asList(SECOND_CONFIG, FIRST_CONFIG)).size());
+    }
+
+    @Test
+    @DisplayName("Write configs through the local tier")
+    void writeThrough() {
+        final Config saved = configRepository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG))).
+                findFirst().get();
+        final List<Config> cached = configRepository.getCached(Collections.singletonList(NEW_CONFIG));
+        // Check test results
+        assertNotNull(cached);
+        assertEquals(saved, cached.get(0));
+        assertEquals(3, origin.findNames().count());
+        assertEquals(1, configRepository.findVersions(Stream.of(NEW_CONFIG)).findFirst().get().getVersion());
+    }
+
+    @Test
+    @DisplayName("Invalidate configs")
+    void invalidateConfigs() {
+        final Config config = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().get();
+        // Another node updates the config
+        origin.saveAndFlush(Stream.of(config));
+        final Config cached = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().get();
+        configRepository.invalidate(Stream.of(FIRST_CONFIG));
+        final Config invalidated = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().get();
+        // Check test results
+        assertEquals(1, cached.getVersion());
+        assertEquals(2, invalidated.getVersion());
+    }
+
+    @Test
+    @DisplayName("Patch and delete configs")
+    void patchAndDeleteConfigs() {
+        configRepository.findByNames(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).count();
+        final int version = configRepository.patch(FIRST_CONFIG, 1,
+                new ConfigPatch.Builder().attribute(new String[0], "key", "value").build());
+        final Config patched = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().get();
+        final int deleted = configRepository.delete(Stream.of(SECOND_CONFIG));
+        // Check test results
+        assertEquals(2, version);
+        assertEquals(2, patched.getVersion());
+        assertEquals(Optional.of("value"), patched.getAttribute("key"));
+        assertEquals(1, deleted);
+        assertNull(configRepository.getCached(Collections.singletonList(SECOND_CONFIG)));
+        assertEquals(0, configRepository.findByNames(Stream.of(SECOND_CONFIG)).count());
+    }
+
+    @Test
+    @DisplayName("Clear the local tier on a reset of the watch")
+    void clearOnReset() throws Exception {
+        WebServer webServer = WebServers.newTestServer().start();
+        final WebConfigRepository webRepository = (WebConfigRepository) new WebConfigRepository.Builder(
+                new Config.Builder(CONFIG_NAME, Arrays.asList(
+                        new Property.Builder(URL, "https://localhost:8000/api/metacfg").build(),
+                        new Property.Builder(ACCEPT_ALL_HOSTS, true).build())).build()).build();
+        final TieredConfigRepository repository =
+                (TieredConfigRepository) new TieredConfigRepository.Builder(webRepository).build();
+        try {
+            repository.saveAndFlush(Stream.of(getConfigWithProperties(FIRST_CONFIG)));
+            // Let the watch receive a sequence and the change of the server, then read the config again
+            Thread.sleep(500);
+            repository.findByNames(Stream.of(FIRST_CONFIG)).count();
+            final boolean isCached = repository.getCached(Collections.singletonList(FIRST_CONFIG)) != null;
+            // A restarted server has a new sequence, so it sends a reset to the watch
+            webServer.stop();
+            webServer = WebServers.newTestServer().start();
+            for (int i = 0; i < 50 && repository.getCached(Collections.singletonList(FIRST_CONFIG)) != null; i++) {
+                Thread.sleep(100);
+            }
+            // Check test results
+            assertTrue(isCached);
+            assertNull(repository.getCached(Collections.singletonList(FIRST_CONFIG)));
+            assertEquals(0, repository.getStats()[0]);
+        } finally {
+            repository.close();
+            webServer.stop();
+        }
+    }
+}
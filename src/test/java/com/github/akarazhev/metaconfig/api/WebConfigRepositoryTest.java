@@ -13,6 +13,7 @@ package com.github.akarazhev.metaconfig.api;
 import com.github.akarazhev.metaconfig.UnitTest;
 import com.github.akarazhev.metaconfig.engine.web.WebServer;
 import com.github.akarazhev.metaconfig.engine.web.WebServers;
+import com.github.akarazhev.metaconfig.extension.Metrics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -20,16 +21,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import static com.github.akarazhev.metaconfig.Constants.Messages.RECEIVED_CONFIGS_ERROR;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.QUERY_THRESHOLD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.SNAPSHOT_PATH;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.STALE_WHILE_REVALIDATE;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -101,6 +114,168 @@ final class WebConfigRepositoryTest extends UnitTest {
         assertEqualsProperty(secondExpected, configs[1]);
     }
 
+    @Test
+    @DisplayName("Find configs by names asynchronously")
+    void findConfigsByNamesAsync() throws Exception {
+        final Config[] configs = configRepository.
+                findByNamesAsync(Stream.of(FIRST_CONFIG, SECOND_CONFIG), Runnable::run).
+                get(10, TimeUnit.SECONDS).
+                toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        final Config firstExpected = getConfigWithSubProperties(FIRST_CONFIG);
+        assertEqualsConfig(firstExpected, configs[0]);
+        assertEqualsProperty(firstExpected, configs[0]);
+    }
+
+    @Test
+    @DisplayName("Find configs by names asynchronously with the stopped web server")
+    void findByNamesAsyncWithStoppedWebServer() throws Exception {
+        webServer.stop();
+        final CompletableFuture<Stream<Config>> future =
+                configRepository.findByNamesAsync(Stream.of(FIRST_CONFIG), Runnable::run);
+        // Check test results
+        final ExecutionException exception =
+                assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertEquals(RECEIVED_CONFIGS_ERROR, exception.getCause().getMessage());
+        webServer = WebServers.newTestServer().start();
+    }
+
+    @Test
+    @DisplayName("Find all configs")
+    void findAllConfigs() {
+        final Config[] configs = configRepository.findAll().toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        final Config firstExpected = getConfigWithSubProperties(FIRST_CONFIG);
+        final Config secondExpected = getConfigWithSubProperties(SECOND_CONFIG);
+        assertEqualsConfig(firstExpected, configs[0]);
+        assertEqualsProperty(firstExpected, configs[0]);
+        assertEqualsConfig(secondExpected, configs[1]);
+        assertEqualsProperty(secondExpected, configs[1]);
+    }
+
+    @Test
+    @DisplayName("Find configs by names revalidated")
+    void findConfigsByNamesRevalidated() {
+        final Collection<Property> properties = new ArrayList<>(2);
+        properties.add(new Property.Builder(URL, "https://localhost:8000/api/metacfg").build());
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        final ConfigRepository repository =
+                new WebConfigRepository.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        final Config[] configs = repository.findByNames(Stream.of(FIRST_CONFIG)).toArray(Config[]::new);
+        final Config[] cachedConfigs = repository.findByNames(Stream.of(FIRST_CONFIG)).toArray(Config[]::new);
+        repository.patch(FIRST_CONFIG, 1, new ConfigPatch.Builder().attribute(new String[0], "key", "value").build());
+        final Config[] patchedConfigs = repository.findByNames(Stream.of(FIRST_CONFIG)).toArray(Config[]::new);
+        // Check test results
+        assertEquals(1, configs.length);
+        assertEquals(configs[0], cachedConfigs[0]);
+        assertEquals(2, patchedConfigs[0].getVersion());
+        assertEquals(Optional.of("value"), patchedConfigs[0].getAttribute("key"));
+    }
+
+    @Test
+    @DisplayName("Find configs by names with a query")
+    void findConfigsByNamesWithQuery() throws Exception {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(URL, "https://localhost:8000/api/metacfg").build());
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(QUERY_THRESHOLD, 1).build());
+        final WebConfigRepository repository = (WebConfigRepository)
+                new WebConfigRepository.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        final Config[] configs = repository.findByNames(Stream.of(SECOND_CONFIG, FIRST_CONFIG, NEW_CONFIG)).
+                toArray(Config[]::new);
+        final Config[] asyncConfigs = repository.
+                findByNamesAsync(Stream.of(FIRST_CONFIG, SECOND_CONFIG), Runnable::run).
+                get(10, TimeUnit.SECONDS).
+                toArray(Config[]::new);
+        // Check test results
+        assertEquals(2, configs.length);
+        final Config firstExpected = getConfigWithSubProperties(FIRST_CONFIG);
+        assertEqualsConfig(firstExpected, configs[0]);
+        assertEqualsProperty(firstExpected, configs[0]);
+        assertEquals(SECOND_CONFIG, configs[1].getName());
+        assertEquals(2, asyncConfigs.length);
+        assertEquals(configs[0], asyncConfigs[0]);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Find configs by names from a snapshot with the stopped web server")
+    void findByNamesFromSnapshotWithStoppedWebServer() throws Exception {
+        final Path path = Files.createTempDirectory("metacfg4j").resolve("snapshot.json");
+        final WebConfigRepository repository = newSnapshotRepository(path, 0);
+        final Config[] configs = repository.findByNames(Stream.of(FIRST_CONFIG, SECOND_CONFIG)).toArray(Config[]::new);
+        webServer.stop();
+        final Config[] snapshotConfigs =
+                repository.findByNames(Stream.of(SECOND_CONFIG, FIRST_CONFIG)).toArray(Config[]::new);
+        final String[] names = repository.findNames().toArray(String[]::new);
+        webServer = WebServers.newTestServer().start();
+        // The snapshot is written in the background, the last one is written on close
+        repository.close();
+        // Check test results
+        assertTrue(Files.exists(path));
+        assertEquals(2, snapshotConfigs.length);
+        assertEquals(configs[0], snapshotConfigs[0]);
+        assertEquals(configs[1], snapshotConfigs[1]);
+        assertEquals(2, names.length);
+        assertEquals(FIRST_CONFIG, names[0]);
+        assertTrue(Metrics.getInstance().toString().contains("metacfg_client_snapshot_age_seconds{path=\"" +
+                path + "\"}"));
+    }
+
+    @Test
+    @DisplayName("Find configs by names from a snapshot while it is revalidated")
+    void findByNamesFromSnapshotWhileRevalidated() throws Exception {
+        final Path path = Files.createTempDirectory("metacfg4j").resolve("snapshot.json");
+        final WebConfigRepository repository = newSnapshotRepository(path, 0);
+        repository.findByNames(Stream.of(FIRST_CONFIG)).count();
+        repository.close();
+        webServer.stop();
+        final WebConfigRepository snapshotRepository = newSnapshotRepository(path, 60000);
+        final Config[] configs = snapshotRepository.findByNames(Stream.of(FIRST_CONFIG)).toArray(Config[]::new);
+        webServer = WebServers.newTestServer().start();
+        // Check test results
+        assertEquals(1, configs.length);
+        assertEquals(FIRST_CONFIG, configs[0].getName());
+        snapshotRepository.close();
+    }
+
+    @Test
+    @DisplayName("Find configs by names from a stale snapshot with the stopped web server")
+    void findByNamesFromStaleSnapshotWithStoppedWebServer() throws Exception {
+        final Path path = Files.createTempDirectory("metacfg4j").resolve("snapshot.json");
+        Files.write(path, ("{\"updated\":1,\"configs\":[" + getConfigWithProperties(FIRST_CONFIG).toJson() + "]}").
+                getBytes(StandardCharsets.UTF_8));
+        webServer.stop();
+        final WebConfigRepository repository = newSnapshotRepository(path, 60000);
+        // Check test results
+        assertThrows(RuntimeException.class, () -> repository.findByNames(Stream.of(FIRST_CONFIG)));
+        webServer = WebServers.newTestServer().start();
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Find config versions")
+    void findVersions() {
+        final Config[] configs = configRepository.findVersions(Stream.of(FIRST_CONFIG)).toArray(Config[]::new);
+        // Check test results
+        assertEquals(1, configs.length);
+        assertEquals(FIRST_CONFIG, configs[0].getName());
+        assertEquals(1, configs[0].getVersion());
+        assertEquals(0, configs[0].getProperties().count());
+        assertEquals(2, configRepository.findVersions().count());
+    }
+
+    @Test
+    @DisplayName("Find all configs with the stopped web server")
+    void findAllWithStoppedWebServer() throws Exception {
+        webServer.stop();
+        // Check test results
+        assertThrows(RuntimeException.class, () -> configRepository.findAll());
+        webServer = WebServers.newTestServer().start();
+    }
+
     @Test
     @DisplayName("Find configs by names with the stopped web server")
     void findByNamesWithStoppedWebServer() throws Exception {
@@ -206,6 +381,19 @@ final class WebConfigRepositoryTest extends UnitTest {
         assertTrue(newConfig.get().getId() > 0);
     }
 
+    @Test
+    @DisplayName("Save and flush a new config asynchronously")
+    void saveAndFlushNewConfigAsync() throws Exception {
+        final Optional<Config> newConfig = configRepository.
+                saveAndFlushAsync(Stream.of(getConfigWithProperties(NEW_CONFIG)), Runnable::run).
+                get(10, TimeUnit.SECONDS).
+                findFirst();
+        // Check test results
+        assertTrue(newConfig.isPresent());
+        assertTrue(newConfig.get().getId() > 0);
+        assertEquals(1, newConfig.get().getVersion());
+    }
+
     @Test
     @DisplayName("Save and flush an empty")
     void saveAndFlushEmptyConfig() {
@@ -237,6 +425,65 @@ final class WebConfigRepositoryTest extends UnitTest {
         assertThrows(RuntimeException.class, () -> configRepository.saveAndFlush(Stream.of(newConfig)));
     }
 
+    @Test
+    @DisplayName("Patch a config")
+    void patchConfig() {
+        final ConfigPatch patch = new ConfigPatch.Builder().
+                add(new String[]{"Property"}, new Property.Builder("New-Property", "New-Value").
+                        attribute("key", "value").build()).
+                replace(new String[]{"Property", "Sub-Property-1"},
+                        new Property.Builder("Sub-Property-1", "Replaced-Value").build()).
+                remove(new String[]{"Property", "Sub-Property-1", "Sub-Property-2", "Sub-Property-3"}).
+                attribute(new String[0], "key_4", "value_4").
+                removeAttribute(new String[0], "key_1").
+                build();
+        final Config expected = patch.apply(getConfigWithSubProperties(FIRST_CONFIG));
+        final int version = configRepository.patch(FIRST_CONFIG, 1, patch);
+        final Optional<Config> config = configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst();
+        // Check test results
+        assertEquals(2, version);
+        assertTrue(config.isPresent());
+        assertEquals(2, config.get().getVersion());
+        assertEquals(expected.getAttributes(), config.get().getAttributes());
+        assertEquals("Replaced-Value",
+                config.get().getProperty("Property", "Sub-Property-1").map(Property::getValue).orElse(null));
+        assertEquals("value", config.get().getProperty("Property", "New-Property").
+                flatMap(p -> p.getAttribute("key")).orElse(null));
+        assertTrue(config.get().getProperty("Property", "Sub-Property-1", "Sub-Property-2").isPresent());
+        assertFalse(config.get().getProperty("Property", "Sub-Property-1", "Sub-Property-2", "Sub-Property-3").
+                isPresent());
+    }
+
+    @Test
+    @DisplayName("Patch a config with a wrong version")
+    void patchConfigWithWrongVersion() {
+        final ConfigPatch patch = new ConfigPatch.Builder().attribute(new String[0], "key", "value").build();
+        // Check test results
+        assertThrows(VersionConflictException.class, () -> configRepository.patch(FIRST_CONFIG, 2, patch));
+        assertThrows(RuntimeException.class, () -> configRepository.patch(NEW_CONFIG, 1, patch));
+        assertEquals(1, configRepository.findByNames(Stream.of(FIRST_CONFIG)).findFirst().
+                map(Config::getVersion).orElse(0));
+    }
+
+    @Test
+    @DisplayName("Watch configs")
+    void watchConfigs() throws InterruptedException {
+        final Collection<ChangeEvent> events = new ConcurrentLinkedQueue<>();
+        final Subscription subscription = ((WebConfigRepository) configRepository).watch(events::add);
+        // The first change can be sent before the watch is started, so repeat it
+        for (int i = 0; i < 50 && events.stream().noneMatch(e -> NEW_CONFIG.equals(e.getName())); i++) {
+            configRepository.delete(Stream.of(NEW_CONFIG));
+            configRepository.saveAndFlush(Stream.of(getConfigWithProperties(NEW_CONFIG)));
+            Thread.sleep(100);
+        }
+
+        subscription.cancel();
+        // Check test results
+        assertTrue(events.stream().anyMatch(e -> NEW_CONFIG.equals(e.getName()) &&
+                ChangeEvent.Operation.UPDATE == e.getOperation() && e.getVersion() == 1 && e.getSequence() > 0));
+        assertTrue(subscription.isCancelled());
+    }
+
     @Test
     @DisplayName("Delete configs by empty names")
     void deleteByEmptyNames() {
@@ -257,4 +504,14 @@ final class WebConfigRepositoryTest extends UnitTest {
         // Check test results
         assertEquals(2, configRepository.delete(Stream.of(FIRST_CONFIG, SECOND_CONFIG)));
     }
+
+    private WebConfigRepository newSnapshotRepository(final Path path, final long staleWhileRevalidate) {
+        final Collection<Property> properties = new ArrayList<>(4);
+        properties.add(new Property.Builder(URL, "https://localhost:8000/api/metacfg").build());
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(SNAPSHOT_PATH, path.toString()).build());
+        properties.add(new Property.Builder(STALE_WHILE_REVALIDATE, staleWhileRevalidate).build());
+        return (WebConfigRepository)
+                new WebConfigRepository.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+    }
 }
@@ -39,7 +39,7 @@ final class DbServerTest {
 
     @Test
     void getPublicSchema() throws Exception {
-        Connection connection = DriverManager.getConnection("jdbc:h2:./data/metacfg4j", "sa", "sa");
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:metacfg4j;DB_CLOSE_DELAY=-1", "sa", "sa");
         // add application code here
         assertEquals("PUBLIC", connection.getSchema());
         connection.close();
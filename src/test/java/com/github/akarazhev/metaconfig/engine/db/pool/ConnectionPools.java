@@ -52,8 +52,8 @@ public final class ConnectionPools {
         static final String CONFIG_NAME = "connection-pool";
         // The url key
         static final String URL = "url";
-        // The url value
-        static final String URL_VALUE = "jdbc:h2:./data/metacfg4j";
+        // The url value, the in-memory db is kept until the JVM exits, so tests do not change tracked files
+        static final String URL_VALUE = "jdbc:h2:mem:metacfg4j;DB_CLOSE_DELAY=-1";
         // The user key
         static final String USER = "user";
         // The user value
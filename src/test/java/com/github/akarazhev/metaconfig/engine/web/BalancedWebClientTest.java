@@ -0,0 +1,294 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.Property;
+import com.github.akarazhev.metaconfig.engine.web.server.Server;
+import com.github.akarazhev.metaconfig.extension.Metrics;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.WATCH_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_BALANCING_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_EJECTION_FAILURES_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.APPLICATION_JSON;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.PUT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.BALANCING;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONNECT_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT_TYPE;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.EJECTION_FAILURES;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.HEDGING;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URLS;
+import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.SUCCESS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.CLIENT_ENDPOINT_DURATION;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Balanced web client test")
+final class BalancedWebClientTest extends UnitTest {
+    private static final String FIRST_URL = "https://localhost:8001/api/metacfg";
+    private static final String SECOND_URL = "https://localhost:8002/api/metacfg";
+    // Nothing listens on the port, so connections are refused
+    private static final String REFUSED_URL = "https://localhost:8003/api/metacfg";
+    private static WebServer firstServer;
+    private static WebServer secondServer;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        firstServer = WebServers.newTestServer(getServerConfig(8001)).start();
+        secondServer = WebServers.newTestServer(getServerConfig(8002)).start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        firstServer.stop();
+        firstServer = null;
+        secondServer.stop();
+        secondServer = null;
+    }
+
+    @Test
+    @DisplayName("Create a client with wrong settings")
+    void createClientWithWrongSettings() {
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> new BalancedWebClient.Builder(
+                new Config.Builder(CONFIG_NAME, Collections.emptyList()).build()));
+        assertEquals(WRONG_BALANCING_VALUE, assertThrows(IllegalStateException.class,
+                () -> new BalancedWebClient.Builder(getClientConfig(new Property.Builder(URL, FIRST_URL).build(),
+                        new Property.Builder(BALANCING, "random").build()))).getSuppressed()[0].getMessage());
+        assertEquals(WRONG_EJECTION_FAILURES_VALUE, assertThrows(IllegalStateException.class,
+                () -> new BalancedWebClient.Builder(getClientConfig(new Property.Builder(URL, FIRST_URL).build(),
+                        new Property.Builder(EJECTION_FAILURES, 0).build()))).getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    @DisplayName("Send requests by round-robin")
+    void sendRequestsByRoundRobin() throws Exception {
+        try (final BalancedWebClient client = new BalancedWebClient.Builder(getClientConfig(
+                new Property.Builder(URLS, new String[]{FIRST_URL, SECOND_URL}).build())).build()) {
+            for (int i = 0; i < 4; i++) {
+                assertEquals(HTTP_OK, client.send(getRequest(FIRST_URL + "/" + CONFIG_NAMES_VALUE)).getStatusCode());
+            }
+
+            final JsonObject stats = client.getStats();
+            // Check test results
+            assertEquals(FIRST_URL, client.getUrl());
+            assertEquals(2, getStat(stats, FIRST_URL, "requests"));
+            assertEquals(2, getStat(stats, SECOND_URL, "requests"));
+            assertEquals(0, getStat(stats, FIRST_URL, "outstanding"));
+        }
+    }
+
+    @Test
+    @DisplayName("Send requests by least outstanding")
+    void sendRequestsByLeastOutstanding() throws Exception {
+        try (final BalancedWebClient client = new BalancedWebClient.Builder(getClientConfig(
+                new Property.Builder(URLS, new String[]{FIRST_URL, SECOND_URL}).build(),
+                new Property.Builder(BALANCING, BalancedWebClient.LEAST_OUTSTANDING).build())).build()) {
+            final List<CompletableFuture<PooledWebClient.Response>> futures = IntStream.range(0, 20).
+                    mapToObj(i -> client.sendAsync(getRequest(FIRST_URL + "/" + CONFIG_NAMES_VALUE))).
+                    collect(Collectors.toList());
+            for (final CompletableFuture<PooledWebClient.Response> future : futures) {
+                assertEquals(HTTP_OK, future.get(10, TimeUnit.SECONDS).getStatusCode());
+            }
+
+            final JsonObject stats = client.getStats();
+            // Check test results
+            assertEquals(20, getStat(stats, FIRST_URL, "requests") + getStat(stats, SECOND_URL, "requests"));
+            assertTrue(getStat(stats, FIRST_URL, "requests") > 0);
+            assertTrue(getStat(stats, SECOND_URL, "requests") > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Fail over a refused server")
+    void failOverRefusedServer() throws Exception {
+        try (final BalancedWebClient client = new BalancedWebClient.Builder(getClientConfig(
+                new Property.Builder(URLS, new String[]{REFUSED_URL, FIRST_URL}).build())).build()) {
+            final String url = REFUSED_URL + "/" + CONFIG_VALUE;
+            final Config config = new Config.Builder("Balanced Config", Collections.emptyList()).build();
+            final Collection<Property> properties = new ArrayList<>(getRequest(url).getProperties().
+                    filter(property -> !METHOD.equals(property.getName())).
+                    collect(Collectors.toList()));
+            properties.add(new Property.Builder(METHOD, PUT).build());
+            properties.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
+            properties.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
+            properties.add(new Property.Builder(CONTENT, Jsoner.serialize(new Config[]{config})).build());
+            // A request that is not idempotent is sent to the next server, since it has not been sent
+            final PooledWebClient.Response put = client.send(new Config.Builder(CONFIG_NAME, properties).build());
+            final PooledWebClient.Response get = client.send(getRequest(url));
+            final JsonObject stats = client.getStats();
+            // Check test results
+            assertEquals(HTTP_OK, put.getStatusCode());
+            assertEquals(true, put.getJsonContent().get(SUCCESS));
+            assertEquals(HTTP_OK, get.getStatusCode());
+            assertEquals(true, getStats(stats, REFUSED_URL).get("ejected"));
+            assertEquals(1, getStat(stats, REFUSED_URL, "requests"));
+            assertEquals(1, getStat(stats, REFUSED_URL, "failures"));
+            assertEquals(2, getStat(stats, FIRST_URL, "requests"));
+        }
+    }
+
+    @Test
+    @DisplayName("Fail with all refused servers")
+    void failWithAllRefusedServers() {
+        try (final BalancedWebClient client = new BalancedWebClient.Builder(getClientConfig(
+                new Property.Builder(URL, REFUSED_URL).build())).build()) {
+            // Check test results
+            assertThrows(RuntimeException.class, () -> client.send(getRequest(REFUSED_URL + "/" + CONFIG_VALUE)));
+            assertThrows(Exception.class, () -> client.sendAsync(getRequest(REFUSED_URL + "/" + CONFIG_VALUE)).
+                    get(10, TimeUnit.SECONDS));
+            assertFalse(client.getStats().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Hedge requests of a hung server")
+    void hedgeRequestsOfHungServer() throws Exception {
+        final List<Socket> sockets = new CopyOnWriteArrayList<>();
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            final Thread acceptor = new Thread(() -> {
+                try {
+                    while (true) {
+                        // Connections are accepted, but never answered
+                        sockets.add(serverSocket.accept());
+                    }
+                } catch (final Exception e) {
+                    // The server socket is closed
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+            final String hungUrl = "https://localhost:" + serverSocket.getLocalPort() + "/api/metacfg";
+            // Latencies of the server are recorded, so a delay of a hedged request is known
+            try (final BalancedWebClient client = new BalancedWebClient.Builder(getClientConfig(
+                    new Property.Builder(URL, SECOND_URL).build())).build()) {
+                for (int i = 0; i < 25; i++) {
+                    assertEquals(HTTP_OK, client.send(getRequest(SECOND_URL + "/" + CONFIG_NAMES_VALUE)).
+                            getStatusCode());
+                }
+            }
+
+            try (final BalancedWebClient client = new BalancedWebClient.Builder(getClientConfig(
+                    new Property.Builder(URLS, new String[]{hungUrl, SECOND_URL}).build(),
+                    new Property.Builder(CONNECT_TIMEOUT, 5000).build(),
+                    new Property.Builder(HEDGING, true).build())).build()) {
+                final long start = System.nanoTime();
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(HTTP_OK, client.send(getRequest(hungUrl + "/" + CONFIG_NAMES_VALUE)).
+                            getStatusCode());
+                }
+
+                final JsonObject stats = client.getStats();
+                // Check test results
+                assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+                assertTrue(getStat(stats, SECOND_URL, "hedges") > 0);
+                assertEquals(4, getStat(stats, SECOND_URL, "requests"));
+            }
+        } finally {
+            for (final Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Pin watch requests to one server")
+    void pinWatchRequests() throws Exception {
+        final long count = Metrics.getInstance().histogram(CLIENT_ENDPOINT_DURATION, "endpoint", FIRST_URL).
+                getCount();
+        try (final BalancedWebClient client = new BalancedWebClient.Builder(getClientConfig(
+                new Property.Builder(URLS, new String[]{REFUSED_URL, FIRST_URL, SECOND_URL}).build(),
+                new Property.Builder(HEDGING, true).build())).build()) {
+            final String url = client.getWatchUrl();
+            final Config request = getRequest(REFUSED_URL + "/" + WATCH_VALUE + "?since=-1&timeout=0");
+            // The refused server fails, so another one is chosen for watch requests
+            assertThrows(RuntimeException.class, () -> client.watch(request));
+            final String watchUrl = client.getWatchUrl();
+            for (int i = 0; i < 3; i++) {
+                assertEquals(HTTP_OK, client.watch(request).getStatusCode());
+            }
+
+            final JsonObject stats = client.getStats();
+            // Check test results
+            assertEquals(REFUSED_URL, url);
+            assertEquals(FIRST_URL, watchUrl);
+            assertEquals(FIRST_URL, client.getWatchUrl());
+            assertEquals(3, getStat(stats, FIRST_URL, "requests"));
+            assertEquals(0, getStat(stats, SECOND_URL, "requests"));
+            assertEquals(0, getStat(stats, FIRST_URL, "hedges") + getStat(stats, SECOND_URL, "hedges"));
+            assertEquals(count, Metrics.getInstance().histogram(CLIENT_ENDPOINT_DURATION, "endpoint", FIRST_URL).
+                    getCount());
+        }
+    }
+
+    private static Config getServerConfig(final int port) {
+        return new Config.Builder(Server.Settings.CONFIG_NAME, Arrays.asList(
+                new Property.Builder(Server.Settings.PORT, port).build(),
+                new Property.Builder(Server.Settings.KEY_STORE_FILE, "./data/metacfg4j.keystore").build(),
+                new Property.Builder(Server.Settings.ALIAS, "alias").build(),
+                new Property.Builder(Server.Settings.STORE_PASSWORD, "password").build(),
+                new Property.Builder(Server.Settings.KEY_PASSWORD, "password").build())).build();
+    }
+
+    private Config getClientConfig(final Property... properties) {
+        final Collection<Property> clientProperties = new ArrayList<>(Arrays.asList(properties));
+        clientProperties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        return new Config.Builder(CONFIG_NAME, clientProperties).build();
+    }
+
+    private Config getRequest(final String url) {
+        return new Config.Builder(CONFIG_NAME, Arrays.asList(
+                new Property.Builder(URL, url).build(),
+                new Property.Builder(METHOD, GET).build())).build();
+    }
+
+    private JsonObject getStats(final JsonObject stats, final String url) {
+        return (JsonObject) stats.get(url);
+    }
+
+    private long getStat(final JsonObject stats, final String url, final String name) {
+        final Object value = getStats(stats, url).get(name);
+        return value instanceof BigDecimal ? ((BigDecimal) value).longValue() : ((Number) value).longValue();
+    }
+}
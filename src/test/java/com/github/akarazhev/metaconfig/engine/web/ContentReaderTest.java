@@ -0,0 +1,77 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.GZIP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Content reader test")
+final class ContentReaderTest extends UnitTest {
+
+    @Test
+    @DisplayName("Content reader constructor")
+    void contentReaderConstructor() throws Exception {
+        assertPrivate(ContentReader.class);
+    }
+
+    @Test
+    @DisplayName("Read a content with new lines")
+    void readContentWithNewLines() throws Exception {
+        final String content = "{\n  \"name\": \"значение\"\n}\n";
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        // Check test results
+        assertEquals(content, ContentReader.read(new ByteArrayInputStream(bytes), bytes.length, null));
+        assertEquals(content, ContentReader.read(new ByteArrayInputStream(bytes), -1, null));
+    }
+
+    @Test
+    @DisplayName("Read a large content")
+    void readLargeContent() throws Exception {
+        final String content = getContent(100_000);
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        // Check test results
+        assertEquals(content, ContentReader.read(new ByteArrayInputStream(bytes), bytes.length, null));
+        assertEquals(content, ContentReader.read(new ByteArrayInputStream(bytes), -1, null));
+        // A wrong length does not lose a content
+        assertEquals(content, ContentReader.read(new ByteArrayInputStream(bytes), 10, null));
+    }
+
+    @Test
+    @DisplayName("Read a compressed content")
+    void readCompressedContent() throws Exception {
+        final String content = getContent(50_000);
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (final GZIPOutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        // Check test results
+        assertEquals(content, ContentReader.read(new ByteArrayInputStream(compressed.toByteArray()),
+                compressed.size(), GZIP));
+    }
+
+    private String getContent(final int size) {
+        final StringBuilder content = new StringBuilder(size);
+        for (int i = 0; content.length() < size; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+
+        return content.toString();
+    }
+}
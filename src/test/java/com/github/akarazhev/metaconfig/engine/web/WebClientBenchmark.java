@@ -0,0 +1,92 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.Property;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The benchmark is not run by the default build: mvn test -Dtest=WebClientBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Web client benchmark")
+final class WebClientBenchmark extends UnitTest {
+    private static final int WARMUP = 100;
+    private static final int REQUESTS = 1000;
+    private static final Config REQUEST = new Config.Builder(CONFIG_NAME, Arrays.asList(
+            new Property.Builder(ACCEPT_ALL_HOSTS, true).build(),
+            new Property.Builder(URL, "https://localhost:8000/api/metacfg/" + CONFIG_NAMES_VALUE).build(),
+            new Property.Builder(METHOD, GET).build())).build();
+    private static WebServer webServer;
+
+    @BeforeAll
+    static void beforeAll() throws Exception {
+        webServer = WebServers.newTestServer().start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        webServer.stop();
+        webServer = null;
+    }
+
+    @Test
+    @DisplayName("Fetch sequentially by new clients")
+    void fetchByNewClients() {
+        fetch("new clients", request -> new WebClient.Builder(request).build().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Fetch sequentially by the pooled client")
+    void fetchByPooledClient() {
+        try (final PooledWebClient client = new PooledWebClient.Builder(REQUEST).build()) {
+            fetch("pooled client", request -> client.send(request).getStatusCode());
+        }
+    }
+
+    private void fetch(final String name, final ToIntFunction<Config> client) {
+        for (int i = 0; i < WARMUP; i++) {
+            client.applyAsInt(REQUEST);
+        }
+
+        final long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            final long start = System.nanoTime();
+            // Check test results
+            assertEquals(HTTP_OK, client.applyAsInt(REQUEST));
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("Client: %s, requests: %d, p50: %d us, p99: %d us%n", name, REQUESTS,
+                TimeUnit.NANOSECONDS.toMicros(latencies[REQUESTS / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) (REQUESTS * 0.99)]));
+    }
+}
@@ -11,9 +11,12 @@
 package com.github.akarazhev.metaconfig.engine.web;
 
 import com.github.akarazhev.metaconfig.UnitTest;
+import com.github.akarazhev.metaconfig.api.ChangeEvent;
 import com.github.akarazhev.metaconfig.api.Config;
 import com.github.akarazhev.metaconfig.api.Property;
+import com.github.akarazhev.metaconfig.extension.Metrics;
 import com.github.akarazhev.metaconfig.extension.WebUtils;
+import com.github.cliftonlabs.json_simple.JsonArray;
 import com.github.cliftonlabs.json_simple.JsonException;
 import com.github.cliftonlabs.json_simple.JsonObject;
 import com.github.cliftonlabs.json_simple.Jsoner;
@@ -22,21 +25,50 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import javax.net.ssl.HttpsURLConnection;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.ACCEPT_CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.ADMISSION_STATS_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CACHE_STATS_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_NAMES_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_QUERY_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.METRICS_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.SLOW_STATEMENTS_VALUE;
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.WATCH_VALUE;
 import static com.github.akarazhev.metaconfig.Constants.Messages.JSON_TO_CONFIG_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.JSON_TO_QUERY_ERROR;
 import static com.github.akarazhev.metaconfig.Constants.Messages.METHOD_NOT_ALLOWED;
 import static com.github.akarazhev.metaconfig.Constants.Messages.REQUEST_PARAM_NOT_PRESENT;
 import static com.github.akarazhev.metaconfig.Constants.Messages.STRING_TO_JSON_ERROR;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_HTTP_RESPONSE;
+import static com.github.akarazhev.metaconfig.Constants.Messages.WRONG_WATCH_PARAM;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ACCEPT_ENCODING;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.APPLICATION_JSON;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.ETAG;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.GZIP;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.REQUEST_TIMEOUT;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.RETRY_AFTER;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Header.TEXT_PLAIN;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.DELETE;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
 import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.POST;
@@ -46,15 +78,24 @@ import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCE
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONFIG_NAME;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.CONTENT_TYPE;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.IF_NONE_MATCH;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.READ_TIMEOUT;
 import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
 import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.ERROR;
 import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.RESULT;
 import static com.github.akarazhev.metaconfig.engine.web.server.OperationResponse.Fields.SUCCESS;
+import static com.github.akarazhev.metaconfig.extension.Metrics.HTTP_REQUEST_DURATION;
 import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("Web servers test")
 final class WebServersTest extends UnitTest {
@@ -170,6 +211,149 @@ final class WebServersTest extends UnitTest {
         assertEquals(true, client.getJsonContent().get(SUCCESS));
     }
 
+    @Test
+    @DisplayName("Get config names not modified")
+    void getConfigNamesNotModified() throws Exception {
+        final Collection<Property> properties = new ArrayList<>(4);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_NAMES_VALUE).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+        final String eTag = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build().
+                getETag();
+        properties.add(new Property.Builder(IF_NONE_MATCH, eTag).build());
+
+        final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        // Check test results
+        assertNotNull(eTag);
+        assertEquals(HTTP_NOT_MODIFIED, client.getStatusCode());
+        assertEquals(eTag, client.getETag());
+    }
+
+    @Test
+    @DisplayName("Get config names by the pooled client")
+    void getConfigNamesByPooledClient() throws Exception {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_NAMES_VALUE).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+        final Config config = new Config.Builder(CONFIG_NAME, properties).build();
+        try (final PooledWebClient client = new PooledWebClient.Builder(config).build()) {
+            final PooledWebClient.Response response = client.send(config);
+            // Check test results
+            assertEquals(HTTP_OK, response.getStatusCode());
+            assertEquals(true, response.getJsonContent().get(SUCCESS));
+            properties.add(new Property.Builder(IF_NONE_MATCH, response.getETag()).build());
+            assertEquals(HTTP_NOT_MODIFIED,
+                    client.send(new Config.Builder(CONFIG_NAME, properties).build()).getStatusCode());
+            // The connection is reused by requests
+            assertEquals(1, client.getIdleConnections());
+        }
+    }
+
+    @Test
+    @DisplayName("Send requests by the pooled client")
+    void sendRequestsByPooledClient() throws Exception {
+        final Collection<Property> props = new ArrayList<>(6);
+        props.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        props.add(new Property.Builder(URL, API_URL + "/" + CONFIG_VALUE).build());
+        props.add(new Property.Builder(METHOD, PUT).build());
+        props.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
+        props.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
+        props.add(new Property.Builder(CONTENT, Jsoner.serialize(new Config[]{getLargeConfig()})).build());
+        final Config config = new Config.Builder(CONFIG_NAME, props).build();
+        try (final PooledWebClient client = new PooledWebClient.Builder(config).build()) {
+            // Check test results
+            assertEquals(true, client.send(config).getJsonContent().get(SUCCESS));
+            final Collection<Property> properties = new ArrayList<>(3);
+            properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_VALUE + "?names=" +
+                    new String(Base64.getEncoder().encode(("[\"" + NEW_CONFIG + "\"]").getBytes()),
+                            StandardCharsets.UTF_8)).build());
+            properties.add(new Property.Builder(METHOD, GET).build());
+            // A compressed and chunked response
+            final PooledWebClient.Response response =
+                    client.send(new Config.Builder(CONFIG_NAME, properties).build());
+            assertEquals(HTTP_OK, response.getStatusCode());
+            assertEquals(NEW_CONFIG, ((JsonObject) ((JsonArray) response.getJsonContent().get(RESULT)).get(0)).
+                    get("name"));
+            // An error response
+            final Config request = new Config.Builder(CONFIG_NAME, Arrays.asList(
+                    new Property.Builder(URL, API_URL + "/" + CONFIG_NAMES_VALUE).build(),
+                    new Property.Builder(METHOD, POST).build())).build();
+            assertEquals(HTTP_BAD_METHOD, client.send(request).getStatusCode());
+            assertEquals(1, client.getIdleConnections());
+        }
+    }
+
+    @Test
+    @DisplayName("Send requests asynchronously by the pooled client")
+    void sendRequestsAsyncByPooledClient() throws Exception {
+        final long sequence = ((BigDecimal) watch("").get("sequence")).longValue();
+        final Config config = new Config.Builder(CONFIG_NAME, Arrays.asList(
+                new Property.Builder(ACCEPT_ALL_HOSTS, true).build(),
+                new Property.Builder(READ_TIMEOUT, 1000).build())).build();
+        try (final PooledWebClient client = new PooledWebClient.Builder(config).build()) {
+            final CompletableFuture<PooledWebClient.Response> names =
+                    client.sendAsync(new Config.Builder(CONFIG_NAME, Arrays.asList(
+                            new Property.Builder(URL, API_URL + "/" + CONFIG_NAMES_VALUE).build(),
+                            new Property.Builder(METHOD, GET).build())).build());
+            // The watch request is held by the server longer than the read timeout
+            final CompletableFuture<PooledWebClient.Response> watch =
+                    client.sendAsync(new Config.Builder(CONFIG_NAME, Arrays.asList(
+                            new Property.Builder(URL, API_URL + "/" + WATCH_VALUE + "?since=" + sequence +
+                                    "&timeout=5000").build(),
+                            new Property.Builder(METHOD, GET).build())).build());
+            // Check test results
+            assertEquals(HTTP_OK, names.get(10, TimeUnit.SECONDS).getStatusCode());
+            final ExecutionException exception =
+                    assertThrows(ExecutionException.class, () -> watch.get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause().getCause() instanceof SocketTimeoutException);
+        }
+    }
+
+    @Test
+    @DisplayName("Read malformed lengths by the pooled client")
+    void readMalformedLengthsByPooledClient() throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        try (final ServerSocket serverSocket = serve(requests,
+                "HTTP/1.1 200 OK\r\nContent-Length: 1O\r\n\r\n",
+                "HTTP/1.1 200 OK\r\nContent-Length: -1\r\n\r\n",
+                "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\nzz\r\n");
+             final PooledWebClient client = new PooledWebClient.Builder(
+                     new Config.Builder(CONFIG_NAME, Collections.emptyList()).build()).build()) {
+            final Config request = new Config.Builder(CONFIG_NAME, Arrays.asList(
+                    new Property.Builder(URL, "http://localhost:" + serverSocket.getLocalPort() + "/").build(),
+                    new Property.Builder(METHOD, GET).build())).build();
+            // Check test results
+            for (final String value : new String[]{"1O", "-1", "zz"}) {
+                final RuntimeException exception = assertThrows(RuntimeException.class, () -> client.send(request));
+                assertTrue(exception.getCause() instanceof IOException);
+                assertEquals(String.format(WRONG_HTTP_RESPONSE, value), exception.getCause().getMessage());
+            }
+
+            assertEquals(3, requests.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Do not send a timed out request again by the pooled client")
+    void timedOutRequestByPooledClient() throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        try (final ServerSocket serverSocket = serve(requests, "HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n");
+             final PooledWebClient client = new PooledWebClient.Builder(
+                     new Config.Builder(CONFIG_NAME, Collections.emptyList()).build()).build()) {
+            final Config request = new Config.Builder(CONFIG_NAME, Arrays.asList(
+                    new Property.Builder(URL, "http://localhost:" + serverSocket.getLocalPort() + "/").build(),
+                    new Property.Builder(METHOD, PUT).build(),
+                    new Property.Builder(READ_TIMEOUT, 200).build())).build();
+            // Check test results
+            assertEquals(HTTP_OK, client.send(request).getStatusCode());
+            // The second request is written by the reused connection, but it is not answered
+            final RuntimeException exception = assertThrows(RuntimeException.class, () -> client.send(request));
+            assertTrue(exception.getCause() instanceof SocketTimeoutException);
+            assertEquals(2, requests.get());
+        }
+    }
+
     @Test
     @DisplayName("Get config names with a wrong method")
     void getConfigNamesWrongMethod() throws Exception {
@@ -188,6 +372,52 @@ final class WebServersTest extends UnitTest {
         assertEquals(METHOD_NOT_ALLOWED, jsonContent.get(ERROR));
     }
 
+    @Test
+    @DisplayName("Get config names with an exceeded deadline")
+    void getConfigNamesWithExceededDeadline() throws Exception {
+        final HttpsURLConnection connection =
+                (HttpsURLConnection) new java.net.URL(API_URL + "/" + CONFIG_NAMES_VALUE).openConnection();
+        connection.setRequestProperty(REQUEST_TIMEOUT, "0");
+        // Check test results
+        assertEquals(HTTP_UNAVAILABLE, connection.getResponseCode());
+        assertNotNull(connection.getHeaderField(RETRY_AFTER));
+        final JsonObject stats = getStats(ADMISSION_STATS_VALUE);
+        assertTrue(((BigDecimal) ((JsonObject) stats.get(CONFIG_NAMES_VALUE)).get("expired")).longValue() > 0);
+    }
+
+    @Test
+    @DisplayName("Get config names with a wrong timeout")
+    void getConfigNamesWithWrongTimeout() throws Exception {
+        final HttpsURLConnection connection =
+                (HttpsURLConnection) new java.net.URL(API_URL + "/" + CONFIG_NAMES_VALUE).openConnection();
+        connection.setRequestProperty(REQUEST_TIMEOUT, "-1");
+        // Check test results
+        assertEquals(HTTP_BAD_REQUEST, connection.getResponseCode());
+    }
+
+    @Test
+    @DisplayName("Get metrics")
+    void getMetrics() throws Exception {
+        getCacheStats();
+        final HttpsURLConnection connection =
+                (HttpsURLConnection) new java.net.URL(API_URL + "/" + METRICS_VALUE).openConnection();
+        // Check test results
+        assertEquals(HTTP_OK, connection.getResponseCode());
+        assertEquals(TEXT_PLAIN, connection.getContentType());
+        final StringBuilder metrics = new StringBuilder();
+        try (final Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            final char[] buffer = new char[1024];
+            for (int count = reader.read(buffer); count >= 0; count = reader.read(buffer)) {
+                metrics.append(buffer, 0, count);
+            }
+        }
+
+        assertTrue(metrics.toString().contains("# TYPE metacfg_http_requests_total counter\n"));
+        assertTrue(metrics.toString().contains("metacfg_http_requests_total{endpoint=\"/api/metacfg/" +
+                CACHE_STATS_VALUE + "\",method=\"GET\",status=\"200\"}"));
+        assertTrue(metrics.toString().contains("metacfg_http_request_duration_seconds_count"));
+    }
+
     @Test
     @DisplayName("Get configs")
     void getConfigs() throws Exception {
@@ -204,6 +434,30 @@ final class WebServersTest extends UnitTest {
         assertEquals(true, client.getJsonContent().get(SUCCESS));
     }
 
+    @Test
+    @DisplayName("Get configs streamed")
+    void getConfigsStreamed() throws Exception {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_VALUE).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+        // Set the default ssl socket factory
+        final int count = ((JsonArray) new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).
+                build().getJsonContent().get(RESULT)).size();
+
+        final HttpsURLConnection connection =
+                (HttpsURLConnection) new java.net.URL(API_URL + "/" + CONFIG_VALUE).openConnection();
+        // Check test results
+        assertEquals(HTTP_OK, connection.getResponseCode());
+        assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+        assertNotNull(connection.getHeaderField(ETAG));
+        try (final Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            final JsonObject jsonContent = (JsonObject) Jsoner.deserialize(reader);
+            assertEquals(true, jsonContent.get(SUCCESS));
+            assertEquals(count, ((JsonArray) jsonContent.get(RESULT)).size());
+        }
+    }
+
     @Test
     @DisplayName("Get configs by names")
     void getConfigsByNames() throws Exception {
@@ -222,6 +476,126 @@ final class WebServersTest extends UnitTest {
         assertEquals(true, client.getJsonContent().get(SUCCESS));
     }
 
+    @Test
+    @DisplayName("Get configs by names not modified")
+    void getConfigsByNamesNotModified() throws Exception {
+        final Collection<Property> properties = new ArrayList<>(4);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_VALUE + "?names=" +
+                new String(Base64.getEncoder().encode("[\"name_1\", \"name_2\"]".getBytes()),
+                        StandardCharsets.UTF_8)).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+        final String eTag = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build().
+                getETag();
+        properties.add(new Property.Builder(IF_NONE_MATCH, "\"other\", W/" + eTag).build());
+
+        final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        // Check test results
+        assertNotNull(eTag);
+        assertEquals(HTTP_NOT_MODIFIED, client.getStatusCode());
+        assertEquals(eTag, client.getETag());
+    }
+
+    @Test
+    @DisplayName("Get configs by names cached")
+    void getConfigsByNamesCached() throws Exception {
+        final Config config = new Config.Builder("Cached Config",
+                Collections.singletonList(new Property.Builder("Property", "Value").build())).build();
+        final JsonObject created = (JsonObject) ((JsonArray) updateConfigs(config).get(RESULT)).get(0);
+        final long hits = ((BigDecimal) getCacheStats().get("hits")).longValue();
+        final JsonArray configs = getConfigs("[\"Cached Config\"]");
+        // Check test results
+        assertEquals(configs, getConfigs("[\"Cached Config\"]"));
+        assertEquals(hits + 1, ((BigDecimal) getCacheStats().get("hits")).longValue());
+        updateConfigs(new Config.Builder(new Config.Builder(created).build()).description("Updated").build());
+        assertEquals("Updated", ((JsonObject) getConfigs("[\"Cached Config\"]").get(0)).get("description"));
+    }
+
+    @Test
+    @DisplayName("Query configs by names")
+    void queryConfigsByNames() throws Exception {
+        final Config config = new Config.Builder("Queried Config",
+                Collections.singletonList(new Property.Builder("Property", "Value").build())).build();
+        updateConfigs(config);
+        final WebClient client = queryConfigs("{\"names\":[\"Queried Config\",\"name_1\",\"Queried Config\"]}");
+        // Test status code
+        assertEquals(HTTP_OK, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(true, jsonContent.get(SUCCESS));
+        final JsonArray configs = (JsonArray) jsonContent.get(RESULT);
+        assertEquals(1, configs.size());
+        assertEquals(configs, getConfigs("[\"Queried Config\"]"));
+    }
+
+    @Test
+    @DisplayName("Query config versions by a page")
+    void queryConfigVersionsByPage() throws Exception {
+        final Config config = new Config.Builder("Paged Config", Collections.emptyList()).build();
+        updateConfigs(config);
+        final WebClient client = queryConfigs("{\"names\":[\"Paged Config\",\"Cached Config\",\"Queried Config\"]," +
+                "\"projection\":\"versions\",\"page\":1,\"size\":1}");
+        // Test status code
+        assertEquals(HTTP_OK, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(true, jsonContent.get(SUCCESS));
+        final JsonArray configs = (JsonArray) jsonContent.get(RESULT);
+        assertEquals(1, configs.size());
+        assertEquals("Paged Config", ((JsonObject) configs.get(0)).get("name"));
+    }
+
+    @Test
+    @DisplayName("Query configs not in the json format")
+    void queryConfigsNotJsonFormat() throws Exception {
+        // Check test results
+        for (final String query : Arrays.asList("[name_1]", "{\"names\":[\"name_1\"],\"projection\":\"all\"}",
+                "{\"names\":[\"name_1\"],\"size\":-1}", "{\"projection\":\"configs\"}")) {
+            final WebClient client = queryConfigs(query);
+            assertEquals(HTTP_BAD_REQUEST, client.getStatusCode());
+            final JsonObject jsonContent = client.getJsonContent();
+            assertEquals(false, jsonContent.get(SUCCESS));
+            assertEquals(JSON_TO_QUERY_ERROR, jsonContent.get(ERROR));
+        }
+    }
+
+    @Test
+    @DisplayName("Query configs with a wrong method")
+    void queryConfigsWrongMethod() throws Exception {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_QUERY_VALUE).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+
+        final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        // Test status code
+        assertEquals(HTTP_BAD_METHOD, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(false, jsonContent.get(SUCCESS));
+        assertEquals(METHOD_NOT_ALLOWED, jsonContent.get(ERROR));
+    }
+
+    @Test
+    @DisplayName("Get cache stats")
+    void getCacheStatsWithMethod() throws Exception {
+        final JsonObject stats = getCacheStats();
+        // Check test results
+        assertNotNull(stats.get("entries"));
+        assertNotNull(stats.get("bytes"));
+        assertNotNull(stats.get("misses"));
+        assertNotNull(stats.get("evictions"));
+        assertNotNull(stats.get("invalidations"));
+    }
+
+    @Test
+    @DisplayName("Get slow statements")
+    void getSlowStatements() throws Exception {
+        final JsonObject stats = getStats(SLOW_STATEMENTS_VALUE);
+        // Check test results
+        assertNotNull(stats.get("statements"));
+    }
+
     @Test
     @DisplayName("Get configs by names not encoded")
     void getConfigsByNamesNotEncoded() throws JsonException {
@@ -304,6 +678,43 @@ final class WebServersTest extends UnitTest {
         assertEquals(true, jsonObject.get(SUCCESS));
     }
 
+    @Test
+    @DisplayName("Get a large config compressed")
+    void getLargeConfigCompressed() throws Exception {
+        final Collection<Property> props = new ArrayList<>(6);
+        props.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        props.add(new Property.Builder(URL, API_URL + "/" + CONFIG_VALUE).build());
+        props.add(new Property.Builder(METHOD, PUT).build());
+        props.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
+        props.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
+        props.add(new Property.Builder(CONTENT, Jsoner.serialize(new Config[]{getLargeConfig()})).build());
+        // The client decompresses the response
+        final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, props).build()).build();
+        assertEquals(HTTP_OK, client.getStatusCode());
+        assertEquals(true, client.getJsonContent().get(SUCCESS));
+
+        final java.net.URL url = new java.net.URL(API_URL + "/" + CONFIG_VALUE + "?names=" +
+                new String(Base64.getEncoder().encode(("[\"" + NEW_CONFIG + "\"]").getBytes()),
+                        StandardCharsets.UTF_8));
+        HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
+        connection.setRequestProperty(ACCEPT_ENCODING, "deflate;q=0.5, gzip");
+        // Check test results
+        assertEquals(HTTP_OK, connection.getResponseCode());
+        assertEquals(GZIP, connection.getContentEncoding());
+        try (final Reader reader = new InputStreamReader(new GZIPInputStream(connection.getInputStream()),
+                StandardCharsets.UTF_8)) {
+            assertEquals(true, ((JsonObject) Jsoner.deserialize(reader)).get(SUCCESS));
+        }
+
+        connection = (HttpsURLConnection) url.openConnection();
+        connection.setRequestProperty(ACCEPT_ENCODING, "gzip;q=0");
+        assertEquals(HTTP_OK, connection.getResponseCode());
+        assertNull(connection.getContentEncoding());
+        try (final Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            assertEquals(true, ((JsonObject) Jsoner.deserialize(reader)).get(SUCCESS));
+        }
+    }
+
     @Test
     @DisplayName("Update a config not in the json format")
     void updateConfigNotJsonFormat() throws Exception {
@@ -386,4 +797,182 @@ final class WebServersTest extends UnitTest {
         assertEquals(false, jsonContent.get(SUCCESS));
         assertEquals(STRING_TO_JSON_ERROR, jsonContent.get(ERROR));
     }
+
+    @Test
+    @DisplayName("Watch configs")
+    void watchConfigs() throws Exception {
+        final JsonObject result = watch("");
+        // Check test results
+        assertTrue(((BigDecimal) result.get("sequence")).longValue() > 0);
+        assertEquals(0, ((JsonArray) result.get("events")).size());
+    }
+
+    @Test
+    @DisplayName("Watch configs with a timeout")
+    void watchConfigsWithTimeout() throws Exception {
+        final long sequence = ((BigDecimal) watch("").get("sequence")).longValue();
+        final JsonObject result = watch("?since=" + sequence + "&timeout=100");
+        // Check test results
+        assertEquals(sequence, ((BigDecimal) result.get("sequence")).longValue());
+        assertEquals(0, ((JsonArray) result.get("events")).size());
+    }
+
+    @Test
+    @DisplayName("Watch configs with an exceeded deadline")
+    void watchConfigsWithExceededDeadline() throws Exception {
+        final Metrics.Histogram duration = Metrics.getInstance().histogram(HTTP_REQUEST_DURATION, "endpoint",
+                new java.net.URL(API_URL + "/" + WATCH_VALUE).getPath());
+        final long count = duration.getCount();
+        final HttpsURLConnection connection =
+                (HttpsURLConnection) new java.net.URL(API_URL + "/" + WATCH_VALUE).openConnection();
+        connection.setRequestProperty(REQUEST_TIMEOUT, "0");
+        // Check test results
+        assertEquals(HTTP_UNAVAILABLE, connection.getResponseCode());
+        final JsonObject stats = getStats(ADMISSION_STATS_VALUE);
+        assertTrue(((BigDecimal) ((JsonObject) stats.get(WATCH_VALUE)).get("expired")).longValue() > 0);
+        // The request is recorded after the exchange is closed
+        for (int i = 0; i < 50 && duration.getCount() == count; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(count + 1, duration.getCount());
+    }
+
+    @Test
+    @DisplayName("Watch configs with a lost sequence")
+    void watchConfigsWithLostSequence() throws Exception {
+        final JsonArray events = (JsonArray) watch("?since=1&timeout=100").get("events");
+        // Check test results
+        assertEquals(1, events.size());
+        assertEquals(ChangeEvent.Operation.RESET,
+                new ChangeEvent.Builder((JsonObject) events.get(0)).build().getOperation());
+    }
+
+    @Test
+    @DisplayName("Watch configs with a wrong param")
+    void watchConfigsWithWrongParam() throws Exception {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + WATCH_VALUE + "?since=wrong").build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+
+        final Config config = new Config.Builder(CONFIG_NAME, properties).build();
+        final WebClient client = new WebClient.Builder(config).build();
+        // Test status code
+        assertEquals(HTTP_BAD_REQUEST, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(false, jsonContent.get(SUCCESS));
+        assertEquals(WRONG_WATCH_PARAM, jsonContent.get(ERROR));
+    }
+
+    private JsonObject updateConfigs(final Config... configs) throws JsonException {
+        final Collection<Property> properties = new ArrayList<>(6);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_VALUE).build());
+        properties.add(new Property.Builder(METHOD, PUT).build());
+        properties.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT, Jsoner.serialize(configs)).build());
+
+        final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        // Test status code
+        assertEquals(HTTP_OK, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(true, jsonContent.get(SUCCESS));
+        return jsonContent;
+    }
+
+    private JsonArray getConfigs(final String names) throws JsonException {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_VALUE + "?names=" +
+                new String(Base64.getEncoder().encode(names.getBytes()), StandardCharsets.UTF_8)).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+
+        final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        // Test status code
+        assertEquals(HTTP_OK, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(true, jsonContent.get(SUCCESS));
+        return (JsonArray) jsonContent.get(RESULT);
+    }
+
+    private WebClient queryConfigs(final String query) throws Exception {
+        final Collection<Property> properties = new ArrayList<>(6);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + CONFIG_QUERY_VALUE).build());
+        properties.add(new Property.Builder(METHOD, POST).build());
+        properties.add(new Property.Builder(ACCEPT, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT_TYPE, APPLICATION_JSON).build());
+        properties.add(new Property.Builder(CONTENT, query).build());
+        return new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+    }
+
+    private JsonObject getCacheStats() throws JsonException {
+        return getStats(CACHE_STATS_VALUE);
+    }
+
+    private JsonObject getStats(final String endpoint) throws JsonException {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + endpoint).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+
+        final WebClient client = new WebClient.Builder(new Config.Builder(CONFIG_NAME, properties).build()).build();
+        // Test status code
+        assertEquals(HTTP_OK, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(true, jsonContent.get(SUCCESS));
+        return (JsonObject) Jsoner.deserialize((String) jsonContent.get(RESULT));
+    }
+
+    private JsonObject watch(final String params) throws JsonException {
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, API_URL + "/" + WATCH_VALUE + params).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+
+        final Config config = new Config.Builder(CONFIG_NAME, properties).build();
+        final WebClient client = new WebClient.Builder(config).build();
+        // Test status code
+        assertEquals(HTTP_OK, client.getStatusCode());
+        // Get the response
+        final JsonObject jsonContent = client.getJsonContent();
+        assertEquals(true, jsonContent.get(SUCCESS));
+        return (JsonObject) Jsoner.deserialize((String) jsonContent.get(RESULT));
+    }
+
+    private static ServerSocket serve(final AtomicInteger requests, final String... responses) throws IOException {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final Thread thread = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try (final Socket socket = serverSocket.accept()) {
+                    final BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        // Skip headers of a request, it does not have a content
+                        while (line != null && !line.isEmpty()) {
+                            line = reader.readLine();
+                        }
+
+                        final int index = requests.getAndIncrement();
+                        if (index < responses.length) {
+                            socket.getOutputStream().write(responses[index].getBytes(StandardCharsets.US_ASCII));
+                            socket.getOutputStream().flush();
+                        }
+                    }
+                } catch (final IOException e) {
+                    // The server socket is closed
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return serverSocket;
+    }
 }
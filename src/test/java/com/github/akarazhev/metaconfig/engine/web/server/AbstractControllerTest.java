@@ -10,10 +10,13 @@
  * limitations under the License. */
 package com.github.akarazhev.metaconfig.engine.web.server;
 
+import com.github.akarazhev.metaconfig.api.ChangeEvent;
 import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.ConfigPatch;
 import com.github.akarazhev.metaconfig.api.ConfigService;
 import com.github.akarazhev.metaconfig.api.PageRequest;
 import com.github.akarazhev.metaconfig.api.PageResponse;
+import com.github.akarazhev.metaconfig.api.Subscription;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
@@ -26,7 +29,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -44,6 +49,22 @@ final class AbstractControllerTest {
             return null;
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public CompletableFuture<Stream<Config>> updateAsync(final Stream<Config> stream) {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int patch(final String name, final int version, final ConfigPatch patch) {
+            return 0;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -76,6 +97,46 @@ final class AbstractControllerTest {
             return null;
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public CompletableFuture<Stream<Config>> getAsync(final Stream<String> stream) {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forEach(final Consumer<Config> consumer) {
+            // Empty implementation
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Stream<Config> getVersions() {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Stream<Config> getVersions(final Stream<String> stream) {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Stream<ChangeEvent> getChanges(final long sequence, final int size) {
+            return null;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -99,6 +160,30 @@ final class AbstractControllerTest {
         public void addConsumer(final Consumer<Config> consumer) {
             // Empty implementation
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Subscription subscribe(final Predicate<Config> filter, final Consumer<Config> consumer) {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Subscription subscribe(final Stream<String> stream, final Consumer<Config> consumer) {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Subscription watch(final Consumer<ChangeEvent> consumer) {
+            return null;
+        }
     }).build();
 
     @Test
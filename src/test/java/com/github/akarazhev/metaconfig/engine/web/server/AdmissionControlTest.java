@@ -0,0 +1,132 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.akarazhev.metaconfig.Constants.Messages.REQUEST_DEADLINE_EXCEEDED;
+import static com.github.akarazhev.metaconfig.Constants.Messages.SERVICE_UNAVAILABLE;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Admission control test")
+final class AdmissionControlTest {
+
+    @Test
+    @DisplayName("Admit requests")
+    void admitRequests() throws Exception {
+        final AdmissionControl admissionControl = new AdmissionControl.Builder(2).build();
+        admissionControl.acquire(0);
+        admissionControl.acquire(Clock.systemDefaultZone().millis() + 60_000);
+        // Check test results
+        assertEquals(2, getStat(admissionControl, "in_flight"));
+        assertEquals(2, getStat(admissionControl, "admitted"));
+        admissionControl.release();
+        admissionControl.release();
+        assertEquals(0, getStat(admissionControl, "in_flight"));
+    }
+
+    @Test
+    @DisplayName("Shed a request over the limit")
+    void shedRequest() throws Exception {
+        final AdmissionControl admissionControl = new AdmissionControl.Builder(1).build();
+        admissionControl.acquire(0);
+        final ServiceUnavailableException exception =
+                assertThrows(ServiceUnavailableException.class, () -> admissionControl.acquire(0));
+        // Check test results
+        assertEquals(HTTP_UNAVAILABLE, exception.getCode());
+        assertEquals(SERVICE_UNAVAILABLE, exception.getMessage());
+        assertEquals(1, getStat(admissionControl, "shed"));
+        admissionControl.release();
+    }
+
+    @Test
+    @DisplayName("Admit a queued request")
+    void admitQueuedRequest() throws Exception {
+        final AdmissionControl admissionControl = new AdmissionControl.Builder(1).queue(1, 5000).build();
+        admissionControl.acquire(0);
+        final CountDownLatch admitted = new CountDownLatch(1);
+        final AtomicBoolean isShed = new AtomicBoolean();
+        final Thread thread = new Thread(() -> {
+            try {
+                admissionControl.acquire(0);
+                admitted.countDown();
+            } catch (final ServiceUnavailableException e) {
+                isShed.set(true);
+            }
+        });
+        thread.start();
+        while (getStat(admissionControl, "queued") == 0) {
+            Thread.sleep(10);
+        }
+        // The queue is full
+        assertThrows(ServiceUnavailableException.class, () -> admissionControl.acquire(0));
+        admissionControl.release();
+        // Check test results
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        assertEquals(false, isShed.get());
+        assertEquals(1, getStat(admissionControl, "max_queued"));
+        assertEquals(2, getStat(admissionControl, "admitted"));
+        assertEquals(1, getStat(admissionControl, "shed"));
+        admissionControl.release();
+        thread.join();
+    }
+
+    @Test
+    @DisplayName("Shed a queued request by the timeout")
+    void shedQueuedRequest() throws Exception {
+        final AdmissionControl admissionControl = new AdmissionControl.Builder(1).queue(1, 50).build();
+        admissionControl.acquire(0);
+        // Check test results
+        assertThrows(ServiceUnavailableException.class, () -> admissionControl.acquire(0));
+        assertEquals(1, getStat(admissionControl, "shed"));
+        assertEquals(0, getStat(admissionControl, "queued"));
+        admissionControl.release();
+    }
+
+    @Test
+    @DisplayName("Drop a request with the exceeded deadline")
+    void dropExpiredRequest() throws Exception {
+        final AdmissionControl admissionControl = new AdmissionControl.Builder(1).queue(1, 5000).build();
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> admissionControl.acquire(Clock.systemDefaultZone().millis() - 1));
+        // Check test results
+        assertEquals(REQUEST_DEADLINE_EXCEEDED, exception.getMessage());
+        admissionControl.acquire(0);
+        exception = assertThrows(ServiceUnavailableException.class,
+                () -> admissionControl.acquire(Clock.systemDefaultZone().millis() + 50));
+        assertEquals(REQUEST_DEADLINE_EXCEEDED, exception.getMessage());
+        assertEquals(2, getStat(admissionControl, "expired"));
+        assertEquals(0, getStat(admissionControl, "shed"));
+        admissionControl.release();
+    }
+
+    @Test
+    @DisplayName("Create an admission control with wrong params")
+    void createAdmissionControlWithWrongParams() {
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> new AdmissionControl.Builder(0));
+        assertThrows(IllegalStateException.class, () -> new AdmissionControl.Builder(1).queue(-1, 0));
+        assertThrows(IllegalStateException.class, () -> new AdmissionControl.Builder(1).queue(0, -1));
+    }
+
+    private long getStat(final AdmissionControl admissionControl, final String name) {
+        return ((Number) admissionControl.getStats().get(name)).longValue();
+    }
+}
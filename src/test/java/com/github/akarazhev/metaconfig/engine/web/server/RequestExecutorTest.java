@@ -0,0 +1,121 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Request executor test")
+final class RequestExecutorTest {
+
+    @Test
+    @DisplayName("Execute a request")
+    void executeRequest() throws Exception {
+        final RequestExecutor executor = new RequestExecutor.Builder(1).build();
+        final CountDownLatch executed = new CountDownLatch(1);
+        final AtomicBoolean isRejected = new AtomicBoolean(true);
+        executor.execute(() -> {
+            isRejected.set(RequestExecutor.isRejected());
+            executed.countDown();
+        });
+        // Check test results
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        assertFalse(isRejected.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Execute a request with the full queue")
+    void executeRequestWithFullQueue() throws Exception {
+        final RequestExecutor executor = new RequestExecutor.Builder(1).queueSize(1).build();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> {
+        });
+        final AtomicBoolean isRejected = new AtomicBoolean();
+        final Thread caller = Thread.currentThread();
+        final AtomicBoolean isCaller = new AtomicBoolean();
+        executor.execute(() -> {
+            isRejected.set(RequestExecutor.isRejected());
+            isCaller.set(Thread.currentThread() == caller);
+        });
+        release.countDown();
+        // Check test results
+        assertTrue(isRejected.get());
+        assertTrue(isCaller.get());
+        assertFalse(RequestExecutor.isRejected());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Stamp the arrival of a queued request")
+    void stampArrivalOfQueuedRequest() throws Exception {
+        final RequestExecutor executor = new RequestExecutor.Builder(1).build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch executed = new CountDownLatch(1);
+        final AtomicLong arrival = new AtomicLong();
+        executor.execute(() -> await(release));
+        final long before = Clock.systemDefaultZone().millis();
+        executor.execute(() -> {
+            arrival.set(RequestExecutor.getArrival());
+            executed.countDown();
+        });
+        final long after = Clock.systemDefaultZone().millis();
+        release.countDown();
+        // Check test results
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        assertTrue(arrival.get() >= before);
+        assertTrue(arrival.get() <= after);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Execute a request with virtual threads")
+    void executeRequestWithVirtualThreads() throws Exception {
+        final RequestExecutor executor = new RequestExecutor.Builder(1).virtualThreads(true).build();
+        final CountDownLatch executed = new CountDownLatch(1);
+        executor.execute(executed::countDown);
+        // Check test results
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Create a request executor with wrong params")
+    void createRequestExecutorWithWrongParams() {
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> new RequestExecutor.Builder(0));
+        assertThrows(IllegalStateException.class, () -> new RequestExecutor.Builder(1).queueSize(0));
+    }
+
+    private void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.api.ChangeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.RESET;
+import static com.github.akarazhev.metaconfig.api.ChangeEvent.Operation.UPDATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Response cache test")
+final class ResponseCacheTest {
+
+    @Test
+    @DisplayName("Get a cached response")
+    void getCachedResponse() {
+        final ResponseCache cache = new ResponseCache.Builder(10).build();
+        final ResponseCache.Entry entry = getEntry(10, "name");
+        cache.put("key", entry, cache.getGeneration());
+        // Check test results
+        assertEquals(entry, cache.get("key"));
+        assertNull(cache.get("other"));
+        assertEquals(1, getStat(cache, "entries"));
+        assertEquals(10, getStat(cache, "bytes"));
+        assertEquals(1, getStat(cache, "hits"));
+        assertEquals(1, getStat(cache, "misses"));
+    }
+
+    @Test
+    @DisplayName("Evict the least recently used response")
+    void evictResponse() {
+        final ResponseCache cache = new ResponseCache.Builder(2).maxBytes(25).build();
+        cache.put("key_1", getEntry(10, "name_1"), cache.getGeneration());
+        cache.put("key_2", getEntry(10, "name_2"), cache.getGeneration());
+        cache.get("key_1");
+        cache.put("key_3", getEntry(10, "name_3"), cache.getGeneration());
+        // Check test results
+        assertNotNull(cache.get("key_1"));
+        assertNull(cache.get("key_2"));
+        assertNotNull(cache.get("key_3"));
+        cache.put("key_4", getEntry(20, "name_4"), cache.getGeneration());
+        assertNull(cache.get("key_1"));
+        assertNull(cache.get("key_3"));
+        assertNotNull(cache.get("key_4"));
+        cache.put("key_5", getEntry(30, "name_5"), cache.getGeneration());
+        assertNull(cache.get("key_5"));
+        assertEquals(3, getStat(cache, "evictions"));
+    }
+
+    @Test
+    @DisplayName("Invalidate responses by names")
+    void invalidateResponses() {
+        final ResponseCache cache = new ResponseCache.Builder(10).build();
+        cache.put("key_1", getEntry(10, "name_1", "name_2"), cache.getGeneration());
+        cache.put("key_2", getEntry(10, "name_3"), cache.getGeneration());
+        cache.put("key_3", new ResponseCache.Entry(new byte[10], null, "\"tag\"", null), cache.getGeneration());
+        cache.invalidate(Stream.of("name_2"));
+        // Check test results
+        assertNull(cache.get("key_1"));
+        assertNotNull(cache.get("key_2"));
+        assertNull(cache.get("key_3"));
+        cache.invalidate(new ChangeEvent.Builder(UPDATE, "name_3").build());
+        assertNull(cache.get("key_2"));
+        assertEquals(3, getStat(cache, "invalidations"));
+        assertEquals(0, getStat(cache, "bytes"));
+    }
+
+    @Test
+    @DisplayName("Invalidate all responses")
+    void invalidateAllResponses() {
+        final ResponseCache cache = new ResponseCache.Builder(10).build();
+        cache.put("key_1", getEntry(10, "name_1"), cache.getGeneration());
+        cache.put("key_2", getEntry(10, "name_2"), cache.getGeneration());
+        cache.invalidate(new ChangeEvent.Builder(RESET, "name").build());
+        // Check test results
+        assertNull(cache.get("key_1"));
+        assertNull(cache.get("key_2"));
+        assertEquals(0, getStat(cache, "entries"));
+    }
+
+    @Test
+    @DisplayName("Expire an old response")
+    void expireResponse() throws Exception {
+        final ResponseCache cache = new ResponseCache.Builder(10).maxAge(50).build();
+        cache.put("key", getEntry(10, "name"), cache.getGeneration());
+        final ResponseCache.Entry entry = cache.get("key");
+        Thread.sleep(100);
+        // Check test results
+        assertNotNull(entry);
+        assertNull(cache.get("key"));
+        assertEquals(0, getStat(cache, "entries"));
+        assertEquals(0, getStat(cache, "bytes"));
+    }
+
+    @Test
+    @DisplayName("Remove a stale response")
+    void removeResponse() {
+        final ResponseCache cache = new ResponseCache.Builder(10).build();
+        final ResponseCache.Entry entry = getEntry(10, "name");
+        cache.put("key", entry, cache.getGeneration());
+        cache.remove("key", getEntry(10, "name"));
+        final ResponseCache.Entry cached = cache.get("key");
+        cache.remove("key", entry);
+        // Check test results
+        assertEquals(entry, cached);
+        assertNull(cache.get("key"));
+        assertEquals(1, getStat(cache, "invalidations"));
+        assertEquals(0, getStat(cache, "bytes"));
+    }
+
+    @Test
+    @DisplayName("Put a response read before invalidation")
+    void putStaleResponse() {
+        final ResponseCache cache = new ResponseCache.Builder(10).build();
+        final long generation = cache.getGeneration();
+        cache.invalidate(Stream.of("name"));
+        cache.put("key", getEntry(10, "name"), generation);
+        // Check test results
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    @DisplayName("Put a response to the disabled cache")
+    void putResponseToDisabledCache() {
+        final ResponseCache cache = new ResponseCache.Builder(0).build();
+        cache.put("key", getEntry(10, "name"), cache.getGeneration());
+        // Check test results
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get("key"));
+        assertEquals(0, getStat(cache, "entries"));
+    }
+
+    @Test
+    @DisplayName("Create a response cache with wrong params")
+    void createResponseCacheWithWrongParams() {
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> new ResponseCache.Builder(-1));
+        assertThrows(IllegalStateException.class, () -> new ResponseCache.Builder(1).maxBytes(-1));
+        assertThrows(IllegalStateException.class, () -> new ResponseCache.Builder(1).maxAge(-1));
+        assertThrows(NullPointerException.class, () -> new ResponseCache.Entry(null, null, "\"tag\"", null));
+    }
+
+    private long getStat(final ResponseCache cache, final String name) {
+        return ((Number) cache.getStats().get(name)).longValue();
+    }
+
+    private ResponseCache.Entry getEntry(final int size, final String... names) {
+        return new ResponseCache.Entry(new byte[size], null, "\"tag\"", names.length == 1 ?
+                Collections.singletonList(names[0]) : Arrays.asList(names));
+    }
+}
@@ -0,0 +1,126 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.engine.web.server;
+
+import com.github.akarazhev.metaconfig.UnitTest;
+import com.github.akarazhev.metaconfig.api.Config;
+import com.github.akarazhev.metaconfig.api.ConfigService;
+import com.github.akarazhev.metaconfig.api.Property;
+import com.github.akarazhev.metaconfig.engine.web.WebClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.github.akarazhev.metaconfig.Constants.Endpoints.CONFIG_VALUE;
+import static com.github.akarazhev.metaconfig.engine.web.Constants.Method.GET;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.ACCEPT_ALL_HOSTS;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.METHOD;
+import static com.github.akarazhev.metaconfig.engine.web.WebClient.Settings.URL;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The benchmark is not run by the default build: mvn test -Dtest=ServerBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Server benchmark")
+final class ServerBenchmark extends UnitTest {
+    private static final int PORT = 8010;
+    private static final int CLIENTS = 500;
+    private static final int REQUESTS = 10;
+    private static final long DELAY = 20;
+
+    @ParameterizedTest
+    @CsvSource({"4, false", "64, false", "4, true"})
+    @DisplayName("Get configs by concurrent clients")
+    void getConfigs(final int poolSize, final boolean isVirtual) throws Exception {
+        final Server server = new Server(new Config.Builder(Server.Settings.CONFIG_NAME, Arrays.asList(
+                new Property.Builder(Server.Settings.PORT, PORT).build(),
+                new Property.Builder(Server.Settings.BACKLOG, 1024).build(),
+                new Property.Builder(Server.Settings.THREAD_POOL_SIZE, poolSize).build(),
+                new Property.Builder(Server.Settings.VIRTUAL_THREADS, isVirtual).build(),
+                new Property.Builder(Server.Settings.KEY_STORE_FILE, "./data/metacfg4j.keystore").build(),
+                new Property.Builder(Server.Settings.ALIAS, "alias").build(),
+                new Property.Builder(Server.Settings.STORE_PASSWORD, "password").build(),
+                new Property.Builder(Server.Settings.KEY_PASSWORD, "password").build())).build(), getConfigService());
+        server.start();
+        final ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            final List<Long> latencies = Collections.synchronizedList(new ArrayList<>(CLIENTS * REQUESTS));
+            final AtomicInteger errors = new AtomicInteger();
+            final CountDownLatch finished = new CountDownLatch(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.execute(() -> {
+                    for (int j = 0; j < REQUESTS; j++) {
+                        final long start = System.nanoTime();
+                        try {
+                            if (new WebClient.Builder(getClientConfig()).build().getStatusCode() != HTTP_OK) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (final Exception e) {
+                            errors.incrementAndGet();
+                        }
+
+                        latencies.add(System.nanoTime() - start);
+                    }
+
+                    finished.countDown();
+                });
+            }
+            // Check test results
+            assertTrue(finished.await(10, TimeUnit.MINUTES));
+            assertEquals(0, errors.get());
+            final long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("Pool size: %d, virtual threads: %b, clients: %d, p50: %d ms, p99: %d ms%n",
+                    poolSize, isVirtual, CLIENTS, TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length / 2]),
+                    TimeUnit.NANOSECONDS.toMillis(sorted[(int) (sorted.length * 0.99)]));
+        } finally {
+            clients.shutdownNow();
+            server.stop();
+        }
+    }
+
+    private Config getClientConfig() {
+        final String names = new String(Base64.getEncoder().encode("[\"name\"]".getBytes()), StandardCharsets.UTF_8);
+        final Collection<Property> properties = new ArrayList<>(3);
+        properties.add(new Property.Builder(ACCEPT_ALL_HOSTS, true).build());
+        properties.add(new Property.Builder(URL, "https://localhost:" + PORT + "/api/metacfg/" + CONFIG_VALUE +
+                "?names=" + names).build());
+        properties.add(new Property.Builder(METHOD, GET).build());
+        return new Config.Builder(WebClient.Settings.CONFIG_NAME, properties).build();
+    }
+
+    private ConfigService getConfigService() {
+        // Every call simulates a slow data base
+        return (ConfigService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ConfigService.class},
+                (proxy, method, args) -> {
+                    Thread.sleep(DELAY);
+                    return method.getReturnType() == Stream.class ? Stream.empty() : null;
+                });
+    }
+}
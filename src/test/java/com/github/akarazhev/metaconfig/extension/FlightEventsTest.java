@@ -0,0 +1,86 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.extension;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Flight events test")
+final class FlightEventsTest {
+    private static final String QUERY = "com.github.akarazhev.metaconfig.ConfigQuery";
+    private static final String SAVE = "com.github.akarazhev.metaconfig.ConfigSave";
+    private static final String HTTP_REQUEST = "com.github.akarazhev.metaconfig.ConfigHttpRequest";
+
+    @Test
+    @DisplayName("Begin events without a recording")
+    void beginEventsWithoutRecording() {
+        // Check test results
+        assertFalse(FlightEvents.beginQuery().isEnabled());
+        assertFalse(FlightEvents.beginSave().isEnabled());
+        assertFalse(FlightEvents.beginHttpRequest().isEnabled());
+    }
+
+    @Test
+    @DisplayName("Commit events with a recording")
+    void commitEventsWithRecording() throws Exception {
+        final Path path = Files.createTempFile("metacfg4j", ".jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable(QUERY).withThreshold(Duration.ZERO);
+            recording.enable(SAVE).withThreshold(Duration.ZERO);
+            recording.enable(HTTP_REQUEST).withThreshold(Duration.ZERO);
+            recording.start();
+            final FlightEvents.Event query = FlightEvents.beginQuery();
+            assertTrue(query.isEnabled());
+            query.commitQuery("findByNames", 2, 10);
+            FlightEvents.beginSave().commitSave("saveAndFlush", 1, 3, 7);
+            FlightEvents.beginHttpRequest().commitHttpRequest("/api/metacfg/config", "GET", 200, 128);
+            recording.stop();
+            recording.dump(path);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+        Files.delete(path);
+        // Check test results
+        final RecordedEvent query = getEvent(events, QUERY);
+        assertEquals("findByNames", query.getString("operation"));
+        assertEquals(2, query.getInt("names"));
+        assertEquals(10, query.getLong("rows"));
+        final RecordedEvent save = getEvent(events, SAVE);
+        assertEquals("saveAndFlush", save.getString("operation"));
+        assertEquals(1, save.getInt("configs"));
+        assertEquals(3, save.getInt("properties"));
+        assertEquals(7, save.getLong("statements"));
+        final RecordedEvent request = getEvent(events, HTTP_REQUEST);
+        assertEquals("/api/metacfg/config", request.getString("endpoint"));
+        assertEquals("GET", request.getString("method"));
+        assertEquals(200, request.getInt("status"));
+        assertEquals(128, request.getLong("bytes"));
+    }
+
+    private RecordedEvent getEvent(final List<RecordedEvent> events, final String name) {
+        return events.stream().
+                filter(event -> name.equals(event.getEventType().getName())).
+                findFirst().
+                orElseThrow(() -> new AssertionError(name + " is not recorded"));
+    }
+}
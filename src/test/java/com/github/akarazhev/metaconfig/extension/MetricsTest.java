@@ -0,0 +1,104 @@
+/* Copyright 2019-2023 Andrey Karazhev
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. */
+package com.github.akarazhev.metaconfig.extension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Metrics test")
+final class MetricsTest {
+
+    @Test
+    @DisplayName("Count values")
+    void countValues() {
+        final Metrics.Counter counter = Metrics.getInstance().counter("test_count_values_total", "key", "value");
+        counter.increment();
+        counter.add(2);
+        // Check test results
+        assertEquals(3, counter.get());
+        assertSame(counter, Metrics.getInstance().counter("test_count_values_total", "key", "value"));
+    }
+
+    @Test
+    @DisplayName("Set gauge values")
+    void setGaugeValues() {
+        final Metrics.Gauge gauge = Metrics.getInstance().gauge("test_set_gauge_values_seconds");
+        gauge.set(1.5);
+        final double value = gauge.get();
+        gauge.set(() -> 2.5);
+        // Check test results
+        assertEquals(1.5, value);
+        assertEquals(2.5, gauge.get());
+        assertTrue(Metrics.getInstance().toString().contains("# TYPE test_set_gauge_values_seconds gauge\n" +
+                "test_set_gauge_values_seconds 2.5\n"));
+    }
+
+    @Test
+    @DisplayName("Record durations")
+    void recordDurations() {
+        final Metrics.Histogram histogram = Metrics.getInstance().histogram("test_record_durations_seconds");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        // Check test results
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500000L, histogram.getSum());
+        assertInRange(500000, histogram.getValueAtQuantile(0.5));
+        assertInRange(990000, histogram.getValueAtQuantile(0.99));
+        assertInRange(1000000, histogram.getValueAtQuantile(1));
+    }
+
+    @Test
+    @DisplayName("Record no durations")
+    void recordNoDurations() {
+        // Check test results
+        assertEquals(0, Metrics.getInstance().histogram("test_record_no_durations_seconds").getValueAtQuantile(0.5));
+    }
+
+    @Test
+    @DisplayName("Write metrics")
+    void writeMetrics() {
+        Metrics.getInstance().counter("test_write_metrics_total", "path", "a\"b").increment();
+        Metrics.getInstance().histogram("test_write_metrics_seconds").record(1_000_000_000L);
+        final String text = Metrics.getInstance().toString();
+        // Check test results
+        assertTrue(text.contains("# TYPE test_write_metrics_total counter\n"));
+        assertTrue(text.contains("test_write_metrics_total{path=\"a\\\"b\"} 1\n"));
+        assertTrue(text.contains("# TYPE test_write_metrics_seconds summary\n"));
+        assertTrue(text.contains("test_write_metrics_seconds{quantile=\"0.5\"} 1.0"));
+        assertTrue(text.contains("test_write_metrics_seconds_sum 1.0\n"));
+        assertTrue(text.contains("test_write_metrics_seconds_count 1\n"));
+    }
+
+    @Test
+    @DisplayName("Get a metric with another type")
+    void getMetricWithAnotherType() {
+        Metrics.getInstance().counter("test_another_type");
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> Metrics.getInstance().histogram("test_another_type"));
+    }
+
+    @Test
+    @DisplayName("Get a metric with wrong labels")
+    void getMetricWithWrongLabels() {
+        // Check test results
+        assertThrows(IllegalStateException.class, () -> Metrics.getInstance().counter("test_wrong_labels", "key"));
+    }
+
+    private void assertInRange(final long expected, final long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.0625, actual + " is not close to " + expected);
+    }
+}